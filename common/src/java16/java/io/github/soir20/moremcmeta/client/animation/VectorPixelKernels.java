@@ -0,0 +1,80 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link PixelKernels} that process several pixels per instruction with the incubating Vector API.
+ * This class is compiled for Java 16 and only loaded through {@link PixelKernels#create()}, so
+ * runtimes without the Vector API use the scalar kernels instead. Rows are still mixed by the scalar
+ * kernels: mixing in doubles needs lane conversions that made a vector mix slower than the scalar one
+ * in {@code PixelKernelsBenchmark}, and mixing in floats or integers would change the mixed colors.
+ * @author soir20
+ */
+public class VectorPixelKernels extends PixelKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Finds the next pixel in a row whose color is different from the pixel at the same
+     * position in another row.
+     * @param row           the row to search
+     * @param baseRow       the row to compare against
+     * @param fromIndex     index to start searching at (inclusive)
+     * @param length        number of pixels to compare, starting at the first pixel in each row
+     * @return  the index of the next different pixel or the length if all remaining pixels are equal
+     */
+    @Override
+    public int findNextChange(int[] row, int[] baseRow, int fromIndex, int length) {
+        requireNonNull(row, "Row cannot be null");
+        requireNonNull(baseRow, "Base row cannot be null");
+        checkLength(length, row);
+        checkLength(length, baseRow);
+
+        if (fromIndex < 0) {
+            throw new IllegalArgumentException("Index to search from cannot be negative");
+        }
+
+        int index = fromIndex;
+        int vectorBound = fromIndex + INTS.loopBound(Math.max(0, length - fromIndex));
+        for (; index < vectorBound; index += INTS.length()) {
+            IntVector colors = IntVector.fromArray(INTS, row, index);
+            IntVector baseColors = IntVector.fromArray(INTS, baseRow, index);
+
+            // Colors are equal if they are identical or both completely transparent
+            VectorMask<Integer> equal = colors.eq(baseColors)
+                    .or(colors.or(baseColors).lanewise(VectorOperators.LSHR, 24).eq(0));
+            if (!equal.allTrue()) {
+                return index + equal.not().firstTrue();
+            }
+        }
+
+        while (index < length && areColorsEqual(row[index], baseRow[index])) {
+            index++;
+        }
+
+        return Math.min(index, length);
+    }
+
+}
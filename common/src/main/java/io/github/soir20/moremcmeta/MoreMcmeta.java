@@ -17,15 +17,25 @@
 
 package io.github.soir20.moremcmeta;
 
+import com.google.common.collect.ImmutableList;
 import io.github.soir20.moremcmeta.client.adapter.AtlasAdapter;
 import io.github.soir20.moremcmeta.client.adapter.TextureManagerAdapter;
+import io.github.soir20.moremcmeta.client.animation.AdaptiveInterpolationPolicy;
 import io.github.soir20.moremcmeta.client.io.AnimatedTextureReader;
+import io.github.soir20.moremcmeta.client.io.AnimationSnapshot;
+import io.github.soir20.moremcmeta.client.resource.ReloadTracker;
 import io.github.soir20.moremcmeta.client.resource.SizeSwappingResourceManager;
+import io.github.soir20.moremcmeta.client.resource.StageTimings;
 import io.github.soir20.moremcmeta.client.resource.TextureLoader;
+import io.github.soir20.moremcmeta.client.texture.CustomTickable;
 import io.github.soir20.moremcmeta.client.texture.EventDrivenTexture;
 import io.github.soir20.moremcmeta.client.texture.LazyTextureManager;
+import io.github.soir20.moremcmeta.client.texture.NativeMemoryBudget;
 import io.github.soir20.moremcmeta.client.texture.SpriteFinder;
 import io.github.soir20.moremcmeta.client.texture.TextureFinisher;
+import io.github.soir20.moremcmeta.client.texture.TickPolicy;
+import io.github.soir20.moremcmeta.client.texture.UploadScheduler;
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.TextureManager;
 import net.minecraft.resources.ResourceLocation;
@@ -33,6 +43,7 @@ import net.minecraft.server.packs.resources.PreparableReloadListener;
 import net.minecraft.server.packs.resources.SimpleReloadableResourceManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lwjgl.glfw.GLFW;
 
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -43,6 +54,24 @@ import java.util.function.Consumer;
  * @author soir20
  */
 public abstract class MoreMcmeta {
+    private static final String MEMORY_BUDGET_PROPERTY = "moremcmeta.nativeMemoryBudgetMb";
+    private static final long DEFAULT_MEMORY_BUDGET_MB = 512;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+    private static final String PROTECTED_FRAMES_PROPERTY = "moremcmeta.evictionProtectedFrames";
+    private static final int DEFAULT_PROTECTED_FRAMES = 3;
+    private static final String LAZY_DECODE_PROPERTY = "moremcmeta.lazyDecode";
+    private static final String COMPACT_FRAMES_PROPERTY = "moremcmeta.compactFrames";
+    private static final String SNAPSHOT_PROPERTY = "moremcmeta.snapshot";
+    private static final String SNAPSHOT_FILE = "moremcmeta/animation-snapshot.bin";
+    private static final String FINISH_BUDGET_PROPERTY = "moremcmeta.finishBudgetMs";
+    private static final long DEFAULT_FINISH_BUDGET_MS = 5;
+    private static final long NANOS_PER_MS = 1000000;
+    private static final String UPLOAD_BUDGET_PROPERTY = "moremcmeta.uploadBudgetMs";
+    private static final long DEFAULT_UPLOAD_BUDGET_MS = 3;
+    private static final String INTERPOLATION_BUDGET_PROPERTY = "moremcmeta.interpolationBudgetMs";
+    private static final long DEFAULT_INTERPOLATION_BUDGET_MS = 4;
+    private static final String UNFOCUSED_INTERVAL_PROPERTY = "moremcmeta.unfocusedTickInterval";
+    private static final int DEFAULT_UNFOCUSED_INTERVAL = 4;
 
     /**
      * Begins the startup process, creating necessary objects and registering the
@@ -52,17 +81,72 @@ public abstract class MoreMcmeta {
         Minecraft minecraft = Minecraft.getInstance();
         Logger logger = LogManager.getLogger();
 
+        // Time spent in each stage is added up over a reload and logged when it finishes
+        StageTimings timings = new StageTimings();
+
+        // Images loaded lazily or after eviction are not part of a reload, so their time is reported separately
+        StageTimings lazyTimings = new StageTimings("Lazy texture load stage timings");
+
         // Texture manager
+        long budgetBytes = Long.getLong(MEMORY_BUDGET_PROPERTY, DEFAULT_MEMORY_BUDGET_MB) * BYTES_PER_MB;
+        int protectedFrames = Integer.getInteger(PROTECTED_FRAMES_PROPERTY, DEFAULT_PROTECTED_FRAMES);
+        NativeMemoryBudget budget = new NativeMemoryBudget(budgetBytes, protectedFrames, logger);
         SpriteFinder spriteFinder = new SpriteFinder(AtlasAdapter::new);
-        TextureFinisher finisher = new TextureFinisher(spriteFinder);
+        long uploadBudgetNanos = Long.getLong(UPLOAD_BUDGET_PROPERTY, DEFAULT_UPLOAD_BUDGET_MS) * NANOS_PER_MS;
+        UploadScheduler uploadScheduler = new UploadScheduler(uploadBudgetNanos, logger);
+        TextureFinisher finisher = new TextureFinisher.Builder(spriteFinder)
+                .setBudget(budget)
+                .setTimings(timings)
+                .setUploadScheduler(uploadScheduler)
+                .build();
+
+        // Resource loaders
+        AnimationSnapshot snapshot = Boolean.getBoolean(SNAPSHOT_PROPERTY)
+                ? new AnimationSnapshot(minecraft.gameDirectory.toPath().resolve(SNAPSHOT_FILE), logger)
+                : null;
+
+        // Interpolated animations are degraded while interpolating takes longer than the budget in each frame
+        long interpolationBudgetNanos = Long.getLong(INTERPOLATION_BUDGET_PROPERTY, DEFAULT_INTERPOLATION_BUDGET_MS)
+                * NANOS_PER_MS;
+        AdaptiveInterpolationPolicy interpolationPolicy = new AdaptiveInterpolationPolicy(interpolationBudgetNanos);
+
+        AnimatedTextureReader.Builder readerBuilder = new AnimatedTextureReader.Builder(logger)
+                .setTimings(timings)
+                .setLazyTimings(lazyTimings)
+                .setInterpolationPolicy(interpolationPolicy)
+                .setReloadExecutor(Util.backgroundExecutor());
+
+        // Compact frames are expanded for every pixel read and upload, so they trade frame time for memory
+        if (Boolean.getBoolean(COMPACT_FRAMES_PROPERTY)) {
+            readerBuilder.setCompactFrames(true);
+        }
+
+        if (snapshot != null) {
+            snapshot.load();
+            readerBuilder.setLazyLoadExecutor(Util.backgroundExecutor()).setSnapshot(snapshot);
+        } else if (Boolean.getBoolean(LAZY_DECODE_PROPERTY)) {
+
+            // Lazily decoded textures are not shown until they finish decoding, so lazy decoding is opt-in
+            readerBuilder.setLazyLoadExecutor(Util.backgroundExecutor());
+        }
+
+        AnimatedTextureReader reader = readerBuilder.build();
+
+        // The manager advances all animations from the reader together before ticking their textures
+        long finishBudgetNanos = Long.getLong(FINISH_BUDGET_PROPERTY, DEFAULT_FINISH_BUDGET_MS) * NANOS_PER_MS;
         LazyTextureManager<EventDrivenTexture.Builder, EventDrivenTexture> manager = new LazyTextureManager<>(
                 new TextureManagerAdapter(minecraft::getTextureManager, getUnregisterAction()),
-                finisher
+                finisher,
+                finishBudgetNanos,
+                reader.getAnimationStates()
         );
 
-        // Resource loaders
-        AnimatedTextureReader reader = new AnimatedTextureReader(logger);
-        TextureLoader<EventDrivenTexture.Builder> loader = new TextureLoader<>(reader, logger);
+        // Textures from a reload that is superseded by a newer one are discarded
+        ReloadTracker reloadTracker = new ReloadTracker();
+        TextureLoader<EventDrivenTexture.Builder> loader = new TextureLoader.Builder<>(reader, logger)
+                .setTimings(timings)
+                .setReloadTracker(reloadTracker)
+                .build();
 
         // Listener registration and resource manager replacement
         onResourceManagerInitialized((client) -> {
@@ -80,11 +164,48 @@ public abstract class MoreMcmeta {
             rscManager.registerReloadListener(makeListener(manager, loader, logger));
             logger.debug("Added texture reload listener");
 
-            replaceResourceManager(client, new SizeSwappingResourceManager(rscManager, manager::finishQueued), logger);
+            Runnable reloadCallback = () -> {
+                manager.finishQueued();
+                timings.logSummary(logger);
+                lazyTimings.logSummary(logger);
+
+                // Interpolation images for frame sizes that are no longer animated go back to the pool
+                reader.getInterpolationBuffers().trimUnused();
+
+                // Images the previous reload returned to the pool and this one did not reuse are freed
+                reader.getImagePool().trimUnused();
+                reader.getImagePool().logSummary(logger);
+
+                // Textures replaced by this reload have closed, so any of their images still tracked were leaked
+                reader.getAllocationTracker().logSummary(logger);
+
+                if (snapshot != null) {
+                    Util.backgroundExecutor().execute(snapshot::save);
+                }
+            };
+
+            replaceResourceManager(client, new SizeSwappingResourceManager(rscManager, reloadCallback, reloadTracker),
+                    logger);
         });
 
-        // Enable animation by ticking the manager
-        startTicking(manager);
+        // Animations stop while the game is paused or minimized and slow down while it is unfocused
+        TickPolicy tickPolicy = new TickPolicy(
+                () -> minecraft.isPaused() || GLFW.glfwGetWindowAttrib(minecraft.getWindow().getWindow(),
+                        GLFW.GLFW_ICONIFIED) == GLFW.GLFW_TRUE,
+                minecraft::isWindowActive,
+                Integer.getInteger(UNFOCUSED_INTERVAL_PROPERTY, DEFAULT_UNFOCUSED_INTERVAL),
+                manager::tick
+        );
+
+        // Enable animation by ticking the manager after the time synced textures read is sampled
+        startTicking(ImmutableList.of(reader.getGameClock(), tickPolicy));
+
+        // Give uploads deferred from the last frame the first share of each frame's upload time
+        onFrameStart(uploadScheduler::startFrame);
+        onFrameStart(interpolationPolicy::startFrame);
+
+        // Textures bound in the last few frames are about to be drawn again, so they are not evicted
+        onFrameStart(budget::startFrame);
 
     }
 
@@ -122,9 +243,15 @@ public abstract class MoreMcmeta {
     public abstract void replaceResourceManager(Minecraft client, SizeSwappingResourceManager manager, Logger logger);
 
     /**
-     * Begins ticking the {@link LazyTextureManager} on a mod loader.
-     * @param texManager        the manager to begin ticking
+     * Begins ticking items, such as the {@link LazyTextureManager}, on a mod loader.
+     * @param tickables         the items to tick in order at the start of each client tick
+     */
+    public abstract void startTicking(ImmutableList<CustomTickable> tickables);
+
+    /**
+     * Executes an action at the start of every rendered frame on a mod loader.
+     * @param action        the action to execute on the render thread
      */
-    public abstract void startTicking(LazyTextureManager<EventDrivenTexture.Builder, EventDrivenTexture> texManager);
+    public abstract void onFrameStart(Runnable action);
 
 }
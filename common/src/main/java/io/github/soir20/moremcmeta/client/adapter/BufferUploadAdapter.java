@@ -0,0 +1,126 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.adapter;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import io.github.soir20.moremcmeta.client.texture.IBufferUploader;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Uploads contiguous pixels from a direct buffer to the currently-bound OpenGL texture,
+ * the same way a {@link com.mojang.blaze3d.platform.NativeImage} uploads its own pixels.
+ * @author soir20
+ */
+public class BufferUploadAdapter implements IBufferUploader {
+    private static final int GL_TEXTURE_2D = 3553;
+    private static final int GL_TEXTURE_MAG_FILTER = 10240;
+    private static final int GL_TEXTURE_MIN_FILTER = 10241;
+    private static final int GL_TEXTURE_WRAP_S = 10242;
+    private static final int GL_TEXTURE_WRAP_T = 10243;
+    private static final int GL_NEAREST = 9728;
+    private static final int GL_LINEAR = 9729;
+    private static final int GL_NEAREST_MIPMAP_LINEAR = 9986;
+    private static final int GL_LINEAR_MIPMAP_LINEAR = 9987;
+    private static final int GL_CLAMP = 10496;
+    private static final int GL_REPEAT = 10497;
+    private static final int GL_UNPACK_ROW_LENGTH = 3314;
+    private static final int GL_UNPACK_SKIP_ROWS = 3315;
+    private static final int GL_UNPACK_SKIP_PIXELS = 3316;
+    private static final int GL_UNPACK_ALIGNMENT = 3317;
+    private static final int GL_RGBA = 6408;
+    private static final int GL_UNSIGNED_BYTE = 5121;
+
+    private final boolean BLUR;
+    private final boolean CLAMP;
+
+    /**
+     * Creates a new uploader.
+     * @param blur      whether to blur uploaded images
+     * @param clamp     whether to clamp uploaded images
+     */
+    public BufferUploadAdapter(boolean blur, boolean clamp) {
+        BLUR = blur;
+        CLAMP = clamp;
+    }
+
+    /**
+     * Uploads the pixels in a direct buffer on the render thread.
+     * @param pixels        the pixels to upload. Must be a direct buffer in native byte order.
+     * @param width         width of the uploaded area in pixels
+     * @param height        height of the uploaded area in pixels
+     * @param mipmapLevel   mipmap level to upload to
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    @Override
+    public void upload(IntBuffer pixels, int width, int height, int mipmapLevel, int uploadX, int uploadY) {
+        requireNonNull(pixels, "Pixel buffer cannot be null");
+        if (!pixels.isDirect()) {
+            throw new IllegalArgumentException("Only direct buffers can be uploaded");
+        }
+
+        if (!RenderSystem.isOnRenderThreadOrInit()) {
+            RenderSystem.recordRenderCall(() -> uploadImmediately(pixels, width, height, mipmapLevel,
+                    uploadX, uploadY));
+        } else {
+            uploadImmediately(pixels, width, height, mipmapLevel, uploadX, uploadY);
+        }
+    }
+
+    /**
+     * Uploads the pixels in a direct buffer immediately.
+     * @param pixels        the pixels to upload
+     * @param width         width of the uploaded area in pixels
+     * @param height        height of the uploaded area in pixels
+     * @param mipmapLevel   mipmap level to upload to
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    private void uploadImmediately(IntBuffer pixels, int width, int height, int mipmapLevel,
+                                   int uploadX, int uploadY) {
+        boolean mipmap = mipmapLevel > 0;
+        if (BLUR) {
+            GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER,
+                    mipmap ? GL_LINEAR_MIPMAP_LINEAR : GL_LINEAR);
+            GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        } else {
+            GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER,
+                    mipmap ? GL_NEAREST_MIPMAP_LINEAR : GL_NEAREST);
+            GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        }
+
+        int wrap = CLAMP ? GL_CLAMP : GL_REPEAT;
+        GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, wrap);
+        GlStateManager._texParameter(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, wrap);
+
+        // The pixels are contiguous, so there is no row padding or skipped pixels
+        GlStateManager._pixelStore(GL_UNPACK_ROW_LENGTH, 0);
+        GlStateManager._pixelStore(GL_UNPACK_SKIP_PIXELS, 0);
+        GlStateManager._pixelStore(GL_UNPACK_SKIP_ROWS, 0);
+        GlStateManager._pixelStore(GL_UNPACK_ALIGNMENT, 4);
+
+        GlStateManager._texSubImage2D(GL_TEXTURE_2D, mipmapLevel, uploadX, uploadY, width, height,
+                GL_RGBA, GL_UNSIGNED_BYTE, MemoryUtil.memAddress(pixels));
+    }
+
+}
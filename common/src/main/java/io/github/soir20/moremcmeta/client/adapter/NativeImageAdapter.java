@@ -22,6 +22,10 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import io.github.soir20.moremcmeta.client.animation.RGBAInterpolator;
 import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
 
+import java.nio.IntBuffer;
+import java.util.Optional;
+import java.util.function.Supplier;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -30,7 +34,7 @@ import static java.util.Objects.requireNonNull;
  * @author soir20
  */
 public class NativeImageAdapter implements IRGBAImage {
-    private final NativeImage IMAGE;
+    private final Supplier<NativeImage> IMAGE;
     private final int X_OFFSET;
     private final int Y_OFFSET;
     private final int WIDTH;
@@ -39,7 +43,7 @@ public class NativeImageAdapter implements IRGBAImage {
     private final boolean BLUR;
     private final boolean CLAMP;
     private final boolean AUTO_CLOSE;
-    private final VisibleArea VISIBLE_AREA;
+    private final Supplier<VisibleArea> VISIBLE_AREA;
 
     /**
      * Creates a new {@link NativeImage} wrapper for part of an image.
@@ -57,7 +61,29 @@ public class NativeImageAdapter implements IRGBAImage {
     public NativeImageAdapter(NativeImage image, int xOffset, int yOffset, int width, int height,
                               int mipmapLevel, boolean blur, boolean clamp, boolean autoClose,
                               VisibleArea visibleArea) {
-        IMAGE = requireNonNull(image, "Image cannot be null");
+        this(wrap(image), xOffset, yOffset, width, height, mipmapLevel, blur, clamp, autoClose,
+                wrap(requireNonNull(visibleArea, "Visible area cannot be null")));
+    }
+
+    /**
+     * Creates a new wrapper for part of a {@link NativeImage} that may be replaced, such as an
+     * image that is evicted and reloaded. The image and its visible area are retrieved every
+     * time they are used, so they may also be loaded lazily.
+     * @param imageGetter   retrieves the image to wrap
+     * @param xOffset       horizontal offset of the image in a texture
+     * @param yOffset       vertical offset of the image in a texture
+     * @param width         width of the image
+     * @param height        height of the image
+     * @param mipmapLevel   mipmap level of the image
+     * @param blur          whether to blur this image
+     * @param clamp         whether to clamp this image
+     * @param autoClose     whether to automatically close this image
+     * @param visibleAreaGetter   retrieves the visible portions of this image
+     */
+    public NativeImageAdapter(Supplier<NativeImage> imageGetter, int xOffset, int yOffset, int width, int height,
+                              int mipmapLevel, boolean blur, boolean clamp, boolean autoClose,
+                              Supplier<VisibleArea> visibleAreaGetter) {
+        IMAGE = requireNonNull(imageGetter, "Image getter cannot be null");
         X_OFFSET = xOffset;
         Y_OFFSET = yOffset;
         WIDTH = width;
@@ -66,7 +92,7 @@ public class NativeImageAdapter implements IRGBAImage {
         BLUR = blur;
         CLAMP = clamp;
         AUTO_CLOSE = autoClose;
-        VISIBLE_AREA = requireNonNull(visibleArea, "Visible area cannot be null");
+        VISIBLE_AREA = requireNonNull(visibleAreaGetter, "Visible area getter cannot be null");
     }
 
     /**
@@ -76,7 +102,7 @@ public class NativeImageAdapter implements IRGBAImage {
      * @param mipmapLevel       mipmap level of the image
      */
     public NativeImageAdapter(NativeImage image, int mipmapLevel) {
-        IMAGE = requireNonNull(image, "Image cannot be null");
+        IMAGE = wrap(image);
         X_OFFSET = 0;
         Y_OFFSET = 0;
         WIDTH = image.getWidth();
@@ -85,7 +111,7 @@ public class NativeImageAdapter implements IRGBAImage {
         BLUR = false;
         CLAMP = false;
         AUTO_CLOSE = false;
-        VISIBLE_AREA = (new VisibleArea.Builder()).build();
+        VISIBLE_AREA = wrap((new VisibleArea.Builder()).build());
     }
 
     /**
@@ -96,7 +122,7 @@ public class NativeImageAdapter implements IRGBAImage {
      */
     @Override
     public int getPixel(int x, int y) {
-        return IMAGE.getPixelRGBA(x + X_OFFSET, y + Y_OFFSET);
+        return IMAGE.get().getPixelRGBA(x + X_OFFSET, y + Y_OFFSET);
     }
 
     /**
@@ -107,7 +133,51 @@ public class NativeImageAdapter implements IRGBAImage {
      */
     @Override
     public void setPixel(int x, int y, int color) {
-        IMAGE.setPixelRGBA(x + X_OFFSET, y + Y_OFFSET, color);
+        IMAGE.get().setPixelRGBA(x + X_OFFSET, y + Y_OFFSET, color);
+    }
+
+    /**
+     * Copies part of a row of the image into an array. The row is copied directly from the image's
+     * memory when it can be accessed.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       array to copy the pixels into, starting at its first element
+     * @param length    number of pixels to copy
+     */
+    @Override
+    public void getRow(int x, int y, int[] row, int length) {
+        NativeImage image = IMAGE.get();
+        Optional<IntBuffer> pixels = findRow(image, x, y, row, length);
+
+        if (pixels.isPresent()) {
+            pixels.get().get(row, 0, length);
+        } else {
+            for (int index = 0; index < length; index++) {
+                row[index] = image.getPixelRGBA(x + index + X_OFFSET, y + Y_OFFSET);
+            }
+        }
+    }
+
+    /**
+     * Sets the colors of part of a row of the image. The row is copied directly into the image's
+     * memory when it can be accessed.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       new colors of the pixels, starting at the array's first element
+     * @param length    number of pixels to set
+     */
+    @Override
+    public void setRow(int x, int y, int[] row, int length) {
+        NativeImage image = IMAGE.get();
+        Optional<IntBuffer> pixels = findRow(image, x, y, row, length);
+
+        if (pixels.isPresent()) {
+            pixels.get().put(row, 0, length);
+        } else {
+            for (int index = 0; index < length; index++) {
+                image.setPixelRGBA(x + index + X_OFFSET, y + Y_OFFSET, row[index]);
+            }
+        }
     }
 
     /**
@@ -134,7 +204,7 @@ public class NativeImageAdapter implements IRGBAImage {
      */
     @Override
     public VisibleArea getVisibleArea() {
-        return VISIBLE_AREA;
+        return VISIBLE_AREA.get();
     }
 
     /**
@@ -157,7 +227,55 @@ public class NativeImageAdapter implements IRGBAImage {
      * @return the original {@link NativeImage}
      */
     public NativeImage getImage() {
-        return IMAGE;
+        return IMAGE.get();
+    }
+
+    /**
+     * Wraps an image that will never be replaced.
+     * @param image     the image to wrap
+     * @return a getter that always returns the image
+     */
+    private static Supplier<NativeImage> wrap(NativeImage image) {
+        requireNonNull(image, "Image cannot be null");
+        return () -> image;
+    }
+
+    /**
+     * Wraps a visible area that will never be replaced.
+     * @param visibleArea   the visible area to wrap
+     * @return a getter that always returns the visible area
+     */
+    private static Supplier<VisibleArea> wrap(VisibleArea visibleArea) {
+        return () -> visibleArea;
+    }
+
+    /**
+     * Finds part of a row in an image's memory. Rows that are not entirely inside the image are
+     * not found, so they are copied one pixel at a time and fail the same way a single pixel would.
+     * @param image     the image that contains the row
+     * @param x         x-coordinate of the first pixel, relative to this adapter
+     * @param y         y-coordinate of the row, relative to this adapter
+     * @param row       array that holds the row's pixels
+     * @param length    number of pixels in the row
+     * @return a buffer positioned at the row's first pixel or empty if the row cannot be accessed directly
+     */
+    private Optional<IntBuffer> findRow(NativeImage image, int x, int y, int[] row, int length) {
+        requireNonNull(row, "Row cannot be null");
+        if (length < 0 || length > row.length) {
+            throw new IllegalArgumentException("Length must be between zero and the row's length");
+        }
+
+        int imageX = x + X_OFFSET;
+        int imageY = y + Y_OFFSET;
+        if (imageX < 0 || imageY < 0 || imageX + length > image.getWidth() || imageY >= image.getHeight()) {
+            return Optional.empty();
+        }
+
+        return NativeImagePixels.getPixels(image).map((buffer) -> {
+            IntBuffer pixels = buffer.asIntBuffer();
+            pixels.position(imageY * image.getWidth() + imageX);
+            return pixels;
+        });
     }
 
     /**
@@ -166,7 +284,7 @@ public class NativeImageAdapter implements IRGBAImage {
      * @param uploadY       vertical position to upload at
      */
     private void uploadImmediately(int uploadX, int uploadY) {
-        IMAGE.upload(
+        IMAGE.get().upload(
                 MIPMAP_LEVEL, uploadX, uploadY, X_OFFSET, Y_OFFSET,
                 WIDTH, HEIGHT, BLUR, CLAMP, MIPMAP_LEVEL > 0, AUTO_CLOSE
         );
@@ -0,0 +1,117 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.adapter;
+
+import com.mojang.blaze3d.platform.NativeImage;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Gives direct access to the memory behind a {@link NativeImage} so that whole images can be
+ * copied in bulk instead of one pixel at a time. Minecraft does not expose the address of an
+ * image's pixels, and its field name differs between mappings, so the field is found once by
+ * checking which address holds a pixel written to a probe image. Where it is not found, no
+ * access is given and callers copy pixels one at a time instead.
+ * @author soir20
+ */
+public class NativeImagePixels {
+    private static final int PROBE_WIDTH = 3;
+    private static final int PROBE_HEIGHT = 2;
+    private static final int PROBE_X = 2;
+    private static final int PROBE_Y = 1;
+    private static final int PROBE_COLOR = 0x12345678;
+
+    @Nullable
+    private static final Field ADDRESS_FIELD = findAddressField();
+
+    /**
+     * Gets a view of an RGBA image's pixels in row-major order. Each pixel is one little-endian int
+     * with the same value as {@link NativeImage#getPixelRGBA(int, int)}. The view is only valid
+     * until the image is closed.
+     * @param image     the image to access
+     * @return a view of the image's pixels or empty if the image's memory cannot be accessed
+     */
+    public static Optional<ByteBuffer> getPixels(NativeImage image) {
+        requireNonNull(image, "Image cannot be null");
+        if (ADDRESS_FIELD == null || image.format() != NativeImage.Format.RGBA) {
+            return Optional.empty();
+        }
+
+        long address;
+        try {
+            address = ADDRESS_FIELD.getLong(image);
+        } catch (IllegalAccessException err) {
+            return Optional.empty();
+        }
+
+        // Closed images have no memory
+        if (address == 0) {
+            return Optional.empty();
+        }
+
+        int bytes = image.getWidth() * image.getHeight() * NativeImage.Format.RGBA.components();
+        return Optional.of(MemoryUtil.memByteBuffer(address, bytes).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Finds the field that holds the address of an image's pixels. The only other long field
+     * in an image is its size, so that value is skipped before any address is read.
+     * @return the address field or null if it was not found
+     */
+    @Nullable
+    private static Field findAddressField() {
+
+        // Pixels are stored as native-order ints, and views are only little-endian
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            return null;
+        }
+
+        long size = (long) PROBE_WIDTH * PROBE_HEIGHT * NativeImage.Format.RGBA.components();
+        long probeOffset = (long) (PROBE_Y * PROBE_WIDTH + PROBE_X) * NativeImage.Format.RGBA.components();
+
+        try (NativeImage probe = new NativeImage(NativeImage.Format.RGBA, PROBE_WIDTH, PROBE_HEIGHT, true)) {
+            probe.setPixelRGBA(PROBE_X, PROBE_Y, PROBE_COLOR);
+
+            for (Field field : NativeImage.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType() != long.class) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                long address = field.getLong(probe);
+                if (address != 0 && address != size && MemoryUtil.memGetInt(address + probeOffset) == PROBE_COLOR) {
+                    return field;
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException err) {
+            return null;
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Monitors the time spent interpolating in each frame and degrades the most expensive interpolated
+ * animations when interpolation takes longer than its budget. Only the interpolation itself is timed,
+ * so frames that are slow for other reasons do not degrade animations. Degraded animations are
+ * restored one level at a time, most recently degraded first, once interpolation has stayed well
+ * under budget for a while.
+ * @author soir20
+ */
+public class AdaptiveInterpolationPolicy {
+    private static final int DEFAULT_RESTORE_FRAMES = 60;
+
+    private final long BUDGET_NANOS;
+    private final long HEADROOM_NANOS;
+    private final int RESTORE_FRAMES;
+    private final LongSupplier CLOCK;
+    private final Set<DegradableInterpolator<?>> INTERPOLATORS;
+    private final Deque<WeakReference<DegradableInterpolator<?>>> DEGRADED;
+
+    private int framesWithHeadroom;
+
+    /**
+     * Creates a new adaptive interpolation policy.
+     * @param budgetNanos       longest time interpolation can take in a frame before an animation is degraded
+     */
+    public AdaptiveInterpolationPolicy(long budgetNanos) {
+        this(budgetNanos, DEFAULT_RESTORE_FRAMES, System::nanoTime);
+    }
+
+    /**
+     * Creates a new adaptive interpolation policy.
+     * @param budgetNanos       longest time interpolation can take in a frame before an animation is degraded
+     * @param restoreFrames     number of consecutive frames whose interpolation must take at most three
+     *                          quarters of the budget before an animation is restored by one level
+     * @param clock             supplies the current time in nanoseconds to time interpolation with
+     */
+    public AdaptiveInterpolationPolicy(long budgetNanos, int restoreFrames, LongSupplier clock) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("Interpolation budget must be positive");
+        }
+
+        if (restoreFrames <= 0) {
+            throw new IllegalArgumentException("Restore frames must be positive");
+        }
+
+        BUDGET_NANOS = budgetNanos;
+        HEADROOM_NANOS = budgetNanos / 4 * 3;
+        RESTORE_FRAMES = restoreFrames;
+        CLOCK = requireNonNull(clock, "Clock cannot be null");
+
+        // Interpolators are dropped once their textures are no longer used
+        INTERPOLATORS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        DEGRADED = new ArrayDeque<>();
+    }
+
+    /**
+     * Wraps an interpolator so that this policy can degrade it. Thread-safe.
+     * @param interpolator      the interpolator to wrap
+     * @param <F>               animation frame type
+     * @return an interpolator managed by this policy
+     */
+    public <F> IInterpolator<F> wrap(IInterpolator<F> interpolator) {
+        DegradableInterpolator<F> degradable = new DegradableInterpolator<>(interpolator, CLOCK);
+        INTERPOLATORS.add(degradable);
+        return degradable;
+    }
+
+    /**
+     * Checks how long interpolation took in the last frame and degrades or restores an
+     * animation if necessary. Should be called at the start of every frame on the render thread.
+     */
+    public void startFrame() {
+        List<DegradableInterpolator<?>> interpolators;
+        synchronized (INTERPOLATORS) {
+            interpolators = new ArrayList<>(INTERPOLATORS);
+        }
+
+        // Only the last frame's interpolation cost is relevant, so each frame starts from zero
+        DegradableInterpolator<?> mostExpensive = null;
+        long highestCost = 0;
+        long interpolationNanos = 0;
+        for (DegradableInterpolator<?> interpolator : interpolators) {
+            long cost = interpolator.takeCost();
+            interpolationNanos += cost;
+
+            if (cost > highestCost && interpolator.getLevel() < DegradableInterpolator.MAX_LEVEL) {
+                mostExpensive = interpolator;
+                highestCost = cost;
+            }
+        }
+
+        if (interpolationNanos > BUDGET_NANOS) {
+            framesWithHeadroom = 0;
+
+            if (mostExpensive != null && mostExpensive.degrade()) {
+                DEGRADED.push(new WeakReference<>(mostExpensive));
+            }
+
+            return;
+        }
+
+        if (interpolationNanos > HEADROOM_NANOS) {
+            framesWithHeadroom = 0;
+            return;
+        }
+
+        framesWithHeadroom++;
+        if (framesWithHeadroom >= RESTORE_FRAMES) {
+            framesWithHeadroom = 0;
+            restoreLatest();
+        }
+    }
+
+    /**
+     * Gets the number of levels that animations are currently degraded by in total.
+     * @return total levels of degradation
+     */
+    public int getDegradedLevels() {
+        return (int) DEGRADED.stream().filter((reference) -> reference.get() != null).count();
+    }
+
+    /**
+     * Restores the most recently degraded animation that is still in use by one level.
+     */
+    private void restoreLatest() {
+        while (!DEGRADED.isEmpty()) {
+            DegradableInterpolator<?> interpolator = DEGRADED.pop().get();
+            if (interpolator != null && interpolator.restore()) {
+                return;
+            }
+        }
+    }
+
+}
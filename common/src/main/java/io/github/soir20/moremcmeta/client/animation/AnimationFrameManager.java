@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import io.github.soir20.moremcmeta.client.texture.CustomTickable;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.function.ToIntFunction;
 
 import static java.util.Objects.requireNonNull;
@@ -33,14 +34,26 @@ import static java.util.Objects.requireNonNull;
  */
 public class AnimationFrameManager<F> implements CustomTickable {
     private final ImmutableList<? extends F> FRAMES;
+
+    @Nullable
     private final ToIntFunction<F> FRAME_TIME_CALCULATOR;
 
     @Nullable
     private final IInterpolator<F> INTERPOLATOR;
 
+    @Nullable
+    private final AnimationTimeline TIMELINE;
+
     private int ticksInThisFrame;
     private int currentFrameIndex;
     private int currentFrameMaxTime;
+    private boolean hasFrameChanged;
+    private int shownFrameIndex;
+    private int shownBlendSteps;
+    private int shownBlendStep;
+
+    @Nullable
+    private long[] frameEndTimes;
 
     /**
      * Creates an animation frame manager that does not interpolate between frames.
@@ -55,6 +68,7 @@ public class AnimationFrameManager<F> implements CustomTickable {
         FRAMES = requireNonNull(frames, "Frames cannot be null");
         FRAME_TIME_CALCULATOR = requireNonNull(frameTimeCalculator, "Frame time calculator cannot be null");
         INTERPOLATOR = null;
+        TIMELINE = null;
 
         if (frames.size() == 0) {
             throw new IllegalArgumentException("Frames cannot have no frames");
@@ -78,6 +92,8 @@ public class AnimationFrameManager<F> implements CustomTickable {
         FRAMES = requireNonNull(frames, "Frames cannot be null");
         FRAME_TIME_CALCULATOR = requireNonNull(frameTimeCalculator, "Frame time calculator cannot be null");
         INTERPOLATOR = requireNonNull(interpolator, "Interpolator cannot be null");
+        shownFrameIndex = -1;
+        TIMELINE = null;
 
         if (frames.size() == 0) {
             throw new IllegalArgumentException("Frames cannot have no frames");
@@ -86,19 +102,68 @@ public class AnimationFrameManager<F> implements CustomTickable {
         currentFrameMaxTime = calcMaxFrameTime(0);
     }
 
+    /**
+     * Creates an animation frame manager that follows a shared timeline and does not interpolate
+     * between frames. The manager is not ticked itself; it moves whenever the timeline's bank is ticked.
+     * @param frames                frames of the animation. Must have the same number of
+     *                              frames as the timeline.
+     * @param timeline              timeline shared with other animations
+     */
+    public AnimationFrameManager(ImmutableList<? extends F> frames, AnimationTimeline timeline) {
+        FRAMES = requireNonNull(frames, "Frames cannot be null");
+        FRAME_TIME_CALCULATOR = null;
+        INTERPOLATOR = null;
+        TIMELINE = requireNonNull(timeline, "Timeline cannot be null");
+
+        if (frames.size() != timeline.getFrameCount()) {
+            throw new IllegalArgumentException("Frames must have the same number of frames as the timeline");
+        }
+    }
+
+    /**
+     * Creates an animation frame manager that follows a shared timeline and interpolates
+     * between frames. The manager is not ticked itself; it moves whenever the timeline's bank is ticked.
+     * @param frames                frames of the animation. Must have the same number of
+     *                              frames as the timeline.
+     * @param timeline              timeline shared with other animations
+     * @param interpolator          interpolates between frames of the animation
+     */
+    public AnimationFrameManager(ImmutableList<? extends F> frames, AnimationTimeline timeline,
+                                 IInterpolator<F> interpolator) {
+        FRAMES = requireNonNull(frames, "Frames cannot be null");
+        FRAME_TIME_CALCULATOR = null;
+        INTERPOLATOR = requireNonNull(interpolator, "Interpolator cannot be null");
+        shownFrameIndex = -1;
+        TIMELINE = requireNonNull(timeline, "Timeline cannot be null");
+
+        if (frames.size() != timeline.getFrameCount()) {
+            throw new IllegalArgumentException("Frames must have the same number of frames as the timeline");
+        }
+    }
+
     /**
      * Gets the current frame of the animation, which may be an interpolated frame.
      * @return  the current frame of the animation
      */
     public F getCurrentFrame() {
-        F currentPredefinedFrame = FRAMES.get(currentFrameIndex);
+        int frameIndex = getFrameIndex();
+        int ticksInFrame = TIMELINE == null ? ticksInThisFrame : TIMELINE.getTicksInFrame();
+
+        F currentPredefinedFrame = FRAMES.get(frameIndex);
         F currentFrame = currentPredefinedFrame;
 
         // Doing interpolation when the frame is retrieved ensures we don't interpolate when the frame isn't used
-        if (ticksInThisFrame > 0 && INTERPOLATOR != null) {
-            int nextFrameIndex = (currentFrameIndex + 1) % FRAMES.size();
-            currentFrame = INTERPOLATOR.interpolate(currentFrameMaxTime, ticksInThisFrame, currentPredefinedFrame,
-                    FRAMES.get(nextFrameIndex));
+        if (INTERPOLATOR != null) {
+            int frameTime = getFrameTime();
+            shownFrameIndex = frameIndex;
+            shownBlendStep = calcBlendStep(frameTime, ticksInFrame);
+            shownBlendSteps = calcBlendSteps(frameTime, shownBlendStep);
+
+            if (ticksInFrame > 0) {
+                int nextFrameIndex = (frameIndex + 1) % FRAMES.size();
+                currentFrame = INTERPOLATOR.interpolate(frameTime, ticksInFrame, currentPredefinedFrame,
+                        FRAMES.get(nextFrameIndex));
+            }
         }
 
         return currentFrame;
@@ -106,10 +171,16 @@ public class AnimationFrameManager<F> implements CustomTickable {
 
     /**
      * Moves the animation forward by one tick. Does not perform interpolation. Interpolation happens
-     * when {@link #getCurrentFrame()} is used to retrieve the current animation frame.
+     * when {@link #getCurrentFrame()} is used to retrieve the current animation frame. Does nothing
+     * if this manager follows a shared timeline, since the timeline's bank advances it once for all
+     * of the animations that follow it.
      */
     @Override
     public void tick() {
+        if (TIMELINE != null) {
+            return;
+        }
+
         ticksInThisFrame++;
         int nextFrameIndex = (currentFrameIndex + 1) % FRAMES.size();
 
@@ -117,6 +188,9 @@ public class AnimationFrameManager<F> implements CustomTickable {
             currentFrameIndex = nextFrameIndex;
             ticksInThisFrame = 0;
             currentFrameMaxTime = calcMaxFrameTime(currentFrameIndex);
+            hasFrameChanged = true;
+        } else {
+            hasFrameChanged = false;
         }
     }
 
@@ -126,12 +200,15 @@ public class AnimationFrameManager<F> implements CustomTickable {
      * Interpolation happens when {@link #getCurrentFrame()} is used to retrieve the current
      * animation frame.
      * @param ticks      how many ticks ahead to put the animation
+     * @throws UnsupportedOperationException if this manager follows a shared timeline
      */
     public void tick(int ticks) {
         if (ticks < 0) {
             throw new IllegalArgumentException("Ticks cannot be less than zero");
         }
 
+        checkNotShared();
+
         // Calculate the predefined frame in the animation at the given tick
         int timeLeftUntilTick = ticksInThisFrame + ticks;
         int frameIndex = currentFrameIndex;
@@ -144,9 +221,129 @@ public class AnimationFrameManager<F> implements CustomTickable {
             frameTime = calcMaxFrameTime(frameIndex);
         }
 
+        updatePosition(frameIndex, timeLeftUntilTick, frameTime);
+    }
+
+    /**
+     * Puts the animation at the given number of ticks after the start of its first frame,
+     * regardless of its current position. Unlike {@link #tick(int)}, the time this takes does not
+     * depend on how far the animation moves. Like {@link #tick()}, this method does not perform
+     * interpolation. Interpolation happens when {@link #getCurrentFrame()} is used to retrieve
+     * the current animation frame.
+     * @param ticks     ticks since the start of the animation
+     * @throws UnsupportedOperationException if this manager follows a shared timeline
+     */
+    public void jumpTo(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks cannot be less than zero");
+        }
+
+        checkNotShared();
+
+        // The frame times are only calculated once since the whole loop is needed for each jump
+        if (frameEndTimes == null) {
+            long[] endTimes = new long[FRAMES.size()];
+            long totalTime = 0;
+            for (int frameIndex = 0; frameIndex < endTimes.length; frameIndex++) {
+                totalTime += calcMaxFrameTime(frameIndex);
+                endTimes[frameIndex] = totalTime;
+            }
+
+            frameEndTimes = endTimes;
+        }
+
+        long loopTime = frameEndTimes[frameEndTimes.length - 1];
+        long timeInLoop = ticks % loopTime;
+
+        // When the time is equal to a frame's end time, the tick is at the start of the next frame
+        int searchResult = Arrays.binarySearch(frameEndTimes, timeInLoop);
+        int frameIndex = searchResult >= 0 ? searchResult + 1 : -searchResult - 1;
+        long frameStartTime = frameIndex == 0 ? 0 : frameEndTimes[frameIndex - 1];
+
+        updatePosition(frameIndex, (int) (timeInLoop - frameStartTime),
+                (int) (frameEndTimes[frameIndex] - frameStartTime));
+    }
+
+    /**
+     * Checks whether the frame returned by {@link #getCurrentFrame()} may have changed. Predefined
+     * frames only change when the animation was last moved to a different frame. Interpolated
+     * frames change when the animation is at a different blend than the frame last returned by
+     * {@link #getCurrentFrame()}, so an interpolator that creates fewer blends than there are
+     * ticks in a frame does not change the frame in every tick.
+     * @return whether the current frame may have changed
+     */
+    public boolean hasFrameChanged() {
+        if (INTERPOLATOR != null) {
+            int frameTime = getFrameTime();
+            int blendStep = calcBlendStep(frameTime,
+                    TIMELINE == null ? ticksInThisFrame : TIMELINE.getTicksInFrame());
+
+            return getFrameIndex() != shownFrameIndex || blendStep != shownBlendStep
+                    || calcBlendSteps(frameTime, blendStep) != shownBlendSteps;
+        }
+
+        return TIMELINE == null ? hasFrameChanged : TIMELINE.hasFrameChanged();
+    }
+
+    /**
+     * Moves the animation to a new position and records whether its current frame changed.
+     * @param frameIndex        index of the new frame
+     * @param ticksInFrame      ticks since the new frame started
+     * @param frameMaxTime      total time of the new frame
+     */
+    private void updatePosition(int frameIndex, int ticksInFrame, int frameMaxTime) {
+        hasFrameChanged = frameIndex != currentFrameIndex;
+
         currentFrameIndex = frameIndex;
-        currentFrameMaxTime = frameTime;
-        ticksInThisFrame = timeLeftUntilTick;
+        currentFrameMaxTime = frameMaxTime;
+        ticksInThisFrame = ticksInFrame;
+    }
+
+    /**
+     * Gets the index of the animation's current frame.
+     * @return the index of the current frame
+     */
+    private int getFrameIndex() {
+        return TIMELINE == null ? currentFrameIndex : TIMELINE.getFrameIndex();
+    }
+
+    /**
+     * Gets the total time of the animation's current frame.
+     * @return the current frame's time
+     */
+    private int getFrameTime() {
+        return TIMELINE == null ? currentFrameMaxTime : TIMELINE.getFrameTime();
+    }
+
+    /**
+     * Calculates the step of the blend the interpolator creates at a position in a frame.
+     * @param frameTime         total time of the frame
+     * @param ticksInFrame      ticks since the frame started
+     * @return the step of the blend, or 0 if the predefined frame is shown
+     */
+    private int calcBlendStep(int frameTime, int ticksInFrame) {
+        return ticksInFrame > 0 ? INTERPOLATOR.getBlendStep(frameTime, ticksInFrame) : 0;
+    }
+
+    /**
+     * Calculates the number of steps in the blends the interpolator creates for a frame.
+     * @param frameTime         total time of the frame
+     * @param blendStep         step of the current blend
+     * @return the number of steps in the blends, or 0 if the predefined frame is shown
+     */
+    private int calcBlendSteps(int frameTime, int blendStep) {
+        return blendStep > 0 ? INTERPOLATOR.getBlendSteps(frameTime) : 0;
+    }
+
+    /**
+     * Checks that this manager does not follow a shared timeline, which only moves
+     * when its bank is ticked.
+     * @throws UnsupportedOperationException if this manager follows a shared timeline
+     */
+    private void checkNotShared() {
+        if (TIMELINE != null) {
+            throw new UnsupportedOperationException("Animations that follow a shared timeline cannot be moved");
+        }
     }
 
     /**
@@ -0,0 +1,278 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.texture.CustomTickable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores the position of many animations in parallel arrays so that all of them can be
+ * advanced in a single loop. Each animation is accessed through an {@link AnimationTimeline}.
+ * An animation's slot is reused once its timeline is released by everything that uses it.
+ * @author soir20
+ */
+public class AnimationStateBank implements CustomTickable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Deque<Integer> FREE_SLOTS;
+
+    private AnimationTimeline[] timelines;
+    private boolean[] isActive;
+    private int[][] frameTimes;
+    private long[] loopLengths;
+    private int[] frameIndices;
+    private int[] ticksInFrames;
+    private int[] currentFrameTimes;
+    private boolean[] hasFrameChanged;
+    private int[] changedSlots;
+    private int changedCount;
+    private int slotCount;
+
+    /**
+     * Creates a new bank with no animations.
+     */
+    public AnimationStateBank() {
+        FREE_SLOTS = new ArrayDeque<>();
+
+        timelines = new AnimationTimeline[INITIAL_CAPACITY];
+        isActive = new boolean[INITIAL_CAPACITY];
+        frameTimes = new int[INITIAL_CAPACITY][];
+        loopLengths = new long[INITIAL_CAPACITY];
+        frameIndices = new int[INITIAL_CAPACITY];
+        ticksInFrames = new int[INITIAL_CAPACITY];
+        currentFrameTimes = new int[INITIAL_CAPACITY];
+        hasFrameChanged = new boolean[INITIAL_CAPACITY];
+        changedSlots = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds an animation that starts at the beginning of its first frame. The caller holds the
+     * returned timeline and must {@link AnimationTimeline#release() release} it once the animation
+     * is no longer used. Thread-safe.
+     * @param frameTimes        time of each frame in the animation. Must not be empty,
+     *                          and all frame times must be greater than 0.
+     * @return the timeline to access the animation's position with
+     */
+    public synchronized AnimationTimeline add(ImmutableList<Integer> frameTimes) {
+        requireNonNull(frameTimes, "Frame times cannot be null");
+
+        if (frameTimes.isEmpty()) {
+            throw new IllegalArgumentException("Frame times cannot have no frames");
+        }
+
+        if (frameTimes.stream().anyMatch((time) -> time == null || time <= 0)) {
+            throw new IllegalArgumentException("Frame times must be greater than 0");
+        }
+
+        int slot;
+        if (FREE_SLOTS.isEmpty()) {
+            if (slotCount == timelines.length) {
+                grow();
+            }
+
+            slot = slotCount++;
+        } else {
+            slot = FREE_SLOTS.pop();
+        }
+
+        AnimationTimeline timeline = new AnimationTimeline(this, slot, frameTimes);
+        timelines[slot] = timeline;
+        isActive[slot] = true;
+        this.frameTimes[slot] = frameTimes.stream().mapToInt(Integer::intValue).toArray();
+        loopLengths[slot] = frameTimes.stream().mapToLong(Integer::longValue).sum();
+        frameIndices[slot] = 0;
+        ticksInFrames[slot] = 0;
+        currentFrameTimes[slot] = frameTimes.get(0);
+        hasFrameChanged[slot] = false;
+
+        return timeline;
+    }
+
+    /**
+     * Moves all animations in this bank forward by one tick.
+     */
+    @Override
+    public void tick() {
+        tick(1);
+    }
+
+    /**
+     * Moves all animations in this bank forward by several ticks at once. An animation's
+     * frame is considered changed if it ends on a different frame than it started on, so whole
+     * loops of an animation do not change its frame. The slots of
+     * changed animations are kept until the next tick so they can be visited with
+     * {@link #forEachChanged(Consumer)}.
+     * @param ticks     number of ticks to advance. Must be at least 1.
+     */
+    public synchronized void tick(int ticks) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Ticks must be at least 1");
+        }
+
+        changedCount = 0;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isActive[slot]) {
+                continue;
+            }
+
+            int frameTime = currentFrameTimes[slot];
+            if (ticksInFrames[slot] + (long) ticks < frameTime) {
+                ticksInFrames[slot] += ticks;
+                hasFrameChanged[slot] = false;
+                continue;
+            }
+
+            // Whole loops of the animation do not change its position
+            long ticksInFrame = ticksInFrames[slot] + ticks % loopLengths[slot];
+            int[] times = frameTimes[slot];
+            int frameIndex = frameIndices[slot];
+            while (ticksInFrame >= frameTime) {
+                ticksInFrame -= frameTime;
+                frameIndex++;
+                if (frameIndex == times.length) {
+                    frameIndex = 0;
+                }
+
+                frameTime = times[frameIndex];
+            }
+
+            hasFrameChanged[slot] = frameIndex != frameIndices[slot];
+            if (hasFrameChanged[slot]) {
+                changedSlots[changedCount++] = slot;
+            }
+
+            frameIndices[slot] = frameIndex;
+            ticksInFrames[slot] = (int) ticksInFrame;
+            currentFrameTimes[slot] = frameTime;
+        }
+    }
+
+    /**
+     * Visits the timeline of every animation whose frame changed in the last tick, without
+     * visiting the animations that did not change. Should only be called on the thread that
+     * ticks this bank.
+     * @param action        action to perform on each changed timeline
+     */
+    public synchronized void forEachChanged(Consumer<AnimationTimeline> action) {
+        requireNonNull(action, "Action cannot be null");
+
+        for (int index = 0; index < changedCount; index++) {
+            AnimationTimeline timeline = timelines[changedSlots[index]];
+
+            // The timeline may have been released since the last tick
+            if (timeline != null) {
+                action.accept(timeline);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a timeline's position is stored in this bank.
+     * @param timeline      timeline to check
+     * @return whether this bank advances the timeline
+     */
+    public boolean contains(AnimationTimeline timeline) {
+        requireNonNull(timeline, "Timeline cannot be null");
+        return timeline.isStoredIn(this);
+    }
+
+    /**
+     * Gets the number of animations in this bank that are still in use.
+     * @return the number of animations in use
+     */
+    public synchronized int getActiveCount() {
+        return slotCount - FREE_SLOTS.size();
+    }
+
+    /**
+     * Gets the index of an animation's current frame. Should only be called on the
+     * thread that ticks this bank.
+     * @param slot      the animation's slot
+     * @return the index of the current frame
+     */
+    int getFrameIndex(int slot) {
+        return frameIndices[slot];
+    }
+
+    /**
+     * Gets the number of ticks since an animation's current frame started. Should only be
+     * called on the thread that ticks this bank.
+     * @param slot      the animation's slot
+     * @return ticks spent in the current frame
+     */
+    int getTicksInFrame(int slot) {
+        return ticksInFrames[slot];
+    }
+
+    /**
+     * Gets the total time of an animation's current frame. Should only be called on the
+     * thread that ticks this bank.
+     * @param slot      the animation's slot
+     * @return the current frame's time
+     */
+    int getFrameTime(int slot) {
+        return currentFrameTimes[slot];
+    }
+
+    /**
+     * Checks whether an animation moved to a different frame in the last tick. Should only be
+     * called on the thread that ticks this bank.
+     * @param slot      the animation's slot
+     * @return whether the animation's frame changed in the last tick
+     */
+    boolean hasFrameChanged(int slot) {
+        return hasFrameChanged[slot];
+    }
+
+    /**
+     * Frees an animation's slot so that it can be reused by another animation. Called once
+     * the animation's timeline has been released by everything that uses it. Thread-safe.
+     * @param slot      the animation's slot
+     */
+    synchronized void free(int slot) {
+        timelines[slot] = null;
+        isActive[slot] = false;
+        frameTimes[slot] = null;
+        FREE_SLOTS.push(slot);
+    }
+
+    /**
+     * Doubles the capacity of all the arrays in this bank.
+     */
+    private void grow() {
+        int capacity = timelines.length * 2;
+        timelines = Arrays.copyOf(timelines, capacity);
+        isActive = Arrays.copyOf(isActive, capacity);
+        frameTimes = Arrays.copyOf(frameTimes, capacity);
+        loopLengths = Arrays.copyOf(loopLengths, capacity);
+        frameIndices = Arrays.copyOf(frameIndices, capacity);
+        ticksInFrames = Arrays.copyOf(ticksInFrames, capacity);
+        currentFrameTimes = Arrays.copyOf(currentFrameTimes, capacity);
+        hasFrameChanged = Arrays.copyOf(hasFrameChanged, capacity);
+        changedSlots = Arrays.copyOf(changedSlots, capacity);
+    }
+
+}
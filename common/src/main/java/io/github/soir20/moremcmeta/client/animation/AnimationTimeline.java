@@ -0,0 +1,138 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Provides the current frame and the time spent in it for any number of animations with the
+ * same frame times. The position is stored in an {@link AnimationStateBank}, which advances it
+ * once for all of the animations that follow this timeline. A timeline keeps its slot in the bank
+ * until everything that holds it has released it.
+ * @author soir20
+ */
+public class AnimationTimeline {
+    private final AnimationStateBank BANK;
+    private final int SLOT;
+    private final ImmutableList<Integer> FRAME_TIMES;
+    private int holders;
+
+    /**
+     * Creates a new timeline for a slot in a bank.
+     * @param bank          the bank that stores this timeline's position
+     * @param slot          this timeline's slot in the bank
+     * @param frameTimes    time of each frame in the animation
+     */
+    AnimationTimeline(AnimationStateBank bank, int slot, ImmutableList<Integer> frameTimes) {
+        BANK = bank;
+        SLOT = slot;
+        FRAME_TIMES = frameTimes;
+        holders = 1;
+    }
+
+    /**
+     * Checks whether this timeline has the given frame times.
+     * @param frameTimes        frame times to compare to
+     * @return whether the frame times are the same as this timeline's
+     */
+    public boolean hasFrameTimes(ImmutableList<Integer> frameTimes) {
+        return FRAME_TIMES.equals(frameTimes);
+    }
+
+    /**
+     * Gets the number of frames in this timeline.
+     * @return the number of frames
+     */
+    public int getFrameCount() {
+        return FRAME_TIMES.size();
+    }
+
+    /**
+     * Gets the index of the current frame.
+     * @return the index of the current frame
+     */
+    public int getFrameIndex() {
+        return BANK.getFrameIndex(SLOT);
+    }
+
+    /**
+     * Gets the number of ticks since the current frame started.
+     * @return ticks spent in the current frame
+     */
+    public int getTicksInFrame() {
+        return BANK.getTicksInFrame(SLOT);
+    }
+
+    /**
+     * Gets the total time of the current frame.
+     * @return the current frame's time
+     */
+    public int getFrameTime() {
+        return BANK.getFrameTime(SLOT);
+    }
+
+    /**
+     * Checks whether this timeline moved to a different frame in the last tick.
+     * @return whether the frame changed in the last tick
+     */
+    public boolean hasFrameChanged() {
+        return BANK.hasFrameChanged(SLOT);
+    }
+
+    /**
+     * Releases this timeline for one of its holders. The timeline's slot is freed for
+     * another animation once all of its holders have released it. Thread-safe.
+     * @throws IllegalStateException if every holder has already released this timeline
+     */
+    public void release() {
+        synchronized (this) {
+            if (holders == 0) {
+                throw new IllegalStateException("Timeline has already been released");
+            }
+
+            holders--;
+            if (holders > 0) {
+                return;
+            }
+        }
+
+        BANK.free(SLOT);
+    }
+
+    /**
+     * Adds another holder of this timeline, which must release it separately. Thread-safe.
+     * @throws IllegalStateException if every holder has already released this timeline
+     */
+    synchronized void retain() {
+        if (holders == 0) {
+            throw new IllegalStateException("Timeline has already been released");
+        }
+
+        holders++;
+    }
+
+    /**
+     * Checks whether this timeline's position is stored in a bank.
+     * @param bank      bank to check
+     * @return whether the bank stores this timeline's position
+     */
+    boolean isStoredIn(AnimationStateBank bank) {
+        return BANK == bank;
+    }
+
+}
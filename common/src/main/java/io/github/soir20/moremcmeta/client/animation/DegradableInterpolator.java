@@ -0,0 +1,189 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Interpolates between frames with a cost that can be lowered temporarily. Each degradation
+ * level halves the number of distinct blend steps between two frames, and the last level only
+ * shows the predefined frames. Blends that are reused because of a lower step count are not
+ * recalculated. The frames returned by this interpolator are the same as the frames returned
+ * by the interpolator it wraps.
+ * @param <F>   animation frame type
+ * @author soir20
+ */
+public class DegradableInterpolator<F> implements IInterpolator<F> {
+    private static final int[] BLEND_STEP_LIMITS = {Integer.MAX_VALUE, 8, 4, 2, 0};
+    static final int MAX_LEVEL = BLEND_STEP_LIMITS.length - 1;
+
+    private final IInterpolator<F> DELEGATE;
+    private final LongSupplier CLOCK;
+
+    private int level;
+    private long costNanos;
+
+    @Nullable
+    private F lastStart;
+
+    @Nullable
+    private F lastEnd;
+
+    @Nullable
+    private F lastResult;
+
+    private int lastSteps;
+    private int lastStep;
+
+    /**
+     * Creates a new degradable interpolator at full quality.
+     * @param delegate      interpolator that creates the blended frames
+     * @param clock         supplies the current time in nanoseconds to measure the cost of interpolation
+     */
+    public DegradableInterpolator(IInterpolator<F> delegate, LongSupplier clock) {
+        DELEGATE = requireNonNull(delegate, "Delegate interpolator cannot be null");
+        CLOCK = requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Creates a frame between two other frames at a certain step. The step may be rounded
+     * down to a coarser step if this interpolator is degraded.
+     * @param steps     total number of steps to interpolate
+     * @param step      current step of the interpolation (between 1 and steps - 1)
+     * @param start     frame to start interpolation from
+     * @param end       frame to end interpolation at
+     * @return  the interpolated frame at the given step, or the start frame if
+     *          the coarser step is the start of the interpolation
+     */
+    @Override
+    public F interpolate(int steps, int step, F start, F end) {
+        requireNonNull(start, "Start frame cannot be null");
+        requireNonNull(end, "End frame cannot be null");
+
+        int reducedSteps = getBlendSteps(steps);
+        int reducedStep = getBlendStep(steps, step);
+
+        if (reducedStep == 0) {
+            return start;
+        }
+
+        boolean isSameBlend = start == lastStart && end == lastEnd
+                && reducedSteps == lastSteps && reducedStep == lastStep;
+        if (level > 0 && isSameBlend && lastResult != null && DELEGATE.isLastResultIntact()) {
+            return lastResult;
+        }
+
+        long startTime = CLOCK.getAsLong();
+        F result = DELEGATE.interpolate(reducedSteps, reducedStep, start, end);
+        costNanos += CLOCK.getAsLong() - startTime;
+
+        lastStart = start;
+        lastEnd = end;
+        lastSteps = reducedSteps;
+        lastStep = reducedStep;
+        lastResult = result;
+
+        return result;
+    }
+
+    /**
+     * Gets the number of steps in the blends that this interpolator creates at its current
+     * degradation level.
+     * @param steps     total number of steps to interpolate
+     * @return the number of steps in the blends that are created
+     */
+    @Override
+    public int getBlendSteps(int steps) {
+        int blendStepLimit = BLEND_STEP_LIMITS[level];
+        return steps - 1 > blendStepLimit ? blendStepLimit + 1 : steps;
+    }
+
+    /**
+     * Gets the step of the blend that this interpolator creates at its current degradation level.
+     * The step is rounded down to a coarser step if this interpolator is degraded.
+     * @param steps     total number of steps to interpolate
+     * @param step      current step of the interpolation (between 1 and steps - 1)
+     * @return the step of the blend created at the given step, or 0 if the start frame is returned
+     */
+    @Override
+    public int getBlendStep(int steps, int step) {
+        int reducedSteps = getBlendSteps(steps);
+        return reducedSteps == steps ? step : (int) ((long) step * reducedSteps / steps);
+    }
+
+    /**
+     * Checks whether the last frame returned by the wrapped interpolator still holds the colors
+     * it was interpolated with.
+     * @return whether the last interpolated frame is unchanged
+     */
+    @Override
+    public boolean isLastResultIntact() {
+        return DELEGATE.isLastResultIntact();
+    }
+
+    /**
+     * Gets the current degradation level of this interpolator. Level 0 is full quality.
+     * @return the current degradation level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Lowers the quality of this interpolator by one level if it is not already showing
+     * only the predefined frames.
+     * @return whether the quality was lowered
+     */
+    public boolean degrade() {
+        if (level == MAX_LEVEL) {
+            return false;
+        }
+
+        level++;
+        return true;
+    }
+
+    /**
+     * Raises the quality of this interpolator by one level if it is not already at full quality.
+     * @return whether the quality was raised
+     */
+    public boolean restore() {
+        if (level == 0) {
+            return false;
+        }
+
+        level--;
+        lastResult = null;
+        return true;
+    }
+
+    /**
+     * Gets the time spent interpolating since this method was last called.
+     * @return time spent interpolating in nanoseconds
+     */
+    long takeCost() {
+        long cost = costNanos;
+        costNanos = 0;
+        return cost;
+    }
+
+}
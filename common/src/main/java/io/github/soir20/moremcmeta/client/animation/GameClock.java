@@ -0,0 +1,82 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import io.github.soir20.moremcmeta.client.texture.CustomTickable;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Samples the game's time once per tick so that all animations synced to it read the same
+ * time without querying the game themselves.
+ * @author soir20
+ */
+public class GameClock implements CustomTickable {
+    private final BooleanSupplier HAS_TIME_CHECKER;
+    private final LongSupplier TIME_GETTER;
+
+    private boolean hasTime;
+    private long time;
+
+    /**
+     * Creates a new game clock. The clock has no time until it is first ticked.
+     * @param hasTimeChecker    checks whether the game currently has a time
+     * @param timeGetter        gets the game's current time. Only called when the game has a time.
+     */
+    public GameClock(BooleanSupplier hasTimeChecker, LongSupplier timeGetter) {
+        HAS_TIME_CHECKER = requireNonNull(hasTimeChecker, "Has time checker cannot be null");
+        TIME_GETTER = requireNonNull(timeGetter, "Time getter cannot be null");
+    }
+
+    /**
+     * Samples the game's current time. Should be called once per tick before anything
+     * that reads the time is ticked.
+     */
+    @Override
+    public void tick() {
+        hasTime = HAS_TIME_CHECKER.getAsBoolean();
+        if (hasTime) {
+            time = TIME_GETTER.getAsLong();
+        }
+    }
+
+    /**
+     * Checks whether the game had a time when this clock was last ticked.
+     * @return whether there is a current time
+     */
+    public boolean hasTime() {
+        return hasTime;
+    }
+
+    /**
+     * Gets the game's time when this clock was last ticked.
+     * @return the current time
+     * @throws IllegalStateException if there is no current time
+     */
+    public long getTime() {
+        if (!hasTime) {
+            throw new IllegalStateException("The game has no current time");
+        }
+
+        return time;
+    }
+
+}
@@ -34,4 +34,36 @@ public interface IInterpolator<I> {
      */
     I interpolate(int steps, int step, I start, I end);
 
+    /**
+     * Gets the number of steps in the blends that {@link #interpolate(int, int, Object, Object)}
+     * creates for an interpolation with a certain number of steps. Interpolators that create
+     * fewer distinct blends than there are steps return fewer steps.
+     * @param steps     total number of steps to interpolate
+     * @return the number of steps in the blends that are created
+     */
+    default int getBlendSteps(int steps) {
+        return steps;
+    }
+
+    /**
+     * Gets the step of the blend that {@link #interpolate(int, int, Object, Object)} creates at
+     * a certain step. All steps with the same blend step create the same image.
+     * @param steps     total number of steps to interpolate
+     * @param step      current step of the interpolation (between 1 and steps - 1)
+     * @return the step of the blend created at the given step, or 0 if the start image is returned
+     */
+    default int getBlendStep(int steps, int step) {
+        return step;
+    }
+
+    /**
+     * Checks whether the last image returned by this interpolator still holds the colors it was
+     * interpolated with. Interpolators that write into images shared with other interpolators
+     * may have had their last image overwritten.
+     * @return whether the last interpolated image is unchanged
+     */
+    default boolean isLastResultIntact() {
+        return true;
+    }
+
 }
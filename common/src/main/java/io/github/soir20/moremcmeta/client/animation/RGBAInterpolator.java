@@ -18,8 +18,8 @@
 package io.github.soir20.moremcmeta.client.animation;
 
 import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
-import io.github.soir20.moremcmeta.math.Point;
 
+import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import static java.util.Objects.requireNonNull;
@@ -31,6 +31,12 @@ import static java.util.Objects.requireNonNull;
  */
 public class RGBAInterpolator implements IInterpolator<IRGBAImage> {
     private final BiFunction<Integer, Integer, IRGBAImage> IMAGE_GETTER;
+    private final PixelKernels KERNELS;
+
+    // Reused between interpolations so that rows are not allocated on every tick
+    private int[] startRow;
+    private int[] endRow;
+    private int[] mixedRow;
 
     /**
      * Creates a new interpolator.
@@ -40,6 +46,10 @@ public class RGBAInterpolator implements IInterpolator<IRGBAImage> {
      */
     public RGBAInterpolator(BiFunction<Integer, Integer, IRGBAImage> imageGetter) {
         IMAGE_GETTER = requireNonNull(imageGetter, "Image getter cannot be null");
+        KERNELS = PixelKernels.create();
+        startRow = new int[0];
+        endRow = new int[0];
+        mixedRow = new int[0];
     }
 
     /**
@@ -76,90 +86,52 @@ public class RGBAInterpolator implements IInterpolator<IRGBAImage> {
         IRGBAImage output = IMAGE_GETTER.apply(maxWidth, maxHeight);
         requireNonNull(output, "Interpolated image was created as null");
 
-        IRGBAImage.VisibleArea points = output.getVisibleArea();
-        for (Point point : points) {
-            int xPos = point.getX();
-            int yPos = point.getY();
-
-            int startColor = getPixel(start, xPos, yPos);
-            int endColor = getPixel(end, xPos, yPos);
-            int mixedColor = mixPixel(startProportion, startColor, endColor);
+        for (IRGBAImage.VisibleArea.VisibleRow row : output.getVisibleArea().getRows()) {
+            int xPos = row.getX();
+            int yPos = row.getY();
+            int width = row.getWidth();
+            ensureRowCapacity(width);
 
-            output.setPixel(xPos, yPos, mixedColor);
+            readRow(start, xPos, yPos, width, startRow);
+            readRow(end, xPos, yPos, width, endRow);
+            KERNELS.mixRow(startProportion, startRow, endRow, mixedRow, width);
+            output.setRow(xPos, yPos, mixedRow, width);
         }
 
         return output;
     }
 
     /**
-     * Gets the color of a pixel at a coordinate, or a transparent pixel if the image has no pixel there.
-     * @param image     image to retrieve pixel from
-     * @param x         x-coordinate of the pixel
-     * @param y         y-coordinate of the pixel
-     * @return  the color of the pixel or a transparent pixel
+     * Copies part of a row from an image. Pixels outside the image are transparent.
+     * @param image     image to retrieve pixels from
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param width     number of pixels to copy
+     * @param row       array to copy the pixels into
      */
-    private int getPixel(IRGBAImage image, int x, int y) {
-        if (x < image.getWidth() && y < image.getHeight()) {
-            return image.getPixel(x, y);
-        } else {
-            return 0;
+    private void readRow(IRGBAImage image, int x, int y, int width, int[] row) {
+        int pixelsInImage = 0;
+        if (y < image.getHeight()) {
+            pixelsInImage = Math.max(0, Math.min(width, image.getWidth() - x));
         }
-    }
-
-    /**
-     * Mixes the colors of two pixels into a single color.
-     * @param startProportion   proportion of start color to mix (1 - proportion of end color)
-     * @param startColor        color of the first pixel
-     * @param endColor          color of the second pixel
-     * @return  the resultant mixed color
-     */
-    private int mixPixel(double startProportion, int startColor, int endColor) {
-        int red = mixComponent(startProportion,
-                extractRed(startColor), extractRed(endColor));
-        int green = mixComponent(startProportion,
-                extractGreen(startColor), extractGreen(endColor));
-        int blue = mixComponent(startProportion,
-                extractBlue(startColor), extractBlue(endColor));
-
-        return startColor & 0b11111111000000000000000000000000 | red << 16 | green << 8 | blue;
-    }
-
-    /**
-     * Mixes one component from two RGB colors.
-     * @param startProportion   proportion of start color to mix (1 - proportion of end color)
-     * @param startColor        value of the first color's component
-     * @param endColor          value of the second color's component
-     * @return  the resultant mixed component
-     */
-    private int mixComponent(double startProportion, int startColor, int endColor) {
-        return (int) (startProportion * startColor + (1.0 - startProportion) * endColor);
-    }
 
-    /**
-     * Extracts the value of the red component from an RGB color.
-     * @param color         the RGB color to extract from
-     * @return  the value of the red component in this color
-     */
-    private int extractRed(int color) {
-        return color >> 16 & 255;
-    }
+        if (pixelsInImage > 0) {
+            image.getRow(x, y, row, pixelsInImage);
+        }
 
-    /**
-     * Extracts the value of the green component from an RGB color.
-     * @param color         the RGB color to extract from
-     * @return  the value of the green component in this color
-     */
-    private int extractGreen(int color) {
-        return color >> 8 & 255;
+        Arrays.fill(row, pixelsInImage, width, 0);
     }
 
     /**
-     * Extracts the value of the blue component from an RGB color.
-     * @param color         the RGB color to extract from
-     * @return  the value of the blue component in this color
+     * Grows the reusable row buffers if they are smaller than the given width.
+     * @param width     the width of the next row to mix
      */
-    private int extractBlue(int color) {
-        return color & 255;
+    private void ensureRowCapacity(int width) {
+        if (mixedRow.length < width) {
+            startRow = new int[width];
+            endRow = new int[width];
+            mixedRow = new int[width];
+        }
     }
 
 }
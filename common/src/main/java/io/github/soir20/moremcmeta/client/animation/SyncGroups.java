@@ -0,0 +1,91 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates the shared {@link AnimationTimeline}s of named sync groups. Groups only last for one
+ * generation, such as a resource reload, so that a group's frame times can change between reloads.
+ * Timelines from earlier generations keep advancing in their bank until all of their members have
+ * released them.
+ * @author soir20
+ */
+public class SyncGroups {
+    private final AnimationStateBank BANK;
+    private final Map<String, AnimationTimeline> CURRENT_GROUPS;
+
+    @Nullable
+    private Object currentGeneration;
+
+    /**
+     * Creates a new set of sync groups with no groups.
+     * @param bank      bank to store the groups' timelines in
+     */
+    public SyncGroups(AnimationStateBank bank) {
+        BANK = requireNonNull(bank, "Bank cannot be null");
+        CURRENT_GROUPS = new HashMap<>();
+    }
+
+    /**
+     * Gets the timeline for an animation in a sync group. The group is created with the given
+     * frame times if it does not exist in the current generation. The caller must
+     * {@link AnimationTimeline#release() release} the returned timeline once the animation is no
+     * longer used. Thread-safe.
+     * @param generation        identifies the generation the animation belongs to. All groups from
+     *                          other generations are discarded when a new generation is seen.
+     * @param group             name of the group
+     * @param frameTimes        time of each frame in the animation
+     * @return the group's timeline or empty if the group's frame times are different from
+     *         the given frame times
+     */
+    public synchronized Optional<AnimationTimeline> join(Object generation, String group,
+                                                         ImmutableList<Integer> frameTimes) {
+        requireNonNull(generation, "Generation cannot be null");
+        requireNonNull(group, "Group cannot be null");
+        requireNonNull(frameTimes, "Frame times cannot be null");
+
+        if (generation != currentGeneration) {
+            // The groups no longer need their timelines, but their members may still use them
+            CURRENT_GROUPS.values().forEach(AnimationTimeline::release);
+            CURRENT_GROUPS.clear();
+            currentGeneration = generation;
+        }
+
+        AnimationTimeline timeline = CURRENT_GROUPS.get(group);
+        if (timeline == null) {
+            timeline = BANK.add(frameTimes);
+            CURRENT_GROUPS.put(group, timeline);
+        }
+
+        if (!timeline.hasFrameTimes(frameTimes)) {
+            return Optional.empty();
+        }
+
+        timeline.retain();
+        return Optional.of(timeline);
+    }
+
+}
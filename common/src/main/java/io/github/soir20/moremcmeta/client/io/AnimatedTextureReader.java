@@ -18,34 +18,70 @@
 package io.github.soir20.moremcmeta.client.io;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonParseException;
 import com.mojang.blaze3d.platform.NativeImage;
+import io.github.soir20.moremcmeta.client.adapter.BufferUploadAdapter;
 import io.github.soir20.moremcmeta.client.adapter.ChangingPointsAdapter;
+import io.github.soir20.moremcmeta.client.adapter.NativeImagePixels;
+import io.github.soir20.moremcmeta.client.resource.CancellationToken;
 import io.github.soir20.moremcmeta.client.resource.ModAnimationMetadataSection;
+import io.github.soir20.moremcmeta.client.resource.StageTimings;
+import io.github.soir20.moremcmeta.client.texture.AllocationTracker;
 import io.github.soir20.moremcmeta.client.texture.AnimationComponent;
+import io.github.soir20.moremcmeta.client.texture.CleanupComponent;
+import io.github.soir20.moremcmeta.client.texture.DeferredRGBAImage;
 import io.github.soir20.moremcmeta.client.texture.EventDrivenTexture;
+import io.github.soir20.moremcmeta.client.texture.FrameStores;
+import io.github.soir20.moremcmeta.client.texture.IBufferUploader;
+import io.github.soir20.moremcmeta.client.texture.IFrameStore;
 import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
-import io.github.soir20.moremcmeta.client.texture.CleanupComponent;
+import io.github.soir20.moremcmeta.client.texture.EvictableImages;
+import io.github.soir20.moremcmeta.client.texture.ImagePool;
 import io.github.soir20.moremcmeta.client.texture.LazyTextureManager;
 import io.github.soir20.moremcmeta.client.texture.RGBAImageFrame;
+import io.github.soir20.moremcmeta.client.texture.RetainedMemoryComponent;
+import io.github.soir20.moremcmeta.client.texture.ScratchBuffers;
 import io.github.soir20.moremcmeta.client.adapter.NativeImageAdapter;
+import io.github.soir20.moremcmeta.client.animation.AdaptiveInterpolationPolicy;
 import io.github.soir20.moremcmeta.client.animation.AnimationFrameManager;
+import io.github.soir20.moremcmeta.client.animation.AnimationStateBank;
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
+import io.github.soir20.moremcmeta.client.animation.GameClock;
+import io.github.soir20.moremcmeta.client.animation.IInterpolator;
+import io.github.soir20.moremcmeta.client.animation.SyncGroups;
+import io.github.soir20.moremcmeta.math.Point;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.MipmapGenerator;
+import net.minecraft.client.renderer.texture.PngInfo;
 import net.minecraft.client.resources.metadata.animation.AnimationMetadataSection;
 import net.minecraft.client.resources.metadata.texture.TextureMetadataSection;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.SimpleResource;
+import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.function.ToLongFunction;
 import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
@@ -58,16 +94,143 @@ import static java.util.Objects.requireNonNull;
  * @author soir20
  */
 public class AnimatedTextureReader implements ITextureReader<EventDrivenTexture.Builder> {
+    private static final int HASH_CHUNK_SIZE = 8192;
+    private static final long MAX_POOLED_BYTES = 64 * 1024 * 1024;
+    private static final String NAMESPACE = "moremcmeta";
+    private static final int PNG_HEADER_BYTES = 29;
+    private static final int PNG_BIT_DEPTH_INDEX = 24;
+    private static final int PNG_COLOR_TYPE_INDEX = 25;
+    private static final int PNG_COMPRESSION_INDEX = 26;
+    private static final int PNG_FILTER_INDEX = 27;
+    private static final int PNG_INTERLACE_INDEX = 28;
+    private static final long MAX_IMAGE_BYTES = Integer.MAX_VALUE;
+
     private final Logger LOGGER;
+    private final StageTimings TIMINGS;
+    private final StageTimings LAZY_TIMINGS;
     private final ChangingPointsAdapter POINT_READER;
+    private final ImagePool<NativeImage> IMAGE_POOL;
+    private final ScratchBuffers<NativeImage> INTERPOLATION_BUFFERS;
+    private final AllocationTracker<NativeImage> ALLOCATIONS;
+    private final AllocationTracker.Owner INTERPOLATION_OWNER;
+    private final AtomicInteger UNNAMED_TEXTURES;
+
+    private final Executor RELOAD_EXECUTOR;
+    private final boolean COMPACT_FRAMES;
+
+    @Nullable
+    private final Executor LAZY_LOAD_EXECUTOR;
+
+    @Nullable
+    private final AnimationSnapshot SNAPSHOT;
+
+    @Nullable
+    private final AdaptiveInterpolationPolicy INTERPOLATION_POLICY;
+
+    private final GameClock GAME_CLOCK;
+    private final AnimationStateBank ANIMATION_STATES;
+    private final SyncGroups SYNC_GROUPS;
 
     /**
-     * Creates a new reader for animated textures.
+     * Creates a new reader for animated textures that decodes images immediately. Use a
+     * {@link Builder} to create a reader with timings, lazy loading, a snapshot, an
+     * interpolation policy, an executor to reload evicted images on, or compact frames.
      * @param logger        logger for reading-related messages
      */
     public AnimatedTextureReader(Logger logger) {
-        LOGGER = requireNonNull(logger, "Logger cannot be null");
+        this(requireNonNull(logger, "Logger cannot be null"), StageTimings.NONE, StageTimings.NONE,
+                null, Runnable::run, false, null, null);
+    }
+
+    /**
+     * Creates a new reader for animated textures.
+     * @param logger                logger for reading-related messages
+     * @param timings               timings to add the time spent in each reading stage to
+     * @param lazyTimings           timings to add the time spent loading images outside of reading to
+     * @param interpolationPolicy   policy that degrades interpolated animations under load, or null
+     *                              to always interpolate at full quality
+     * @param reloadExecutor        executor to reload images decoded immediately on after they are evicted
+     * @param compactFrames         whether to keep frames in compact storage instead of the decoded images
+     * @param lazyLoadExecutor      executor to decode images on, or null to decode immediately
+     * @param snapshot              snapshot of baked animation data, or null to not use a snapshot
+     */
+    private AnimatedTextureReader(Logger logger, StageTimings timings, StageTimings lazyTimings,
+                                  @Nullable AdaptiveInterpolationPolicy interpolationPolicy, Executor reloadExecutor,
+                                  boolean compactFrames, @Nullable Executor lazyLoadExecutor,
+                                  @Nullable AnimationSnapshot snapshot) {
+        LOGGER = logger;
+        TIMINGS = timings;
+        LAZY_TIMINGS = lazyTimings;
         POINT_READER = new ChangingPointsAdapter();
+
+        // Closed images are kept so the next reload can reuse their memory instead of allocating more
+        IMAGE_POOL = new ImagePool<>(MAX_POOLED_BYTES, (image) -> new Point(image.getWidth(), image.getHeight()),
+                AnimatedTextureReader::getNativeBytes, NativeImage::close);
+
+        // Every image a texture holds is tracked so that images that are never released can be reported
+        ALLOCATIONS = new AllocationTracker<>(AnimatedTextureReader::getNativeBytes);
+        INTERPOLATION_OWNER = ALLOCATIONS.newOwner(new ResourceLocation(NAMESPACE, "interpolation_buffers"));
+        UNNAMED_TEXTURES = new AtomicInteger();
+
+        // Interpolated frames are uploaded as soon as they are created, so textures with the same frame size share them
+        INTERPOLATION_BUFFERS = new ScratchBuffers<>(this::takeInterpolationImage, this::releaseImage);
+        RELOAD_EXECUTOR = reloadExecutor;
+        COMPACT_FRAMES = compactFrames;
+        LAZY_LOAD_EXECUTOR = lazyLoadExecutor;
+        SNAPSHOT = snapshot;
+        INTERPOLATION_POLICY = interpolationPolicy;
+
+        // The time is only sampled once per tick for all daytime-synced textures
+        GAME_CLOCK = new GameClock(() -> Minecraft.getInstance().level != null,
+                () -> Minecraft.getInstance().level.getDayTime());
+
+        ANIMATION_STATES = new AnimationStateBank();
+        SYNC_GROUPS = new SyncGroups(ANIMATION_STATES);
+    }
+
+    /**
+     * Gets the clock that daytime-synced textures from this reader read the time from.
+     * The clock must be ticked once per client tick, before any of the textures are ticked.
+     * @return the clock for daytime-synced textures
+     */
+    public GameClock getGameClock() {
+        return GAME_CLOCK;
+    }
+
+    /**
+     * Gets the bank that stores the position of all animations from this reader that are
+     * not synced to the daytime. The bank must be ticked once per client tick.
+     * @return the bank for animations from this reader
+     */
+    public AnimationStateBank getAnimationStates() {
+        return ANIMATION_STATES;
+    }
+
+    /**
+     * Gets the pool that images from this reader's textures are returned to when they are closed.
+     * Unused images should be trimmed from the pool once each reload finishes.
+     * @return the pool for this reader's images
+     */
+    public ImagePool<NativeImage> getImagePool() {
+        return IMAGE_POOL;
+    }
+
+    /**
+     * Gets the images that this reader's interpolated textures write their frames into. Images
+     * for frame sizes that are no longer used should be trimmed once each reload finishes.
+     * @return the shared interpolation images for this reader's textures
+     */
+    public ScratchBuffers<NativeImage> getInterpolationBuffers() {
+        return INTERPOLATION_BUFFERS;
+    }
+
+    /**
+     * Gets the tracker for all native images held by textures from this reader. Its summary
+     * should be logged after every reload to report images that were never released.
+     * @return the tracker for this reader's native images
+     */
+    public AllocationTracker<NativeImage> getAllocationTracker() {
+        return ALLOCATIONS;
     }
 
     /**
@@ -77,26 +240,179 @@ public class AnimatedTextureReader implements ITextureReader<EventDrivenTexture.
      * @return  an animated texture based on the provided data
      * @throws IOException  failure reading from either input stream
      */
+    @Override
     public EventDrivenTexture.Builder read(InputStream textureStream, InputStream metadataStream) throws IOException,
             JsonParseException, IllegalArgumentException {
+        return read(textureStream, metadataStream, CancellationToken.NEVER);
+    }
+
+    /**
+     * Reads an {@link EventDrivenTexture} as part of a reload. Decoding and analysis stop as soon
+     * as the reload is cancelled. A texture that was read before the reload was cancelled holds
+     * its images until it is closed or {@link #discard(EventDrivenTexture.Builder) discarded}.
+     * @param textureStream           input stream with image data
+     * @param metadataStream          input stream with texture and animation properties
+     * @param token                   token for the reload the texture is read for
+     * @return  an animated texture based on the provided data
+     * @throws IOException  failure reading from either input stream
+     * @throws CancellationException if the reload was cancelled while the texture was read
+     */
+    @Override
+    public EventDrivenTexture.Builder read(InputStream textureStream, InputStream metadataStream,
+                                           CancellationToken token) throws IOException, JsonParseException,
+            IllegalArgumentException {
 
+        // Textures without a location are never read again, so their images are only checked when they close
+        ResourceLocation location = new ResourceLocation(NAMESPACE,
+                "unnamed_texture_" + UNNAMED_TEXTURES.getAndIncrement());
+        return read(location, textureStream, metadataStream, token);
+    }
+
+    /**
+     * Reads an {@link EventDrivenTexture} as part of a reload. Decoding and analysis stop as soon
+     * as the reload is cancelled. A texture that was read before the reload was cancelled holds
+     * its images until it is closed or {@link #discard(EventDrivenTexture.Builder) discarded}.
+     * The texture's images are tracked under its location until the texture closes.
+     * @param location                location of the texture
+     * @param textureStream           input stream with image data
+     * @param metadataStream          input stream with texture and animation properties
+     * @param token                   token for the reload the texture is read for
+     * @return  an animated texture based on the provided data
+     * @throws IOException  failure reading from either input stream
+     * @throws CancellationException if the reload was cancelled while the texture was read
+     */
+    @Override
+    public EventDrivenTexture.Builder read(ResourceLocation location, InputStream textureStream,
+                                           InputStream metadataStream, CancellationToken token)
+            throws IOException, JsonParseException, IllegalArgumentException {
+
+        requireNonNull(location, "Location cannot be null");
         requireNonNull(textureStream, "Texture input stream cannot be null");
         requireNonNull(metadataStream, "Metadata input stream cannot be null");
+        requireNonNull(token, "Cancellation token cannot be null");
+        token.throwIfCancelled();
 
         Minecraft minecraft = Minecraft.getInstance();
         final int MIPMAP = minecraft.options.mipmapLevels;
 
-        NativeImage image = NativeImage.read(textureStream);
-        LOGGER.debug("Successfully read image from input");
+        /* Keep the compressed image so that the decoded images can be loaded later or evicted and reloaded.
+           The image is read into a direct buffer so the decoder can read it without copying it. */
+        long headerStart = System.nanoTime();
+        ByteBuffer imageBuffer = ResourceBuffers.read(textureStream);
+        PngInfo imageInfo = new PngInfo(textureStream.toString(), ResourceBuffers.asStream(imageBuffer));
 
-        List<NativeImage> mipmaps = new ArrayList<>(Arrays.asList(MipmapGenerator.generateMipLevels(image, MIPMAP)));
+        // Images may not be decoded until long after the reload, so invalid images are rejected while it is running
+        validateHeader(imageBuffer, imageInfo);
+
+        byte[] metadataBytes = IOUtils.toByteArray(metadataStream);
+        TIMINGS.record("readHeader", System.nanoTime() - headerStart);
+        LOGGER.debug("Successfully read image header from input");
+
+        Optional<AnimationSnapshot.Entry> snapshotEntry = Optional.empty();
+        byte[] contentHash = null;
+        if (SNAPSHOT != null) {
+            long snapshotStart = System.nanoTime();
+            contentHash = hashContent(imageBuffer, metadataBytes, MIPMAP);
+            snapshotEntry = SNAPSHOT.find(contentHash);
+            TIMINGS.record("snapshotLookup", System.nanoTime() - snapshotStart);
+        }
+
+        TextureMetadata metadata = TIMINGS.time("parseMetadata", () -> parseMetadata(textureStream, metadataBytes));
+        boolean blur = metadata.TEXTURE.isBlur();
+        boolean clamp = metadata.TEXTURE.isClamp();
+        boolean interpolate = metadata.ANIMATION.isInterpolatedFrames();
+
+        ImmutableList<FrameReader.FrameData> frameData;
+        if (snapshotEntry.isPresent()) {
+            frameData = snapshotEntry.get().getFrames();
+        } else {
+            FrameReader<FrameReader.FrameData> frameReader = new FrameReader<>((data) -> data);
+            frameData = TIMINGS.time("frameSplit",
+                    () -> frameReader.read(imageInfo.width, imageInfo.height, metadata.ANIMATION));
+        }
+
+        int frameWidth = frameData.get(0).getWidth();
+        int frameHeight = frameData.get(0).getHeight();
+
+        AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas = new AtomicReference<>();
+        snapshotEntry.ifPresent((entry) -> visibleAreas.set(entry.getVisibleAreas()));
+        AllocationTracker.Owner owner = ALLOCATIONS.newOwner(location);
+        Supplier<List<NativeImage>> loader = makeLoader(location, owner, imageBuffer, snapshotEntry, frameWidth,
+                frameHeight, MIPMAP, visibleAreas);
+
+        // Textures missing from the snapshot are decoded during the reload so that they can be added to it
+        List<NativeImage> loadedImages = null;
+        if (LAZY_LOAD_EXECUTOR == null || (SNAPSHOT != null && !snapshotEntry.isPresent())) {
+            loadedImages = decodeForReload(owner, imageBuffer, frameData, MIPMAP, visibleAreas, contentHash, token);
+        }
+
+        /* The decoded images or the frames stored from them can be loaded lazily or evicted, so frames always
+           retrieve them from this group. */
+        FrameSource source = COMPACT_FRAMES
+                ? storeCompactFrames(loader, loadedImages, frameData, MIPMAP, visibleAreas,
+                        new BufferUploadAdapter(blur, clamp))
+                : wrapNativeImages(loader, loadedImages, frameData, MIPMAP, visibleAreas, blur, clamp);
+        EvictableImages<?> images = source.IMAGES;
+
+        /* Images and timelines are not part of a texture until it is returned. They must be released here if
+           reading fails after they are created, or they would never be closed. */
+        Optional<AnimationTimeline> timeline = Optional.empty();
+        try {
+            // Frames
+            /* The immutable list collector was marked as beta for a while,
+               and the marking was removed in a later version. */
+            @SuppressWarnings("UnstableApiUsage")
+            ImmutableList<RGBAImageFrame> frames = IntStream.range(0, frameData.size()).mapToObj((frame) ->
+                    new RGBAImageFrame(frameData.get(frame), source.MIPMAPS.apply(frame))
+            ).collect(ImmutableList.toImmutableList());
+
+            timeline = findTimeline(metadata.MOD_ANIMATION, frames, token);
+
+            // Frame management
+            AnimationFrameManager<RGBAImageFrame> frameManager;
+            if (interpolate) {
+                IInterpolator<RGBAImageFrame> interpolator = makeInterpolator(images, MIPMAP, frameWidth,
+                        frameHeight, blur, clamp, visibleAreas);
+                frameManager = timeline.isPresent()
+                        ? new AnimationFrameManager<>(frames, timeline.get(), interpolator)
+                        : new AnimationFrameManager<>(frames, RGBAImageFrame::getFrameTime, interpolator);
+            } else {
+                frameManager = timeline.isPresent()
+                        ? new AnimationFrameManager<>(frames, timeline.get())
+                        : new AnimationFrameManager<>(frames, RGBAImageFrame::getFrameTime);
+            }
+
+            // Images decoded from the encoded image keep it so they can be reloaded, so it counts against the budget
+            long retainedBytes = snapshotEntry.isPresent() ? 0 : imageBuffer.capacity();
+            EventDrivenTexture.Builder builder = assembleTexture(frames.get(0), images, owner, retainedBytes,
+                    timeline, frameManager, interpolate, metadata.MOD_ANIMATION.isDaytimeSynced());
+
+            // Images are only released on this thread, since nothing else may use them while the texture is read
+            token.throwIfCancelled();
+
+            return builder;
+        } catch (RuntimeException err) {
+            images.evict();
+            ALLOCATIONS.close(owner);
+            timeline.ifPresent(AnimationTimeline::release);
+            throw err;
+        }
+    }
+
+    /**
+     * Parses a texture's metadata, using defaults for sections that are missing.
+     * @param textureStream     input stream with image data
+     * @param metadataBytes     the texture's metadata
+     * @return the texture's metadata
+     */
+    private static TextureMetadata parseMetadata(InputStream textureStream, byte[] metadataBytes) {
 
         /* The SimpleResource class would normally handle metadata parsing when we originally
            got the resource. However, the ResourceManager only looks for .mcmeta metadata, and its
            nested structure and an unordered (stream) accessor for resource packs cannot be
            easily overridden. However, we can create a dummy resource to parse the metadata. */
         SimpleResource metadataParser = new SimpleResource("dummy", new ResourceLocation(""),
-                textureStream, metadataStream);
+                textureStream, new ByteArrayInputStream(metadataBytes));
 
         AnimationMetadataSection animationMetadata =
                 metadataParser.getMetadata(AnimationMetadataSection.SERIALIZER);
@@ -119,71 +435,270 @@ public class AnimatedTextureReader implements ITextureReader<EventDrivenTexture.
             textureMetadata = new TextureMetadataSection(false, false);
         }
 
-        boolean blur = textureMetadata.isBlur();
-        boolean clamp = textureMetadata.isClamp();
+        return new TextureMetadata(animationMetadata, modAnimationMetadata, textureMetadata);
+    }
 
-        // Frames
-        List<IRGBAImage.VisibleArea> visibleAreas = new ArrayList<>();
-        FrameReader<RGBAImageFrame> frameReader = new FrameReader<>(frameData -> {
+    /**
+     * Creates the loader that retrieves a texture's images after they are evicted or when they
+     * are loaded lazily. Images are copied from the snapshot if the texture has an entry in it
+     * and decoded from the encoded image otherwise. Failures are logged, since these loads are
+     * not part of any reload.
+     * @param location          location of the texture
+     * @param owner             owner of the texture's images
+     * @param imageBuffer       the encoded image
+     * @param snapshotEntry     the texture's entry in the snapshot, if it has one
+     * @param frameWidth        the width of a single frame
+     * @param frameHeight       the height of a single frame
+     * @param mipmap            the number of mipmap levels
+     * @param visibleAreas      visible areas in ascending order of mipmap level; set if they
+     *                          have not been found yet
+     * @return the loader for the texture's images
+     */
+    private Supplier<List<NativeImage>> makeLoader(ResourceLocation location, AllocationTracker.Owner owner,
+                                                   ByteBuffer imageBuffer,
+                                                   Optional<AnimationSnapshot.Entry> snapshotEntry,
+                                                   int frameWidth, int frameHeight, int mipmap,
+                                                   AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas) {
+        Supplier<List<NativeImage>> loader;
+        if (snapshotEntry.isPresent()) {
+            AnimationSnapshot.Entry entry = snapshotEntry.get();
+            loader = () -> track(owner, LAZY_TIMINGS.time("snapshotCopy", () -> toNativeImages(entry.getMipmaps())));
+        } else {
+            /* Images reloaded after eviction are not part of any reload, so they are never cancelled, and
+               their timings are kept apart from the reload's. */
+            loader = () -> track(owner, decodeImages(imageBuffer, frameWidth, frameHeight, mipmap, visibleAreas,
+                    LAZY_TIMINGS, CancellationToken.NEVER));
+        }
 
-            /* The immutable list collector was marked as beta for a while,
-               and the marking was removed in a later version. */
-            @SuppressWarnings("UnstableApiUsage")
-            ImmutableList<IRGBAImage> wrappedMipmaps = IntStream.range(0, mipmaps.size()).mapToObj((level) -> {
-                int width = frameData.getWidth() >> level;
-                int height = frameData.getHeight() >> level;
+        // Images loaded outside a reload keep their last uploaded image if they fail, so the error is logged here
+        Supplier<List<NativeImage>> unreportedLoader = loader;
+        return () -> {
+            try {
+                return unreportedLoader.get();
+            } catch (RuntimeException err) {
+                LOGGER.error("Unable to load images for texture {}: {}", location, err.toString());
+                throw err;
+            }
+        };
+    }
 
-                // Finding the visible areas is slow, so we want to cache the results
-                if (visibleAreas.isEmpty()) {
-                    visibleAreas.addAll(POINT_READER.read(mipmaps.get(level), width, height, MIPMAP));
-                }
+    /**
+     * Decodes a texture's images while it is read and adds them to the snapshot if there is one.
+     * @param owner             owner of the texture's images
+     * @param imageBuffer       the encoded image
+     * @param frameData         position and size of every frame
+     * @param mipmap            the number of mipmap levels
+     * @param visibleAreas      visible areas in ascending order of mipmap level; set if they
+     *                          have not been found yet
+     * @param contentHash       hash of the texture's content, or null if there is no snapshot
+     * @param token             token for the reload the texture is read for
+     * @return the image's mipmaps, starting with the original image
+     * @throws CancellationException if the token is cancelled
+     */
+    private List<NativeImage> decodeForReload(AllocationTracker.Owner owner, ByteBuffer imageBuffer,
+                                              ImmutableList<FrameReader.FrameData> frameData, int mipmap,
+                                              AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas,
+                                              @Nullable byte[] contentHash, CancellationToken token) {
+        FrameReader.FrameData firstFrame = frameData.get(0);
+        List<NativeImage> loadedImages = track(owner, decodeImages(imageBuffer, firstFrame.getWidth(),
+                firstFrame.getHeight(), mipmap, visibleAreas, TIMINGS, token));
+        LOGGER.debug("Successfully read image from input");
 
-                return new NativeImageAdapter(
-                        mipmaps.get(level),
-                        frameData.getXOffset() >> level, frameData.getYOffset() >> level,
-                        width, height,
-                        level, blur, clamp, false,
-                        visibleAreas.get(level)
-                );
-            }).collect(ImmutableList.toImmutableList());
-
-            return new RGBAImageFrame(frameData, wrappedMipmaps);
-        });
-
-        ImmutableList<RGBAImageFrame> frames = frameReader.read(image.getWidth(), image.getHeight(), animationMetadata);
-        RGBAImageFrame firstFrame = frames.get(0);
-        int frameWidth = firstFrame.getWidth();
-        int frameHeight = firstFrame.getHeight();
-
-        // Frame management
-        AnimationFrameManager<RGBAImageFrame> frameManager;
-        if (animationMetadata.isInterpolatedFrames()) {
-            ImmutableList<NativeImageAdapter> interpolatedMipmaps = getInterpolationMipmaps(
-                    mipmaps, frameWidth, frameHeight, blur, clamp, visibleAreas
-            );
-            mipmaps.addAll(interpolatedMipmaps.stream().map(NativeImageAdapter::getImage).collect(Collectors.toList()));
-            RGBAImageFrame.Interpolator interpolator = new RGBAImageFrame.Interpolator(interpolatedMipmaps);
+        if (SNAPSHOT != null) {
+            SNAPSHOT.put(contentHash, new AnimationSnapshot.Entry(
+                    frameData, visibleAreas.get(), toSnapshotMipmaps(loadedImages.subList(0, mipmap + 1))
+            ));
+        }
 
-            frameManager = new AnimationFrameManager<>(frames, RGBAImageFrame::getFrameTime, interpolator);
+        return loadedImages;
+    }
+
+    /**
+     * Keeps a texture's frames in compact storage instead of in its decoded images.
+     * @param loader            loads the decoded images
+     * @param loadedImages      the decoded images if they were decoded while the texture was read
+     * @param frameData         position and size of every frame
+     * @param mipmap            the number of mipmap levels
+     * @param visibleAreas      visible areas in ascending order of mipmap level, once the images are loaded
+     * @param uploader          uploads the stored frames
+     * @return the stored frames and the mipmaps of every frame
+     */
+    private FrameSource storeCompactFrames(Supplier<List<NativeImage>> loader, @Nullable List<NativeImage> loadedImages,
+                                           ImmutableList<FrameReader.FrameData> frameData, int mipmap,
+                                           AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas,
+                                           IBufferUploader uploader) {
+        Supplier<List<IFrameStore>> storeLoader = () -> ImmutableList.of(storeFrames(
+                loader.get(), frameData, mipmap, visibleAreas.get(), uploader, LAZY_TIMINGS
+        ));
+
+        // Stores only hold direct buffers, which are freed once they are no longer used
+        EvictableImages<IFrameStore> stores;
+        if (loadedImages == null) {
+            stores = new EvictableImages<>(storeLoader, IFrameStore::getSizeInBytes, (store) -> {},
+                    LAZY_LOAD_EXECUTOR);
         } else {
-            frameManager = new AnimationFrameManager<>(frames, RGBAImageFrame::getFrameTime);
+            IFrameStore loadedStore = storeFrames(loadedImages, frameData, mipmap, visibleAreas.get(), uploader,
+                    TIMINGS);
+            stores = new EvictableImages<>(ImmutableList.of(loadedStore), storeLoader,
+                    IFrameStore::getSizeInBytes, (store) -> {}, RELOAD_EXECUTOR);
         }
 
-        // Resource cleanup
-        Runnable closeMipmaps = () -> mipmaps.forEach(NativeImage::close);
+        int frameWidth = frameData.get(0).getWidth();
+        int frameHeight = frameData.get(0).getHeight();
 
-        // Time retrieval
-        Supplier<Optional<Long>> timeGetter =
-                () -> minecraft.level == null ? Optional.empty() : Optional.of(minecraft.level.getDayTime());
+        @SuppressWarnings("UnstableApiUsage")
+        IntFunction<ImmutableList<IRGBAImage>> storedMipmaps = (frame) -> IntStream.rangeClosed(0, mipmap)
+                .mapToObj((level) -> (IRGBAImage) new DeferredRGBAImage(
+                        () -> stores.get(0).getMipmaps(frame).get(level),
+                        frameWidth >> level, frameHeight >> level
+                )).collect(ImmutableList.toImmutableList());
 
+        return new FrameSource(stores, storedMipmaps);
+    }
+
+    /**
+     * Keeps a texture's frames in its decoded images.
+     * @param loader            loads the decoded images
+     * @param loadedImages      the decoded images if they were decoded while the texture was read
+     * @param frameData         position and size of every frame
+     * @param mipmap            the number of mipmap levels
+     * @param visibleAreas      visible areas in ascending order of mipmap level, once the images are loaded
+     * @param blur              whether the images are blurred
+     * @param clamp             whether the images are clamped
+     * @return the decoded images and the mipmaps of every frame
+     */
+    private FrameSource wrapNativeImages(Supplier<List<NativeImage>> loader, @Nullable List<NativeImage> loadedImages,
+                                         ImmutableList<FrameReader.FrameData> frameData, int mipmap,
+                                         AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas,
+                                         boolean blur, boolean clamp) {
+        ToLongFunction<NativeImage> sizeCalculator = AnimatedTextureReader::getNativeBytes;
+        EvictableImages<NativeImage> nativeImages;
+        if (loadedImages == null) {
+            nativeImages = new EvictableImages<>(loader, sizeCalculator, this::releaseImage, LAZY_LOAD_EXECUTOR);
+        } else {
+            nativeImages = new EvictableImages<>(loadedImages, loader, sizeCalculator, this::releaseImage,
+                    RELOAD_EXECUTOR);
+        }
+
+        @SuppressWarnings("UnstableApiUsage")
+        IntFunction<ImmutableList<IRGBAImage>> wrappedMipmaps = (frame) -> {
+            FrameReader.FrameData data = frameData.get(frame);
+            return IntStream.rangeClosed(0, mipmap).mapToObj((level) -> (IRGBAImage) new NativeImageAdapter(
+                    () -> nativeImages.get(level),
+                    data.getXOffset() >> level, data.getYOffset() >> level,
+                    data.getWidth() >> level, data.getHeight() >> level,
+                    level, blur, clamp, false,
+                    getVisibleArea(nativeImages, visibleAreas, level)
+            )).collect(ImmutableList.toImmutableList());
+        };
+
+        return new FrameSource(nativeImages, wrappedMipmaps);
+    }
+
+    /**
+     * Finds the timeline that a texture's animation follows. The caller must release it.
+     * @param modAnimationMetadata      the texture's animation properties from this mod
+     * @param frames                    the texture's frames
+     * @param token                     token for the reload the texture is read for
+     * @return the texture's timeline or empty if its animation is synced to the daytime
+     */
+    private Optional<AnimationTimeline> findTimeline(ModAnimationMetadataSection modAnimationMetadata,
+                                                     ImmutableList<RGBAImageFrame> frames,
+                                                     CancellationToken token) {
+
+        /* Animations synced to the daytime calculate their frame from the time, so they are the only
+           animations that do not follow a timeline advanced with all the others. They already share
+           a timeline with each other, so they are never put in a group. */
+        if (modAnimationMetadata.isDaytimeSynced()) {
+            return Optional.empty();
+        }
+
+        @SuppressWarnings("UnstableApiUsage")
+        ImmutableList<Integer> frameTimes = frames.stream().map(RGBAImageFrame::getFrameTime)
+                .collect(ImmutableList.toImmutableList());
+
+        Optional<String> syncGroup = modAnimationMetadata.getSyncGroup();
+        if (syncGroup.isPresent()) {
+            Optional<AnimationTimeline> timeline = SYNC_GROUPS.join(token, syncGroup.get(), frameTimes);
+            if (timeline.isPresent()) {
+                return timeline;
+            }
+
+            LOGGER.warn("Frame times are different from other textures in sync group {}, so the " +
+                    "texture will be animated separately", syncGroup.get());
+        }
+
+        return Optional.of(ANIMATION_STATES.add(frameTimes));
+    }
+
+    /**
+     * Creates an interpolator that writes into the shared interpolation images.
+     * @param images            all of the texture's images
+     * @param mipmap            the number of mipmap levels
+     * @param frameWidth        the width of a single frame
+     * @param frameHeight       the height of a single frame
+     * @param blur              whether the images are blurred
+     * @param clamp             whether the images are clamped
+     * @param visibleAreas      visible areas in ascending order of mipmap level, once the images are loaded
+     * @return the interpolator for the texture's frames
+     */
+    private IInterpolator<RGBAImageFrame> makeInterpolator(EvictableImages<?> images, int mipmap, int frameWidth,
+                                                           int frameHeight, boolean blur, boolean clamp,
+                                                           AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas) {
+        ScratchBuffers.Claim<NativeImage> claim = INTERPOLATION_BUFFERS.newClaim(frameWidth, frameHeight, mipmap);
+        ImmutableList<NativeImageAdapter> interpolatedMipmaps = getInterpolationMipmaps(
+                claim, images, mipmap, frameWidth, frameHeight, blur, clamp, visibleAreas
+        );
+
+        IInterpolator<RGBAImageFrame> interpolator = new RGBAImageFrame.Interpolator(interpolatedMipmaps, claim);
+        if (INTERPOLATION_POLICY != null) {
+            interpolator = INTERPOLATION_POLICY.wrap(interpolator);
+        }
+
+        return interpolator;
+    }
+
+    /**
+     * Adds a texture's components to a new builder.
+     * @param firstFrame        the texture's first frame
+     * @param images            the images or stores that hold the texture's frames
+     * @param owner             owner of the texture's images
+     * @param retainedBytes     bytes the texture keeps to reload its images, or zero if it keeps none
+     * @param timeline          the timeline that the texture's animation follows, if it has one
+     * @param frameManager      manages the texture's frames
+     * @param interpolate       whether the texture's frames are interpolated
+     * @param daytimeSynced     whether the texture's animation is synced to the daytime
+     * @return the builder for the texture
+     */
+    private EventDrivenTexture.Builder assembleTexture(RGBAImageFrame firstFrame, EvictableImages<?> images,
+                                                       AllocationTracker.Owner owner, long retainedBytes,
+                                                       Optional<AnimationTimeline> timeline,
+                                                       AnimationFrameManager<RGBAImageFrame> frameManager,
+                                                       boolean interpolate, boolean daytimeSynced) {
         final int TICKS_PER_MC_DAY = 24000;
         final int MAX_DAYS = 365;
         EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
-        builder.setImage(frameManager.getCurrentFrame())
-                .add(new CleanupComponent(closeMipmaps));
+        /* Interpolated frames are only created while the texture uploads, since they are written into shared
+           images. The animation component replaces this frame with the current frame before every upload. */
+        builder.setImage(firstFrame)
+                .add(images)
+                .add(new CleanupComponent(() -> ALLOCATIONS.close(owner)));
 
-        if (modAnimationMetadata.isDaytimeSynced()) {
-            builder.add(new AnimationComponent(MAX_DAYS * TICKS_PER_MC_DAY, timeGetter, frameManager));
+        if (retainedBytes > 0) {
+            builder.add(new RetainedMemoryComponent(retainedBytes));
+        }
+
+        // The timeline's slot in the bank is freed once no texture uses it
+        timeline.ifPresent((sharedTimeline) -> builder.add(new CleanupComponent(sharedTimeline::release)));
+
+        /* Without interpolation, the texture only changes when its timeline reaches a new frame, so it does not
+           need to be ticked otherwise. Interpolated frames change in every tick within a frame. */
+        if (timeline.isPresent() && !interpolate) {
+            builder.setTickTimeline(timeline.get());
+        }
+
+        if (daytimeSynced) {
+            builder.add(new AnimationComponent(MAX_DAYS * TICKS_PER_MC_DAY, GAME_CLOCK, frameManager));
         } else {
             builder.add(new AnimationComponent(frameManager));
         }
@@ -192,56 +707,559 @@ public class AnimatedTextureReader implements ITextureReader<EventDrivenTexture.
     }
 
     /**
-     * Creates mipmapped images for interpolation.
-     * @param originals         the original mipmaps to copy from
+     * Releases the images and timeline of a texture that will never be used by building
+     * and closing it.
+     * @param texture       the texture to release
+     */
+    @Override
+    public void discard(EventDrivenTexture.Builder texture) {
+        requireNonNull(texture, "Texture cannot be null");
+        texture.build().close();
+    }
+
+    /**
+     * Decodes an image and creates all of its mipmaps. Stops between
+     * stages if the token is cancelled, closing any images created so far.
+     * @param imageBuffer       the encoded image
      * @param frameWidth        the width of a single frame
      * @param frameHeight       the height of a single frame
-     * @param blur              whether the images are blurred
-     * @param clamp             whether the images are clamped
+     * @param mipmap            the number of mipmap levels
+     * @param visibleAreas      visible areas in ascending order of mipmap level; set if they
+     *                          have not been found yet
+     * @param timings           timings to add the time spent in each stage to
+     * @param token             token for the reload the images are created for
+     * @return the image's mipmaps, starting with the original image
+     * @throws CancellationException if the token is cancelled
+     */
+    private List<NativeImage> decodeImages(ByteBuffer imageBuffer, int frameWidth, int frameHeight, int mipmap,
+                                           AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas,
+                                           StageTimings timings, CancellationToken token) {
+        token.throwIfCancelled();
+        NativeImage image = timings.time("decode", () -> readImage(imageBuffer));
+        closeIfCancelled(Collections.singletonList(image), token);
+
+        // Finding the visible areas is slow, so we only want to do it once
+        if (visibleAreas.get() == null) {
+            visibleAreas.set(timings.time("changingPoints",
+                    () -> POINT_READER.read(image, frameWidth, frameHeight, mipmap)));
+            closeIfCancelled(Collections.singletonList(image), token);
+        }
+
+        List<NativeImage> mipmaps = timings.time("mipmap",
+                () -> Arrays.asList(MipmapGenerator.generateMipLevels(image, mipmap)));
+        closeIfCancelled(mipmaps, token);
+
+        return mipmaps;
+    }
+
+    /**
+     * Copies the frames of decoded images into compact storage and releases the images.
+     * Frames are palettized or delta-encoded when that uses less memory.
+     * @param images            the decoded images, starting with the original image
+     * @param frameData         position and size of every frame
+     * @param mipmap            the number of mipmap levels
      * @param visibleAreas      visible areas in ascending order of mipmap level
-     * @return the adapters for the interpolation images
+     * @param uploader          uploads the stored frames
+     * @param timings           timings to add the time spent storing the frames to
+     * @return the stored frames
+     */
+    private IFrameStore storeFrames(List<NativeImage> images, List<FrameReader.FrameData> frameData, int mipmap,
+                                    List<IRGBAImage.VisibleArea> visibleAreas, IBufferUploader uploader,
+                                    StageTimings timings) {
+        try {
+            return timings.time("frameStore", () -> {
+                List<ImmutableList<IRGBAImage>> frames = new ArrayList<>();
+                for (FrameReader.FrameData data : frameData) {
+                    ImmutableList.Builder<IRGBAImage> mipmaps = new ImmutableList.Builder<>();
+                    for (int level = 0; level <= mipmap; level++) {
+                        mipmaps.add(new NativeImageAdapter(images.get(level),
+                                data.getXOffset() >> level, data.getYOffset() >> level,
+                                data.getWidth() >> level, data.getHeight() >> level,
+                                level, false, false, false, visibleAreas.get(level)));
+                    }
+                    frames.add(mipmaps.build());
+                }
+
+                FrameReader.FrameData firstFrame = frameData.get(0);
+                return FrameStores.storeSmallest(frames, firstFrame.getWidth(), firstFrame.getHeight(),
+                        visibleAreas.subList(0, mipmap + 1), uploader);
+            });
+        } finally {
+            images.forEach(this::releaseImage);
+        }
+    }
+
+    /**
+     * Checks that an image's PNG header describes an image that can be decoded. The
+     * signature and the header chunk's type have already been checked by the PNG info.
+     * @param imageBuffer       the encoded image
+     * @param imageInfo         information read from the image's header
+     * @throws IOException if the header is invalid or the image is too large to decode
      */
-    private ImmutableList<NativeImageAdapter> getInterpolationMipmaps(List<NativeImage> originals, int frameWidth,
-                                                                      int frameHeight, boolean blur, boolean clamp,
-                                                                      List<IRGBAImage.VisibleArea> visibleAreas) {
-        ImmutableList.Builder<NativeImageAdapter> images = new ImmutableList.Builder<>();
+    private static void validateHeader(ByteBuffer imageBuffer, PngInfo imageInfo) throws IOException {
+        if (imageBuffer.remaining() < PNG_HEADER_BYTES) {
+            throw new IOException("PNG header is truncated");
+        }
+
+        if (imageInfo.width <= 0 || imageInfo.height <= 0) {
+            throw new IOException("Image has invalid size " + imageInfo.width + "x" + imageInfo.height);
+        }
+
+        if ((long) imageInfo.width * imageInfo.height * NativeImage.Format.RGBA.components() > MAX_IMAGE_BYTES) {
+            throw new IOException("Image is too large to decode: " + imageInfo.width + "x" + imageInfo.height);
+        }
+
+        int start = imageBuffer.position();
+        int bitDepth = imageBuffer.get(start + PNG_BIT_DEPTH_INDEX);
+        int colorType = imageBuffer.get(start + PNG_COLOR_TYPE_INDEX);
+        boolean validBitDepth;
+        switch (colorType) {
+            case 0:
+                validBitDepth = bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+                break;
+            case 3:
+                validBitDepth = bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+                break;
+            case 2:
+            case 4:
+            case 6:
+                validBitDepth = bitDepth == 8 || bitDepth == 16;
+                break;
+            default:
+                throw new IOException("PNG has invalid color type " + colorType);
+        }
 
-        for (int level = 0; level < originals.size(); level++) {
-            int mipmappedWidth = frameWidth >> level;
-            int mipmappedHeight = frameHeight >> level;
+        if (!validBitDepth) {
+            throw new IOException("PNG has invalid bit depth " + bitDepth + " for color type " + colorType);
+        }
+
+        if (imageBuffer.get(start + PNG_COMPRESSION_INDEX) != 0 || imageBuffer.get(start + PNG_FILTER_INDEX) != 0
+                || (imageBuffer.get(start + PNG_INTERLACE_INDEX) & ~1) != 0) {
+            throw new IOException("PNG has unsupported compression, filter, or interlace method");
+        }
+    }
+
+    /**
+     * Closes images if a token has been cancelled.
+     * @param images        images to close
+     * @param token         token to check
+     * @throws CancellationException if the token is cancelled
+     */
+    private void closeIfCancelled(List<NativeImage> images, CancellationToken token) {
+        if (token.isCancelled()) {
+            images.forEach(this::releaseImage);
+            token.throwIfCancelled();
+        }
+    }
+
+    /**
+     * Decodes an image.
+     * @param imageBuffer   the encoded image in a direct buffer
+     * @return the decoded image
+     * @throws UncheckedIOException if the image cannot be decoded
+     */
+    private NativeImage readImage(ByteBuffer imageBuffer) {
+        try {
+
+            // The buffer may be decoded again on another thread if the images are evicted
+            return NativeImage.read(imageBuffer.duplicate());
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * Hashes a texture's content so it can be found in the snapshot.
+     * @param imageBuffer       the encoded image
+     * @param metadataBytes     the texture's metadata
+     * @param mipmap            the number of mipmap levels
+     * @return the content hash
+     */
+    @SuppressWarnings("UnstableApiUsage")
+    private byte[] hashContent(ByteBuffer imageBuffer, byte[] metadataBytes, int mipmap) {
+        Hasher hasher = Hashing.sha256().newHasher().putInt(imageBuffer.remaining());
+
+        // Hash the image in chunks so that it is never copied onto the heap all at once
+        ByteBuffer image = imageBuffer.duplicate();
+        byte[] chunk = new byte[HASH_CHUNK_SIZE];
+        while (image.hasRemaining()) {
+            int length = Math.min(chunk.length, image.remaining());
+            image.get(chunk, 0, length);
+            hasher.putBytes(chunk, 0, length);
+        }
+
+        return hasher.putInt(metadataBytes.length).putBytes(metadataBytes)
+                .putInt(mipmap)
+                .hash().asBytes();
+    }
+
+    /**
+     * Copies mipmaps from the snapshot into new images. Pixels are read straight into the images'
+     * memory where it can be accessed and copied one at a time otherwise.
+     * @param mipmaps       mipmaps from the snapshot
+     * @return the new images
+     */
+    private List<NativeImage> toNativeImages(List<AnimationSnapshot.Mipmap> mipmaps) {
+        List<NativeImage> images = new ArrayList<>();
+
+        try {
+            for (AnimationSnapshot.Mipmap mipmap : mipmaps) {
+                int width = mipmap.getWidth();
+                int height = mipmap.getHeight();
+
+                NativeImage image = takeImage(width, height);
+                images.add(image);
+
+                Optional<ByteBuffer> imagePixels = NativeImagePixels.getPixels(image);
+                if (imagePixels.isPresent()) {
+                    mipmap.readPixels(imagePixels.get());
+                    continue;
+                }
+
+                ByteBuffer pixelBytes = ByteBuffer.allocate(width * height * Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                mipmap.readPixels(pixelBytes);
+                IntBuffer pixels = pixelBytes.asIntBuffer();
+                for (int yPos = 0; yPos < height; yPos++) {
+                    for (int xPos = 0; xPos < width; xPos++) {
+                        image.setPixelRGBA(xPos, yPos, pixels.get(yPos * width + xPos));
+                    }
+                }
+            }
+        } catch (IOException err) {
+            images.forEach(this::releaseImage);
+            throw new UncheckedIOException(err);
+        }
+
+        return images;
+    }
+
+    /**
+     * Copies mipmaps into the snapshot's format. Pixels are copied straight from the images'
+     * memory where it can be accessed and one at a time otherwise.
+     * @param mipmaps       the mipmaps to copy
+     * @return the copied mipmaps
+     */
+    private List<AnimationSnapshot.Mipmap> toSnapshotMipmaps(List<NativeImage> mipmaps) {
+        List<AnimationSnapshot.Mipmap> snapshotMipmaps = new ArrayList<>();
+
+        for (NativeImage image : mipmaps) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+
+            IntBuffer pixels = IntBuffer.allocate(width * height);
+            Optional<ByteBuffer> imagePixels = NativeImagePixels.getPixels(image);
+            if (imagePixels.isPresent()) {
+                pixels.put(imagePixels.get().asIntBuffer());
+            } else {
+                for (int yPos = 0; yPos < height; yPos++) {
+                    for (int xPos = 0; xPos < width; xPos++) {
+                        pixels.put(image.getPixelRGBA(xPos, yPos));
+                    }
+                }
+            }
+            pixels.flip();
+
+            snapshotMipmaps.add(new AnimationSnapshot.Mipmap(width, height, pixels));
+        }
+
+        return snapshotMipmaps;
+    }
 
-            NativeImage original = originals.get(level);
+    /**
+     * Creates adapters for the shared mipmapped images for interpolation.
+     * @param claim             the texture's claim for the shared images
+     * @param images            all of the texture's images
+     * @param mipmap            the number of mipmap levels
+     * @param frameWidth        the width of a single frame
+     * @param frameHeight       the height of a single frame
+     * @param blur              whether the images are blurred
+     * @param clamp             whether the images are clamped
+     * @param visibleAreas      visible areas in ascending order of mipmap level, once the images are loaded
+     * @return the adapters for the interpolation images
+     */
+    private ImmutableList<NativeImageAdapter> getInterpolationMipmaps(
+            ScratchBuffers.Claim<NativeImage> claim, EvictableImages<?> images,
+            int mipmap, int frameWidth, int frameHeight,
+            boolean blur, boolean clamp, AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas) {
+        ImmutableList.Builder<NativeImageAdapter> adapters = new ImmutableList.Builder<>();
 
-            NativeImage mipmappedImage = new NativeImage(mipmappedWidth, mipmappedHeight, true);
-            copyTopLeftRect(mipmappedWidth, mipmappedHeight, original, mipmappedImage);
+        for (int level = 0; level <= mipmap; level++) {
+            int claimedLevel = level;
 
             NativeImageAdapter adapter = new NativeImageAdapter(
-                    mipmappedImage,
+                    () -> claim.getImage(claimedLevel),
                     0, 0,
-                    mipmappedWidth, mipmappedHeight,
+                    frameWidth >> level, frameHeight >> level,
                     level,
                     blur, clamp, false,
-                    visibleAreas.get(level)
+                    getVisibleArea(images, visibleAreas, level)
             );
-            images.add(adapter);
+            adapters.add(adapter);
         }
 
-        return images.build();
+        return adapters.build();
     }
 
     /**
-     * Copies a rectangle in the top left from one image to another.
-     * @param width     width of the rectangle to copy
-     * @param height    height of the rectangle to copy
-     * @param from      image to copy from (unchanged)
-     * @param to        image to copy to (changed)
+     * Creates a getter for the visible area at a mipmap level. The visible areas are
+     * found when the images are first loaded, so the getter loads them if necessary.
+     * @param images            all of the texture's images
+     * @param visibleAreas      visible areas in ascending order of mipmap level, once the images are loaded
+     * @param level             mipmap level of the visible area
+     * @return a getter for the visible area
      */
-    private void copyTopLeftRect(int width, int height, NativeImage from, NativeImage to) {
-        for (int xPos = 0; xPos < width; xPos++) {
-            for (int yPos = 0; yPos < height; yPos++) {
-                to.setPixelRGBA(xPos, yPos, from.getPixelRGBA(xPos, yPos));
+    private Supplier<IRGBAImage.VisibleArea> getVisibleArea(EvictableImages<?> images,
+                                                            AtomicReference<List<IRGBAImage.VisibleArea>> visibleAreas,
+                                                            int level) {
+        return () -> {
+            if (visibleAreas.get() == null) {
+                images.get(0);
             }
+
+            return visibleAreas.get().get(level);
+        };
+    }
+
+    /**
+     * Gets an RGBA image from the pool or allocates a new one if none with the same size are pooled.
+     * The image's content should be completely overwritten.
+     * @param width     width of the image
+     * @param height    height of the image
+     * @return an image with the given dimensions
+     */
+    private NativeImage takeImage(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return new NativeImage(width, height, true);
+        }
+
+        return IMAGE_POOL.take(width, height).orElseGet(() -> new NativeImage(width, height, true));
+    }
+
+    /**
+     * Gets an image for the shared interpolation buffers, which are not owned by any one texture.
+     * @param width     width of the image
+     * @param height    height of the image
+     * @return an image with the given dimensions
+     */
+    private NativeImage takeInterpolationImage(int width, int height) {
+        NativeImage image = takeImage(width, height);
+        ALLOCATIONS.track(INTERPOLATION_OWNER, image);
+        return image;
+    }
+
+    /**
+     * Records that images were created for a texture.
+     * @param owner     owner of the texture the images were created for
+     * @param images    the new images
+     * @return the same images
+     */
+    private List<NativeImage> track(AllocationTracker.Owner owner, List<NativeImage> images) {
+        images.forEach((image) -> ALLOCATIONS.track(owner, image));
+        return images;
+    }
+
+    /**
+     * Returns an image to the pool once a texture no longer uses it. Only RGBA images are pooled,
+     * since they are the only images taken from it. Other images are closed right away.
+     * @param image     the image to release
+     */
+    private void releaseImage(NativeImage image) {
+        ALLOCATIONS.release(image);
+
+        if (image.format() == NativeImage.Format.RGBA) {
+            IMAGE_POOL.release(image);
+        } else {
+            image.close();
+        }
+    }
+
+    /**
+     * Calculates the bytes of native memory an image holds.
+     * @param image     the image
+     * @return bytes of native memory held by the image
+     */
+    private static long getNativeBytes(NativeImage image) {
+        return (long) image.getWidth() * image.getHeight() * image.format().components();
+    }
+
+    /**
+     * The metadata sections that a texture is read with.
+     * @author soir20
+     */
+    private static class TextureMetadata {
+        private final AnimationMetadataSection ANIMATION;
+        private final ModAnimationMetadataSection MOD_ANIMATION;
+        private final TextureMetadataSection TEXTURE;
+
+        /**
+         * Creates new texture metadata.
+         * @param animation         the texture's vanilla animation properties
+         * @param modAnimation      the texture's animation properties from this mod
+         * @param texture           the texture's blur and clamp properties
+         */
+        public TextureMetadata(AnimationMetadataSection animation, ModAnimationMetadataSection modAnimation,
+                               TextureMetadataSection texture) {
+            ANIMATION = animation;
+            MOD_ANIMATION = modAnimation;
+            TEXTURE = texture;
         }
+
+    }
+
+    /**
+     * Where a texture's frames are kept and how each frame's mipmaps are retrieved from there.
+     * @author soir20
+     */
+    private static class FrameSource {
+        private final EvictableImages<?> IMAGES;
+        private final IntFunction<ImmutableList<IRGBAImage>> MIPMAPS;
+
+        /**
+         * Creates a new frame source.
+         * @param images        the images or stores that hold the frames
+         * @param mipmaps       gets the mipmaps of a frame by its index
+         */
+        public FrameSource(EvictableImages<?> images, IntFunction<ImmutableList<IRGBAImage>> mipmaps) {
+            IMAGES = images;
+            MIPMAPS = mipmaps;
+        }
+
+    }
+
+    /**
+     * Builds an {@link AnimatedTextureReader} with optional timings, lazy loading,
+     * a snapshot, and an interpolation policy.
+     * @author soir20
+     */
+    public static class Builder {
+        private final Logger LOGGER;
+        private StageTimings timings;
+        private StageTimings lazyTimings;
+
+        private Executor reloadExecutor;
+        private boolean compactFrames;
+
+        @Nullable
+        private AdaptiveInterpolationPolicy interpolationPolicy;
+
+        @Nullable
+        private Executor lazyLoadExecutor;
+
+        @Nullable
+        private AnimationSnapshot snapshot;
+
+        /**
+         * Creates a new builder for a reader.
+         * @param logger        logger for reading-related messages
+         */
+        public Builder(Logger logger) {
+            LOGGER = requireNonNull(logger, "Logger cannot be null");
+            timings = StageTimings.NONE;
+            lazyTimings = StageTimings.NONE;
+            reloadExecutor = Runnable::run;
+        }
+
+        /**
+         * Sets the timings that the time spent in each reading stage is added to.
+         * Optional; by default, the time is not recorded.
+         * @param timings       timings to add the time spent in each reading stage to
+         * @return this builder for chaining
+         */
+        public Builder setTimings(StageTimings timings) {
+            this.timings = requireNonNull(timings, "Timings cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the timings that the time spent loading images lazily or after eviction is
+         * added to. These loads happen outside of any reload. Optional; by default, the
+         * time is not recorded.
+         * @param lazyTimings   timings to add the time spent loading images outside of reading to
+         * @return this builder for chaining
+         */
+        public Builder setLazyTimings(StageTimings lazyTimings) {
+            this.lazyTimings = requireNonNull(lazyTimings, "Lazy timings cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the policy that degrades interpolated animations under load. Optional;
+         * by default, animations are always interpolated at full quality.
+         * @param interpolationPolicy   policy that degrades interpolated animations under load
+         * @return this builder for chaining
+         */
+        public Builder setInterpolationPolicy(AdaptiveInterpolationPolicy interpolationPolicy) {
+            this.interpolationPolicy = requireNonNull(interpolationPolicy, "Interpolation policy cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the executor that images decoded immediately are reloaded on after they are evicted.
+         * A texture keeps its last uploaded image until the reload finishes. Images decoded lazily
+         * are always reloaded on the lazy load executor. Optional; by default, images are reloaded
+         * on the thread that needs them.
+         * @param reloadExecutor        executor to reload evicted images on
+         * @return this builder for chaining
+         */
+        public Builder setReloadExecutor(Executor reloadExecutor) {
+            this.reloadExecutor = requireNonNull(reloadExecutor, "Reload executor cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets whether frames are kept in compact storage instead of the decoded images. Frames
+         * with few enough colors are palettized, which cuts their memory by up to four times, and
+         * frames with a small animated area only store that area after the first frame.
+         * Storing frames takes extra time whenever images are decoded. Optional; by default,
+         * the decoded images are kept.
+         * @param compactFrames         whether to keep frames in compact storage
+         * @return this builder for chaining
+         */
+        public Builder setCompactFrames(boolean compactFrames) {
+            this.compactFrames = compactFrames;
+            return this;
+        }
+
+        /**
+         * Sets the executor that images are decoded on. Only the image header and metadata
+         * are read immediately; images are decoded, mipmapped, and analyzed on the executor
+         * when the texture is first registered or bound. Optional; by default, images are
+         * decoded immediately.
+         * @param lazyLoadExecutor      executor to decode images on
+         * @return this builder for chaining
+         */
+        public Builder setLazyLoadExecutor(Executor lazyLoadExecutor) {
+            this.lazyLoadExecutor = requireNonNull(lazyLoadExecutor, "Lazy load executor cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets a snapshot of baked animation data to use whenever a texture's content is unchanged.
+         * Textures found in the snapshot are loaded lazily from it. Other textures are decoded
+         * immediately and added to the snapshot. Optional, but requires a lazy load executor.
+         * @param snapshot      snapshot of baked animation data
+         * @return this builder for chaining
+         */
+        public Builder setSnapshot(AnimationSnapshot snapshot) {
+            this.snapshot = requireNonNull(snapshot, "Snapshot cannot be null");
+            return this;
+        }
+
+        /**
+         * Builds the reader. Throws an {@link IllegalStateException} if a snapshot was set
+         * without a lazy load executor.
+         * @return the reader
+         */
+        public AnimatedTextureReader build() {
+            if (snapshot != null && lazyLoadExecutor == null) {
+                throw new IllegalStateException("Reader with a snapshot must have a lazy load executor");
+            }
+
+            return new AnimatedTextureReader(LOGGER, timings, lazyTimings, interpolationPolicy, reloadExecutor,
+                    compactFrames, lazyLoadExecutor, snapshot);
+        }
+
     }
 
 }
@@ -0,0 +1,788 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.io;
+
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A file of baked animation data from a previous launch: decoded pixels for every mipmap level,
+ * frame layout, and visible areas. Only the index is read when the file is loaded. Pixels stay in
+ * the file and are read by position whenever they are copied, and the file is only opened for each
+ * read, so it can be replaced while its entries are in use. Each entry is keyed by a hash of the
+ * texture's content so that outdated entries are never used. Entries that are not looked up or
+ * added during a session are dropped the next time the file is saved.
+ * @author soir20
+ */
+public class AnimationSnapshot {
+    private static final int MAGIC = 0x4D4D4353;
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+    private static final int FRAME_INTS = 5;
+    private static final int ROW_INTS = 3;
+    private static final int INDEX_BUFFER_BYTES = 8192;
+
+    private final Path FILE;
+    private final Logger LOGGER;
+    private final Object SAVE_LOCK;
+    private final Map<Key, Entry> STORED_ENTRIES;
+    private final Map<Key, Entry> NEW_ENTRIES;
+    private final Set<Key> SESSION_KEYS;
+    private boolean hasNewEntries;
+
+    /**
+     * Creates a new snapshot stored in a file. The file is not read until
+     * {@link #load()} is called.
+     * @param file      file to read and write the snapshot
+     * @param logger    logger for snapshot-related messages
+     */
+    public AnimationSnapshot(Path file, Logger logger) {
+        FILE = requireNonNull(file, "File cannot be null");
+        LOGGER = requireNonNull(logger, "Logger cannot be null");
+        SAVE_LOCK = new Object();
+        STORED_ENTRIES = new HashMap<>();
+        NEW_ENTRIES = new HashMap<>();
+        SESSION_KEYS = new HashSet<>();
+    }
+
+    /**
+     * Reads the snapshot file's index. A missing or invalid file is treated as an empty snapshot.
+     */
+    public synchronized void load() {
+        detach(STORED_ENTRIES.values());
+        STORED_ENTRIES.clear();
+
+        if (!Files.isRegularFile(FILE)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ)) {
+            STORED_ENTRIES.putAll(readIndex(new IndexReader(channel)));
+            LOGGER.debug("Loaded {} entries from animation snapshot", STORED_ENTRIES.size());
+        } catch (IOException | IllegalArgumentException err) {
+            LOGGER.warn("Ignoring unreadable animation snapshot {}: {}", FILE, err.toString());
+        }
+    }
+
+    /**
+     * Finds the entry for a texture with the given content hash. An entry that is found
+     * is kept the next time the snapshot is saved.
+     * @param hash      hash of the texture's content
+     * @return the entry for the texture or empty if there is none
+     */
+    public synchronized Optional<Entry> find(byte[] hash) {
+        Key key = new Key(hash);
+
+        Entry entry = NEW_ENTRIES.get(key);
+        if (entry == null) {
+            entry = STORED_ENTRIES.get(key);
+        }
+
+        if (entry != null) {
+            SESSION_KEYS.add(key);
+        }
+
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Adds an entry for a texture with the given content hash. Replaces any
+     * existing entry with the same hash.
+     * @param hash      hash of the texture's content
+     * @param entry     the baked animation data
+     */
+    public synchronized void put(byte[] hash, Entry entry) {
+        requireNonNull(entry, "Entry cannot be null");
+        Key key = new Key(hash);
+        NEW_ENTRIES.put(key, entry);
+        SESSION_KEYS.add(key);
+        hasNewEntries = true;
+    }
+
+    /**
+     * Writes all entries found or added during this session to the snapshot file
+     * if any entries were added since the last save. Failures are logged. Entries
+     * already in the file are copied from it without being read into memory. Once
+     * the file is replaced, saved entries are read from the new file so that their
+     * pixels are no longer kept on the heap, and all other stored entries are dropped.
+     */
+    public void save() {
+        synchronized (SAVE_LOCK) {
+            Map<Key, Entry> entries = new HashMap<>();
+            synchronized (this) {
+                if (!hasNewEntries) {
+                    return;
+                }
+
+                for (Key key : SESSION_KEYS) {
+                    Entry entry = NEW_ENTRIES.get(key);
+                    entries.put(key, entry != null ? entry : STORED_ENTRIES.get(key));
+                }
+
+                hasNewEntries = false;
+            }
+
+            Path tempFile = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+            Map<Key, long[]> pixelOffsets;
+            try {
+                Path parent = FILE.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    pixelOffsets = writeEntries(channel, entries);
+                }
+            } catch (IOException err) {
+                LOGGER.warn("Unable to save animation snapshot {}: {}", FILE, err.toString());
+                return;
+            }
+
+            synchronized (this) {
+                replaceFile(tempFile, entries, pixelOffsets);
+            }
+        }
+    }
+
+    /**
+     * Replaces the snapshot file with a newly-written one and moves stored entries into it.
+     * Reads hold the same lock, so the file is never open while it is replaced.
+     * @param tempFile          the newly-written file
+     * @param entries           entries in the new file
+     * @param pixelOffsets      offset of each level's pixels in the new file by entry
+     */
+    private void replaceFile(Path tempFile, Map<Key, Entry> entries, Map<Key, long[]> pixelOffsets) {
+
+        // Entries found while the new file was written are not in it, so their pixels are kept on the heap
+        for (Map.Entry<Key, Entry> storedEntry : STORED_ENTRIES.entrySet()) {
+            Key key = storedEntry.getKey();
+            if (SESSION_KEYS.contains(key) && !entries.containsKey(key) && !NEW_ENTRIES.containsKey(key)) {
+                try {
+                    NEW_ENTRIES.put(key, copyToHeap(storedEntry.getValue()));
+                    hasNewEntries = true;
+                } catch (IOException err) {
+                    LOGGER.warn("Unable to keep animation snapshot entry: {}", err.toString());
+                }
+            }
+        }
+
+        try {
+            Files.move(tempFile, FILE, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.debug("Saved {} entries to animation snapshot", entries.size());
+        } catch (IOException err) {
+            LOGGER.warn("Unable to save animation snapshot {}: {}", FILE, err.toString());
+            return;
+        }
+
+        // Stored entries that were not saved no longer have pixels in the file
+        detach(STORED_ENTRIES.values());
+        STORED_ENTRIES.clear();
+
+        for (Map.Entry<Key, Entry> savedEntry : entries.entrySet()) {
+            Entry entry = savedEntry.getValue();
+            long[] offsets = pixelOffsets.get(savedEntry.getKey());
+
+            boolean wasStored = true;
+            ImmutableList.Builder<Mipmap> mipmaps = new ImmutableList.Builder<>();
+            for (int level = 0; level < entry.MIPMAPS.size(); level++) {
+                Mipmap mipmap = entry.MIPMAPS.get(level);
+                if (mipmap.SNAPSHOT == this) {
+                    mipmap.offset = offsets[level];
+                    mipmaps.add(mipmap);
+                } else {
+                    mipmaps.add(new Mipmap(mipmap.WIDTH, mipmap.HEIGHT, this, offsets[level]));
+                    wasStored = false;
+                }
+            }
+
+            STORED_ENTRIES.put(savedEntry.getKey(),
+                    wasStored ? entry : new Entry(entry.FRAMES, entry.VISIBLE_AREAS, mipmaps.build()));
+        }
+
+        // Entries added again while the file was written are newer than the saved ones, so they are kept
+        NEW_ENTRIES.entrySet().removeIf((newEntry) -> entries.get(newEntry.getKey()) == newEntry.getValue());
+    }
+
+    /**
+     * Marks the pixels of stored entries as no longer being in the file.
+     * @param entries       the entries to detach
+     */
+    private void detach(Collection<Entry> entries) {
+        for (Entry entry : entries) {
+            for (Mipmap mipmap : entry.MIPMAPS) {
+                if (mipmap.SNAPSHOT == this) {
+                    mipmap.offset = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies an entry's pixels onto the heap.
+     * @param entry     the entry to copy
+     * @return an entry with the same data whose pixels are on the heap
+     * @throws IOException if the pixels cannot be read
+     */
+    private static Entry copyToHeap(Entry entry) throws IOException {
+        ImmutableList.Builder<Mipmap> mipmaps = new ImmutableList.Builder<>();
+        for (Mipmap mipmap : entry.MIPMAPS) {
+            ByteBuffer pixels = ByteBuffer.allocate(mipmap.getSizeInBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            mipmap.readPixels(pixels);
+            mipmaps.add(new Mipmap(mipmap.WIDTH, mipmap.HEIGHT, pixels.asIntBuffer()));
+        }
+
+        return new Entry(entry.FRAMES, entry.VISIBLE_AREAS, mipmaps.build());
+    }
+
+    /**
+     * Reads a stored mipmap's pixels from the file by position.
+     * @param mipmap        the mipmap to read
+     * @param destination   buffer to read the pixels into from its position
+     * @throws IOException if the pixels cannot be read
+     */
+    private synchronized void readPixels(Mipmap mipmap, ByteBuffer destination) throws IOException {
+        if (mipmap.offset < 0) {
+            throw new IOException("Mipmap is no longer in the animation snapshot");
+        }
+
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ)) {
+            long position = mipmap.offset;
+            while (destination.hasRemaining()) {
+                int read = channel.read(destination, position);
+                if (read < 0) {
+                    throw new EOFException("Snapshot ended before mipmap was read");
+                }
+
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * Gets where a stored mipmap's pixels are in the file.
+     * @param mipmap        the mipmap stored in the file
+     * @return the offset of the mipmap's pixels
+     */
+    private synchronized long getOffset(Mipmap mipmap) {
+        return mipmap.offset;
+    }
+
+    /**
+     * Reads all entries from a snapshot file's index, skipping over their pixels.
+     * @param reader    reader for the file
+     * @return the entries in the file
+     * @throws IOException if the file cannot be read or ends early
+     */
+    private Map<Key, Entry> readIndex(IndexReader reader) throws IOException {
+        Map<Key, Entry> entries = new HashMap<>();
+        if (reader.readInt() != MAGIC || reader.readInt() != VERSION) {
+            throw new IllegalArgumentException("Snapshot has an unknown format");
+        }
+
+        int entryCount = reader.readCount();
+        for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+            byte[] hash = new byte[HASH_BYTES];
+            reader.readBytes(hash);
+
+            int frameCount = reader.readCount();
+            ImmutableList.Builder<FrameReader.FrameData> frames = new ImmutableList.Builder<>();
+            for (int frame = 0; frame < frameCount; frame++) {
+                frames.add(new FrameReader.FrameData(reader.readInt(), reader.readInt(), reader.readInt(),
+                        reader.readInt(), reader.readInt()));
+            }
+
+            int levelCount = reader.readCount();
+            ImmutableList.Builder<IRGBAImage.VisibleArea> visibleAreas = new ImmutableList.Builder<>();
+            ImmutableList.Builder<Mipmap> mipmaps = new ImmutableList.Builder<>();
+            for (int level = 0; level < levelCount; level++) {
+                int width = reader.readCount();
+                int height = reader.readCount();
+
+                int rowCount = reader.readCount();
+                IRGBAImage.VisibleArea.Builder visibleArea = new IRGBAImage.VisibleArea.Builder();
+                for (int row = 0; row < rowCount; row++) {
+                    visibleArea.addRow(reader.readInt(), reader.readInt(), reader.readInt());
+                }
+                visibleAreas.add(visibleArea.build());
+
+                // Pixels are read from the file when they are used instead of when the index is read
+                Mipmap mipmap = new Mipmap(width, height, this, reader.position());
+                reader.skip(mipmap.getSizeInBytes());
+                mipmaps.add(mipmap);
+            }
+
+            entries.put(new Key(hash), new Entry(frames.build(), visibleAreas.build(), mipmaps.build()));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Writes entries to a snapshot file. Pixels of entries stored in the current file are
+     * transferred from it directly.
+     * @param channel   channel for the file
+     * @param entries   entries to write
+     * @return the offset of each level's pixels in the new file by entry
+     * @throws IOException if the entries cannot be written
+     */
+    private Map<Key, long[]> writeEntries(FileChannel channel, Map<Key, Entry> entries) throws IOException {
+        Map<Key, long[]> pixelOffsets = new HashMap<>();
+        FileChannel storedFile = null;
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).flip();
+            writeFully(channel, header);
+
+            for (Map.Entry<Key, Entry> mapEntry : entries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                long[] offsets = new long[entry.MIPMAPS.size()];
+
+                int frameBytes = Integer.BYTES + entry.FRAMES.size() * FRAME_INTS * Integer.BYTES;
+                ByteBuffer frames = ByteBuffer.allocate(HASH_BYTES + frameBytes + Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                frames.put(mapEntry.getKey().HASH);
+                frames.putInt(entry.FRAMES.size());
+                for (FrameReader.FrameData frame : entry.FRAMES) {
+                    frames.putInt(frame.getWidth()).putInt(frame.getHeight()).putInt(frame.getXOffset())
+                            .putInt(frame.getYOffset()).putInt(frame.getTime());
+                }
+                frames.putInt(entry.MIPMAPS.size()).flip();
+                writeFully(channel, frames);
+
+                for (int level = 0; level < entry.MIPMAPS.size(); level++) {
+                    Mipmap mipmap = entry.MIPMAPS.get(level);
+                    Set<IRGBAImage.VisibleArea.VisibleRow> rows = entry.VISIBLE_AREAS.get(level).getRows();
+
+                    ByteBuffer levelHeader = ByteBuffer.allocate((3 + rows.size() * ROW_INTS) * Integer.BYTES)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                    levelHeader.putInt(mipmap.WIDTH).putInt(mipmap.HEIGHT).putInt(rows.size());
+                    for (IRGBAImage.VisibleArea.VisibleRow row : rows) {
+                        levelHeader.putInt(row.getX()).putInt(row.getY()).putInt(row.getWidth());
+                    }
+                    levelHeader.flip();
+                    writeFully(channel, levelHeader);
+
+                    offsets[level] = channel.position();
+                    if (mipmap.SNAPSHOT == this) {
+                        if (storedFile == null) {
+                            storedFile = FileChannel.open(FILE, StandardOpenOption.READ);
+                        }
+
+                        transferFully(storedFile, getOffset(mipmap), mipmap.getSizeInBytes(), channel);
+                    } else {
+                        ByteBuffer pixels = ByteBuffer.allocate(mipmap.getSizeInBytes())
+                                .order(ByteOrder.LITTLE_ENDIAN);
+                        mipmap.readPixels(pixels);
+                        writeFully(channel, pixels);
+                    }
+                }
+
+                pixelOffsets.put(mapEntry.getKey(), offsets);
+            }
+        } finally {
+            if (storedFile != null) {
+                storedFile.close();
+            }
+        }
+
+        return pixelOffsets;
+    }
+
+    /**
+     * Writes all of a buffer to a channel.
+     * @param channel   channel to write to
+     * @param buffer    buffer to write from its position to its limit
+     * @throws IOException if the buffer cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Copies part of one file to the end of another without reading it into memory.
+     * @param source        channel to copy from
+     * @param position      position of the first byte to copy
+     * @param count         number of bytes to copy
+     * @param destination   channel to copy to
+     * @throws IOException if the bytes cannot be copied
+     */
+    private static void transferFully(FileChannel source, long position, long count, FileChannel destination)
+            throws IOException {
+        if (position < 0) {
+            throw new IOException("Mipmap is no longer in the animation snapshot");
+        }
+
+        long transferred = 0;
+        while (transferred < count) {
+            long copied = source.transferTo(position + transferred, count - transferred, destination);
+            if (copied <= 0) {
+                throw new EOFException("Snapshot ended before mipmap was copied");
+            }
+
+            transferred += copied;
+        }
+    }
+
+    /**
+     * Baked animation data for a single texture.
+     * @author soir20
+     */
+    public static class Entry {
+        private final ImmutableList<FrameReader.FrameData> FRAMES;
+        private final ImmutableList<IRGBAImage.VisibleArea> VISIBLE_AREAS;
+        private final ImmutableList<Mipmap> MIPMAPS;
+
+        /**
+         * Creates a new entry.
+         * @param frames            layout of the texture's frames
+         * @param visibleAreas      visible areas in ascending order of mipmap level
+         * @param mipmaps           decoded pixels in ascending order of mipmap level
+         */
+        public Entry(List<FrameReader.FrameData> frames, List<IRGBAImage.VisibleArea> visibleAreas,
+                     List<Mipmap> mipmaps) {
+            FRAMES = ImmutableList.copyOf(requireNonNull(frames, "Frames cannot be null"));
+            VISIBLE_AREAS = ImmutableList.copyOf(requireNonNull(visibleAreas, "Visible areas cannot be null"));
+            MIPMAPS = ImmutableList.copyOf(requireNonNull(mipmaps, "Mipmaps cannot be null"));
+
+            if (FRAMES.isEmpty()) {
+                throw new IllegalArgumentException("Entry must have at least one frame");
+            }
+
+            if (VISIBLE_AREAS.size() != MIPMAPS.size()) {
+                throw new IllegalArgumentException("Entry must have one visible area per mipmap");
+            }
+        }
+
+        /**
+         * Gets the layout of the texture's frames.
+         * @return the texture's frames
+         */
+        public ImmutableList<FrameReader.FrameData> getFrames() {
+            return FRAMES;
+        }
+
+        /**
+         * Gets the visible areas of the texture.
+         * @return the visible areas in ascending order of mipmap level
+         */
+        public ImmutableList<IRGBAImage.VisibleArea> getVisibleAreas() {
+            return VISIBLE_AREAS;
+        }
+
+        /**
+         * Gets the decoded pixels of the texture.
+         * @return the mipmaps in ascending order of mipmap level
+         */
+        public ImmutableList<Mipmap> getMipmaps() {
+            return MIPMAPS;
+        }
+
+    }
+
+    /**
+     * Decoded pixels for one mipmap level of a texture. Pixels are either kept in a buffer or,
+     * for mipmaps read from the snapshot file, stay in the file until they are copied.
+     * @author soir20
+     */
+    public static class Mipmap {
+        private final int WIDTH;
+        private final int HEIGHT;
+        @Nullable
+        private final IntBuffer PIXELS;
+        @Nullable
+        private final AnimationSnapshot SNAPSHOT;
+
+        // Guarded by the snapshot so that the file is not replaced while it is read
+        private long offset;
+
+        /**
+         * Creates a new mipmap.
+         * @param width     width of the mipmap
+         * @param height    height of the mipmap
+         * @param pixels    colors of the mipmap's pixels in row-major order
+         */
+        public Mipmap(int width, int height, IntBuffer pixels) {
+            requireNonNull(pixels, "Pixels cannot be null");
+            checkSize(width, height);
+
+            if (pixels.remaining() != width * height) {
+                throw new IllegalArgumentException("Mipmap must have exactly one color per pixel");
+            }
+
+            WIDTH = width;
+            HEIGHT = height;
+            PIXELS = pixels.slice();
+            SNAPSHOT = null;
+        }
+
+        /**
+         * Creates a new mipmap whose pixels are in a snapshot file.
+         * @param width     width of the mipmap
+         * @param height    height of the mipmap
+         * @param snapshot  the snapshot whose file has the pixels
+         * @param offset    position of the pixels in the file
+         */
+        private Mipmap(int width, int height, AnimationSnapshot snapshot, long offset) {
+            checkSize(width, height);
+            WIDTH = width;
+            HEIGHT = height;
+            PIXELS = null;
+            SNAPSHOT = snapshot;
+            this.offset = offset;
+        }
+
+        /**
+         * Gets the width of the mipmap.
+         * @return the width of the mipmap in pixels
+         */
+        public int getWidth() {
+            return WIDTH;
+        }
+
+        /**
+         * Gets the height of the mipmap.
+         * @return the height of the mipmap in pixels
+         */
+        public int getHeight() {
+            return HEIGHT;
+        }
+
+        /**
+         * Copies the mipmap's pixels in row-major order as little-endian ints. The pixels are
+         * copied to the destination starting at its position, and its position is not changed.
+         * @param destination   buffer to copy the pixels into
+         * @throws IOException if the pixels are in a snapshot file and cannot be read
+         */
+        public void readPixels(ByteBuffer destination) throws IOException {
+            requireNonNull(destination, "Destination cannot be null");
+            if (destination.remaining() < getSizeInBytes()) {
+                throw new IllegalArgumentException("Destination is too small for the mipmap's pixels");
+            }
+
+            ByteBuffer pixelBytes = destination.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            pixelBytes.limit(pixelBytes.position() + getSizeInBytes());
+
+            if (PIXELS != null) {
+                pixelBytes.asIntBuffer().put(PIXELS.duplicate());
+            } else {
+                requireNonNull(SNAPSHOT).readPixels(this, pixelBytes);
+            }
+        }
+
+        /**
+         * Gets the size of the mipmap's pixels.
+         * @return the number of bytes in the mipmap's pixels
+         */
+        private int getSizeInBytes() {
+            return WIDTH * HEIGHT * Integer.BYTES;
+        }
+
+        /**
+         * Checks that a mipmap has valid dimensions whose pixels fit in one buffer.
+         * @param width     width of the mipmap
+         * @param height    height of the mipmap
+         */
+        private static void checkSize(int width, int height) {
+            if (width < 0 || height < 0) {
+                throw new IllegalArgumentException("Mipmap cannot have negative dimensions");
+            }
+
+            if ((long) width * height * Integer.BYTES > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Mipmap is too large");
+            }
+        }
+
+    }
+
+    /**
+     * Reads a snapshot file's index by position through a small buffer so that
+     * the pixels between index sections can be skipped without being read.
+     * @author soir20
+     */
+    private static class IndexReader {
+        private final FileChannel CHANNEL;
+        private final long SIZE;
+        private final ByteBuffer BUFFER;
+        private long nextRead;
+
+        /**
+         * Creates a new reader at the start of a file.
+         * @param channel   channel for the file
+         * @throws IOException if the file's size cannot be read
+         */
+        public IndexReader(FileChannel channel) throws IOException {
+            CHANNEL = channel;
+            SIZE = channel.size();
+            BUFFER = ByteBuffer.allocate(INDEX_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            BUFFER.limit(0);
+        }
+
+        /**
+         * Reads an int.
+         * @return the int that was read
+         * @throws IOException if the file ends first
+         */
+        public int readInt() throws IOException {
+            require(Integer.BYTES);
+            return BUFFER.getInt();
+        }
+
+        /**
+         * Reads a count or dimension that cannot be negative.
+         * @return the count that was read
+         * @throws IOException if the file ends first
+         */
+        public int readCount() throws IOException {
+            int count = readInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("Snapshot contains a negative count");
+            }
+
+            return count;
+        }
+
+        /**
+         * Reads enough bytes to fill an array.
+         * @param destination   array to fill
+         * @throws IOException if the file ends first
+         */
+        public void readBytes(byte[] destination) throws IOException {
+            require(destination.length);
+            BUFFER.get(destination);
+        }
+
+        /**
+         * Skips over bytes without reading them.
+         * @param bytes     number of bytes to skip
+         * @throws IOException if the file ends first
+         */
+        public void skip(long bytes) throws IOException {
+            long end = position() + bytes;
+            if (end > SIZE) {
+                throw new EOFException("Snapshot ended before it was read");
+            }
+
+            if (bytes <= BUFFER.remaining()) {
+                BUFFER.position(BUFFER.position() + (int) bytes);
+            } else {
+                nextRead = end;
+                BUFFER.limit(0);
+            }
+        }
+
+        /**
+         * Gets the position of the next byte that will be read.
+         * @return the position in the file
+         */
+        public long position() {
+            return nextRead - BUFFER.remaining();
+        }
+
+        /**
+         * Makes sure that a number of bytes are buffered.
+         * @param bytes     number of bytes to buffer
+         * @throws IOException if the file ends first
+         */
+        private void require(int bytes) throws IOException {
+            if (BUFFER.remaining() >= bytes) {
+                return;
+            }
+
+            BUFFER.compact();
+            while (BUFFER.position() < bytes) {
+                int read = CHANNEL.read(BUFFER, nextRead);
+                if (read < 0) {
+                    throw new EOFException("Snapshot ended before it was read");
+                }
+
+                nextRead += read;
+            }
+            BUFFER.flip();
+        }
+
+    }
+
+    /**
+     * Wraps a content hash so it can be used as a map key.
+     * @author soir20
+     */
+    private static class Key {
+        private final byte[] HASH;
+
+        /**
+         * Creates a new key.
+         * @param hash      content hash of a texture
+         */
+        public Key(byte[] hash) {
+            requireNonNull(hash, "Hash cannot be null");
+            if (hash.length != HASH_BYTES) {
+                throw new IllegalArgumentException("Hash must be " + HASH_BYTES + " bytes long");
+            }
+
+            HASH = hash.clone();
+        }
+
+        /**
+         * Gets the hash code of this key.
+         * @return the hash code of this key
+         */
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(HASH);
+        }
+
+        /**
+         * Checks whether another object is a key with the same hash.
+         * @param other     the object to compare
+         * @return whether the two objects are identical keys
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(HASH, ((Key) other).HASH);
+        }
+
+    }
+
+}
@@ -17,11 +17,13 @@
 
 package io.github.soir20.moremcmeta.client.io;
 
+import io.github.soir20.moremcmeta.client.animation.PixelKernels;
 import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
-import io.github.soir20.moremcmeta.math.Point;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 
@@ -31,6 +33,18 @@ import static java.util.Objects.requireNonNull;
  */
 public class ChangingPointsReader {
 
+    // Strips with fewer pixels than this are scanned on a single thread
+    private static final int PARALLEL_THRESHOLD = 256 * 256;
+
+    private final PixelKernels KERNELS;
+
+    /**
+     * Creates a new changing points reader.
+     */
+    public ChangingPointsReader() {
+        KERNELS = PixelKernels.create();
+    }
+
     /**
      * Gets the pixels that will change for every mipmap of an image. If the image
      * or one of its mipmaps is empty, an empty area will be returned for that mipmap.
@@ -56,29 +70,39 @@ public class ChangingPointsReader {
         int widthWithFrames = image.getWidth() / frameWidth * frameWidth;
         int heightWithFrames = image.getHeight() / frameHeight * frameHeight;
 
-        // Find points in original image
-        IRGBAImage.VisibleArea.Builder noMipmapBuilder = new IRGBAImage.VisibleArea.Builder();
-        for (int y = 0; y < heightWithFrames; y++) {
-            for (int x = 0; x < widthWithFrames; x++) {
-                int frameX = x % frameWidth;
-                int frameY = y % frameHeight;
+        // Each task owns one row of the frame, so the rows can be scanned in parallel without locking
+        BitSet[] changedRows = new BitSet[frameHeight];
+        IntStream frameRows = IntStream.range(0, frameHeight);
+        if ((long) widthWithFrames * heightWithFrames >= PARALLEL_THRESHOLD) {
+            frameRows = frameRows.parallel();
+        }
 
-                // We want to detect a point that changes in any frame
-                if (!areColorsEqual(image.getPixel(x, y), image.getPixel(frameX, frameY))) {
-                    noMipmapBuilder.addPixel(frameX, frameY);
-                }
+        frameRows.forEach((frameY) ->
+                changedRows[frameY] = findChangesInRow(image, frameY, frameWidth, frameHeight,
+                        widthWithFrames, heightWithFrames)
+        );
 
+        // Find points in original image
+        IRGBAImage.VisibleArea.Builder noMipmapBuilder = new IRGBAImage.VisibleArea.Builder();
+        for (int frameY = 0; frameY < frameHeight; frameY++) {
+            BitSet changedRow = changedRows[frameY];
+
+            int startX = changedRow.nextSetBit(0);
+            while (startX >= 0) {
+                int endX = changedRow.nextClearBit(startX);
+                noMipmapBuilder.addRow(startX, frameY, endX - startX);
+                startX = changedRow.nextSetBit(endX);
             }
         }
         visibleAreas.add(noMipmapBuilder.build());
 
-        // Point coordinates will be different for all mipmap levels
+        // Row coordinates will be different for all mipmap levels
         for (int level = 1; level <= mipmap; level++) {
             IRGBAImage.VisibleArea.Builder mipmapBuilder = new IRGBAImage.VisibleArea.Builder();
 
             if (frameWidth >> level > 0 & frameHeight >> level > 0) {
-                for (Point point : visibleAreas.get(0)) {
-                    mipmapBuilder.addPixel(point.getX() >> level, point.getY() >> level);
+                for (IRGBAImage.VisibleArea.VisibleRow row : visibleAreas.get(0).getRows()) {
+                    addDownsampledRow(mipmapBuilder, row, level);
                 }
             }
 
@@ -89,17 +113,71 @@ public class ChangingPointsReader {
     }
 
     /**
-     * Determines if two RGBA colors are the same color. Equal colors have identical
-     * alpha, red, blue, and green components or are both completely transparent
-     * (alpha == 0).
-     * @param firstColor        the first color to compare
-     * @param secondColor       the second color to compare
-     * @return whether the two colors are the same colors
+     * Adds a row from the original image to a mipmap's visible area. Every pixel in the
+     * original row maps to the pixel at (x >> level, y >> level), so the mipmapped row
+     * covers the first through last of those pixels. The builder merges rows that overlap
+     * after being shifted.
+     * @param builder   builder for the mipmap's visible area
+     * @param row       row in the original image
+     * @param level     mipmap level
+     */
+    private void addDownsampledRow(IRGBAImage.VisibleArea.Builder builder, IRGBAImage.VisibleArea.VisibleRow row,
+                                   int level) {
+        int startX = row.getX() >> level;
+        int endX = (row.getX() + row.getWidth() - 1) >> level;
+        builder.addRow(startX, row.getY() >> level, endX - startX + 1);
+    }
+
+    /**
+     * Finds the pixels in one row of a frame that change in any frame. Pixels that are
+     * already known to change are not compared again.
+     * @param image                 the original image to analyze
+     * @param frameY                y-coordinate of the row within a frame
+     * @param frameWidth            the width of a frame
+     * @param frameHeight           the height of a frame
+     * @param widthWithFrames       width of the image that is covered by frames
+     * @param heightWithFrames      height of the image that is covered by frames
+     * @return  the x-coordinates (within a frame) of the pixels that change
      */
-    private boolean areColorsEqual(int firstColor, int secondColor) {
-        int firstAlpha = firstColor >> 24;
-        int secondAlpha = secondColor >> 24;
-        return firstColor == secondColor || (firstAlpha == 0 && secondAlpha == 0);
+    private BitSet findChangesInRow(IRGBAImage image, int frameY, int frameWidth, int frameHeight,
+                                    int widthWithFrames, int heightWithFrames) {
+        BitSet changed = new BitSet(frameWidth);
+        if (widthWithFrames == 0 || heightWithFrames == 0) {
+            return changed;
+        }
+
+        int[] firstFrameRow = new int[frameWidth];
+        for (int x = 0; x < frameWidth; x++) {
+            firstFrameRow[x] = image.getPixel(x, frameY);
+        }
+
+        for (int frameStartY = 0; frameStartY < heightWithFrames; frameStartY += frameHeight) {
+            int y = frameStartY + frameY;
+
+            // The first frame never differs from itself
+            int firstFrameX = frameStartY == 0 ? frameWidth : 0;
+
+            for (int frameStartX = firstFrameX; frameStartX < widthWithFrames; frameStartX += frameWidth) {
+
+                // We want to detect a point that changes in any frame
+                int frameX = changed.nextClearBit(0);
+                while (frameX < frameWidth) {
+                    if (!KERNELS.areColorsEqual(image.getPixel(frameStartX + frameX, y), firstFrameRow[frameX])) {
+                        changed.set(frameX);
+                    }
+
+                    frameX = changed.nextClearBit(frameX + 1);
+                }
+
+                // Stop early once every pixel in the row is known to change
+                if (changed.cardinality() == frameWidth) {
+                    return changed;
+                }
+
+            }
+        }
+
+        return changed;
     }
 
 }
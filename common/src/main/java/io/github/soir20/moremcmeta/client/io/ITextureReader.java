@@ -17,6 +17,9 @@
 
 package io.github.soir20.moremcmeta.client.io;
 
+import io.github.soir20.moremcmeta.client.resource.CancellationToken;
+import net.minecraft.resources.ResourceLocation;
+
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -36,4 +39,43 @@ public interface ITextureReader<T> {
      */
     T read(InputStream textureStream, InputStream metadataStream) throws IOException;
 
+    /**
+     * Reads an animated texture from file data as part of a reload that may be cancelled.
+     * Readers that do not support cancellation read the texture as usual.
+     * @param textureStream     input stream of image data
+     * @param metadataStream    input stream of texture metadata (JSON)
+     * @param token             token for the reload the texture is read for
+     * @return getter for retrieving an animated texture after all resources are loaded
+     * @throws IOException  failure reading from either input stream
+     * @throws java.util.concurrent.CancellationException if the reload was cancelled
+     */
+    default T read(InputStream textureStream, InputStream metadataStream, CancellationToken token)
+            throws IOException {
+        return read(textureStream, metadataStream);
+    }
+
+    /**
+     * Reads an animated texture from file data as part of a reload that may be cancelled.
+     * Readers that do not use the texture's location read the texture as usual.
+     * @param location          location of the texture
+     * @param textureStream     input stream of image data
+     * @param metadataStream    input stream of texture metadata (JSON)
+     * @param token             token for the reload the texture is read for
+     * @return getter for retrieving an animated texture after all resources are loaded
+     * @throws IOException  failure reading from either input stream
+     * @throws java.util.concurrent.CancellationException if the reload was cancelled
+     */
+    default T read(ResourceLocation location, InputStream textureStream, InputStream metadataStream,
+                   CancellationToken token) throws IOException {
+        return read(textureStream, metadataStream, token);
+    }
+
+    /**
+     * Releases a texture that was read but will never be used, such as a texture read for a
+     * reload that was cancelled. It is only called once no other thread uses the texture.
+     * Readers whose textures hold no resources do nothing.
+     * @param texture       the texture to release
+     */
+    default void discard(T texture) {}
+
 }
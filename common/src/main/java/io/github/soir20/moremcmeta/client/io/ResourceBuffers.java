@@ -0,0 +1,164 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.io;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads resources into direct buffers that can be handed to native decoders without another
+ * copy. Files from folder packs are read straight from their channel into a buffer of their
+ * exact size, so their contents are never copied onto the heap. Other streams, like zip entries,
+ * are read once into a direct buffer sized from the stream's reported length. Buffers are often
+ * kept for as long as their texture, so every buffer is trimmed to its contents.
+ * Files are never memory-mapped. The buffer is kept to reload evicted images, so a mapping would
+ * keep its file locked on some platforms for as long as the texture exists, and a mapping cannot
+ * be released early without internal JDK APIs. Zip entries reach the reader as streams without
+ * their archive or offset, so stored entries cannot be mapped either.
+ * @author soir20
+ */
+public class ResourceBuffers {
+    private static final int MIN_READ_SIZE = 8192;
+
+    /**
+     * Reads the rest of a stream into a direct buffer. The stream is not closed.
+     * @param stream        the stream to read
+     * @return a read-only direct buffer with the stream's remaining contents
+     * @throws IOException if the stream cannot be read
+     */
+    public static ByteBuffer read(InputStream stream) throws IOException {
+        requireNonNull(stream, "Stream cannot be null");
+
+        if (stream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            long size = channel.size() - channel.position();
+
+            if (size <= Integer.MAX_VALUE) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+
+                buffer.flip();
+                return trim(buffer).asReadOnlyBuffer();
+            }
+        }
+
+        return copy(stream);
+    }
+
+    /**
+     * Creates a stream that reads a buffer's remaining contents without changing the buffer.
+     * @param buffer        the buffer to read
+     * @return a stream over the buffer's contents
+     */
+    public static InputStream asStream(ByteBuffer buffer) {
+        requireNonNull(buffer, "Buffer cannot be null");
+        ByteBuffer view = buffer.duplicate();
+
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+
+                int count = Math.min(length, view.remaining());
+                view.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return view.remaining();
+            }
+        };
+    }
+
+    /**
+     * Copies the rest of a stream into a direct buffer. The stream's reported length is used
+     * as the initial size so that most streams are read without resizing the buffer.
+     * @param stream        the stream to read
+     * @return a read-only direct buffer with the stream's remaining contents
+     * @throws IOException if the stream cannot be read
+     */
+    private static ByteBuffer copy(InputStream stream) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(stream);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(stream.available(), MIN_READ_SIZE));
+
+        while (true) {
+
+            // Only grow the buffer if the stream was longer than it reported
+            if (!buffer.hasRemaining()) {
+                int nextByte = stream.read();
+                if (nextByte < 0) {
+                    break;
+                }
+
+                ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                larger.put((byte) nextByte);
+                buffer = larger;
+            }
+
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+
+        buffer.flip();
+        return trim(buffer).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies a buffer's contents into a new buffer of their exact size if the buffer has
+     * unused capacity.
+     * @param buffer        the flipped buffer to trim
+     * @return a buffer with no unused capacity and the same contents
+     */
+    private static ByteBuffer trim(ByteBuffer buffer) {
+        if (buffer.remaining() == buffer.capacity()) {
+            return buffer;
+        }
+
+        ByteBuffer trimmed = ByteBuffer.allocateDirect(buffer.remaining());
+        trimmed.put(buffer);
+        trimmed.flip();
+        return trimmed;
+    }
+
+}
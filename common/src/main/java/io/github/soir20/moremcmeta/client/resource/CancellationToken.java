@@ -0,0 +1,144 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Signals that the work for a resource reload is no longer needed because a newer
+ * reload has replaced it. A token is cancelled or completed at most once; cancelling
+ * a completed token does nothing. This class is thread-safe.
+ * @author soir20
+ */
+public class CancellationToken {
+
+    /**
+     * A token that can never be cancelled, for work that is not part of a reload.
+     */
+    public static final CancellationToken NEVER = new CancellationToken(State.COMPLETED);
+
+    private final List<Runnable> CANCEL_ACTIONS;
+    private volatile State state;
+
+    /**
+     * Creates a new token that has not been cancelled.
+     */
+    public CancellationToken() {
+        this(State.ACTIVE);
+    }
+
+    /**
+     * Creates a new token in the given state.
+     * @param state     initial state of the token
+     */
+    private CancellationToken(State state) {
+        CANCEL_ACTIONS = new ArrayList<>();
+        this.state = state;
+    }
+
+    /**
+     * Checks whether this token has been cancelled.
+     * @return whether this token has been cancelled
+     */
+    public boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    /**
+     * Stops the work for this token if it has been cancelled.
+     * @throws CancellationException if this token has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Reload was superseded by a newer reload");
+        }
+    }
+
+    /**
+     * Adds an action that releases resources if this token is cancelled. The action
+     * runs immediately if the token has already been cancelled, and it never runs
+     * if the token has already been completed.
+     * @param action        action to run when this token is cancelled
+     */
+    public void onCancel(Runnable action) {
+        requireNonNull(action, "Action cannot be null");
+
+        synchronized (CANCEL_ACTIONS) {
+            if (state == State.ACTIVE) {
+                CANCEL_ACTIONS.add(action);
+                return;
+            }
+        }
+
+        if (state == State.CANCELLED) {
+            action.run();
+        }
+    }
+
+    /**
+     * Cancels this token and runs all of its cancel actions. Does nothing if this
+     * token has already been cancelled or completed.
+     */
+    public void cancel() {
+        List<Runnable> actions;
+
+        synchronized (CANCEL_ACTIONS) {
+            if (state != State.ACTIVE) {
+                return;
+            }
+
+            state = State.CANCELLED;
+            actions = new ArrayList<>(CANCEL_ACTIONS);
+            CANCEL_ACTIONS.clear();
+        }
+
+        actions.forEach(Runnable::run);
+    }
+
+    /**
+     * Marks the work for this token as finished so that it can no longer be cancelled.
+     * Cancel actions are discarded without running. Does nothing if this token has
+     * already been cancelled or completed.
+     */
+    public void complete() {
+        synchronized (CANCEL_ACTIONS) {
+            if (state != State.ACTIVE) {
+                return;
+            }
+
+            state = State.COMPLETED;
+            CANCEL_ACTIONS.clear();
+        }
+    }
+
+    /**
+     * The lifecycle of a token.
+     * @author soir20
+     */
+    private enum State {
+        ACTIVE,
+        CANCELLED,
+        COMPLETED
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import com.google.gson.JsonObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Provides the parsed contents of a .moremcmeta file. The file does not have to be opened
+ * until its contents are read.
+ * @author soir20
+ */
+public interface IMetadataSource extends Closeable {
+
+    /**
+     * Reads the top-level JSON object in the metadata file.
+     * @return the parsed metadata
+     * @throws IOException if the metadata cannot be read
+     * @throws com.google.gson.JsonParseException if the metadata is not valid JSON
+     */
+    JsonObject read() throws IOException;
+
+}
@@ -18,6 +18,11 @@
 package io.github.soir20.moremcmeta.client.resource;
 
 import net.minecraft.server.packs.metadata.MetadataSectionSerializer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Holds animation metadata that is added by MoreMcmeta and not in the vanilla
@@ -31,12 +36,30 @@ public class ModAnimationMetadataSection {
 
     private final boolean DAYTIME_SYNC;
 
+    @Nullable
+    private final String SYNC_GROUP;
+
     /**
-     * Creates a new metadata holder.
+     * Creates a new metadata holder for an animation that is not in a sync group.
      * @param daytimeSync       whether the animation should sync to the game time
      */
     public ModAnimationMetadataSection(boolean daytimeSync) {
         DAYTIME_SYNC = daytimeSync;
+        SYNC_GROUP = null;
+    }
+
+    /**
+     * Creates a new metadata holder for an animation in a sync group.
+     * @param daytimeSync       whether the animation should sync to the game time
+     * @param syncGroup         name of the group of animations that share one timeline
+     */
+    public ModAnimationMetadataSection(boolean daytimeSync, String syncGroup) {
+        DAYTIME_SYNC = daytimeSync;
+        SYNC_GROUP = requireNonNull(syncGroup, "Sync group cannot be null");
+
+        if (syncGroup.isEmpty()) {
+            throw new IllegalArgumentException("Sync group cannot be empty");
+        }
     }
 
     /**
@@ -47,4 +70,12 @@ public class ModAnimationMetadataSection {
         return DAYTIME_SYNC;
     }
 
+    /**
+     * Gets the name of the group of animations that share one timeline with this animation.
+     * @return the name of the animation's sync group or empty if it is not in a group
+     */
+    public Optional<String> getSyncGroup() {
+        return Optional.ofNullable(SYNC_GROUP);
+    }
+
 }
@@ -45,7 +45,8 @@ public class ModAnimationMetadataSectionSerializer implements MetadataSectionSer
      * @param jsonObject    the object to parse. It should be the contents of the section
      *                      named this serializer's section name, not including the section
      *                      name. If the daytime sync property is not present, it defaults
-     *                      to false.
+     *                      to false. If the sync group property is not present, the animation
+     *                      is not in a sync group.
      * @return a mod animation metadata section from the provided JSON
      * @throws com.google.gson.JsonParseException   if there is an JSON parse error
      * @throws IllegalArgumentException             if an invalid parameter is provided
@@ -56,7 +57,13 @@ public class ModAnimationMetadataSectionSerializer implements MetadataSectionSer
             IllegalArgumentException {
         requireNonNull(jsonObject, "JSON object cannot be null");
         boolean isSynced = GsonHelper.getAsBoolean(jsonObject, "daytimeSync", false);
-        return new ModAnimationMetadataSection(isSynced);
+
+        if (!jsonObject.has("syncGroup")) {
+            return new ModAnimationMetadataSection(isSynced);
+        }
+
+        String syncGroup = GsonHelper.getAsString(jsonObject, "syncGroup");
+        return new ModAnimationMetadataSection(isSynced, syncGroup);
     }
 
 }
@@ -0,0 +1,75 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps track of the most recent resource reload so that work for older reloads
+ * can stop once a newer reload replaces them. This class is thread-safe.
+ * @author soir20
+ */
+public class ReloadTracker {
+    private CancellationToken current;
+
+    /**
+     * Creates a new tracker that is not tracking any reload.
+     */
+    public ReloadTracker() {
+        current = CancellationToken.NEVER;
+    }
+
+    /**
+     * Starts tracking a new reload, cancelling the previous reload if it has not finished.
+     * @return the token for the new reload
+     */
+    public CancellationToken startReload() {
+        CancellationToken previous;
+        CancellationToken next = new CancellationToken();
+
+        synchronized (this) {
+            previous = current;
+            current = next;
+        }
+
+        // Cancel actions may be slow, so they should not run while other threads wait
+        previous.cancel();
+
+        return next;
+    }
+
+    /**
+     * Marks a reload as finished so that it is no longer cancelled when the next reload starts.
+     * @param token     the token for the finished reload
+     */
+    public void finishReload(CancellationToken token) {
+        requireNonNull(token, "Token cannot be null");
+        token.complete();
+    }
+
+    /**
+     * Gets the token for the most recent reload.
+     * @return the token for the most recent reload, or a token that is never cancelled
+     *         if no reload has started
+     */
+    public synchronized CancellationToken getCurrent() {
+        return current;
+    }
+
+}
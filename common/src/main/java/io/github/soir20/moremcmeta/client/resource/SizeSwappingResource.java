@@ -49,7 +49,10 @@ import static java.util.Objects.requireNonNull;
  */
 public class SizeSwappingResource implements Resource {
     private final Resource ORIGINAL;
-    private final InputStream METADATA_STREAM;
+
+    @Nullable
+    private final IMetadataSource METADATA_SOURCE;
+
     private AnimationMetadataSection animMetadata;
     private boolean wasMetadataRead;
 
@@ -60,8 +63,30 @@ public class SizeSwappingResource implements Resource {
      *                          when the created resource is closed or after it is read.
      */
     public SizeSwappingResource(Resource original, @Nullable InputStream metadataStream) {
+        this(original, metadataStream == null ? null : new StreamMetadataSource(metadataStream));
+    }
+
+    /**
+     * Creates a resource that replaces empty animation metadata sections. The metadata is
+     * only read if animation metadata is requested and the original resource does not have it.
+     * @param original          the original resource
+     * @param metadataSource    source of .moremcmeta metadata. This will be closed
+     *                          when the created resource is closed.
+     * @return a resource that reads its metadata from the source
+     */
+    public static SizeSwappingResource withMetadataSource(Resource original,
+                                                          @Nullable IMetadataSource metadataSource) {
+        return new SizeSwappingResource(original, metadataSource);
+    }
+
+    /**
+     * Creates a resource that replaces empty animation metadata sections.
+     * @param original          the original resource
+     * @param metadataSource    source of .moremcmeta metadata (optional)
+     */
+    private SizeSwappingResource(Resource original, @Nullable IMetadataSource metadataSource) {
         ORIGINAL = requireNonNull(original, "Original resource cannot be null");
-        METADATA_STREAM = metadataStream;
+        METADATA_SOURCE = metadataSource;
     }
 
     /**
@@ -97,16 +122,14 @@ public class SizeSwappingResource implements Resource {
 
         // .mcmeta files take precedence over .moremcmeta files
         boolean isAnimationSection = serializer instanceof AnimationMetadataSectionSerializer;
-        if (!isAnimationSection || originalMetadata != null || METADATA_STREAM == null) {
+        if (!isAnimationSection || originalMetadata != null || METADATA_SOURCE == null) {
             return originalMetadata;
         }
 
         if (!wasMetadataRead) {
             wasMetadataRead = true;
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(METADATA_STREAM, StandardCharsets.UTF_8)
-            )) {
-                JsonObject topLevelJson = GsonHelper.parse(reader);
+            try {
+                JsonObject topLevelJson = METADATA_SOURCE.read();
 
                 String sectionName = serializer.getMetadataSectionName();
                 if (!topLevelJson.has(sectionName)) {
@@ -123,6 +146,11 @@ public class SizeSwappingResource implements Resource {
             }
         }
 
+        // The metadata could not be read the first time
+        if (animMetadata == null) {
+            return null;
+        }
+
         // Return our own "empty" metadata section; without metadata, the default one squeezes all frames into one
         JsonObject emptyAnimJson = new JsonObject();
 
@@ -159,9 +187,9 @@ public class SizeSwappingResource implements Resource {
             exceptions.add(err);
         }
 
-        if (METADATA_STREAM != null) {
+        if (METADATA_SOURCE != null) {
             try {
-                METADATA_STREAM.close();
+                METADATA_SOURCE.close();
             } catch (IOException err) {
                 exceptions.add(err);
             }
@@ -175,7 +203,7 @@ public class SizeSwappingResource implements Resource {
     /**
      * Determines if an object is the same as this resource.
      * @param other     the other object to compare
-     * @return whether the wrapped resource and the mod metadata stream are equal in the other object
+     * @return whether the wrapped resource and the mod metadata source are equal in the other object
      */
     @Override
     public boolean equals(Object other) {
@@ -184,7 +212,8 @@ public class SizeSwappingResource implements Resource {
         }
 
         SizeSwappingResource otherResource = (SizeSwappingResource) other;
-        return ORIGINAL.equals(otherResource.ORIGINAL) && Objects.equals(METADATA_STREAM, otherResource.METADATA_STREAM);
+        return ORIGINAL.equals(otherResource.ORIGINAL)
+                && Objects.equals(METADATA_SOURCE, otherResource.METADATA_SOURCE);
     }
 
     /**
@@ -193,7 +222,64 @@ public class SizeSwappingResource implements Resource {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(ORIGINAL.hashCode(), METADATA_STREAM);
+        return Objects.hash(ORIGINAL.hashCode(), METADATA_SOURCE);
+    }
+
+    /**
+     * Reads metadata from a stream that is already open.
+     * @author soir20
+     */
+    private static class StreamMetadataSource implements IMetadataSource {
+        private final InputStream STREAM;
+
+        /**
+         * Creates a new source for metadata in a stream.
+         * @param stream        the stream to read metadata from
+         */
+        public StreamMetadataSource(InputStream stream) {
+            STREAM = stream;
+        }
+
+        /**
+         * Reads and closes the metadata stream.
+         * @return the parsed metadata
+         * @throws IOException if the metadata cannot be read
+         */
+        @Override
+        public JsonObject read() throws IOException {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(STREAM, StandardCharsets.UTF_8))) {
+                return GsonHelper.parse(reader);
+            }
+        }
+
+        /**
+         * Closes the metadata stream.
+         * @throws IOException if the stream cannot be closed
+         */
+        @Override
+        public void close() throws IOException {
+            STREAM.close();
+        }
+
+        /**
+         * Determines if an object is a source for the same stream.
+         * @param other     the other object to compare
+         * @return whether the other object reads the same stream
+         */
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StreamMetadataSource && STREAM.equals(((StreamMetadataSource) other).STREAM);
+        }
+
+        /**
+         * Gets the hash code of the metadata stream.
+         * @return the hash code of the metadata stream
+         */
+        @Override
+        public int hashCode() {
+            return STREAM.hashCode();
+        }
+
     }
 
 }
@@ -17,6 +17,7 @@
 
 package io.github.soir20.moremcmeta.client.resource;
 
+import com.google.gson.JsonObject;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.PackResources;
 import net.minecraft.server.packs.PackType;
@@ -25,15 +26,21 @@ import net.minecraft.server.packs.resources.ReloadInstance;
 import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.SimpleReloadableResourceManager;
+import net.minecraft.util.GsonHelper;
 import net.minecraft.util.Unit;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -47,7 +54,9 @@ import static java.util.Objects.requireNonNull;
  * Otherwise, it performs identically to the {@link SimpleReloadableResourceManager} it
  * wraps. This extends {@link SimpleReloadableResourceManager} instead of implementing
  * {@link net.minecraft.server.packs.resources.ReloadableResourceManager} for compatibility
- * with other mods that expect a {@link SimpleReloadableResourceManager}.
+ * with other mods that expect a {@link SimpleReloadableResourceManager}. Metadata files are
+ * found without opening them and are only opened once their contents are needed. Parsed
+ * metadata is shared by all resources until the next reload.
  * @author soir20
  */
 public class SizeSwappingResourceManager extends SimpleReloadableResourceManager {
@@ -55,6 +64,8 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
 
     private final SimpleReloadableResourceManager ORIGINAL;
     private final Runnable RELOAD_CALLBACK;
+    private final ReloadTracker RELOAD_TRACKER;
+    private final Map<String, JsonObject> PARSED_METADATA;
 
     /**
      * Creates a new size swapping resource manager wrapper.
@@ -63,12 +74,27 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
      *                          all listeners have executed
      */
     public SizeSwappingResourceManager(SimpleReloadableResourceManager original, Runnable reloadCallback) {
+        this(original, reloadCallback, new ReloadTracker());
+    }
+
+    /**
+     * Creates a new size swapping resource manager wrapper that signals when a reload
+     * is superseded by a newer one.
+     * @param original          original resource manager to wrap
+     * @param reloadCallback    callback to run once all resource reloading has finished and
+     *                          all listeners have executed
+     * @param reloadTracker     tracker to start a new reload in each time the resources are reloaded
+     */
+    public SizeSwappingResourceManager(SimpleReloadableResourceManager original, Runnable reloadCallback,
+                                       ReloadTracker reloadTracker) {
 
         // We only use the client-side resource manager
         super(PackType.CLIENT_RESOURCES);
 
         ORIGINAL = requireNonNull(original, "Original resource manager cannot be null");
         RELOAD_CALLBACK = requireNonNull(reloadCallback, "Callback cannot be null");
+        RELOAD_TRACKER = requireNonNull(reloadTracker, "Reload tracker cannot be null");
+        PARSED_METADATA = new ConcurrentHashMap<>();
     }
 
     /**
@@ -79,6 +105,9 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
     public void add(PackResources packResources) {
         requireNonNull(packResources, "Pack resources cannot be null");
         ORIGINAL.add(packResources);
+
+        // The new pack may have metadata that replaces parsed metadata
+        PARSED_METADATA.clear();
     }
 
     /**
@@ -102,16 +131,31 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
         requireNonNull(resourceLocation, "Location cannot be null");
 
         Resource resource = ORIGINAL.getResource(resourceLocation);
+        if (!resourceLocation.getPath().endsWith(".png")) {
+            return resource;
+        }
+
+        // Most textures have no metadata, so only search the packs when some pack has it
         ResourceLocation metadataLoc = getModMetadataLocation(resourceLocation);
-        if (resourceLocation.getPath().endsWith(".png") && ORIGINAL.hasResource(metadataLoc)) {
-            Resource metadataResource = ORIGINAL.getResource(metadataLoc);
+        if (!ORIGINAL.hasResource(metadataLoc)) {
+            return resource;
+        }
 
-            if (metadataResource.getSourceName().equals(resource.getSourceName())) {
-                InputStream metadataStream = metadataResource.getInputStream();
-                resource = new SizeSwappingResource(resource, metadataStream);
+        // The topmost pack with the metadata is the one whose metadata the original manager would use
+        List<PackResources> packs = ORIGINAL.listPacks().collect(Collectors.toList());
+        Optional<PackResources> metadataPack = Optional.empty();
+        for (int index = packs.size() - 1; index >= 0 && !metadataPack.isPresent(); index--) {
+            PackResources pack = packs.get(index);
+            if (pack.hasResource(PackType.CLIENT_RESOURCES, metadataLoc)) {
+                metadataPack = Optional.of(pack);
             }
         }
 
+        if (metadataPack.isPresent() && metadataPack.get().getName().equals(resource.getSourceName())) {
+            resource = SizeSwappingResource.withMetadataSource(resource,
+                    new PackMetadataSource(metadataPack.get(), metadataLoc));
+        }
+
         return resource;
     }
 
@@ -141,15 +185,16 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
 
         List<Resource> resources = ORIGINAL.getResources(resourceLocation);
         if (resourceLocation.getPath().endsWith(".png") && ORIGINAL.hasResource(metadataLoc)) {
-            Map<String, Resource> modMetadataPacks = ORIGINAL.getResources(metadataLoc).stream()
-                    .collect(Collectors.toMap(Resource::getSourceName, Function.identity()));
+            Map<String, PackResources> modMetadataPacks = ORIGINAL.listPacks()
+                    .filter((pack) -> pack.hasResource(PackType.CLIENT_RESOURCES, metadataLoc))
+                    .collect(Collectors.toMap(PackResources::getName, Function.identity(), (first, second) -> second));
 
             Predicate<Resource> hasModMetadata = (resource) -> modMetadataPacks.containsKey(resource.getSourceName());
-            Function<Resource, InputStream> getMetadataStream =
-                    (resource) -> modMetadataPacks.get(resource.getSourceName()).getInputStream();
+            Function<Resource, IMetadataSource> getMetadataSource =
+                    (resource) -> new PackMetadataSource(modMetadataPacks.get(resource.getSourceName()), metadataLoc);
 
             resources = resources.stream().map((resource) -> hasModMetadata.test(resource) ?
-                    new SizeSwappingResource(resource, getMetadataStream.apply(resource)) : resource
+                    SizeSwappingResource.withMetadataSource(resource, getMetadataSource.apply(resource)) : resource
             ).collect(Collectors.toList());
         }
 
@@ -201,7 +246,7 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
 
     /**
      * Reloads the original resource manager, including any listeners that were registered
-     * before or after it was wrapped.
+     * before or after it was wrapped. Any reload that has not finished yet is cancelled.
      * @param loadingExec           executor for loading tasks
      * @param appExec               executor for application tasks
      * @param completableFuture     asynchronous reloading task
@@ -216,8 +261,15 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
         requireNonNull(completableFuture, "Completable future must not be null");
         requireNonNull(packs, "List of resource packs must not be null");
         
+        // The previous reload's results will be replaced, so its remaining work can stop
+        CancellationToken token = RELOAD_TRACKER.startReload();
+        PARSED_METADATA.clear();
+
         ReloadInstance reload = ORIGINAL.createFullReload(loadingExec, appExec, completableFuture, packs);
-        reload.done().thenRun(RELOAD_CALLBACK);
+        reload.done().thenRun(() -> {
+            RELOAD_TRACKER.finishReload(token);
+            RELOAD_CALLBACK.run();
+        });
         return reload;
     }
 
@@ -240,4 +292,79 @@ public class SizeSwappingResourceManager extends SimpleReloadableResourceManager
         return new ResourceLocation(textureLocation.getNamespace(), newPath);
     }
 
+    /**
+     * Reads .moremcmeta metadata from a pack the first time it is needed. Metadata parsed by one
+     * source is shared with all other sources for the same file until the next reload.
+     * @author soir20
+     */
+    private class PackMetadataSource implements IMetadataSource {
+        private final PackResources PACK;
+        private final ResourceLocation LOCATION;
+
+        /**
+         * Creates a new source for metadata in a pack.
+         * @param pack          the pack that contains the metadata
+         * @param location      the location of the metadata file
+         */
+        public PackMetadataSource(PackResources pack, ResourceLocation location) {
+            PACK = pack;
+            LOCATION = location;
+        }
+
+        /**
+         * Gets the parsed metadata, opening and parsing the metadata file if no other
+         * source has parsed it yet.
+         * @return the parsed metadata
+         * @throws IOException if the metadata file cannot be read
+         */
+        @Override
+        public JsonObject read() throws IOException {
+            String key = PACK.getName() + "/" + LOCATION;
+            JsonObject metadata = PARSED_METADATA.get(key);
+            if (metadata != null) {
+                return metadata;
+            }
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    PACK.getResource(PackType.CLIENT_RESOURCES, LOCATION), StandardCharsets.UTF_8
+            ))) {
+                metadata = GsonHelper.parse(reader);
+            }
+
+            PARSED_METADATA.put(key, metadata);
+            return metadata;
+        }
+
+        /**
+         * Does nothing because the metadata file is closed as soon as it is read.
+         */
+        @Override
+        public void close() {}
+
+        /**
+         * Determines if an object is a source for the same metadata file.
+         * @param other     the other object to compare
+         * @return whether the other object reads the same file from the same pack
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PackMetadataSource)) {
+                return false;
+            }
+
+            PackMetadataSource otherSource = (PackMetadataSource) other;
+            return PACK.equals(otherSource.PACK) && LOCATION.equals(otherSource.LOCATION);
+        }
+
+        /**
+         * Gets the hash code of the pack and metadata location.
+         * @return the hash code of this source
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(PACK, LOCATION);
+        }
+
+    }
+
 }
@@ -0,0 +1,278 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adds up how long each named stage of resource reloading takes. Stages can be
+ * recorded from any thread, including the parallel threads that read textures,
+ * where the game's profiler cannot be used. Stages timed inside another stage on
+ * the same thread are only counted once: their time is excluded from the outer stage.
+ * @author soir20
+ */
+public class StageTimings {
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * Timings that discard everything recorded in them, for when timings are not reported.
+     */
+    public static final StageTimings NONE = new StageTimings("", false);
+
+    private final Map<String, Stage> STAGES;
+    private final ThreadLocal<Timer> OPEN_TIMERS;
+    private final String DESCRIPTION;
+    private final boolean ENABLED;
+
+    /**
+     * Creates a new, empty set of stage timings for resource reloading.
+     */
+    public StageTimings() {
+        this("Texture reload stage timings");
+    }
+
+    /**
+     * Creates a new, empty set of stage timings.
+     * @param description       description of the timings written before their summary
+     */
+    public StageTimings(String description) {
+        this(requireNonNull(description, "Description cannot be null"), true);
+    }
+
+    /**
+     * Creates a new, empty set of stage timings.
+     * @param description       description of the timings written before their summary
+     * @param enabled           whether recorded stages are kept
+     */
+    private StageTimings(String description, boolean enabled) {
+        STAGES = new ConcurrentHashMap<>();
+        OPEN_TIMERS = new ThreadLocal<>();
+        DESCRIPTION = description;
+        ENABLED = enabled;
+    }
+
+    /**
+     * Records one execution of a stage. If another stage is being timed on this thread,
+     * the recorded time is excluded from that stage.
+     * @param stage     name of the stage
+     * @param nanos     how long the stage took in nanoseconds
+     */
+    public void record(String stage, long nanos) {
+        requireNonNull(stage, "Stage cannot be null");
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Stage duration cannot be negative");
+        }
+
+        Timer enclosing = OPEN_TIMERS.get();
+        if (enclosing != null) {
+            enclosing.nestedNanos += nanos;
+        }
+
+        add(stage, nanos);
+    }
+
+    /**
+     * Starts timing one execution of a stage on this thread. The stage is recorded when the
+     * returned timer is closed, excluding the time of any stages timed or recorded on this
+     * thread while it was open. Timers must be closed in the reverse order they were started.
+     * @param stage     name of the stage
+     * @return the timer for the stage
+     */
+    public Timer start(String stage) {
+        requireNonNull(stage, "Stage cannot be null");
+
+        Timer timer = new Timer(stage, OPEN_TIMERS.get());
+        OPEN_TIMERS.set(timer);
+        return timer;
+    }
+
+    /**
+     * Executes an action and records how long it took as one execution of a stage,
+     * excluding the time of any stages timed inside the action on this thread.
+     * @param stage     name of the stage
+     * @param action    action to time
+     * @param <T>       type of the action's result
+     * @return the action's result
+     */
+    public <T> T time(String stage, Supplier<T> action) {
+        requireNonNull(stage, "Stage cannot be null");
+        requireNonNull(action, "Action cannot be null");
+
+        try (Timer ignored = start(stage)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Gets the total time recorded for a stage.
+     * @param stage     name of the stage
+     * @return the total time of all executions of the stage in nanoseconds
+     */
+    public long getTotalNanos(String stage) {
+        requireNonNull(stage, "Stage cannot be null");
+        Stage timing = STAGES.get(stage);
+        return timing == null ? 0 : timing.TOTAL_NANOS.sum();
+    }
+
+    /**
+     * Gets the number of times a stage was recorded.
+     * @param stage     name of the stage
+     * @return the number of executions of the stage
+     */
+    public long getCount(String stage) {
+        requireNonNull(stage, "Stage cannot be null");
+        Stage timing = STAGES.get(stage);
+        return timing == null ? 0 : timing.COUNT.sum();
+    }
+
+    /**
+     * Gets the total time recorded for every stage.
+     * @return the total time of each stage in nanoseconds
+     */
+    public ImmutableMap<String, Long> getTotals() {
+        ImmutableMap.Builder<String, Long> totals = new ImmutableMap.Builder<>();
+        STAGES.forEach((stage, timing) -> totals.put(stage, timing.TOTAL_NANOS.sum()));
+        return totals.build();
+    }
+
+    /**
+     * Summarizes the total time and number of executions of every stage, slowest first.
+     * @return a summary of all stage timings, or an empty string if no stages were recorded
+     */
+    public String getSummary() {
+        return STAGES.entrySet().stream()
+                .map((entry) -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), new long[] {
+                        entry.getValue().TOTAL_NANOS.sum(), entry.getValue().COUNT.sum()
+                }))
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0])
+                        .reversed())
+                .map((entry) -> String.format("%s %.2f ms (%d)", entry.getKey(),
+                        entry.getValue()[0] / NANOS_PER_MILLI, entry.getValue()[1]))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Logs a summary of all stage timings and then clears them so the next reload
+     * starts from zero. Nothing is logged if no stages were recorded.
+     * @param logger        logger to write the summary to
+     */
+    public void logSummary(Logger logger) {
+        requireNonNull(logger, "Logger cannot be null");
+
+        String summary = getSummary();
+        reset();
+
+        if (!summary.isEmpty()) {
+            logger.info("{}: {}", DESCRIPTION, summary);
+        }
+    }
+
+    /**
+     * Clears all recorded timings.
+     */
+    public void reset() {
+        STAGES.clear();
+    }
+
+    /**
+     * Adds one execution to a stage's totals.
+     * @param stage     name of the stage
+     * @param nanos     time of the execution in nanoseconds
+     */
+    private void add(String stage, long nanos) {
+        if (!ENABLED) {
+            return;
+        }
+
+        Stage timing = STAGES.computeIfAbsent(stage, (name) -> new Stage());
+        timing.TOTAL_NANOS.add(nanos);
+        timing.COUNT.increment();
+    }
+
+    /**
+     * Times one execution of a stage until it is closed.
+     * @author soir20
+     */
+    public class Timer implements AutoCloseable {
+        private final String STAGE;
+        private final long START;
+
+        @Nullable
+        private final Timer ENCLOSING;
+
+        private long nestedNanos;
+        private boolean closed;
+
+        /**
+         * Starts timing a stage.
+         * @param stage         name of the stage
+         * @param enclosing     timer open on this thread when this one started, if any
+         */
+        private Timer(String stage, @Nullable Timer enclosing) {
+            STAGE = stage;
+            ENCLOSING = enclosing;
+            START = System.nanoTime();
+        }
+
+        /**
+         * Records the stage, excluding the time of stages nested inside it, and adds its
+         * full time to the stage that encloses it. Closing a timer more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            long nanos = System.nanoTime() - START;
+            if (ENCLOSING != null) {
+                OPEN_TIMERS.set(ENCLOSING);
+                ENCLOSING.nestedNanos += nanos;
+            } else {
+                OPEN_TIMERS.remove();
+            }
+
+            add(STAGE, Math.max(0, nanos - nestedNanos));
+        }
+
+    }
+
+    /**
+     * The accumulated time of a single stage.
+     * @author soir20
+     */
+    private static class Stage {
+        private final LongAdder TOTAL_NANOS = new LongAdder();
+        private final LongAdder COUNT = new LongAdder();
+    }
+
+}
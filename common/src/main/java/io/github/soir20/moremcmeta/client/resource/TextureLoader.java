@@ -22,16 +22,24 @@ import com.google.gson.JsonParseException;
 import io.github.soir20.moremcmeta.client.io.ITextureReader;
 import net.minecraft.ResourceLocationException;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.PackType;
 import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.profiling.ProfilerFiller;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -42,97 +50,179 @@ import static java.util.Objects.requireNonNull;
  */
 public class TextureLoader<R> {
     private static final String METADATA_EXTENSION = ".moremcmeta";
+    private static final String TEXTURE_EXTENSION = ".png";
 
     private final ITextureReader<R> TEXTURE_READER;
     private final Logger LOGGER;
+    private final StageTimings TIMINGS;
+    private final ReloadTracker RELOAD_TRACKER;
 
     /**
-     * Creates a TextureLoader.
+     * Creates a TextureLoader that does not report its timings. Use a {@link Builder}
+     * to create a loader that records timings or stops loading superseded reloads.
      * @param texReader             reads textures
      * @param logger                logs listener-related messages to the game's output
      */
     public TextureLoader(ITextureReader<R> texReader, Logger logger) {
-        TEXTURE_READER = requireNonNull(texReader, "Texture reader cannot be null");
-        LOGGER = requireNonNull(logger, "Logger cannot be null");
+        this(requireNonNull(texReader, "Texture reader cannot be null"),
+                requireNonNull(logger, "Logger cannot be null"),
+                StageTimings.NONE, new ReloadTracker());
+    }
+
+    /**
+     * Creates a TextureLoader.
+     * @param texReader             reads textures
+     * @param logger                logs listener-related messages to the game's output
+     * @param timings               timings to add the time spent in each loading stage to
+     * @param reloadTracker         tracks the most recent reload
+     */
+    private TextureLoader(ITextureReader<R> texReader, Logger logger, StageTimings timings,
+                          ReloadTracker reloadTracker) {
+        TEXTURE_READER = texReader;
+        LOGGER = logger;
+        TIMINGS = timings;
+        RELOAD_TRACKER = reloadTracker;
     }
 
     /**
-     * Searches for and loads animated textures from a folder throughout all resource packs.
+     * Searches for and loads animated textures from several folders throughout all resource packs,
+     * walking each pack only once. Every texture and metadata file in the folders is indexed by pack
+     * without opening any files. A texture is only read if the topmost pack that contains it also
+     * contains its metadata, and it is read directly from that pack. Indexing and reading are reported
+     * to the profiler as separate sections. If a newer reload starts while textures are loading,
+     * loading stops and no textures are returned.
      * @param resourceManager       the game's central resource manager
-     * @param path                  the path to search for textures in
+     * @param paths                 the paths to search for textures in
+     * @param profiler              profiler for the current reload
      */
-    public ImmutableMap<ResourceLocation, R> load(ResourceManager resourceManager, String path) {
+    public ImmutableMap<ResourceLocation, R> load(ResourceManager resourceManager, Collection<String> paths,
+                                                  ProfilerFiller profiler) {
         requireNonNull(resourceManager, "Resource manager cannot be null");
-        requireNonNull(path, "Path cannot be null");
-        if (path.isEmpty() || path.startsWith("/")) {
-            throw new IllegalArgumentException("Path cannot be empty or start with a slash");
+        requireNonNull(paths, "Paths cannot be null");
+        requireNonNull(profiler, "Profiler cannot be null");
+        for (String path : paths) {
+            requireNonNull(path, "Path cannot be null");
+            if (path.isEmpty() || path.startsWith("/")) {
+                throw new IllegalArgumentException("Path cannot be empty or start with a slash");
+            }
         }
 
-        Collection<ResourceLocation> textureCandidates;
+        CancellationToken token = RELOAD_TRACKER.getCurrent();
 
-        /* We should catch ResourceLocation errors to prevent bad texture names/paths from
-           removing all resource packs. We can't filter invalid folder names, so we don't filter
-           invalid texture names for consistency.
-           NOTE: Some pack types (like FolderPack) handle bad locations before we see them. */
+        profiler.push("indexPacks");
         try {
-             textureCandidates = resourceManager.listResources(
-                    path,
-                    fileName -> fileName.endsWith(METADATA_EXTENSION)
-             );
+            Optional<Map<ResourceLocation, PackResources>> texturePacks = TIMINGS.time("indexPacks",
+                    () -> indexPacks(resourceManager, paths));
 
-        } catch (ResourceLocationException error) {
-            LOGGER.error("Found texture with invalid name; no textures will be loaded: {}",
-                    error.toString());
-            return ImmutableMap.of();
-        }
+            if (!texturePacks.isPresent()) {
+                return ImmutableMap.of();
+            }
+
+            profiler.popPush("readTextures");
+            Map<ResourceLocation, R> textures = new ConcurrentHashMap<>();
+            texturePacks.get().entrySet().parallelStream().forEach((entry) -> {
+                if (token.isCancelled()) {
+                    return;
+                }
+
+                getTexture(entry.getValue(), entry.getKey(), token)
+                        .ifPresent((texture) -> textures.put(entry.getKey(), texture));
+            });
+
+            /* Textures that were already read are released once every read has finished,
+               so none of them are released while a reader is still using them. */
+            if (token.isCancelled()) {
+                textures.values().forEach(TEXTURE_READER::discard);
+                LOGGER.debug("Stopped loading textures in {} because a newer reload started", paths);
+                return ImmutableMap.of();
+            }
 
-        return getTextures(textureCandidates, resourceManager);
+            return ImmutableMap.copyOf(textures);
+        } finally {
+            profiler.pop();
+        }
     }
 
     /**
-     * Creates all valid textures from candidates.
-     * @param candidates        possible locations of textures
-     * @param resourceManager   the resource manager for the current reload
+     * Finds the pack that each texture with metadata should be read from by listing the
+     * textures and metadata in every pack once.
+     * @param resourceManager       the game's central resource manager
+     * @param paths                 the paths to search for textures in
+     * @return the pack to read each texture from, or empty if a texture has an invalid name
      */
-    private ImmutableMap<ResourceLocation, R> getTextures(Collection<ResourceLocation> candidates,
-                                                                     ResourceManager resourceManager) {
-        Map<ResourceLocation, R> textures = new ConcurrentHashMap<>();
+    private Optional<Map<ResourceLocation, PackResources>> indexPacks(ResourceManager resourceManager,
+                                                                      Collection<String> paths) {
+        List<PackResources> packs = resourceManager.listPacks().collect(Collectors.toList());
+
+        // Packs are listed from lowest to highest priority, so later packs replace earlier ones
+        Map<ResourceLocation, PackResources> topTexturePacks = new HashMap<>();
+        Map<PackResources, Set<ResourceLocation>> metadataByPack = new HashMap<>();
+
+        try {
+            for (PackResources pack : packs) {
+                Set<ResourceLocation> packMetadata = new HashSet<>();
 
-        // Create textures from unique candidates
-        candidates.stream().distinct().parallel().forEach((metadataLocation) -> {
-            ResourceLocation textureLocation = new ResourceLocation(metadataLocation.getNamespace(),
-                    metadataLocation.getPath().replace(METADATA_EXTENSION, ""));
+                for (String namespace : pack.getNamespaces(PackType.CLIENT_RESOURCES)) {
+                    for (String path : paths) {
+                        Collection<ResourceLocation> locations = pack.getResources(PackType.CLIENT_RESOURCES,
+                                namespace, path, Integer.MAX_VALUE,
+                                (fileName) -> fileName.endsWith(TEXTURE_EXTENSION)
+                                        || fileName.endsWith(METADATA_EXTENSION));
 
-            Optional<R> texture = getTexture(resourceManager, textureLocation, metadataLocation);
+                        for (ResourceLocation location : locations) {
+                            if (location.getPath().endsWith(METADATA_EXTENSION)) {
+                                packMetadata.add(location);
+                            } else {
+                                topTexturePacks.put(location, pack);
+                            }
+                        }
+                    }
+                }
 
-            // Keep track of which textures are created
-            texture.ifPresent(tex -> textures.put(textureLocation, tex));
+                metadataByPack.put(pack, packMetadata);
+            }
+        } catch (ResourceLocationException error) {
+            LOGGER.error("Found texture with invalid name; no textures will be loaded: {}",
+                    error.toString());
+            return Optional.empty();
+        }
+
+        // We don't want to get metadata from a lower pack than the texture
+        Map<ResourceLocation, PackResources> texturePacks = new HashMap<>();
+        topTexturePacks.forEach((textureLocation, pack) -> {
+            ResourceLocation metadataLocation = new ResourceLocation(textureLocation.getNamespace(),
+                    textureLocation.getPath() + METADATA_EXTENSION);
 
+            if (metadataByPack.get(pack).contains(metadataLocation)) {
+                texturePacks.put(textureLocation, pack);
+            }
         });
 
-        return ImmutableMap.copyOf(textures);
+        return Optional.of(texturePacks);
     }
 
     /**
-     * Gets an texture from a file.
-     * @param resourceManager   resource manager to get textures/metadata from
+     * Gets a texture directly from the pack that contains both the texture and its metadata.
+     * @param pack              pack to read the texture and metadata from
      * @param textureLocation   location of the image/.png texture
-     * @param metadataLocation  file location of texture's metadata for this mod (not .mcmeta)
-     * @return the texture, or empty if the file is not found
+     * @param token             token for the current reload
+     * @return the texture, or empty if the file is not found or the reload was cancelled
      */
-    private Optional<R> getTexture(ResourceManager resourceManager,
-                                   ResourceLocation textureLocation,
-                                   ResourceLocation metadataLocation) {
-        try (Resource originalResource = resourceManager.getResource(textureLocation);
-             Resource metadataResource = resourceManager.getResource(metadataLocation)) {
-
-            // We don't want to get metadata from a lower pack than the texture
-            if (originalResource.getSourceName().equals(metadataResource.getSourceName())) {
-                InputStream textureStream = originalResource.getInputStream();
-                InputStream metadataStream = metadataResource.getInputStream();
-
-                return Optional.of(TEXTURE_READER.read(textureStream, metadataStream));
+    private Optional<R> getTexture(PackResources pack, ResourceLocation textureLocation,
+                                   CancellationToken token) {
+        ResourceLocation metadataLocation = new ResourceLocation(textureLocation.getNamespace(),
+                textureLocation.getPath() + METADATA_EXTENSION);
+
+        try (InputStream textureStream = pack.getResource(PackType.CLIENT_RESOURCES, textureLocation);
+             InputStream metadataStream = pack.getResource(PackType.CLIENT_RESOURCES, metadataLocation)) {
+
+            // Stages timed by the reader are not counted here too
+            R texture;
+            try (StageTimings.Timer ignored = TIMINGS.start("readTexture")) {
+                texture = TEXTURE_READER.read(textureLocation, textureStream, metadataStream, token);
             }
+
+            return Optional.of(texture);
         } catch (IOException ioException) {
             LOGGER.error("Using missing texture, unable to load {}: {}",
                     textureLocation, ioException);
@@ -140,9 +230,67 @@ public class TextureLoader<R> {
             LOGGER.error("Unable to read texture metadata: {}", jsonError.toString());
         } catch (IllegalArgumentException metadataError) {
             LOGGER.error("Found invalid metadata parameter: {}", metadataError.toString());
+        } catch (CancellationException cancelledError) {
+            LOGGER.debug("Stopped reading {} because a newer reload started", textureLocation);
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Builds a {@link TextureLoader} with optional timings and reload tracking.
+     * @param <R> resource type
+     * @author soir20
+     */
+    public static class Builder<R> {
+        private final ITextureReader<R> TEXTURE_READER;
+        private final Logger LOGGER;
+        private StageTimings timings;
+        private ReloadTracker reloadTracker;
+
+        /**
+         * Creates a new builder for a loader.
+         * @param texReader         reads textures
+         * @param logger            logs listener-related messages to the game's output
+         */
+        public Builder(ITextureReader<R> texReader, Logger logger) {
+            TEXTURE_READER = requireNonNull(texReader, "Texture reader cannot be null");
+            LOGGER = requireNonNull(logger, "Logger cannot be null");
+            timings = StageTimings.NONE;
+            reloadTracker = new ReloadTracker();
+        }
+
+        /**
+         * Sets the timings that the time spent in each loading stage is added to.
+         * Optional; by default, the time is not recorded.
+         * @param timings       timings to add the time spent in each loading stage to
+         * @return this builder for chaining
+         */
+        public Builder<R> setTimings(StageTimings timings) {
+            this.timings = requireNonNull(timings, "Timings cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the tracker for the most recent reload. The loader stops loading textures once
+         * their reload is superseded. Optional; by default, the loader has its own tracker, so
+         * its reloads are never superseded.
+         * @param reloadTracker     tracks the most recent reload
+         * @return this builder for chaining
+         */
+        public Builder<R> setReloadTracker(ReloadTracker reloadTracker) {
+            this.reloadTracker = requireNonNull(reloadTracker, "Reload tracker cannot be null");
+            return this;
+        }
+
+        /**
+         * Builds the loader.
+         * @return the loader
+         */
+        public TextureLoader<R> build() {
+            return new TextureLoader<>(TEXTURE_READER, LOGGER, timings, reloadTracker);
+        }
+
+    }
+
 }
@@ -0,0 +1,229 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records which texture every native image was created for, so that images that are never
+ * released can be found. Each texture that is read gets its own {@link Owner}. An owner's
+ * images leak if any of them are still tracked once the owner is closed, which happens when
+ * its texture closes, or once it is replaced by a newer owner for the same location, which
+ * happens when a texture is read again without the old one being closed.
+ * @param <I> native image type
+ * @author soir20
+ */
+public class AllocationTracker<I> {
+    private final ToLongFunction<? super I> SIZE_CALCULATOR;
+    private final Map<I, Allocation> ALLOCATIONS;
+    private final Map<ResourceLocation, Owner> CURRENT_OWNERS;
+    private long liveBytes;
+
+    /**
+     * Creates a new allocation tracker.
+     * @param sizeCalculator    calculates the bytes of native memory an image holds
+     */
+    public AllocationTracker(ToLongFunction<? super I> sizeCalculator) {
+        SIZE_CALCULATOR = requireNonNull(sizeCalculator, "Size calculator cannot be null");
+        ALLOCATIONS = new IdentityHashMap<>();
+        CURRENT_OWNERS = new HashMap<>();
+    }
+
+    /**
+     * Creates a new owner for the images of a texture. Any previous owner for the same
+     * location is replaced, so its images are leaks if they are still tracked.
+     * @param location      location of the texture
+     * @return the new owner
+     */
+    public synchronized Owner newOwner(ResourceLocation location) {
+        requireNonNull(location, "Location cannot be null");
+
+        Owner owner = new Owner(location);
+        Owner previousOwner = CURRENT_OWNERS.put(location, owner);
+        if (previousOwner != null) {
+            previousOwner.replaced = true;
+        }
+
+        return owner;
+    }
+
+    /**
+     * Records that an image was created for a texture. Tracking an image again
+     * changes its owner.
+     * @param owner     owner of the texture the image was created for
+     * @param image     the image
+     */
+    public synchronized void track(Owner owner, I image) {
+        requireNonNull(owner, "Owner cannot be null");
+        requireNonNull(image, "Image cannot be null");
+
+        long bytes = SIZE_CALCULATOR.applyAsLong(image);
+        Allocation previous = ALLOCATIONS.put(image, new Allocation(owner, bytes));
+        if (previous != null) {
+            liveBytes -= previous.BYTES;
+        }
+
+        liveBytes += bytes;
+    }
+
+    /**
+     * Records that an image was released. Images that are not tracked are ignored.
+     * @param image     the image
+     */
+    public synchronized void release(I image) {
+        requireNonNull(image, "Image cannot be null");
+
+        Allocation allocation = ALLOCATIONS.remove(image);
+        if (allocation != null) {
+            liveBytes -= allocation.BYTES;
+        }
+    }
+
+    /**
+     * Records that an owner's texture closed. All of its images should have been released.
+     * @param owner     the owner whose texture closed
+     */
+    public synchronized void close(Owner owner) {
+        requireNonNull(owner, "Owner cannot be null");
+        owner.closed = true;
+        CURRENT_OWNERS.remove(owner.LOCATION, owner);
+    }
+
+    /**
+     * Gets the number of tracked images that have not been released.
+     * @return number of live images
+     */
+    public synchronized int getLiveCount() {
+        return ALLOCATIONS.size();
+    }
+
+    /**
+     * Gets the bytes of native memory held by tracked images that have not been released.
+     * @return bytes held by live images
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Finds the number of bytes leaked by each texture. Leaked images are still tracked
+     * afterwards.
+     * @return bytes leaked by each texture location
+     */
+    public synchronized Map<ResourceLocation, Long> findLeaks() {
+        Map<ResourceLocation, Long> leaks = new HashMap<>();
+
+        for (Allocation allocation : ALLOCATIONS.values()) {
+            if (allocation.OWNER.isLeaking()) {
+                leaks.merge(allocation.OWNER.LOCATION, allocation.BYTES, Long::sum);
+            }
+        }
+
+        return leaks;
+    }
+
+    /**
+     * Logs leaked images and live native memory. Leaked images are only reported once
+     * and are no longer tracked afterwards.
+     * @param logger        logger to write the report to
+     */
+    public synchronized void logSummary(Logger logger) {
+        requireNonNull(logger, "Logger cannot be null");
+
+        findLeaks().forEach((location, bytes) ->
+                logger.warn("Native images for {} were never released ({} bytes leaked)", location, bytes));
+
+        Iterator<Allocation> allocationIterator = ALLOCATIONS.values().iterator();
+        while (allocationIterator.hasNext()) {
+            Allocation allocation = allocationIterator.next();
+            if (allocation.OWNER.isLeaking()) {
+                liveBytes -= allocation.BYTES;
+                allocationIterator.remove();
+            }
+        }
+
+        if (!ALLOCATIONS.isEmpty()) {
+            logger.info("Native images held by textures: {} images ({} bytes)", ALLOCATIONS.size(), liveBytes);
+        }
+    }
+
+    /**
+     * Owns the images created for one texture.
+     * @author soir20
+     */
+    public static class Owner {
+        private final ResourceLocation LOCATION;
+        private boolean closed;
+        private boolean replaced;
+
+        /**
+         * Creates a new owner.
+         * @param location      location of the texture
+         */
+        private Owner(ResourceLocation location) {
+            LOCATION = location;
+        }
+
+        /**
+         * Gets the location of the texture that this owner represents.
+         * @return the texture's location
+         */
+        public ResourceLocation getLocation() {
+            return LOCATION;
+        }
+
+        /**
+         * Checks whether any remaining images of this owner are leaks.
+         * @return whether this owner's texture closed or was replaced
+         */
+        private boolean isLeaking() {
+            return closed || replaced;
+        }
+
+    }
+
+    /**
+     * An image that has not been released yet.
+     * @author soir20
+     */
+    private static class Allocation {
+        private final Owner OWNER;
+        private final long BYTES;
+
+        /**
+         * Creates a new allocation.
+         * @param owner     owner of the image
+         * @param bytes     bytes of native memory held by the image
+         */
+        public Allocation(Owner owner, long bytes) {
+            OWNER = owner;
+            BYTES = bytes;
+        }
+
+    }
+
+}
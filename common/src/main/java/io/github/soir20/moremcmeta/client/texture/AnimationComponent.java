@@ -18,9 +18,9 @@
 package io.github.soir20.moremcmeta.client.texture;
 
 import io.github.soir20.moremcmeta.client.animation.AnimationFrameManager;
+import io.github.soir20.moremcmeta.client.animation.GameClock;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Optional;
-import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -31,25 +31,27 @@ import static java.util.Objects.requireNonNull;
  */
 public class AnimationComponent implements ITextureComponent {
     private final int SYNC_TICKS;
-    private final Supplier<Optional<Long>> TIME_GETTER;
-    private final AnimationFrameManager<? extends RGBAImageFrame> FRAME_MANAGER;
 
-    private int ticks;
+    @Nullable
+    private final GameClock CLOCK;
+
+    private final AnimationFrameManager<? extends RGBAImageFrame> FRAME_MANAGER;
 
     /**
-     * Creates an animation component that syncs to the current game time.
+     * Creates an animation component that syncs to the current game time. While the
+     * game has a time, the current frame is calculated directly from it.
      * @param syncTicks         number of ticks to sync to
-     * @param timeGetter        gets the client's current time if it has a time
+     * @param clock             clock with the client's current time, ticked before this component
      * @param frameManager      frame manager for the animation
      */
-    public AnimationComponent(int syncTicks, Supplier<Optional<Long>> timeGetter,
+    public AnimationComponent(int syncTicks, GameClock clock,
                               AnimationFrameManager<? extends RGBAImageFrame> frameManager) {
         if (syncTicks <= 0) {
             throw new IllegalArgumentException("Sync ticks cannot be zero or negative");
         }
 
         SYNC_TICKS = syncTicks;
-        TIME_GETTER = requireNonNull(timeGetter, "Time getter cannot be null");
+        CLOCK = requireNonNull(clock, "Clock cannot be null");
         FRAME_MANAGER = requireNonNull(frameManager, "Frame manager cannot be null");
     }
 
@@ -59,7 +61,7 @@ public class AnimationComponent implements ITextureComponent {
      */
     public AnimationComponent(AnimationFrameManager<? extends RGBAImageFrame> frameManager) {
         SYNC_TICKS = -1;
-        TIME_GETTER = Optional::empty;
+        CLOCK = null;
         FRAME_MANAGER = requireNonNull(frameManager, "Frame manager cannot be null");
     }
 
@@ -71,21 +73,16 @@ public class AnimationComponent implements ITextureComponent {
     public Stream<TextureListener> getListeners() {
         TextureListener tickListener =
                 new TextureListener(TextureListener.Type.TICK, (state) -> {
-                    Optional<Long> timeOptional = TIME_GETTER.get();
-                    requireNonNull(timeOptional, "Timer getter cannot supply null");
-
-                    if (timeOptional.isPresent()) {
-                        long currentTime = timeOptional.get();
-                        int ticksToAdd = (int) Math.floorMod(currentTime - ticks, SYNC_TICKS);
-
-                        ticks += ticksToAdd;
-                        FRAME_MANAGER.tick(ticksToAdd);
+                    if (CLOCK != null && CLOCK.hasTime()) {
+                        FRAME_MANAGER.jumpTo(Math.floorMod(CLOCK.getTime(), SYNC_TICKS));
                     } else {
-                        ticks++;
                         FRAME_MANAGER.tick();
                     }
 
-                    state.markNeedsUpload();
+                    // Only upload when the frame is different so unchanged textures cost nothing to render
+                    if (FRAME_MANAGER.hasFrameChanged()) {
+                        state.markNeedsUpload();
+                    }
                 });
 
         TextureListener uploadListener =
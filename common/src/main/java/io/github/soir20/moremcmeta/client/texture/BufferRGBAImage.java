@@ -0,0 +1,245 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.nio.IntBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link IRGBAImage} whose pixels are stored contiguously, row by row, in a buffer.
+ * Unlike an image that addresses part of a larger strip, all of its pixels can be
+ * copied or uploaded with a single bulk operation.
+ * @author soir20
+ */
+public class BufferRGBAImage implements IRGBAImage {
+    private final IntBuffer PIXELS;
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int MIPMAP_LEVEL;
+    private final VisibleArea VISIBLE_AREA;
+    private final IBufferUploader UPLOADER;
+
+    /**
+     * Creates a new image backed by a buffer.
+     * @param pixels            buffer holding the image's pixels from its current position.
+     *                          It must have at least width * height pixels remaining. Changes
+     *                          to the buffer's position or limit do not affect this image.
+     * @param width             width of the image in pixels
+     * @param height            height of the image in pixels
+     * @param mipmapLevel       mipmap level of the image
+     * @param visibleArea       the visible portions of this image
+     * @param uploader          uploads the pixels in this image
+     */
+    public BufferRGBAImage(IntBuffer pixels, int width, int height, int mipmapLevel,
+                           VisibleArea visibleArea, IBufferUploader uploader) {
+        requireNonNull(pixels, "Pixel buffer cannot be null");
+        VISIBLE_AREA = requireNonNull(visibleArea, "Visible area cannot be null");
+        UPLOADER = requireNonNull(uploader, "Uploader cannot be null");
+
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Image dimensions cannot be negative");
+        }
+
+        if (mipmapLevel < 0) {
+            throw new IllegalArgumentException("Mipmap level cannot be negative");
+        }
+
+        int size = width * height;
+        if (pixels.remaining() < size) {
+            throw new IllegalArgumentException("Buffer is too small for an image of the given size");
+        }
+
+        IntBuffer slice = pixels.slice();
+        slice.limit(size);
+        PIXELS = slice.slice();
+
+        WIDTH = width;
+        HEIGHT = height;
+        MIPMAP_LEVEL = mipmapLevel;
+    }
+
+    /**
+     * Gets the color of a pixel in this image.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the color of the given pixel
+     */
+    @Override
+    public int getPixel(int x, int y) {
+        return PIXELS.get(toIndex(x, y));
+    }
+
+    /**
+     * Sets the color of a pixel in this image.
+     * @param x         x-coordinate of the pixel
+     * @param y         y-coordinate of the pixel
+     * @param color     new color of the pixel
+     */
+    @Override
+    public void setPixel(int x, int y, int color) {
+        PIXELS.put(toIndex(x, y), color);
+    }
+
+    /**
+     * Copies part of a row of this image into an array in one bulk operation.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       array to copy the pixels into, starting at its first element
+     * @param length    number of pixels to copy
+     */
+    @Override
+    public void getRow(int x, int y, int[] row, int length) {
+        requireNonNull(row, "Row cannot be null");
+        IntBuffer pixels = PIXELS.duplicate();
+        pixels.position(toRowIndex(x, y, row, length));
+        pixels.get(row, 0, length);
+    }
+
+    /**
+     * Sets the colors of part of a row of this image in one bulk operation.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       new colors of the pixels, starting at the array's first element
+     * @param length    number of pixels to set
+     */
+    @Override
+    public void setRow(int x, int y, int[] row, int length) {
+        requireNonNull(row, "Row cannot be null");
+        IntBuffer pixels = PIXELS.duplicate();
+        pixels.position(toRowIndex(x, y, row, length));
+        pixels.put(row, 0, length);
+    }
+
+    /**
+     * Gets the width of this image.
+     * @return  the width of this image in pixels
+     */
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of this image.
+     * @return  the height of this image in pixels
+     */
+    @Override
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the visible area (iterable by point) of this image.
+     * @return  the visible area of this image
+     */
+    @Override
+    public VisibleArea getVisibleArea() {
+        return VISIBLE_AREA;
+    }
+
+    /**
+     * Uploads all of this image at the given coordinates.
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    @Override
+    public void upload(int uploadX, int uploadY) {
+        UPLOADER.upload(PIXELS.duplicate(), WIDTH, HEIGHT, MIPMAP_LEVEL, uploadX, uploadY);
+    }
+
+    /**
+     * Gets the mipmap level of this image.
+     * @return  the mipmap level of this image
+     */
+    public int getMipmapLevel() {
+        return MIPMAP_LEVEL;
+    }
+
+    /**
+     * Gets a read-only view of all pixels in this image, stored row by row.
+     * @return  a read-only view of this image's pixels
+     */
+    public IntBuffer getPixels() {
+        return PIXELS.asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies all pixels in this image to another buffer in one bulk operation.
+     * @param destination   buffer to copy into, starting at its current position.
+     *                      Its position is advanced by the number of pixels in this image.
+     */
+    public void copyTo(IntBuffer destination) {
+        requireNonNull(destination, "Destination cannot be null");
+        destination.put(PIXELS.duplicate());
+    }
+
+    /**
+     * Replaces all pixels in this image with the pixels in the top-left corner of another image.
+     * @param source    the image to copy from. It must be at least as large as this image.
+     */
+    public void copyFrom(IRGBAImage source) {
+        requireNonNull(source, "Source image cannot be null");
+
+        if (source.getWidth() < WIDTH || source.getHeight() < HEIGHT) {
+            throw new IllegalArgumentException("Source image is smaller than this image");
+        }
+
+        int[] row = new int[WIDTH];
+        for (int y = 0; y < HEIGHT; y++) {
+            source.getRow(0, y, row, WIDTH);
+            setRow(0, y, row, WIDTH);
+        }
+    }
+
+    /**
+     * Converts a coordinate to its index in the pixel buffer.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the index of the pixel in the buffer
+     */
+    private int toIndex(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+            throw new IllegalArgumentException("Point (" + x + ", " + y + ") is outside the image");
+        }
+
+        return y * WIDTH + x;
+    }
+
+    /**
+     * Converts the start of part of a row to its index in the pixel buffer.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       array that holds the row's pixels
+     * @param length    number of pixels in the row
+     * @return  the index of the first pixel in the buffer
+     */
+    private int toRowIndex(int x, int y, int[] row, int length) {
+        if (length < 0 || length > row.length) {
+            throw new IllegalArgumentException("Length must be between zero and the row's length");
+        }
+
+        if (x < 0 || y < 0 || x + length > WIDTH || y >= HEIGHT) {
+            throw new IllegalArgumentException("Row of " + length + " pixels at (" + x + ", " + y
+                    + ") is outside the image");
+        }
+
+        return y * WIDTH + x;
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An image that is retrieved every time it is used, so it can be replaced or loaded lazily,
+ * such as an image in a frame store that is evicted and reloaded. Its size is known up front
+ * so that it can be read without retrieving the image.
+ * @author soir20
+ */
+public class DeferredRGBAImage implements IRGBAImage {
+    private final Supplier<? extends IRGBAImage> IMAGE;
+    private final int WIDTH;
+    private final int HEIGHT;
+
+    /**
+     * Creates a new deferred image.
+     * @param imageGetter       retrieves the image to use
+     * @param width             width of the image
+     * @param height            height of the image
+     */
+    public DeferredRGBAImage(Supplier<? extends IRGBAImage> imageGetter, int width, int height) {
+        IMAGE = requireNonNull(imageGetter, "Image getter cannot be null");
+
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Image cannot have negative dimensions");
+        }
+
+        WIDTH = width;
+        HEIGHT = height;
+    }
+
+    /**
+     * Gets the color of a pixel in the image.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the color of the given pixel
+     */
+    @Override
+    public int getPixel(int x, int y) {
+        return IMAGE.get().getPixel(x, y);
+    }
+
+    /**
+     * Sets the color of a pixel in the image.
+     * @param x         x-coordinate of the pixel
+     * @param y         y-coordinate of the pixel
+     * @param color     new color of the pixel
+     */
+    @Override
+    public void setPixel(int x, int y, int color) {
+        IMAGE.get().setPixel(x, y, color);
+    }
+
+    /**
+     * Copies part of a row of the image into an array.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       array to copy the pixels into, starting at its first element
+     * @param length    number of pixels to copy
+     */
+    @Override
+    public void getRow(int x, int y, int[] row, int length) {
+        IMAGE.get().getRow(x, y, row, length);
+    }
+
+    /**
+     * Sets the colors of part of a row of the image.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       new colors of the pixels, starting at the array's first element
+     * @param length    number of pixels to set
+     */
+    @Override
+    public void setRow(int x, int y, int[] row, int length) {
+        IMAGE.get().setRow(x, y, row, length);
+    }
+
+    /**
+     * Gets the width of the image without retrieving it.
+     * @return  the width of the image
+     */
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of the image without retrieving it.
+     * @return  the height of the image
+     */
+    @Override
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the visible area of the image.
+     * @return  the visible area of the image
+     */
+    @Override
+    public VisibleArea getVisibleArea() {
+        return IMAGE.get().getVisibleArea();
+    }
+
+    /**
+     * Uploads the top-left corner of the image at the given coordinates.
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    @Override
+    public void upload(int uploadX, int uploadY) {
+        IMAGE.get().upload(uploadX, uploadY);
+    }
+
+}
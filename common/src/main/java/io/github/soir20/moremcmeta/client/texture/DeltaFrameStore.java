@@ -0,0 +1,207 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores the first frame of an animation in full and only the visible pixels of every
+ * other frame, all in one direct (off-heap) buffer. When the visible area contains only
+ * the points that change between frames, a large texture with a small animated region
+ * needs little more memory than a single frame. Pixels outside the visible area are
+ * assumed to be the same in every frame and are always read from the first frame.
+ * @author soir20
+ */
+public class DeltaFrameStore implements IFrameStore {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final ByteBuffer BUFFER;
+    private final IntBuffer EXPANDED;
+    private final ImmutableList<ImmutableList<IRGBAImage>> FRAMES;
+
+    /**
+     * Copies an animation's frames into delta-encoded storage.
+     * @param frames            every mipmap of each frame to store, starting with level 0.
+     *                          Each mipmap must be at least as large as the frame at its
+     *                          level; only its top-left corner is stored.
+     * @param frameWidth        width of a frame at mipmap level 0. Must be greater than 0.
+     * @param frameHeight       height of a frame at mipmap level 0. Must be greater than 0.
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0. The number of areas determines the number of
+     *                          mipmap levels stored.
+     * @param uploader          uploads the frames' pixels
+     */
+    public DeltaFrameStore(List<? extends List<? extends IRGBAImage>> frames, int frameWidth, int frameHeight,
+                           List<IRGBAImage.VisibleArea> visibleAreas, IBufferUploader uploader) {
+        requireNonNull(frames, "Frames cannot be null");
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+        requireNonNull(uploader, "Uploader cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        if (visibleAreas.isEmpty()) {
+            throw new IllegalArgumentException("There must be a visible area for at least one mipmap level");
+        }
+
+        ImmutableList.Builder<DeltaRGBAImage.Layout> layoutBuilder = new ImmutableList.Builder<>();
+        int basePixels = 0;
+        int changedPixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            int width = frameWidth >> level;
+            int height = frameHeight >> level;
+            IRGBAImage.VisibleArea visibleArea = requireNonNull(visibleAreas.get(level),
+                    "Visible area cannot be null");
+
+            DeltaRGBAImage.Layout layout = new DeltaRGBAImage.Layout(visibleArea, width, height);
+            layoutBuilder.add(layout);
+            basePixels += width * height;
+            changedPixelsPerFrame += layout.getPixelCount();
+        }
+        List<DeltaRGBAImage.Layout> layouts = layoutBuilder.build();
+
+        for (List<? extends IRGBAImage> mipmaps : frames) {
+            requireNonNull(mipmaps, "Frame cannot be null");
+            if (mipmaps.size() < visibleAreas.size()) {
+                throw new IllegalArgumentException("Frame is missing mipmaps");
+            }
+        }
+
+        int totalPixels = basePixels + changedPixelsPerFrame * (frames.size() - 1);
+        BUFFER = ByteBuffer.allocateDirect(totalPixels * BYTES_PER_PIXEL).order(ByteOrder.nativeOrder());
+        EXPANDED = ByteBuffer.allocateDirect(frameWidth * frameHeight * BYTES_PER_PIXEL)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        IntBuffer pixels = BUFFER.asIntBuffer();
+
+        ImmutableList.Builder<BufferRGBAImage> baseMipmaps = new ImmutableList.Builder<>();
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            int width = frameWidth >> level;
+            int height = frameHeight >> level;
+
+            BufferRGBAImage base = new BufferRGBAImage(pixels, width, height, level, visibleAreas.get(level),
+                    uploader);
+            base.copyFrom(requireNonNull(frames.get(0).get(level), "Mipmap cannot be null"));
+            baseMipmaps.add(base);
+            pixels.position(pixels.position() + width * height);
+        }
+        List<BufferRGBAImage> bases = baseMipmaps.build();
+
+        ImmutableList.Builder<ImmutableList<IRGBAImage>> frameBuilder = new ImmutableList.Builder<>();
+        frameBuilder.add(ImmutableList.copyOf(bases));
+
+        for (int frame = 1; frame < frames.size(); frame++) {
+            ImmutableList.Builder<IRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < visibleAreas.size(); level++) {
+                DeltaRGBAImage.Layout layout = layouts.get(level);
+                DeltaRGBAImage image = new DeltaRGBAImage(bases.get(level), pixels, layout, EXPANDED, uploader);
+                image.copyFrom(requireNonNull(frames.get(frame).get(level), "Mipmap cannot be null"));
+                mipmaps.add(image);
+                pixels.position(pixels.position() + layout.getPixelCount());
+            }
+
+            frameBuilder.add(mipmaps.build());
+        }
+
+        FRAMES = frameBuilder.build();
+    }
+
+    /**
+     * Calculates how many bytes of native memory a store would use without creating it.
+     * @param frameWidth        width of a frame at mipmap level 0
+     * @param frameHeight       height of a frame at mipmap level 0
+     * @param frameCount        number of frames to store
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0
+     * @return  the size the store would have in bytes
+     */
+    public static long estimateSizeInBytes(int frameWidth, int frameHeight, int frameCount,
+                                           List<IRGBAImage.VisibleArea> visibleAreas) {
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        long basePixels = 0;
+        long changedPixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            int width = frameWidth >> level;
+            int height = frameHeight >> level;
+            IRGBAImage.VisibleArea visibleArea = requireNonNull(visibleAreas.get(level),
+                    "Visible area cannot be null");
+
+            basePixels += (long) width * height;
+            changedPixelsPerFrame += new DeltaRGBAImage.Layout(visibleArea, width, height).getPixelCount();
+        }
+
+        long totalPixels = basePixels + changedPixelsPerFrame * (frameCount - 1);
+        return (totalPixels + (long) frameWidth * frameHeight) * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Gets all mipmaps of a frame, starting with level 0. The first frame's mipmaps
+     * hold every pixel, while all other frames' mipmaps only hold their visible pixels.
+     * @param frame     index of the frame
+     * @return  the frame's images at every stored mipmap level
+     */
+    @Override
+    public ImmutableList<IRGBAImage> getMipmaps(int frame) {
+        if (frame < 0 || frame >= FRAMES.size()) {
+            throw new IllegalArgumentException("There is no frame at index " + frame);
+        }
+
+        return FRAMES.get(frame);
+    }
+
+    /**
+     * Gets the number of frames in this store.
+     * @return  the number of frames
+     */
+    @Override
+    public int getFrameCount() {
+        return FRAMES.size();
+    }
+
+    /**
+     * Gets the number of bytes of native memory used by this store, including the
+     * buffer that frames are assembled in for upload.
+     * @return  the size of the store in bytes
+     */
+    @Override
+    public long getSizeInBytes() {
+        return BUFFER.capacity() + (long) EXPANDED.capacity() * BYTES_PER_PIXEL;
+    }
+
+}
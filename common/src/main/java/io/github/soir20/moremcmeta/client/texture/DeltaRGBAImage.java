@@ -0,0 +1,330 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link IRGBAImage} that only stores the pixels in its visible area. All other pixels
+ * are read from a base image, so a frame whose animated region is small uses far less
+ * memory than a full copy. The visible pixels are packed row by row, from top to bottom
+ * and left to right, in the order described by a {@link Layout}.
+ * @author soir20
+ */
+public class DeltaRGBAImage implements IRGBAImage {
+    private final BufferRGBAImage BASE;
+    private final IntBuffer CHANGES;
+    private final Layout LAYOUT;
+    private final IntBuffer EXPANDED;
+    private final IBufferUploader UPLOADER;
+
+    /**
+     * Creates a new image that stores only its visible pixels.
+     * @param base          image that supplies all pixels outside the visible area. Changes
+     *                      to the base image's static pixels are visible in this image.
+     * @param changes       buffer holding this image's visible pixels from its current position.
+     *                      It must have at least as many pixels remaining as the layout contains.
+     *                      Changes to the buffer's position or limit do not affect this image.
+     * @param layout        positions of the visible pixels. Must have the same dimensions as
+     *                      the base image.
+     * @param expanded      buffer that the full image is assembled in before upload. It must have
+     *                      a capacity of at least as many pixels as the base image and may be
+     *                      shared with other images that are uploaded on the same thread.
+     * @param uploader      uploads the pixels in this image
+     */
+    public DeltaRGBAImage(BufferRGBAImage base, IntBuffer changes, Layout layout, IntBuffer expanded,
+                          IBufferUploader uploader) {
+        BASE = requireNonNull(base, "Base image cannot be null");
+        requireNonNull(changes, "Change buffer cannot be null");
+        LAYOUT = requireNonNull(layout, "Layout cannot be null");
+        EXPANDED = requireNonNull(expanded, "Expansion buffer cannot be null");
+        UPLOADER = requireNonNull(uploader, "Uploader cannot be null");
+
+        if (layout.getWidth() != base.getWidth() || layout.getHeight() != base.getHeight()) {
+            throw new IllegalArgumentException("Layout and base image must be the same size");
+        }
+
+        if (changes.remaining() < layout.getPixelCount()) {
+            throw new IllegalArgumentException("Change buffer is too small for the layout");
+        }
+
+        if (expanded.capacity() < base.getWidth() * base.getHeight()) {
+            throw new IllegalArgumentException("Expansion buffer is too small for the base image");
+        }
+
+        IntBuffer slice = changes.slice();
+        slice.limit(layout.getPixelCount());
+        CHANGES = slice.slice();
+    }
+
+    /**
+     * Gets the color of a pixel in this image.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the color of the given pixel
+     */
+    @Override
+    public int getPixel(int x, int y) {
+        int offset = LAYOUT.offsetOf(x, y);
+        if (offset < 0) {
+            return BASE.getPixel(x, y);
+        }
+
+        return CHANGES.get(offset);
+    }
+
+    /**
+     * Sets the color of a pixel in this image. Only pixels in the layout can be set,
+     * as all others are shared with the base image.
+     * @param x         x-coordinate of the pixel
+     * @param y         y-coordinate of the pixel
+     * @param color     new color of the pixel
+     */
+    @Override
+    public void setPixel(int x, int y, int color) {
+        int offset = LAYOUT.offsetOf(x, y);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Point (" + x + ", " + y + ") is shared with the base image");
+        }
+
+        CHANGES.put(offset, color);
+    }
+
+    /**
+     * Gets the width of this image.
+     * @return  the width of this image in pixels
+     */
+    @Override
+    public int getWidth() {
+        return BASE.getWidth();
+    }
+
+    /**
+     * Gets the height of this image.
+     * @return  the height of this image in pixels
+     */
+    @Override
+    public int getHeight() {
+        return BASE.getHeight();
+    }
+
+    /**
+     * Gets the visible area (iterable by point) of this image.
+     * @return  the visible area of this image
+     */
+    @Override
+    public VisibleArea getVisibleArea() {
+        return BASE.getVisibleArea();
+    }
+
+    /**
+     * Assembles this image from the base image and its visible pixels, then uploads
+     * all of it at the given coordinates.
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    @Override
+    public void upload(int uploadX, int uploadY) {
+        IntBuffer expanded = EXPANDED.duplicate();
+        expanded.clear();
+        BASE.copyTo(expanded);
+        expanded.flip();
+
+        int width = BASE.getWidth();
+        int offset = 0;
+        for (int y = 0; y < LAYOUT.getHeight(); y++) {
+            int[] starts = LAYOUT.ROW_STARTS[y];
+            int[] widths = LAYOUT.ROW_WIDTHS[y];
+
+            for (int span = 0; span < starts.length; span++) {
+                int index = y * width + starts[span];
+                for (int x = 0; x < widths[span]; x++) {
+                    expanded.put(index + x, CHANGES.get(offset++));
+                }
+            }
+        }
+
+        UPLOADER.upload(expanded, width, BASE.getHeight(), BASE.getMipmapLevel(), uploadX, uploadY);
+    }
+
+    /**
+     * Gets the mipmap level of this image.
+     * @return  the mipmap level of this image
+     */
+    public int getMipmapLevel() {
+        return BASE.getMipmapLevel();
+    }
+
+    /**
+     * Replaces all visible pixels in this image with the pixels at the same points in another image.
+     * @param source    the image to copy from. It must be at least as large as this image.
+     */
+    public void copyFrom(IRGBAImage source) {
+        requireNonNull(source, "Source image cannot be null");
+
+        if (source.getWidth() < getWidth() || source.getHeight() < getHeight()) {
+            throw new IllegalArgumentException("Source image is smaller than this image");
+        }
+
+        int offset = 0;
+        for (int y = 0; y < LAYOUT.getHeight(); y++) {
+            int[] starts = LAYOUT.ROW_STARTS[y];
+            int[] widths = LAYOUT.ROW_WIDTHS[y];
+
+            for (int span = 0; span < starts.length; span++) {
+                for (int x = starts[span]; x < starts[span] + widths[span]; x++) {
+                    CHANGES.put(offset++, source.getPixel(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Describes where the pixels of a visible area are packed in a delta image. Images
+     * at the same mipmap level of an animation can share a layout.
+     * @author soir20
+     */
+    public static class Layout {
+        private static final int[] NO_SPANS = new int[0];
+
+        private final int WIDTH;
+        private final int HEIGHT;
+        private final int[][] ROW_STARTS;
+        private final int[][] ROW_WIDTHS;
+        private final int[][] ROW_OFFSETS;
+        private final int PIXEL_COUNT;
+
+        /**
+         * Creates a layout for a visible area. Rows outside the image are clipped.
+         * @param visibleArea       the visible area to pack
+         * @param width             width of the image in pixels
+         * @param height            height of the image in pixels
+         */
+        public Layout(VisibleArea visibleArea, int width, int height) {
+            requireNonNull(visibleArea, "Visible area cannot be null");
+
+            if (width < 0 || height < 0) {
+                throw new IllegalArgumentException("Image dimensions cannot be negative");
+            }
+
+            List<List<VisibleArea.VisibleRow>> rowsByY = new ArrayList<>(height);
+            for (int y = 0; y < height; y++) {
+                rowsByY.add(new ArrayList<>());
+            }
+
+            for (VisibleArea.VisibleRow row : visibleArea.getRows()) {
+                if (row.getY() >= 0 && row.getY() < height) {
+                    rowsByY.get(row.getY()).add(row);
+                }
+            }
+
+            WIDTH = width;
+            HEIGHT = height;
+            ROW_STARTS = new int[height][];
+            ROW_WIDTHS = new int[height][];
+            ROW_OFFSETS = new int[height][];
+
+            int offset = 0;
+            for (int y = 0; y < height; y++) {
+                List<VisibleArea.VisibleRow> rows = rowsByY.get(y);
+                rows.sort(Comparator.comparingInt(VisibleArea.VisibleRow::getX));
+
+                int[] starts = new int[rows.size()];
+                int[] widths = new int[rows.size()];
+                int[] offsets = new int[rows.size()];
+                int spans = 0;
+
+                for (VisibleArea.VisibleRow row : rows) {
+                    int start = Math.max(row.getX(), 0);
+                    int end = Math.min(row.getX() + row.getWidth(), width);
+                    if (start >= end) {
+                        continue;
+                    }
+
+                    starts[spans] = start;
+                    widths[spans] = end - start;
+                    offsets[spans] = offset;
+                    offset += end - start;
+                    spans++;
+                }
+
+                ROW_STARTS[y] = spans == 0 ? NO_SPANS : Arrays.copyOf(starts, spans);
+                ROW_WIDTHS[y] = spans == 0 ? NO_SPANS : Arrays.copyOf(widths, spans);
+                ROW_OFFSETS[y] = spans == 0 ? NO_SPANS : Arrays.copyOf(offsets, spans);
+            }
+
+            PIXEL_COUNT = offset;
+        }
+
+        /**
+         * Gets the width of images that use this layout.
+         * @return  the width in pixels
+         */
+        public int getWidth() {
+            return WIDTH;
+        }
+
+        /**
+         * Gets the height of images that use this layout.
+         * @return  the height in pixels
+         */
+        public int getHeight() {
+            return HEIGHT;
+        }
+
+        /**
+         * Gets the number of packed pixels in this layout.
+         * @return  the number of visible pixels inside the image
+         */
+        public int getPixelCount() {
+            return PIXEL_COUNT;
+        }
+
+        /**
+         * Gets the position of a pixel among the packed pixels.
+         * @param x     x-coordinate of the pixel
+         * @param y     y-coordinate of the pixel
+         * @return  the index of the pixel or -1 if it is not in the layout
+         */
+        public int offsetOf(int x, int y) {
+            if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+                throw new IllegalArgumentException("Point (" + x + ", " + y + ") is outside the image");
+            }
+
+            int[] starts = ROW_STARTS[y];
+            int span = Arrays.binarySearch(starts, x);
+            if (span < 0) {
+                span = -span - 2;
+            }
+
+            if (span < 0 || x >= starts[span] + ROW_WIDTHS[y][span]) {
+                return -1;
+            }
+
+            return ROW_OFFSETS[y][span] + x - starts[span];
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores every frame of an animation in one direct (off-heap) buffer. Each frame's pixels
+ * are contiguous at every mipmap level, so a frame can be copied or uploaded in bulk
+ * instead of row by row from a strip that contains all frames. Colors are stored in
+ * native byte order, matching the memory layout of Minecraft's native images.
+ * @author soir20
+ */
+public class DirectFrameStore implements IFrameStore {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final ByteBuffer BUFFER;
+    private final ImmutableList<ImmutableList<BufferRGBAImage>> FRAMES;
+
+    /**
+     * Allocates storage for an animation's frames.
+     * @param frameWidth        width of a frame at mipmap level 0. Must be greater than 0.
+     * @param frameHeight       height of a frame at mipmap level 0. Must be greater than 0.
+     * @param frameCount        number of frames to store. Must be greater than 0.
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0. The number of areas determines the number of
+     *                          mipmap levels stored.
+     * @param uploader          uploads the frames' pixels
+     */
+    public DirectFrameStore(int frameWidth, int frameHeight, int frameCount,
+                            List<IRGBAImage.VisibleArea> visibleAreas, IBufferUploader uploader) {
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+        requireNonNull(uploader, "Uploader cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        if (visibleAreas.isEmpty()) {
+            throw new IllegalArgumentException("There must be a visible area for at least one mipmap level");
+        }
+
+        int pixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            pixelsPerFrame += (frameWidth >> level) * (frameHeight >> level);
+        }
+
+        BUFFER = ByteBuffer.allocateDirect(pixelsPerFrame * frameCount * BYTES_PER_PIXEL)
+                .order(ByteOrder.nativeOrder());
+        IntBuffer pixels = BUFFER.asIntBuffer();
+
+        ImmutableList.Builder<ImmutableList<BufferRGBAImage>> frames = new ImmutableList.Builder<>();
+        for (int frame = 0; frame < frameCount; frame++) {
+            ImmutableList.Builder<BufferRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < visibleAreas.size(); level++) {
+                int width = frameWidth >> level;
+                int height = frameHeight >> level;
+
+                IRGBAImage.VisibleArea visibleArea = requireNonNull(visibleAreas.get(level),
+                        "Visible area cannot be null");
+                mipmaps.add(new BufferRGBAImage(pixels, width, height, level, visibleArea, uploader));
+                pixels.position(pixels.position() + width * height);
+            }
+
+            frames.add(mipmaps.build());
+        }
+
+        FRAMES = frames.build();
+    }
+
+    /**
+     * Calculates how many bytes of native memory a store would use without creating it.
+     * @param frameWidth        width of a frame at mipmap level 0
+     * @param frameHeight       height of a frame at mipmap level 0
+     * @param frameCount        number of frames to store
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0
+     * @return  the size the store would have in bytes
+     */
+    public static long estimateSizeInBytes(int frameWidth, int frameHeight, int frameCount,
+                                           List<IRGBAImage.VisibleArea> visibleAreas) {
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        long pixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            pixelsPerFrame += (long) (frameWidth >> level) * (frameHeight >> level);
+        }
+
+        return pixelsPerFrame * frameCount * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Gets all mipmaps of a frame, starting with level 0.
+     * @param frame     index of the frame
+     * @return  the frame's images at every stored mipmap level
+     */
+    @Override
+    public ImmutableList<BufferRGBAImage> getMipmaps(int frame) {
+        if (frame < 0 || frame >= FRAMES.size()) {
+            throw new IllegalArgumentException("There is no frame at index " + frame);
+        }
+
+        return FRAMES.get(frame);
+    }
+
+    /**
+     * Gets the number of frames in this store.
+     * @return  the number of frames
+     */
+    @Override
+    public int getFrameCount() {
+        return FRAMES.size();
+    }
+
+    /**
+     * Gets the number of bytes of native memory used by this store.
+     * @return  the size of the store in bytes
+     */
+    @Override
+    public long getSizeInBytes() {
+        return BUFFER.capacity();
+    }
+
+}
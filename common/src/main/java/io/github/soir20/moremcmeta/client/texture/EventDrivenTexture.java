@@ -17,6 +17,7 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
 import net.minecraft.client.renderer.texture.AbstractTexture;
 import net.minecraft.server.packs.resources.ResourceManager;
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +26,7 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -38,13 +40,21 @@ import static java.util.Objects.requireNonNull;
  * render thread.
  * @author soir20
  */
-public class EventDrivenTexture extends AbstractTexture implements CustomTickable {
+public class EventDrivenTexture extends AbstractTexture implements ITimelineTickable, IEvictable {
     private final Map<TextureListener.Type, List<TextureListener>> LISTENERS;
+    private final List<IEvictable> EVICTABLES;
     private final TextureState CURRENT_STATE;
 
+    @Nullable
+    private final UploadScheduler UPLOAD_SCHEDULER;
+
+    @Nullable
+    private final AnimationTimeline TICK_TIMELINE;
+
     /**
      * Binds this texture or the texture it proxies to OpenGL. Fires upload listeners
-     * if the texture's image has changed.
+     * if the texture's image has changed, possibly in a later frame if this texture
+     * has an upload scheduler.
      */
     @Override
     public void bind() {
@@ -52,7 +62,7 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
         runListeners(TextureListener.Type.BIND);
 
         if (CURRENT_STATE.hasUpdatedSinceUpload) {
-            upload();
+            scheduleUpload(super::bind);
         }
     }
 
@@ -67,13 +77,39 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
     }
 
     /**
-     * Fires upload listeners and marks the texture as not needing an upload.
+     * Fires upload listeners and marks the texture as not needing an upload. Does nothing
+     * while any evictable component is still being restored on another thread, so the texture
+     * keeps its last uploaded image and is uploaded again the next time it needs an upload.
      */
     public void upload() {
+        if (!isAvailable()) {
+            return;
+        }
+
         runListeners(TextureListener.Type.UPLOAD);
         CURRENT_STATE.hasUpdatedSinceUpload = false;
     }
 
+    /**
+     * Fires upload listeners now or, if this texture has an upload scheduler that has run out
+     * of time in this frame, in a later frame. The upload target must already be bound. Nothing
+     * is scheduled while any evictable component is still being restored on another thread.
+     * @param bindAction    binds the upload target again if the upload is deferred
+     */
+    public void scheduleUpload(Runnable bindAction) {
+        requireNonNull(bindAction, "Bind action cannot be null");
+
+        if (!isAvailable()) {
+            return;
+        }
+
+        if (UPLOAD_SCHEDULER == null) {
+            upload();
+        } else {
+            UPLOAD_SCHEDULER.schedule(this, bindAction, this::upload);
+        }
+    }
+
     /**
      * Fires tick listeners when this texture is ticked.
      */
@@ -82,14 +118,65 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
         runListeners(TextureListener.Type.TICK);
     }
 
+    /**
+     * Gets the timeline that decides when this texture needs to be ticked, if it has one.
+     * @return the timeline, or empty if this texture must be ticked in every tick
+     */
+    @Override
+    public Optional<AnimationTimeline> getTickTimeline() {
+        return Optional.ofNullable(TICK_TIMELINE);
+    }
+
     /**
      * Fires close listeners when this texture is closed.
      */
     @Override
     public void close() {
+        if (UPLOAD_SCHEDULER != null) {
+            UPLOAD_SCHEDULER.cancel(this);
+        }
+
         runListeners(TextureListener.Type.CLOSE);
     }
 
+    /**
+     * Gets the bytes of native memory held by all of this texture's evictable components.
+     * @return bytes of native memory held by this texture's components
+     */
+    @Override
+    public long getNativeBytes() {
+        long bytes = 0;
+        for (IEvictable evictable : EVICTABLES) {
+            bytes += evictable.getNativeBytes();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Evicts all of this texture's evictable components. The last uploaded image
+     * remains on the GPU until the components are restored and uploaded again.
+     */
+    @Override
+    public void evict() {
+        EVICTABLES.forEach(IEvictable::evict);
+    }
+
+    /**
+     * Checks whether all of this texture's evictable components can be used without waiting
+     * for them to be restored. Checking starts restoring components that are not available.
+     * @return whether all evictable components are available
+     */
+    @Override
+    public boolean isAvailable() {
+        boolean available = true;
+        for (IEvictable evictable : EVICTABLES) {
+            available &= evictable.isAvailable();
+        }
+
+        return available;
+    }
+
     /**
      * Runs all listeners of a given type. Fills listener type
      * with an empty list if no listeners exist.
@@ -104,10 +191,19 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
      * Creates an event-driven texture with listeners.
      * @param listeners     list of all listeners, which will execute
      *                      in the order given (by type)
+     * @param evictables    components whose memory can be evicted
      * @param image         initial image for this texture
+     * @param scheduler     limits upload time per frame, or null to always upload immediately
+     * @param tickTimeline  timeline that decides when this texture needs to be ticked, or null
+     *                      to tick it in every tick
      */
-    private EventDrivenTexture(List<TextureListener> listeners, RGBAImageFrame image) {
+    private EventDrivenTexture(List<TextureListener> listeners, List<IEvictable> evictables,
+                               RGBAImageFrame image, @Nullable UploadScheduler scheduler,
+                               @Nullable AnimationTimeline tickTimeline) {
         super();
+        EVICTABLES = evictables;
+        UPLOAD_SCHEDULER = scheduler;
+        TICK_TIMELINE = tickTimeline;
         LISTENERS = new EnumMap<>(TextureListener.Type.class);
         for (TextureListener listener : listeners) {
             LISTENERS.putIfAbsent(listener.getType(), new ArrayList<>());
@@ -125,6 +221,12 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
         private final List<ITextureComponent> COMPONENTS;
         private RGBAImageFrame firstImage;
 
+        @Nullable
+        private UploadScheduler uploadScheduler;
+
+        @Nullable
+        private AnimationTimeline tickTimeline;
+
         /**
          * Creates a new event-driven texture builder.
          */
@@ -146,7 +248,33 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
         }
 
         /**
-         * Adds a component that the texture should have.
+         * Sets the scheduler that limits how much time the texture spends uploading in each
+         * frame. Optional; textures without a scheduler always upload immediately.
+         * @param scheduler     scheduler for the texture's uploads
+         * @return this builder for chaining
+         */
+        public Builder setUploadScheduler(UploadScheduler scheduler) {
+            requireNonNull(scheduler, "Upload scheduler cannot be null");
+            uploadScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Sets the timeline that decides when the texture needs to be ticked. Optional; textures
+         * without a timeline are ticked in every tick. Only set it if none of the texture's tick
+         * listeners do anything while the timeline's frame stays the same.
+         * @param timeline      timeline whose frame changes are the only ticks the texture needs
+         * @return this builder for chaining
+         */
+        public Builder setTickTimeline(AnimationTimeline timeline) {
+            requireNonNull(timeline, "Tick timeline cannot be null");
+            tickTimeline = timeline;
+            return this;
+        }
+
+        /**
+         * Adds a component that the texture should have. Components that are also
+         * {@link IEvictable} are evicted along with the texture.
          * @param component     component to add to the texture
          * @return this builder for chaining
          */
@@ -170,7 +298,11 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
                     ITextureComponent::getListeners
             ).collect(Collectors.toList());
 
-            return new EventDrivenTexture(listeners, firstImage);
+            List<IEvictable> evictables = COMPONENTS.stream().filter(
+                    (component) -> component instanceof IEvictable
+            ).map((component) -> (IEvictable) component).collect(Collectors.toList());
+
+            return new EventDrivenTexture(listeners, evictables, firstImage, uploadScheduler, tickTimeline);
         }
 
     }
@@ -202,6 +334,14 @@ public class EventDrivenTexture extends AbstractTexture implements CustomTickabl
             return image;
         }
 
+        /**
+         * Checks whether the texture's image has changed since it was last uploaded.
+         * @return whether the texture needs to be uploaded
+         */
+        public boolean needsUpload() {
+            return hasUpdatedSinceUpload;
+        }
+
         /**
          * Flags the texture as needing an upload.
          */
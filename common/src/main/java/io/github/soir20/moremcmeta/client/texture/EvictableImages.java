@@ -0,0 +1,264 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A group of images that can be closed to free their memory and reloaded on an executor
+ * the next time they are needed. The images are closed for good when the
+ * {@link EventDrivenTexture} closes. This class is not thread-safe; it should
+ * only be used on the render thread once the texture is built. Only the loader
+ * runs on other threads, and the render thread never waits for it. While the images
+ * are loading, the texture is unavailable, so it keeps its last uploaded image.
+ * @param <I> image type
+ * @author soir20
+ */
+public class EvictableImages<I> implements ITextureComponent, IEvictable {
+    private final Supplier<? extends List<? extends I>> LOADER;
+    private final ToLongFunction<? super I> SIZE_CALCULATOR;
+    private final Consumer<? super I> CLOSE_ACTION;
+
+    private final Executor LOAD_EXECUTOR;
+
+    private List<? extends I> images;
+    private CompletableFuture<? extends List<? extends I>> pendingLoad;
+
+    @Nullable
+    private RuntimeException loadFailure;
+
+    private long nativeBytes;
+    private boolean closed;
+
+    /**
+     * Creates a new group of evictable images that are already loaded.
+     * @param images            the loaded images in the group
+     * @param loader            creates all images in the group in the same order
+     *                          as the loaded images every time it is called
+     * @param sizeCalculator    calculates the bytes of native memory an image holds
+     * @param closeAction       frees an image's native memory
+     * @param reloadExecutor    executor to reload the images on after they are evicted
+     */
+    public EvictableImages(List<? extends I> images, Supplier<? extends List<? extends I>> loader,
+                           ToLongFunction<? super I> sizeCalculator, Consumer<? super I> closeAction,
+                           Executor reloadExecutor) {
+        requireNonNull(images, "Images cannot be null");
+        LOADER = requireNonNull(loader, "Loader cannot be null");
+        SIZE_CALCULATOR = requireNonNull(sizeCalculator, "Size calculator cannot be null");
+        CLOSE_ACTION = requireNonNull(closeAction, "Close action cannot be null");
+        LOAD_EXECUTOR = requireNonNull(reloadExecutor, "Reload executor cannot be null");
+        replaceImages(images);
+    }
+
+    /**
+     * Creates a new group of evictable images that are not loaded yet. Loading starts
+     * on the given executor when the texture is registered or bound, or when an image
+     * is first retrieved.
+     * @param loader            creates all images in the group in the same order every time
+     * @param sizeCalculator    calculates the bytes of native memory an image holds
+     * @param closeAction       frees an image's native memory
+     * @param loadExecutor      executor to load the images on
+     */
+    public EvictableImages(Supplier<? extends List<? extends I>> loader, ToLongFunction<? super I> sizeCalculator,
+                           Consumer<? super I> closeAction, Executor loadExecutor) {
+        LOADER = requireNonNull(loader, "Loader cannot be null");
+        SIZE_CALCULATOR = requireNonNull(sizeCalculator, "Size calculator cannot be null");
+        CLOSE_ACTION = requireNonNull(closeAction, "Close action cannot be null");
+        LOAD_EXECUTOR = requireNonNull(loadExecutor, "Load executor cannot be null");
+    }
+
+    /**
+     * Gets an image in the group. If the images are not loaded, loading starts on the executor,
+     * but the current thread does not wait for it, so the images can only be retrieved once
+     * {@link #isAvailable()} is true. An executor that runs the loader right away makes the
+     * images available immediately.
+     * @param index     index of the image in the order the loader creates them
+     * @return the image at the given index
+     * @throws IllegalStateException if the images are still loading, failed to load, or are closed
+     */
+    public I get(int index) {
+        if (closed) {
+            throw new IllegalStateException("Images cannot be retrieved after they are closed");
+        }
+
+        if (images == null) {
+            load();
+        }
+
+        if (index < 0 || index >= images.size()) {
+            throw new IllegalArgumentException("There is no image at index " + index);
+        }
+
+        return images.get(index);
+    }
+
+    /**
+     * Starts loading the images on the executor if they are not already loaded
+     * or being loaded.
+     */
+    public void loadAsync() {
+        if (closed || images != null || pendingLoad != null || loadFailure != null) {
+            return;
+        }
+
+        pendingLoad = CompletableFuture.supplyAsync(LOADER, LOAD_EXECUTOR);
+    }
+
+    /**
+     * Checks whether the images are currently loaded. Images that are still
+     * being loaded on another thread are not considered loaded.
+     * @return whether the images are loaded
+     */
+    public boolean isLoaded() {
+        return images != null;
+    }
+
+    /**
+     * Checks whether the images can be retrieved without waiting for them. Starts loading the
+     * images on the executor if they are not loaded or being loaded, such as after eviction.
+     * @return whether the images are available
+     */
+    @Override
+    public boolean isAvailable() {
+        if (closed || loadFailure != null) {
+            return false;
+        }
+
+        loadAsync();
+        finishPendingLoad();
+        return images != null;
+    }
+
+    /**
+     * Gets the bytes of native memory held by the images in this group.
+     * @return bytes of native memory held, or zero if the images are not loaded
+     */
+    @Override
+    public long getNativeBytes() {
+        return nativeBytes;
+    }
+
+    /**
+     * Closes all images in this group. They will be reloaded on the executor the
+     * next time they are needed. Images still being loaded on another thread
+     * are closed as soon as they finish.
+     */
+    @Override
+    public void evict() {
+        if (pendingLoad != null) {
+            pendingLoad.thenAccept((loadedImages) -> loadedImages.forEach(CLOSE_ACTION));
+            pendingLoad = null;
+        }
+
+        if (images == null) {
+            return;
+        }
+
+        images.forEach(CLOSE_ACTION);
+        images = null;
+        nativeBytes = 0;
+    }
+
+    /**
+     * Gets the listeners for this component.
+     * @return the listeners that load the images when the texture is first
+     *         used and close them when the texture closes
+     */
+    @Override
+    public Stream<TextureListener> getListeners() {
+        TextureListener registrationListener = new TextureListener(TextureListener.Type.REGISTRATION,
+                (state) -> loadAsync());
+        TextureListener bindListener = new TextureListener(TextureListener.Type.BIND,
+                (state) -> loadAsync());
+
+        TextureListener closeListener = new TextureListener(TextureListener.Type.CLOSE, (state) -> {
+            evict();
+            closed = true;
+        });
+
+        return Stream.of(registrationListener, bindListener, closeListener);
+    }
+
+    /**
+     * Starts loading all images in this group on the executor and uses them
+     * if that load has already finished, without waiting for it.
+     * @throws IllegalStateException if the images are still loading or failed to load
+     */
+    private void load() {
+        loadAsync();
+        finishPendingLoad();
+
+        if (loadFailure != null) {
+            throw new IllegalStateException("Images failed to load", loadFailure);
+        }
+
+        if (images == null) {
+            throw new IllegalStateException("Images are still loading on another thread");
+        }
+    }
+
+    /**
+     * Uses the images from the load on another thread if that load has finished. A failed
+     * load is remembered so the images are not loaded again every time they are needed.
+     */
+    private void finishPendingLoad() {
+        if (pendingLoad == null || !pendingLoad.isDone()) {
+            return;
+        }
+
+        CompletableFuture<? extends List<? extends I>> finishedLoad = pendingLoad;
+        pendingLoad = null;
+
+        try {
+            replaceImages(requireNonNull(finishedLoad.join(), "Loader cannot supply null"));
+        } catch (CompletionException err) {
+            loadFailure = err.getCause() instanceof RuntimeException
+                    ? (RuntimeException) err.getCause()
+                    : err;
+        } catch (RuntimeException err) {
+            loadFailure = err;
+        }
+    }
+
+    /**
+     * Replaces the images in this group and recalculates their size.
+     * @param newImages     the new images in this group
+     */
+    private void replaceImages(List<? extends I> newImages) {
+        images = ImmutableList.copyOf(newImages);
+
+        long bytes = 0;
+        for (I image : images) {
+            bytes += SIZE_CALCULATOR.applyAsLong(image);
+        }
+        nativeBytes = bytes;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Chooses how to store an animation's frames. Each {@link IFrameStore} uses the least memory
+ * for different animations, so frames are put in whichever store would be the smallest.
+ * @author soir20
+ */
+public class FrameStores {
+
+    /**
+     * Stores an animation's frames in whichever store uses the least memory. Frames are delta-encoded
+     * if only a small area changes between them. Otherwise, they are stored with a palette if they have
+     * few enough colors, and delta-encoded or with full colors, whichever is smaller, if they do not.
+     * @param frames            every mipmap of each frame to store, starting with level 0
+     * @param frameWidth        width of a frame at mipmap level 0. Must be greater than 0.
+     * @param frameHeight       height of a frame at mipmap level 0. Must be greater than 0.
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0. The number of areas determines the number of
+     *                          mipmap levels stored. Every pixel that differs between frames
+     *                          must be in the visible area.
+     * @param uploader          uploads the frames' pixels
+     * @return  a store containing a copy of all the frames
+     */
+    public static IFrameStore storeSmallest(List<? extends List<? extends IRGBAImage>> frames,
+                                            int frameWidth, int frameHeight,
+                                            List<IRGBAImage.VisibleArea> visibleAreas,
+                                            IBufferUploader uploader) {
+        requireNonNull(frames, "Frames cannot be null");
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        int frameCount = frames.size();
+        long paletteBytes = PaletteFrameStore.estimateSizeInBytes(frameWidth, frameHeight, frameCount,
+                visibleAreas);
+        long directBytes = DirectFrameStore.estimateSizeInBytes(frameWidth, frameHeight, frameCount, visibleAreas);
+        long deltaBytes = DeltaFrameStore.estimateSizeInBytes(frameWidth, frameHeight, frameCount, visibleAreas);
+
+        if (deltaBytes < paletteBytes) {
+            return new DeltaFrameStore(frames, frameWidth, frameHeight, visibleAreas, uploader);
+        }
+
+        // Whether the frames fit in a palette is only known once all of their colors have been read
+        Optional<PaletteFrameStore> paletteStore = PaletteFrameStore.palettize(frames, frameWidth, frameHeight,
+                visibleAreas, uploader);
+        if (paletteStore.isPresent()) {
+            return paletteStore.get();
+        }
+
+        if (deltaBytes < directBytes) {
+            return new DeltaFrameStore(frames, frameWidth, frameHeight, visibleAreas, uploader);
+        }
+
+        DirectFrameStore directStore = new DirectFrameStore(frameWidth, frameHeight, frameCount,
+                visibleAreas, uploader);
+        for (int frame = 0; frame < frameCount; frame++) {
+            List<? extends IRGBAImage> sourceMipmaps = frames.get(frame);
+            List<BufferRGBAImage> mipmaps = directStore.getMipmaps(frame);
+
+            for (int level = 0; level < mipmaps.size(); level++) {
+                mipmaps.get(level).copyFrom(sourceMipmaps.get(level));
+            }
+        }
+
+        return directStore;
+    }
+
+}
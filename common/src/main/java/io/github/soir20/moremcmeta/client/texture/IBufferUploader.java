@@ -0,0 +1,42 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.nio.IntBuffer;
+
+/**
+ * Uploads pixels that are stored contiguously in a buffer to the currently-bound texture.
+ * This makes it possible to test {@link IRGBAImage}s that do not rely on OpenGL.
+ * @author soir20
+ */
+@FunctionalInterface
+public interface IBufferUploader {
+
+    /**
+     * Uploads the pixels in a buffer. Pixels are stored row by row with no padding,
+     * starting at the buffer's current position.
+     * @param pixels        the pixels to upload
+     * @param width         width of the uploaded area in pixels
+     * @param height        height of the uploaded area in pixels
+     * @param mipmapLevel   mipmap level to upload to
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    void upload(IntBuffer pixels, int width, int height, int mipmapLevel, int uploadX, int uploadY);
+
+}
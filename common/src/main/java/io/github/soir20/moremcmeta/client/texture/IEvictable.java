@@ -0,0 +1,48 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+/**
+ * Holds native memory that can be released when it is not in use and
+ * restored the next time it is needed.
+ * @author soir20
+ */
+public interface IEvictable {
+
+    /**
+     * Gets the number of bytes of native memory currently held.
+     * @return bytes of native memory held, or zero if evicted
+     */
+    long getNativeBytes();
+
+    /**
+     * Releases all native memory that can be restored later. Does nothing
+     * if the memory has already been released.
+     */
+    void evict();
+
+    /**
+     * Checks whether the memory can be used without waiting for it to be restored.
+     * Memory that is still being restored on another thread is not available yet.
+     * @return whether the memory is available
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+}
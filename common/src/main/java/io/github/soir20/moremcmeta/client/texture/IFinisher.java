@@ -43,4 +43,21 @@ public interface IFinisher<I, O> {
      */
     Map<ResourceLocation, O> finish();
 
+    /**
+     * Finishes queued items in the order they were queued until the time limit is reached.
+     * At least one item is finished if any are queued so that finishing always makes progress.
+     * Finishers that cannot be interrupted finish all queued items.
+     * @param maxNanos      time limit in nanoseconds
+     * @return a map with all items finished before the time limit by their locations
+     */
+    default Map<ResourceLocation, O> finish(long maxNanos) {
+        return finish();
+    }
+
+    /**
+     * Checks whether any items are queued and not yet finished.
+     * @return whether any items are waiting to be finished
+     */
+    boolean hasQueued();
+
 }
@@ -0,0 +1,47 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Holds every frame of an animation, at every mipmap level, in a single allocation.
+ * @author soir20
+ */
+public interface IFrameStore {
+
+    /**
+     * Gets all mipmaps of a frame, starting with level 0.
+     * @param frame     index of the frame
+     * @return  the frame's images at every stored mipmap level
+     */
+    ImmutableList<? extends IRGBAImage> getMipmaps(int frame);
+
+    /**
+     * Gets the number of frames in this store.
+     * @return  the number of frames
+     */
+    int getFrameCount();
+
+    /**
+     * Gets the number of bytes of memory used by this store.
+     * @return  the size of the store in bytes
+     */
+    long getSizeInBytes();
+
+}
@@ -19,6 +19,9 @@ package io.github.soir20.moremcmeta.client.texture;
 
 import io.github.soir20.moremcmeta.math.Point;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,7 +29,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * An image with an RGB color scheme.
@@ -51,6 +53,44 @@ public interface IRGBAImage {
      */
     void setPixel(int x, int y, int color);
 
+    /**
+     * Copies part of a row of this image into an array. Images that store their pixels contiguously
+     * should override this to copy the whole row at once.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       array to copy the pixels into, starting at its first element
+     * @param length    number of pixels to copy
+     */
+    default void getRow(int x, int y, int[] row, int length) {
+        Objects.requireNonNull(row, "Row cannot be null");
+        if (length < 0 || length > row.length) {
+            throw new IllegalArgumentException("Length must be between zero and the row's length");
+        }
+
+        for (int index = 0; index < length; index++) {
+            row[index] = getPixel(x + index, y);
+        }
+    }
+
+    /**
+     * Sets the colors of part of a row of this image. Images that store their pixels contiguously
+     * should override this to write the whole row at once.
+     * @param x         x-coordinate of the first pixel
+     * @param y         y-coordinate of the row
+     * @param row       new colors of the pixels, starting at the array's first element
+     * @param length    number of pixels to set
+     */
+    default void setRow(int x, int y, int[] row, int length) {
+        Objects.requireNonNull(row, "Row cannot be null");
+        if (length < 0 || length > row.length) {
+            throw new IllegalArgumentException("Length must be between zero and the row's length");
+        }
+
+        for (int index = 0; index < length; index++) {
+            setPixel(x + index, y, row[index]);
+        }
+    }
+
     /**
      * Gets the width (pixels) of this image.
      * @return  the width of this image
@@ -94,14 +134,23 @@ public interface IRGBAImage {
             return new VisiblePointIterator(VISIBLE_ROWS);
         }
 
+        /**
+         * Gets all the continuous horizontal strips in this area. Iterating by row avoids creating
+         * a {@link Point} for every pixel. The rows are not in a guaranteed order.
+         * @return  all rows in this area
+         */
+        public Set<VisibleRow> getRows() {
+            return Collections.unmodifiableSet(VISIBLE_ROWS);
+        }
+
         /**
          * Builds a new, immutable visible area.
          * @author soir20
          */
         public static class Builder {
 
-            // Keys are y (row) coordinates. Values are x (column) coordinates.
-            private final Map<Integer, Set<Integer>> ROWS;
+            // Keys are y (row) coordinates. Values are horizontal strips in that row, which may overlap.
+            private final Map<Integer, List<VisibleRow>> ROWS;
 
             /**
              * Creates a new builder for a visible area.
@@ -116,38 +165,48 @@ public interface IRGBAImage {
              * @param y     y-coordinate of the pixel
              */
             public void addPixel(int x, int y) {
-                if (!ROWS.containsKey(y)) {
-                    ROWS.put(y, new HashSet<>());
+                addRow(x, y, 1);
+            }
+
+            /**
+             * Adds a continuous, one-pixel-high horizontal strip of visible pixels to the area.
+             * Strips may overlap or touch pixels that were already added.
+             * @param x         left x-coordinate of the strip
+             * @param y         y-coordinate of the strip
+             * @param width     width of the strip in pixels. Must be greater than 0.
+             */
+            public void addRow(int x, int y, int width) {
+                if (width <= 0) {
+                    throw new IllegalArgumentException("Row width must be greater than zero");
                 }
 
-                ROWS.get(y).add(x);
+                ROWS.computeIfAbsent(y, (key) -> new ArrayList<>()).add(new VisibleRow(x, y, width));
             }
 
             /**
-             * Builds the visible area based on the provided points.
+             * Builds the visible area based on the provided points. Overlapping and
+             * adjacent strips in the same row are merged.
              * @return  the visible area
              */
             public VisibleArea build() {
                 Set<VisibleRow> visibleRows = new HashSet<>();
 
-                for (Map.Entry<Integer, Set<Integer>> entry : ROWS.entrySet()) {
-                    List<Integer> xPoints = entry.getValue().stream().sorted().collect(Collectors.toList());
-                    int numPoints = xPoints.size();
-
-                    int startIndex = 0;
-                    for (int pointIndex = 0; pointIndex < numPoints; pointIndex++) {
-                        int nextIndex = pointIndex + 1;
-
-                        boolean isLastPoint = pointIndex == numPoints - 1;
-                        boolean isRowEnd = isLastPoint || xPoints.get(nextIndex) - xPoints.get(pointIndex) > 1;
-
-                        if (isRowEnd) {
-                            int width = pointIndex - startIndex + 1;
-                            visibleRows.add(new VisibleRow(xPoints.get(startIndex), entry.getKey(), width));
+                for (Map.Entry<Integer, List<VisibleRow>> entry : ROWS.entrySet()) {
+                    List<VisibleRow> strips = entry.getValue();
+                    strips.sort(Comparator.comparingInt((row) -> row.X));
 
-                            startIndex = nextIndex;
+                    int startX = strips.get(0).X;
+                    int endX = startX + strips.get(0).WIDTH;
+                    for (VisibleRow strip : strips) {
+                        if (strip.X > endX) {
+                            visibleRows.add(new VisibleRow(startX, entry.getKey(), endX - startX));
+                            startX = strip.X;
                         }
+
+                        endX = Math.max(endX, strip.X + strip.WIDTH);
                     }
+
+                    visibleRows.add(new VisibleRow(startX, entry.getKey(), endX - startX));
                 }
 
                 return new VisibleArea(visibleRows);
@@ -167,7 +226,7 @@ public interface IRGBAImage {
          * Represents continuous, one-pixel-high horizontal strips in an image.
          * @author soir20
          */
-        private static class VisibleRow {
+        public static class VisibleRow {
             private final int X;
             private final int Y;
             private final int WIDTH;
@@ -184,6 +243,30 @@ public interface IRGBAImage {
                 WIDTH = width;
             }
 
+            /**
+             * Gets the left x-coordinate of this row.
+             * @return  the left x-coordinate of this row
+             */
+            public int getX() {
+                return X;
+            }
+
+            /**
+             * Gets the y-coordinate of this row.
+             * @return  the y-coordinate of this row
+             */
+            public int getY() {
+                return Y;
+            }
+
+            /**
+             * Gets the width of this row.
+             * @return  the width of this row in pixels
+             */
+            public int getWidth() {
+                return WIDTH;
+            }
+
             /**
              * Gets the hash code of this row.
              * @return  the hash code of this row
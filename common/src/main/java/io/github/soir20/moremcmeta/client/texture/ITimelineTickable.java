@@ -0,0 +1,38 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
+
+import java.util.Optional;
+
+/**
+ * A {@link CustomTickable} that may only change when the frame of a shared
+ * {@link AnimationTimeline} changes. Whatever advances the timeline can skip
+ * ticking it in all other ticks.
+ * @author soir20
+ */
+public interface ITimelineTickable extends CustomTickable {
+
+    /**
+     * Gets the timeline that decides when this item needs to be ticked.
+     * @return the timeline, or empty if this item must be ticked in every tick
+     */
+    Optional<AnimationTimeline> getTickTimeline();
+
+}
@@ -0,0 +1,277 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps closed images so that their native memory can be reused by images of the same size instead
+ * of being freed and allocated again. Images are kept in buckets by their dimensions. The pool holds
+ * at most a maximum number of bytes, freeing the images that were returned first when it is full.
+ * Images that are not reused by the end of the next reload are freed by {@link #trimUnused()}.
+ * @param <I> image type
+ * @author soir20
+ */
+public class ImagePool<I> {
+    private final long MAX_BYTES;
+    private final Function<? super I, Point> DIMENSIONS_GETTER;
+    private final ToLongFunction<? super I> SIZE_CALCULATOR;
+    private final Consumer<? super I> CLOSE_ACTION;
+    private final Map<Point, ArrayDeque<Entry<I>>> BUCKETS;
+    private final ArrayDeque<Entry<I>> RELEASE_ORDER;
+
+    private long pooledBytes;
+    private int pooledCount;
+    private int generation;
+    private long hits;
+    private long misses;
+    private long trimmed;
+
+    /**
+     * Creates a new image pool.
+     * @param maxBytes              maximum bytes of native memory the pooled images can hold
+     * @param dimensionsGetter      gets the width (x) and height (y) of an image
+     * @param sizeCalculator        calculates the bytes of native memory an image holds
+     * @param closeAction           frees an image's native memory
+     */
+    public ImagePool(long maxBytes, Function<? super I, Point> dimensionsGetter,
+                     ToLongFunction<? super I> sizeCalculator, Consumer<? super I> closeAction) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Maximum bytes cannot be negative");
+        }
+
+        MAX_BYTES = maxBytes;
+        DIMENSIONS_GETTER = requireNonNull(dimensionsGetter, "Dimensions getter cannot be null");
+        SIZE_CALCULATOR = requireNonNull(sizeCalculator, "Size calculator cannot be null");
+        CLOSE_ACTION = requireNonNull(closeAction, "Close action cannot be null");
+        BUCKETS = new HashMap<>();
+        RELEASE_ORDER = new ArrayDeque<>();
+    }
+
+    /**
+     * Takes an image with the given dimensions out of the pool. The image's content is
+     * whatever it was when the image was returned, so it should be completely overwritten.
+     * @param width     width of the image
+     * @param height    height of the image
+     * @return an image with the given dimensions, or empty if none are pooled
+     */
+    public synchronized Optional<I> take(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image dimensions must be positive");
+        }
+
+        ArrayDeque<Entry<I>> bucket = BUCKETS.get(new Point(width, height));
+        if (bucket == null || bucket.isEmpty()) {
+            misses++;
+            return Optional.empty();
+        }
+
+        // The most recently returned image is the most likely to still be in the cache
+        Entry<I> entry = bucket.removeLast();
+        remove(entry);
+        hits++;
+
+        return Optional.of(entry.IMAGE);
+    }
+
+    /**
+     * Returns an image to the pool once it is no longer used. If the image would put the
+     * pool over its maximum size, the images that were returned first are freed.
+     * @param image     the image to return
+     */
+    public synchronized void release(I image) {
+        requireNonNull(image, "Image cannot be null");
+
+        long bytes = SIZE_CALCULATOR.applyAsLong(image);
+        if (bytes > MAX_BYTES) {
+            CLOSE_ACTION.accept(image);
+            trimmed++;
+            return;
+        }
+
+        Entry<I> entry = new Entry<>(image, DIMENSIONS_GETTER.apply(image), bytes, generation);
+        BUCKETS.computeIfAbsent(entry.DIMENSIONS, (dimensions) -> new ArrayDeque<>()).addLast(entry);
+        RELEASE_ORDER.addLast(entry);
+        pooledBytes += bytes;
+        pooledCount++;
+
+        while (pooledBytes > MAX_BYTES) {
+            Entry<I> oldest = nextInReleaseOrder();
+            BUCKETS.get(oldest.DIMENSIONS).remove(oldest);
+            free(oldest);
+        }
+    }
+
+    /**
+     * Frees all images that were returned before the last time this method was called and have
+     * not been taken since. This should be called once each reload finishes, so images that were
+     * not reused by the next reload are freed, while the images from the reload that just
+     * finished are kept for the next one.
+     */
+    public synchronized void trimUnused() {
+        while (!RELEASE_ORDER.isEmpty() && RELEASE_ORDER.peekFirst().GENERATION < generation) {
+            Entry<I> oldest = nextInReleaseOrder();
+            BUCKETS.get(oldest.DIMENSIONS).remove(oldest);
+            free(oldest);
+        }
+
+        BUCKETS.values().removeIf(ArrayDeque::isEmpty);
+        generation++;
+    }
+
+    /**
+     * Gets the bytes of native memory held by pooled images.
+     * @return bytes held by pooled images
+     */
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * Gets the number of images in the pool.
+     * @return number of pooled images
+     */
+    public synchronized int getPooledCount() {
+        return pooledCount;
+    }
+
+    /**
+     * Gets the number of times an image was taken from the pool since statistics were last logged.
+     * @return number of pool hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of times no image with the requested dimensions was pooled since statistics
+     * were last logged.
+     * @return number of pool misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of images that were freed instead of being reused since statistics were last logged.
+     * @return number of freed images
+     */
+    public synchronized long getTrimmed() {
+        return trimmed;
+    }
+
+    /**
+     * Logs the pool's statistics and resets the hit, miss, and trimmed counts.
+     * @param logger        logger to write the statistics to
+     */
+    public synchronized void logSummary(Logger logger) {
+        requireNonNull(logger, "Logger cannot be null");
+
+        if (hits > 0 || misses > 0 || trimmed > 0) {
+            logger.info("Native image pool: {} hits, {} misses, {} freed, {} images pooled ({} bytes)",
+                    hits, misses, trimmed, pooledCount, pooledBytes);
+        }
+
+        hits = 0;
+        misses = 0;
+        trimmed = 0;
+    }
+
+    /**
+     * Removes the pooled image that was returned first from the release order.
+     * @return the oldest pooled image
+     */
+    private Entry<I> nextInReleaseOrder() {
+        Entry<I> entry = RELEASE_ORDER.removeFirst();
+        discardTaken();
+        return entry;
+    }
+
+    /**
+     * Removes an entry from the pool's totals without freeing its image.
+     * @param entry     the entry to remove
+     */
+    private void remove(Entry<I> entry) {
+
+        // Taken entries are skipped later instead of searching the release order for them now
+        entry.taken = true;
+        pooledBytes -= entry.BYTES;
+        pooledCount--;
+        discardTaken();
+    }
+
+    /**
+     * Discards taken entries at the front of the release order so that the first entry
+     * is always still pooled.
+     */
+    private void discardTaken() {
+        while (!RELEASE_ORDER.isEmpty() && RELEASE_ORDER.peekFirst().taken) {
+            RELEASE_ORDER.removeFirst();
+        }
+    }
+
+    /**
+     * Frees the image in an entry that was already removed from the release order.
+     * @param entry     the entry to free
+     */
+    private void free(Entry<I> entry) {
+        pooledBytes -= entry.BYTES;
+        pooledCount--;
+        trimmed++;
+        CLOSE_ACTION.accept(entry.IMAGE);
+    }
+
+    /**
+     * A pooled image.
+     * @param <I> image type
+     * @author soir20
+     */
+    private static class Entry<I> {
+        private final I IMAGE;
+        private final Point DIMENSIONS;
+        private final long BYTES;
+        private final int GENERATION;
+        private boolean taken;
+
+        /**
+         * Creates a new pooled image.
+         * @param image         the image
+         * @param dimensions    the image's dimensions
+         * @param bytes         bytes of native memory the image holds
+         * @param generation    number of times unused images were trimmed before the image was returned
+         */
+        public Entry(I image, Point dimensions, long bytes, int generation) {
+            IMAGE = image;
+            DIMENSIONS = dimensions;
+            BYTES = bytes;
+            GENERATION = generation;
+        }
+    }
+
+}
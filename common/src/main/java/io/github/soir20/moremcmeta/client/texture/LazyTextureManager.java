@@ -17,34 +17,100 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import io.github.soir20.moremcmeta.client.animation.AnimationStateBank;
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
 import net.minecraft.client.renderer.texture.AbstractTexture;
 import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Finishes loaded textures lazily with upload components according to the provided {@link IFinisher}.
+ * Textures can be registered and unregistered from any thread. Animated textures are kept in an
+ * immutable snapshot that is replaced whenever they change, so ticking never needs a lock.
+ * Textures that follow a timeline in this manager's {@link AnimationStateBank} are only
+ * ticked when the timeline's frame changes.
  * @param <I> type of texture builders (input)
  * @param <O> type of textures (output)
  * @author soir20
  */
 public class LazyTextureManager<I, O extends AbstractTexture & CustomTickable> implements IManager<I> {
     private final IManager<AbstractTexture> DELEGATE;
-    private final Map<ResourceLocation, CustomTickable> ANIMATED_TEXTURES;
+    private final Object TEXTURES_LOCK;
     private final IFinisher<I, O> FINISHER;
+    private final long FINISH_NANOS_PER_TICK;
+
+    @Nullable
+    private final AnimationStateBank ANIMATION_STATES;
+
+    private volatile TickSnapshot animatedTextures;
+    private volatile boolean isFinishing;
 
     /**
-     * Creates the TextureManagerWrapper.
+     * Creates the TextureManagerWrapper. All queued textures are finished at once.
      * @param delegate      Minecraft's the texture manager
      * @param finisher      lazily finishes textures once resource loading is complete
      */
     public LazyTextureManager(IManager<AbstractTexture> delegate, IFinisher<I, O> finisher) {
+        this(delegate, finisher, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates the TextureManagerWrapper. Queued textures are finished over several ticks,
+     * spending up to the given time finishing them in each tick.
+     * @param delegate              Minecraft's the texture manager
+     * @param finisher              lazily finishes textures once resource loading is complete
+     * @param finishNanosPerTick    time in nanoseconds to spend finishing textures in each tick
+     */
+    public LazyTextureManager(IManager<AbstractTexture> delegate, IFinisher<I, O> finisher,
+                              long finishNanosPerTick) {
+        this(finishNanosPerTick, delegate, finisher, null);
+    }
+
+    /**
+     * Creates the TextureManagerWrapper. Queued textures are finished over several ticks,
+     * spending up to the given time finishing them in each tick. The position of all
+     * animations in the given bank is advanced in one loop before the textures are ticked.
+     * @param delegate              Minecraft's the texture manager
+     * @param finisher              lazily finishes textures once resource loading is complete
+     * @param finishNanosPerTick    time in nanoseconds to spend finishing textures in each tick
+     * @param animationStates       bank that stores the position of the textures' animations
+     */
+    public LazyTextureManager(IManager<AbstractTexture> delegate, IFinisher<I, O> finisher,
+                              long finishNanosPerTick, AnimationStateBank animationStates) {
+        this(finishNanosPerTick, delegate, finisher,
+                requireNonNull(animationStates, "Animation states cannot be null"));
+    }
+
+    /**
+     * Creates the TextureManagerWrapper.
+     * @param finishNanosPerTick    time in nanoseconds to spend finishing textures in each tick
+     * @param delegate              Minecraft's the texture manager
+     * @param finisher              lazily finishes textures once resource loading is complete
+     * @param animationStates       bank that stores the position of the textures' animations
+     *                              (optional)
+     */
+    private LazyTextureManager(long finishNanosPerTick, IManager<AbstractTexture> delegate,
+                               IFinisher<I, O> finisher, @Nullable AnimationStateBank animationStates) {
         DELEGATE = requireNonNull(delegate, "Delegate manager cannot be null");
-        ANIMATED_TEXTURES = new HashMap<>();
+        TEXTURES_LOCK = new Object();
         FINISHER = requireNonNull(finisher, "Finisher cannot be null");
+
+        if (finishNanosPerTick < 0) {
+            throw new IllegalArgumentException("Finishing time per tick cannot be negative");
+        }
+
+        FINISH_NANOS_PER_TICK = finishNanosPerTick;
+        ANIMATION_STATES = animationStates;
+        animatedTextures = new TickSnapshot(ImmutableMap.of(), animationStates);
     }
 
     /**
@@ -68,16 +134,14 @@ public class LazyTextureManager<I, O extends AbstractTexture & CustomTickable> i
     }
 
     /**
-     * Finishes all queued textures by adding them to Minecraft's texture manager
-     * according to the provided {@link IFinisher}.
+     * Starts finishing all queued textures by adding them to Minecraft's texture manager
+     * according to the provided {@link IFinisher}. As many textures as the time limit
+     * allows are finished immediately. The rest are finished in the following ticks,
+     * and each texture becomes active as soon as it is finished.
      */
     public void finishQueued() {
-        Map<ResourceLocation, O> textures = FINISHER.finish();
-
-        textures.forEach((location, texture) -> {
-            DELEGATE.register(location, texture);
-            ANIMATED_TEXTURES.put(location, texture);
-        });
+        isFinishing = true;
+        finishSlice();
     }
 
     /**
@@ -89,7 +153,14 @@ public class LazyTextureManager<I, O extends AbstractTexture & CustomTickable> i
         requireNonNull(textureLocation, "Texture location cannot be null");
 
         DELEGATE.unregister(textureLocation);
-        ANIMATED_TEXTURES.remove(textureLocation);
+
+        synchronized (TEXTURES_LOCK) {
+            if (animatedTextures.TEXTURES.containsKey(textureLocation)) {
+                Map<ResourceLocation, CustomTickable> updated = new HashMap<>(animatedTextures.TEXTURES);
+                updated.remove(textureLocation);
+                animatedTextures = new TickSnapshot(ImmutableMap.copyOf(updated), ANIMATION_STATES);
+            }
+        }
     }
 
     /**
@@ -97,7 +168,103 @@ public class LazyTextureManager<I, O extends AbstractTexture & CustomTickable> i
      */
     @Override
     public void tick() {
-        ANIMATED_TEXTURES.values().forEach(CustomTickable::tick);
+        tick(1);
+    }
+
+    /**
+     * Continues finishing queued textures and moves all animated textures forward by
+     * several ticks at once. Animated textures are ticked once after all animations in
+     * the bank have been advanced, so only animations stored in the bank or synced to
+     * the game time are moved forward by more than one tick. Textures that follow a timeline
+     * in the bank are only ticked if the timeline's frame changed.
+     * @param ticks     number of ticks that passed since the textures were last updated.
+     *                  When 0, queued textures are finished, but animations are not updated.
+     */
+    public void tick(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks cannot be negative");
+        }
+
+        if (isFinishing) {
+            finishSlice();
+        }
+
+        if (ticks == 0) {
+            return;
+        }
+
+        // Textures registered or unregistered during this tick are only seen in the next tick
+        TickSnapshot snapshot = animatedTextures;
+
+        // Textures that follow a timeline have nothing to do until the timeline's frame changes
+        if (ANIMATION_STATES != null) {
+            ANIMATION_STATES.tick(ticks);
+            ANIMATION_STATES.forEachChanged((timeline) ->
+                    snapshot.TIMELINE_TEXTURES.get(timeline).forEach(CustomTickable::tick));
+        }
+
+        snapshot.ALWAYS_TICKED.forEach(CustomTickable::tick);
+    }
+
+    /**
+     * Finishes queued textures until the time limit for a tick is reached.
+     */
+    private void finishSlice() {
+        Map<ResourceLocation, O> textures = FINISHER.finish(FINISH_NANOS_PER_TICK);
+
+        textures.forEach(DELEGATE::register);
+
+        if (!textures.isEmpty()) {
+            synchronized (TEXTURES_LOCK) {
+                Map<ResourceLocation, CustomTickable> updated = new HashMap<>(animatedTextures.TEXTURES);
+                updated.putAll(textures);
+                animatedTextures = new TickSnapshot(ImmutableMap.copyOf(updated), ANIMATION_STATES);
+            }
+        }
+
+        isFinishing = FINISHER.hasQueued();
+    }
+
+    /**
+     * An immutable set of animated textures, grouped by whether they need to be ticked in every tick.
+     * @author soir20
+     */
+    private static class TickSnapshot {
+        private final ImmutableMap<ResourceLocation, CustomTickable> TEXTURES;
+        private final ImmutableListMultimap<AnimationTimeline, CustomTickable> TIMELINE_TEXTURES;
+        private final ImmutableList<CustomTickable> ALWAYS_TICKED;
+
+        /**
+         * Creates a new snapshot of animated textures.
+         * @param textures          all animated textures
+         * @param animationStates   bank that advances the timelines of the textures that do not need to
+         *                          be ticked in every tick, or null if all textures must be ticked
+         */
+        public TickSnapshot(ImmutableMap<ResourceLocation, CustomTickable> textures,
+                            @Nullable AnimationStateBank animationStates) {
+            TEXTURES = textures;
+
+            ImmutableListMultimap.Builder<AnimationTimeline, CustomTickable> timelineTextures =
+                    new ImmutableListMultimap.Builder<>();
+            ImmutableList.Builder<CustomTickable> alwaysTicked = new ImmutableList.Builder<>();
+
+            for (CustomTickable texture : textures.values()) {
+                Optional<AnimationTimeline> timeline = texture instanceof ITimelineTickable
+                        ? ((ITimelineTickable) texture).getTickTimeline()
+                        : Optional.empty();
+
+                // A timeline from another bank is never reported as changed by this manager's bank
+                if (timeline.isPresent() && animationStates != null && animationStates.contains(timeline.get())) {
+                    timelineTextures.put(timeline.get(), texture);
+                } else {
+                    alwaysTicked.add(texture);
+                }
+            }
+
+            TIMELINE_TEXTURES = timelineTextures.build();
+            ALWAYS_TICKED = alwaysTicked.build();
+        }
+
     }
 
 }
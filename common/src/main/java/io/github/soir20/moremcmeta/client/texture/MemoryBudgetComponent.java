@@ -0,0 +1,66 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tracks an {@link EventDrivenTexture}'s native memory in a {@link NativeMemoryBudget}
+ * and marks the texture as used whenever it is bound or uploaded.
+ * @author soir20
+ */
+public class MemoryBudgetComponent implements ITextureComponent {
+    private final ResourceLocation LOCATION;
+    private final NativeMemoryBudget BUDGET;
+
+    /**
+     * Creates a new memory budget component.
+     * @param location      location of the texture
+     * @param budget        budget to track the texture's memory in
+     */
+    public MemoryBudgetComponent(ResourceLocation location, NativeMemoryBudget budget) {
+        LOCATION = requireNonNull(location, "Location cannot be null");
+        BUDGET = requireNonNull(budget, "Budget cannot be null");
+    }
+
+    /**
+     * Gets the listeners for this component.
+     * @return all of the listeners for this component
+     */
+    @Override
+    public Stream<TextureListener> getListeners() {
+        TextureListener registrationListener = new TextureListener(TextureListener.Type.REGISTRATION,
+                (state) -> BUDGET.track(LOCATION, state.getTexture()));
+
+        // Atlas sprites are uploaded without being bound, so both count as a use
+        TextureListener bindListener = new TextureListener(TextureListener.Type.BIND,
+                (state) -> BUDGET.markUsed(LOCATION));
+        TextureListener uploadListener = new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> BUDGET.markUsed(LOCATION));
+
+        TextureListener closeListener = new TextureListener(TextureListener.Type.CLOSE,
+                (state) -> BUDGET.untrack(LOCATION, state.getTexture()));
+
+        return Stream.of(registrationListener, bindListener, uploadListener, closeListener);
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableMap;
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps track of how much native memory each texture holds and evicts the least
+ * recently used textures when the total exceeds a budget. Textures used within the
+ * last few frames are never evicted, since they are likely to be reloaded right away.
+ * @author soir20
+ */
+public class NativeMemoryBudget {
+    private final long MAX_BYTES;
+    private final int PROTECTED_FRAMES;
+    private final Logger LOGGER;
+    private final LinkedHashMap<ResourceLocation, Entry> ENTRIES;
+    private long totalBytes;
+    private long frame;
+
+    /**
+     * Creates a new native memory budget.
+     * @param maxBytes          maximum bytes of native memory the tracked textures should hold
+     * @param protectedFrames   number of frames, including the current one, after a texture
+     *                          is used that it cannot be evicted
+     * @param logger            logger for memory-related messages
+     */
+    public NativeMemoryBudget(long maxBytes, int protectedFrames, Logger logger) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Maximum bytes cannot be negative");
+        }
+
+        if (protectedFrames < 0) {
+            throw new IllegalArgumentException("Protected frames cannot be negative");
+        }
+
+        MAX_BYTES = maxBytes;
+        PROTECTED_FRAMES = protectedFrames;
+        LOGGER = requireNonNull(logger, "Logger cannot be null");
+
+        // Access order keeps the least recently used textures first
+        ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Starts tracking the memory held by a texture. Replaces any texture already
+     * tracked at the same location. Other textures may be evicted if the new
+     * texture puts the total over the budget.
+     * @param location      location of the texture
+     * @param evictable     the texture's evictable memory
+     */
+    public synchronized void track(ResourceLocation location, IEvictable evictable) {
+        requireNonNull(location, "Location cannot be null");
+        requireNonNull(evictable, "Evictable cannot be null");
+
+        Entry oldEntry = ENTRIES.remove(location);
+        if (oldEntry != null) {
+            totalBytes -= oldEntry.bytes;
+        }
+
+        Entry entry = new Entry(evictable, frame);
+        ENTRIES.put(location, entry);
+        refresh(entry);
+
+        LOGGER.debug("Texture {} holds {} bytes of native memory", location, entry.bytes);
+        enforce(location);
+    }
+
+    /**
+     * Stops tracking the memory held by a texture. Does nothing if the texture is
+     * not tracked or if a different texture has replaced it at the same location.
+     * @param location      location of the texture
+     * @param evictable     the texture's evictable memory
+     */
+    public synchronized void untrack(ResourceLocation location, IEvictable evictable) {
+        requireNonNull(location, "Location cannot be null");
+        requireNonNull(evictable, "Evictable cannot be null");
+
+        Entry entry = ENTRIES.get(location);
+        if (entry != null && entry.EVICTABLE == evictable) {
+            ENTRIES.remove(location);
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Marks a texture as the most recently used texture. Any memory the texture restored
+     * since it was last used is counted, and other textures may be evicted if the total
+     * is now over the budget. Does nothing if the texture is not tracked.
+     * @param location      location of the texture
+     */
+    public synchronized void markUsed(ResourceLocation location) {
+        requireNonNull(location, "Location cannot be null");
+
+        Entry entry = ENTRIES.get(location);
+        if (entry == null) {
+            return;
+        }
+
+        entry.lastUsedFrame = frame;
+        refresh(entry);
+        enforce(location);
+    }
+
+    /**
+     * Starts a new frame. Textures used in the previous frames stay protected from
+     * eviction until the number of protected frames has passed.
+     */
+    public synchronized void startFrame() {
+        frame++;
+    }
+
+    /**
+     * Gets the bytes of native memory held by a texture when it was last tracked or used.
+     * @param location      location of the texture
+     * @return the bytes of native memory held by the texture, or zero if it is not tracked
+     */
+    public synchronized long getBytes(ResourceLocation location) {
+        requireNonNull(location, "Location cannot be null");
+
+        // Avoid get() so that reading the usage does not change the eviction order
+        for (Map.Entry<ResourceLocation, Entry> entry : ENTRIES.entrySet()) {
+            if (entry.getKey().equals(location)) {
+                return entry.getValue().bytes;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Gets the total bytes of native memory held by all tracked textures.
+     * @return the total bytes of native memory
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the maximum bytes of native memory the tracked textures should hold.
+     * @return the budget in bytes
+     */
+    public long getMaxBytes() {
+        return MAX_BYTES;
+    }
+
+    /**
+     * Gets the bytes of native memory held by every tracked texture, from least
+     * recently used to most recently used.
+     * @return the bytes of native memory held by each texture
+     */
+    public synchronized ImmutableMap<ResourceLocation, Long> getUsage() {
+        ImmutableMap.Builder<ResourceLocation, Long> usage = new ImmutableMap.Builder<>();
+        ENTRIES.forEach((location, entry) -> usage.put(location, entry.bytes));
+        return usage.build();
+    }
+
+    /**
+     * Updates the recorded size of a texture's memory.
+     * @param entry     the texture's entry
+     */
+    private void refresh(Entry entry) {
+        long bytes = entry.EVICTABLE.getNativeBytes();
+        totalBytes += bytes - entry.bytes;
+        entry.bytes = bytes;
+    }
+
+    /**
+     * Evicts the least recently used textures until the total is within the budget.
+     * Textures used within the protected frames are skipped.
+     * @param protectedLocation     location of a texture that should not be evicted
+     */
+    private void enforce(ResourceLocation protectedLocation) {
+        if (totalBytes <= MAX_BYTES) {
+            return;
+        }
+
+        for (Map.Entry<ResourceLocation, Entry> mapEntry : ENTRIES.entrySet()) {
+            if (totalBytes <= MAX_BYTES) {
+                break;
+            }
+
+            Entry entry = mapEntry.getValue();
+            boolean recentlyUsed = frame - entry.lastUsedFrame < PROTECTED_FRAMES;
+            if (entry.bytes == 0 || recentlyUsed || mapEntry.getKey().equals(protectedLocation)) {
+                continue;
+            }
+
+            long bytesBefore = entry.bytes;
+            entry.EVICTABLE.evict();
+            refresh(entry);
+
+            LOGGER.debug("Evicted texture {}, freeing {} bytes of native memory", mapEntry.getKey(),
+                    bytesBefore - entry.bytes);
+        }
+    }
+
+    /**
+     * Memory tracked for a single texture.
+     * @author soir20
+     */
+    private static class Entry {
+        private final IEvictable EVICTABLE;
+        private long bytes;
+        private long lastUsedFrame;
+
+        /**
+         * Creates a new entry.
+         * @param evictable     the texture's evictable memory
+         * @param frame         frame in which the texture was tracked
+         */
+        public Entry(IEvictable evictable, long frame) {
+            EVICTABLE = evictable;
+            lastUsedFrame = frame;
+        }
+
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Stores every frame of an animation as palette indices in one direct (off-heap) buffer.
+ * Pixel-art animations rarely use more than a few dozen colors, so storing one byte per
+ * pixel instead of four cuts the memory held by resident frames by up to four times.
+ * Frames are palettized when the store is created; animations with more colors than
+ * a palette can hold cannot be stored with a palette.
+ * @author soir20
+ */
+public class PaletteFrameStore implements IFrameStore {
+    private static final int BYTES_PER_COLOR = 4;
+
+    private final ByteBuffer INDICES;
+    private final IntBuffer EXPANDED;
+    private final PaletteRGBAImage.Palette PALETTE;
+    private final ImmutableList<ImmutableList<PaletteRGBAImage>> FRAMES;
+
+    /**
+     * Stores an animation's frames with a palette.
+     * @param frames            every mipmap of each frame to store, starting with level 0.
+     *                          Each mipmap must be at least as large as the frame at its
+     *                          level; only its top-left corner is stored.
+     * @param frameWidth        width of a frame at mipmap level 0. Must be greater than 0.
+     * @param frameHeight       height of a frame at mipmap level 0. Must be greater than 0.
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0. The number of areas determines the number of
+     *                          mipmap levels stored.
+     * @param uploader          uploads the frames' pixels
+     * @return  a store containing a copy of all the frames or empty if the frames
+     *          have more than {@link PaletteRGBAImage.Palette#MAX_COLORS} colors
+     */
+    public static Optional<PaletteFrameStore> palettize(List<? extends List<? extends IRGBAImage>> frames,
+                                                        int frameWidth, int frameHeight,
+                                                        List<IRGBAImage.VisibleArea> visibleAreas,
+                                                        IBufferUploader uploader) {
+        requireNonNull(frames, "Frames cannot be null");
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+        requireNonNull(uploader, "Uploader cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        if (visibleAreas.isEmpty()) {
+            throw new IllegalArgumentException("There must be a visible area for at least one mipmap level");
+        }
+
+        int pixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            pixelsPerFrame += (frameWidth >> level) * (frameHeight >> level);
+        }
+
+        // Indices are written straight into the store's buffer so they are never copied from the heap
+        ByteBuffer indices = ByteBuffer.allocateDirect(pixelsPerFrame * frames.size());
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+
+        for (List<? extends IRGBAImage> mipmaps : frames) {
+            requireNonNull(mipmaps, "Frame cannot be null");
+            if (mipmaps.size() < visibleAreas.size()) {
+                throw new IllegalArgumentException("Frame is missing mipmaps");
+            }
+
+            for (int level = 0; level < visibleAreas.size(); level++) {
+                IRGBAImage mipmap = requireNonNull(mipmaps.get(level), "Mipmap cannot be null");
+                int width = frameWidth >> level;
+                int height = frameHeight >> level;
+
+                if (mipmap.getWidth() < width || mipmap.getHeight() < height) {
+                    throw new IllegalArgumentException("Mipmap is smaller than the frame size");
+                }
+
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        int paletteIndex = palette.indexOf(mipmap.getPixel(x, y));
+                        if (paletteIndex < 0) {
+                            return Optional.empty();
+                        }
+
+                        indices.put((byte) paletteIndex);
+                    }
+                }
+            }
+        }
+
+        indices.clear();
+        return Optional.of(new PaletteFrameStore(indices, palette, frameWidth, frameHeight, frames.size(),
+                visibleAreas, uploader));
+    }
+
+    /**
+     * Calculates how many bytes of native memory a store would use without creating it.
+     * @param frameWidth        width of a frame at mipmap level 0
+     * @param frameHeight       height of a frame at mipmap level 0
+     * @param frameCount        number of frames to store
+     * @param visibleAreas      visible area of the frames at each mipmap level, starting
+     *                          with level 0
+     * @return  the size the store would have in bytes if the frames fit in a palette
+     */
+    public static long estimateSizeInBytes(int frameWidth, int frameHeight, int frameCount,
+                                           List<IRGBAImage.VisibleArea> visibleAreas) {
+        requireNonNull(visibleAreas, "Visible areas cannot be null");
+
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frames must not be empty");
+        }
+
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("There must be at least one frame");
+        }
+
+        long pixelsPerFrame = 0;
+        for (int level = 0; level < visibleAreas.size(); level++) {
+            pixelsPerFrame += (long) (frameWidth >> level) * (frameHeight >> level);
+        }
+
+        return pixelsPerFrame * frameCount + (long) frameWidth * frameHeight * BYTES_PER_COLOR;
+    }
+
+    /**
+     * Gets all mipmaps of a frame, starting with level 0.
+     * @param frame     index of the frame
+     * @return  the frame's images at every stored mipmap level
+     */
+    @Override
+    public ImmutableList<PaletteRGBAImage> getMipmaps(int frame) {
+        if (frame < 0 || frame >= FRAMES.size()) {
+            throw new IllegalArgumentException("There is no frame at index " + frame);
+        }
+
+        return FRAMES.get(frame);
+    }
+
+    /**
+     * Gets the number of frames in this store.
+     * @return  the number of frames
+     */
+    @Override
+    public int getFrameCount() {
+        return FRAMES.size();
+    }
+
+    /**
+     * Gets the number of bytes of native memory used by this store, including the
+     * buffer that rows are expanded into for upload.
+     * @return  the size of the store in bytes
+     */
+    @Override
+    public long getSizeInBytes() {
+        return INDICES.capacity() + (long) EXPANDED.capacity() * BYTES_PER_COLOR;
+    }
+
+    /**
+     * Gets the palette shared by all frames in this store.
+     * @return  the store's palette
+     */
+    public PaletteRGBAImage.Palette getPalette() {
+        return PALETTE;
+    }
+
+    /**
+     * Creates a new store from palettized frames.
+     * @param indices           direct buffer with the palette index of every pixel of every
+     *                          frame, with each frame's mipmaps stored contiguously
+     * @param palette           colors that the indices refer to
+     * @param frameWidth        width of a frame at mipmap level 0
+     * @param frameHeight       height of a frame at mipmap level 0
+     * @param frameCount        number of frames to store
+     * @param visibleAreas      visible area of the frames at each mipmap level
+     * @param uploader          uploads the frames' pixels
+     */
+    private PaletteFrameStore(ByteBuffer indices, PaletteRGBAImage.Palette palette, int frameWidth,
+                              int frameHeight, int frameCount, List<IRGBAImage.VisibleArea> visibleAreas,
+                              IBufferUploader uploader) {
+        INDICES = indices;
+
+        EXPANDED = ByteBuffer.allocateDirect(frameWidth * frameHeight * BYTES_PER_COLOR)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        PALETTE = palette;
+
+        ByteBuffer position = INDICES.duplicate();
+        ImmutableList.Builder<ImmutableList<PaletteRGBAImage>> frames = new ImmutableList.Builder<>();
+        for (int frame = 0; frame < frameCount; frame++) {
+            ImmutableList.Builder<PaletteRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < visibleAreas.size(); level++) {
+                int width = frameWidth >> level;
+                int height = frameHeight >> level;
+
+                IRGBAImage.VisibleArea visibleArea = requireNonNull(visibleAreas.get(level),
+                        "Visible area cannot be null");
+                mipmaps.add(new PaletteRGBAImage(position, PALETTE, EXPANDED, width, height, level,
+                        visibleArea, uploader));
+                position.position(position.position() + width * height);
+            }
+
+            frames.add(mipmaps.build());
+        }
+
+        FRAMES = frames.build();
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link IRGBAImage} that stores a one-byte palette index for each pixel instead of its
+ * full color. Rows are expanded to full colors when the image is uploaded, so the image
+ * uses a quarter of the memory of an RGBA image as long as it has at most
+ * {@link Palette#MAX_COLORS} distinct colors.
+ * @author soir20
+ */
+public class PaletteRGBAImage implements IRGBAImage {
+    private final ByteBuffer INDICES;
+    private final Palette PALETTE;
+    private final IntBuffer EXPANDED;
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int MIPMAP_LEVEL;
+    private final VisibleArea VISIBLE_AREA;
+    private final IBufferUploader UPLOADER;
+
+    /**
+     * Creates a new image backed by a buffer of palette indices.
+     * @param indices           buffer holding the image's palette indices from its current
+     *                          position. It must have at least width * height bytes remaining.
+     *                          Changes to the buffer's position or limit do not affect this image.
+     * @param palette           colors that the indices refer to. May be shared with other images.
+     * @param expanded          buffer that rows are expanded into before upload. It must have
+     *                          a capacity of at least width * height pixels and may be shared
+     *                          with other images that are uploaded on the same thread.
+     * @param width             width of the image in pixels
+     * @param height            height of the image in pixels
+     * @param mipmapLevel       mipmap level of the image
+     * @param visibleArea       the visible portions of this image
+     * @param uploader          uploads the pixels in this image
+     */
+    public PaletteRGBAImage(ByteBuffer indices, Palette palette, IntBuffer expanded, int width, int height,
+                            int mipmapLevel, VisibleArea visibleArea, IBufferUploader uploader) {
+        requireNonNull(indices, "Index buffer cannot be null");
+        PALETTE = requireNonNull(palette, "Palette cannot be null");
+        EXPANDED = requireNonNull(expanded, "Expansion buffer cannot be null");
+        VISIBLE_AREA = requireNonNull(visibleArea, "Visible area cannot be null");
+        UPLOADER = requireNonNull(uploader, "Uploader cannot be null");
+
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Image dimensions cannot be negative");
+        }
+
+        if (mipmapLevel < 0) {
+            throw new IllegalArgumentException("Mipmap level cannot be negative");
+        }
+
+        int size = width * height;
+        if (indices.remaining() < size) {
+            throw new IllegalArgumentException("Index buffer is too small for an image of the given size");
+        }
+
+        if (expanded.capacity() < size) {
+            throw new IllegalArgumentException("Expansion buffer is too small for an image of the given size");
+        }
+
+        ByteBuffer slice = indices.slice();
+        slice.limit(size);
+        INDICES = slice.slice();
+
+        WIDTH = width;
+        HEIGHT = height;
+        MIPMAP_LEVEL = mipmapLevel;
+    }
+
+    /**
+     * Gets the color of a pixel in this image.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the color of the given pixel
+     */
+    @Override
+    public int getPixel(int x, int y) {
+        return PALETTE.getColor(Byte.toUnsignedInt(INDICES.get(toIndex(x, y))));
+    }
+
+    /**
+     * Sets the color of a pixel in this image. The color is added to the palette
+     * if it is not already present.
+     * @param x         x-coordinate of the pixel
+     * @param y         y-coordinate of the pixel
+     * @param color     new color of the pixel
+     * @throws IllegalStateException if the color is new and the palette is full
+     */
+    @Override
+    public void setPixel(int x, int y, int color) {
+        int pixelIndex = toIndex(x, y);
+        int paletteIndex = PALETTE.indexOf(color);
+
+        if (paletteIndex < 0) {
+            throw new IllegalStateException("Palette is full and does not contain color " + color);
+        }
+
+        INDICES.put(pixelIndex, (byte) paletteIndex);
+    }
+
+    /**
+     * Gets the width of this image.
+     * @return  the width of this image in pixels
+     */
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Gets the height of this image.
+     * @return  the height of this image in pixels
+     */
+    @Override
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * Gets the visible area (iterable by point) of this image.
+     * @return  the visible area of this image
+     */
+    @Override
+    public VisibleArea getVisibleArea() {
+        return VISIBLE_AREA;
+    }
+
+    /**
+     * Expands all of this image's rows to full colors and uploads them at the given coordinates.
+     * @param uploadX       horizontal position to upload at
+     * @param uploadY       vertical position to upload at
+     */
+    @Override
+    public void upload(int uploadX, int uploadY) {
+        IntBuffer expanded = EXPANDED.duplicate();
+        expanded.clear();
+
+        int index = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                expanded.put(PALETTE.getColor(Byte.toUnsignedInt(INDICES.get(index++))));
+            }
+        }
+
+        expanded.flip();
+        UPLOADER.upload(expanded, WIDTH, HEIGHT, MIPMAP_LEVEL, uploadX, uploadY);
+    }
+
+    /**
+     * Gets the mipmap level of this image.
+     * @return  the mipmap level of this image
+     */
+    public int getMipmapLevel() {
+        return MIPMAP_LEVEL;
+    }
+
+    /**
+     * Converts a coordinate to its index in the index buffer.
+     * @param x     x-coordinate of the pixel
+     * @param y     y-coordinate of the pixel
+     * @return  the index of the pixel in the buffer
+     */
+    private int toIndex(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) {
+            throw new IllegalArgumentException("Point (" + x + ", " + y + ") is outside the image");
+        }
+
+        return y * WIDTH + x;
+    }
+
+    /**
+     * A fixed-capacity list of colors that palette images refer to by index.
+     * @author soir20
+     */
+    public static class Palette {
+        public static final int MAX_COLORS = 256;
+
+        // The table is kept at most half full so that colors are found after a few probes
+        private static final int TABLE_BITS = 9;
+        private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+
+        private final int[] COLORS;
+        private final short[] TABLE;
+        private int size;
+
+        /**
+         * Creates a new, empty palette.
+         */
+        public Palette() {
+            COLORS = new int[MAX_COLORS];
+            TABLE = new short[1 << TABLE_BITS];
+        }
+
+        /**
+         * Gets the index of a color, adding it to the palette if it is not present.
+         * @param color     the color to find
+         * @return  the index of the color or -1 if the color is new and the palette is full
+         */
+        public int indexOf(int color) {
+            // Each table entry is one more than a color's index, so that zero marks an empty entry
+            int tableIndex = (color * 0x9E3779B9) >>> (Integer.SIZE - TABLE_BITS);
+            int entry;
+            while ((entry = TABLE[tableIndex]) != 0) {
+                if (COLORS[entry - 1] == color) {
+                    return entry - 1;
+                }
+
+                tableIndex = (tableIndex + 1) & TABLE_MASK;
+            }
+
+            if (size == MAX_COLORS) {
+                return -1;
+            }
+
+            int newIndex = size++;
+            COLORS[newIndex] = color;
+            TABLE[tableIndex] = (short) (newIndex + 1);
+            return newIndex;
+        }
+
+        /**
+         * Gets the color at an index in the palette.
+         * @param index     index of the color
+         * @return  the color at the given index
+         */
+        public int getColor(int index) {
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("There is no color at index " + index);
+            }
+
+            return COLORS[index];
+        }
+
+        /**
+         * Gets the number of colors in the palette.
+         * @return  the number of colors
+         */
+        public int getSize() {
+            return size;
+        }
+
+    }
+
+}
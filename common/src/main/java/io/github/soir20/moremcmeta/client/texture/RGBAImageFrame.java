@@ -22,6 +22,7 @@ import io.github.soir20.moremcmeta.client.animation.IInterpolator;
 import io.github.soir20.moremcmeta.client.animation.RGBAInterpolator;
 import io.github.soir20.moremcmeta.client.io.FrameReader;
 import io.github.soir20.moremcmeta.math.Point;
+import org.jetbrains.annotations.Nullable;
 
 import static java.util.Objects.requireNonNull;
 
@@ -144,12 +145,17 @@ public class RGBAImageFrame {
 
     /**
      * Interpolates between {@link RGBAImageFrame}s. The frames returned by this interpolator
-     * are <em>not</em> unique; the mipmaps are overwritten.
+     * are <em>not</em> unique; the mipmaps are overwritten. The mipmaps may be shared with
+     * other interpolators through a {@link ScratchBuffers.Claim}.
      * @author soir20
      */
     public static class Interpolator implements IInterpolator<RGBAImageFrame> {
         private final RGBAInterpolator INTERPOLATOR;
         private final RGBAImageFrame FRAME;
+
+        @Nullable
+        private final ScratchBuffers.Claim<?> CLAIM;
+
         private int lastLevel;
 
         /**
@@ -159,13 +165,40 @@ public class RGBAImageFrame {
          *                      and be the same size as a mipmapped frame.
          */
         public Interpolator(ImmutableList<? extends IRGBAImage> mipmaps) {
+            this(null, mipmaps);
+        }
+
+        /**
+         * Creates a new interpolator that writes into mipmaps shared with other interpolators.
+         * Whenever another interpolator wrote into the mipmaps since this interpolator last did,
+         * the start frame is copied into them before interpolating.
+         * @param mipmaps       the mipmaps, which will be overwritten starting at (0, 0).
+         *                      The mipmaps should be the same size as a mipmapped frame.
+         * @param claim         claim for the shared images behind the mipmaps, with one image
+         *                      for each mipmap
+         */
+        public Interpolator(ImmutableList<? extends IRGBAImage> mipmaps, ScratchBuffers.Claim<?> claim) {
+            this(requireNonNull(claim, "Claim cannot be null"), mipmaps);
+        }
+
+        /**
+         * Creates a new interpolator.
+         * @param claim         claim for shared mipmaps, or null if the mipmaps are not shared
+         * @param mipmaps       the mipmaps, which will be overwritten starting at (0, 0)
+         */
+        private Interpolator(@Nullable ScratchBuffers.Claim<?> claim, ImmutableList<? extends IRGBAImage> mipmaps) {
             requireNonNull(mipmaps, "Mipmap list cannot be null");
 
+            if (claim != null && claim.getLevelCount() != mipmaps.size()) {
+                throw new IllegalArgumentException("Claim must have one image for each mipmap");
+            }
+
             FrameReader.FrameData data = new FrameReader.FrameData(
                     mipmaps.get(0).getWidth(), mipmaps.get(0).getHeight(),
                     0, 0, 1
             );
             FRAME = new RGBAImageFrame(data, mipmaps);
+            CLAIM = claim;
 
             INTERPOLATOR = new RGBAInterpolator((width, height) -> mipmaps.get(lastLevel));
         }
@@ -194,6 +227,11 @@ public class RGBAImageFrame {
                 IRGBAImage startImage = start.getImage(level);
                 IRGBAImage endImage = end.getImage(level);
 
+                // Only the changing area is interpolated, so the rest of a shared image must be restored
+                if (CLAIM != null && CLAIM.acquire(level)) {
+                    copyImage(startImage, FRAME.getImage(level));
+                }
+
                 // We don't need to do anything with the result because the mipmaps are altered directly
                 INTERPOLATOR.interpolate(steps, step, startImage, endImage);
 
@@ -202,6 +240,41 @@ public class RGBAImageFrame {
             return FRAME;
         }
 
+        /**
+         * Checks whether the last frame returned by this interpolator still holds the colors it
+         * was interpolated with. Frames in shared mipmaps are overwritten by other interpolators.
+         * @return whether the last interpolated frame is unchanged
+         */
+        @Override
+        public boolean isLastResultIntact() {
+            if (CLAIM == null) {
+                return true;
+            }
+
+            for (int level = 0; level < CLAIM.getLevelCount(); level++) {
+                if (!CLAIM.isHeld(level)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Copies an image into the top-left corner of another image. Pixels outside the
+         * image that is copied from are transparent.
+         * @param from      image to copy from (unchanged)
+         * @param to        image to copy to (changed)
+         */
+        private static void copyImage(IRGBAImage from, IRGBAImage to) {
+            for (int yPos = 0; yPos < to.getHeight(); yPos++) {
+                for (int xPos = 0; xPos < to.getWidth(); xPos++) {
+                    boolean isInImage = xPos < from.getWidth() && yPos < from.getHeight();
+                    to.setPixel(xPos, yPos, isInImage ? from.getPixel(xPos, yPos) : 0);
+                }
+            }
+        }
+
     }
 
 }
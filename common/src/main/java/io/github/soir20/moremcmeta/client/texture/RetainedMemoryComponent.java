@@ -0,0 +1,67 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.util.stream.Stream;
+
+/**
+ * Counts native memory that an {@link EventDrivenTexture} keeps for as long as it exists,
+ * such as the encoded image that its evicted images are reloaded from. The memory is
+ * counted against the texture's budget, but it cannot be evicted.
+ * @author soir20
+ */
+public class RetainedMemoryComponent implements ITextureComponent, IEvictable {
+    private final long BYTES;
+
+    /**
+     * Creates a retained memory component for a texture.
+     * @param bytes     bytes of native memory the texture keeps
+     */
+    public RetainedMemoryComponent(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Retained bytes cannot be negative");
+        }
+
+        BYTES = bytes;
+    }
+
+    /**
+     * Gets the bytes of native memory the texture keeps.
+     * @return bytes of native memory kept
+     */
+    @Override
+    public long getNativeBytes() {
+        return BYTES;
+    }
+
+    /**
+     * Does nothing, since the memory is needed for as long as the texture exists.
+     */
+    @Override
+    public void evict() {}
+
+    /**
+     * Gets all the listeners for this component.
+     * @return no listeners, since the memory is only counted
+     */
+    @Override
+    public Stream<TextureListener> getListeners() {
+        return Stream.empty();
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Images that hold interpolated frames for every texture with the same frame size. An interpolated
+ * frame is uploaded right after it is created, so textures can take turns writing into the same
+ * image. Each texture uses a {@link Claim} to find out whether another texture wrote into the images
+ * since it last used them. Only one image exists for each size, so the memory used for interpolation
+ * depends on the number of different frame sizes rather than the number of textures.
+ * @param <I> image type
+ * @author soir20
+ */
+public class ScratchBuffers<I> {
+    private final BiFunction<Integer, Integer, ? extends I> ALLOCATOR;
+    private final Consumer<? super I> CLOSE_ACTION;
+    private final Map<Point, Buffer<I>> BUFFERS;
+
+    /**
+     * Creates a new set of shared images.
+     * @param allocator         creates an image with the given width and height
+     * @param closeAction       frees an image's native memory
+     */
+    public ScratchBuffers(BiFunction<Integer, Integer, ? extends I> allocator, Consumer<? super I> closeAction) {
+        ALLOCATOR = requireNonNull(allocator, "Allocator cannot be null");
+        CLOSE_ACTION = requireNonNull(closeAction, "Close action cannot be null");
+        BUFFERS = new HashMap<>();
+    }
+
+    /**
+     * Creates a claim for the images of one texture's interpolated frames. No images are
+     * created until they are used.
+     * @param frameWidth        width of a frame at mipmap level 0
+     * @param frameHeight       height of a frame at mipmap level 0
+     * @param mipmap            highest mipmap level of the texture
+     * @return a claim for the texture's interpolation images
+     */
+    public Claim<I> newClaim(int frameWidth, int frameHeight, int mipmap) {
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            throw new IllegalArgumentException("Frame dimensions must be positive");
+        }
+
+        if (mipmap < 0) {
+            throw new IllegalArgumentException("Mipmap level cannot be negative");
+        }
+
+        List<Point> sizes = new ArrayList<>();
+        for (int level = 0; level <= mipmap; level++) {
+            sizes.add(new Point(frameWidth >> level, frameHeight >> level));
+        }
+
+        return new Claim<>(this, sizes);
+    }
+
+    /**
+     * Frees all images that were not used since the last time this method was called.
+     * Claims create their images again if they are used later.
+     */
+    public synchronized void trimUnused() {
+        Iterator<Buffer<I>> iterator = BUFFERS.values().iterator();
+        while (iterator.hasNext()) {
+            Buffer<I> buffer = iterator.next();
+
+            if (!buffer.used) {
+                buffer.closed = true;
+                CLOSE_ACTION.accept(buffer.IMAGE);
+                iterator.remove();
+            } else {
+                buffer.used = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of images that currently exist.
+     * @return the number of shared images
+     */
+    public synchronized int getBufferCount() {
+        return BUFFERS.size();
+    }
+
+    /**
+     * Gets the image with the given size, creating it if it does not exist.
+     * @param size      width (x) and height (y) of the image
+     * @return the image with the given size
+     */
+    private synchronized Buffer<I> getBuffer(Point size) {
+        Buffer<I> buffer = BUFFERS.computeIfAbsent(size,
+                (key) -> new Buffer<>(ALLOCATOR.apply(key.getX(), key.getY())));
+        buffer.used = true;
+        return buffer;
+    }
+
+    /**
+     * Makes a claim the last user of an image.
+     * @param buffer    the image to write into
+     * @param claim     the claim that will write into the image
+     * @return whether another claim wrote into the image since the given claim last did
+     */
+    private synchronized boolean acquire(Buffer<I> buffer, Claim<I> claim) {
+        buffer.used = true;
+
+        if (buffer.owner == claim) {
+            return false;
+        }
+
+        buffer.owner = claim;
+        return true;
+    }
+
+    /**
+     * Checks whether a claim was the last user of an image.
+     * @param buffer    the image to check
+     * @param claim     the claim to check
+     * @return whether the claim was the last to write into the image
+     */
+    private synchronized boolean isOwnedBy(Buffer<I> buffer, Claim<I> claim) {
+        return !buffer.closed && buffer.owner == claim;
+    }
+
+    /**
+     * One texture's access to the shared images for each of its mipmap levels.
+     * @param <I> image type
+     * @author soir20
+     */
+    public static class Claim<I> {
+        private final ScratchBuffers<I> SCRATCH;
+        private final List<Point> SIZES;
+        private final List<Buffer<I>> BUFFERS;
+
+        /**
+         * Creates a new claim.
+         * @param scratch   the shared images
+         * @param sizes     the size of the image at each mipmap level
+         */
+        private Claim(ScratchBuffers<I> scratch, List<Point> sizes) {
+            SCRATCH = scratch;
+            SIZES = sizes;
+            BUFFERS = new ArrayList<>(Collections.nCopies(sizes.size(), null));
+        }
+
+        /**
+         * Gets the number of mipmap levels this claim has images for.
+         * @return the number of images in this claim
+         */
+        public int getLevelCount() {
+            return SIZES.size();
+        }
+
+        /**
+         * Gets the shared image for a mipmap level. The image may have been written
+         * to by another texture unless {@link #isHeld(int)} is true.
+         * @param level     mipmap level of the image
+         * @return the shared image for the mipmap level
+         */
+        public I getImage(int level) {
+            return findBuffer(level).IMAGE;
+        }
+
+        /**
+         * Prepares to write into the image for a mipmap level.
+         * @param level     mipmap level of the image
+         * @return whether another texture wrote into the image since this claim last did, so
+         *         the image does not contain this texture's content outside its changing area
+         */
+        public boolean acquire(int level) {
+            return SCRATCH.acquire(findBuffer(level), this);
+        }
+
+        /**
+         * Checks whether the image for a mipmap level still holds what this claim last wrote into it.
+         * @param level     mipmap level of the image
+         * @return whether no other texture wrote into the image since this claim last did
+         */
+        public boolean isHeld(int level) {
+            checkLevel(level);
+
+            Buffer<I> buffer = BUFFERS.get(level);
+            return buffer != null && SCRATCH.isOwnedBy(buffer, this);
+        }
+
+        /**
+         * Gets the buffer for a mipmap level, finding it again if it was freed.
+         * @param level     mipmap level of the buffer
+         * @return the buffer for the level
+         */
+        private Buffer<I> findBuffer(int level) {
+            checkLevel(level);
+
+            Buffer<I> buffer = BUFFERS.get(level);
+            if (buffer == null || buffer.closed) {
+                buffer = SCRATCH.getBuffer(SIZES.get(level));
+                BUFFERS.set(level, buffer);
+            }
+
+            return buffer;
+        }
+
+        /**
+         * Checks that this claim has an image for a mipmap level.
+         * @param level     mipmap level to check
+         */
+        private void checkLevel(int level) {
+            if (level < 0 || level >= SIZES.size()) {
+                throw new IllegalArgumentException("There is no image for mipmap level " + level);
+            }
+        }
+    }
+
+    /**
+     * A shared image and the claim that last wrote into it.
+     * @param <I> image type
+     * @author soir20
+     */
+    private static class Buffer<I> {
+        private final I IMAGE;
+        private volatile boolean closed;
+        private boolean used;
+        private Object owner;
+
+        /**
+         * Creates a new shared image.
+         * @param image     the image
+         */
+        public Buffer(I image) {
+            IMAGE = image;
+        }
+    }
+
+}
@@ -42,7 +42,9 @@ public class SpriteUploadComponent implements ITextureComponent {
 
     /**
      * Gets the listeners for this component. Sprite will be bound and uploaded
-     * on every tick, in addition to regularly-triggered uploads.
+     * on every tick where the texture has changed, in addition to
+     * regularly-triggered uploads. Tick uploads
+     * may be deferred by the texture's upload scheduler.
      * @return all of the listeners for this component
      */
     @Override
@@ -58,8 +60,12 @@ public class SpriteUploadComponent implements ITextureComponent {
         TextureListener tickListener = new TextureListener(
                 TextureListener.Type.TICK,
                 (state) -> {
+                    if (!state.needsUpload()) {
+                        return;
+                    }
+
                     SPRITE.bind();
-                    state.getTexture().upload();
+                    state.getTexture().scheduleUpload(SPRITE::bind);
                 });
 
         return Stream.of(uploadListener, tickListener);
@@ -18,35 +18,68 @@
 package io.github.soir20.moremcmeta.client.texture;
 
 import com.mojang.datafixers.util.Pair;
+import io.github.soir20.moremcmeta.client.resource.StageTimings;
 import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Finishes event-driven textures with upload components. Textures should not be finished until
- * all atlas stitching has completed.
+ * all atlas stitching has completed. Textures can be queued from any number of threads, but they
+ * should only be finished by one thread at a time.
  * @author soir20
  */
 public class TextureFinisher implements IFinisher<EventDrivenTexture.Builder, EventDrivenTexture> {
-    private final ArrayDeque<Pair<ResourceLocation, EventDrivenTexture.Builder>> QUEUED_BUILDERS;
+    private static final int BATCH_SIZE = 32;
+
+    private final Queue<Pair<ResourceLocation, EventDrivenTexture.Builder>> QUEUED_BUILDERS;
+    private final ArrayDeque<Pair<ResourceLocation, EventDrivenTexture.Builder>> DRAINED_BUILDERS;
     private final SpriteFinder SPRITE_FINDER;
+    private final StageTimings TIMINGS;
+
+    @Nullable
+    private final NativeMemoryBudget BUDGET;
+
+    @Nullable
+    private final UploadScheduler UPLOAD_SCHEDULER;
 
     /**
-     * Creates a new finisher for event-driven textures.
+     * Creates a new finisher for event-driven textures that does not track their memory.
+     * Use a {@link Builder} to create a finisher that tracks memory or schedules uploads.
      * @param spriteFinder      finder for atlas sprites
      */
     public TextureFinisher(SpriteFinder spriteFinder) {
-        QUEUED_BUILDERS = new ArrayDeque<>();
-        SPRITE_FINDER = requireNonNull(spriteFinder);
+        this(requireNonNull(spriteFinder, "Sprite finder cannot be null"), StageTimings.NONE, null, null);
     }
 
     /**
-     * Queues a texture that needs to be finished with an upload component.
+     * Creates a new finisher for event-driven textures.
+     * @param spriteFinder      finder for atlas sprites
+     * @param timings           timings to add the time spent in each finishing stage to
+     * @param budget            budget to track the native memory of finished textures in, if any
+     * @param uploadScheduler   scheduler shared by all finished textures' uploads, if any
+     */
+    private TextureFinisher(SpriteFinder spriteFinder, StageTimings timings, @Nullable NativeMemoryBudget budget,
+                            @Nullable UploadScheduler uploadScheduler) {
+        QUEUED_BUILDERS = new ConcurrentLinkedQueue<>();
+        DRAINED_BUILDERS = new ArrayDeque<>();
+        SPRITE_FINDER = spriteFinder;
+        TIMINGS = timings;
+        BUDGET = budget;
+        UPLOAD_SCHEDULER = uploadScheduler;
+    }
+
+    /**
+     * Queues a texture that needs to be finished with an upload component. This method
+     * is safe to call from any thread.
      * @param location      texture location
      * @param builder       texture builder
      */
@@ -64,18 +97,65 @@ public class TextureFinisher implements IFinisher<EventDrivenTexture.Builder, Ev
      */
     @Override
     public Map<ResourceLocation, EventDrivenTexture> finish() {
+        return finish(Long.MAX_VALUE);
+    }
+
+    /**
+     * Finishes queued textures in the order they were queued until the time limit is reached.
+     * At least one texture is finished if any are queued. Queued textures are moved out of the
+     * shared queue in batches so that the shared queue is touched as little as possible.
+     * @param maxNanos      time limit in nanoseconds
+     * @return a map of the textures finished before the time limit
+     */
+    @Override
+    public Map<ResourceLocation, EventDrivenTexture> finish(long maxNanos) {
+        if (maxNanos < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative");
+        }
+
         Map<ResourceLocation, EventDrivenTexture> builtTextures = new HashMap<>();
+        long start = System.nanoTime();
+
+        // Finding sprites and building textures are timed separately, so they are not counted here too
+        try (StageTimings.Timer ignored = TIMINGS.start("finish")) {
+            while (!DRAINED_BUILDERS.isEmpty() || drainBatch()) {
+                Pair<ResourceLocation, EventDrivenTexture.Builder> pair = DRAINED_BUILDERS.remove();
+                ResourceLocation location = pair.getFirst();
+                EventDrivenTexture texture = finishOne(location, pair.getSecond());
+                builtTextures.put(location, texture);
 
-        while (!QUEUED_BUILDERS.isEmpty()) {
-            Pair<ResourceLocation, EventDrivenTexture.Builder> pair = QUEUED_BUILDERS.remove();
-            ResourceLocation location = pair.getFirst();
-            EventDrivenTexture texture = finishOne(location, pair.getSecond());
-            builtTextures.put(location, texture);
+                // Check the time after finishing so that at least one texture is always finished
+                if (System.nanoTime() - start >= maxNanos) {
+                    break;
+                }
+            }
         }
 
         return builtTextures;
     }
 
+    /**
+     * Checks whether any textures are queued and not yet finished.
+     * @return whether any textures are waiting to be finished
+     */
+    @Override
+    public boolean hasQueued() {
+        return !DRAINED_BUILDERS.isEmpty() || !QUEUED_BUILDERS.isEmpty();
+    }
+
+    /**
+     * Moves up to one batch of textures from the shared queue to the finishing thread's queue.
+     * @return whether any textures were moved
+     */
+    private boolean drainBatch() {
+        Pair<ResourceLocation, EventDrivenTexture.Builder> pair;
+        while (DRAINED_BUILDERS.size() < BATCH_SIZE && (pair = QUEUED_BUILDERS.poll()) != null) {
+            DRAINED_BUILDERS.add(pair);
+        }
+
+        return !DRAINED_BUILDERS.isEmpty();
+    }
+
     /**
      * Finishes one queued texture.
      * @param location      location of the texture
@@ -83,14 +163,89 @@ public class TextureFinisher implements IFinisher<EventDrivenTexture.Builder, Ev
      * @return the finished texture
      */
     private EventDrivenTexture finishOne(ResourceLocation location, EventDrivenTexture.Builder builder) {
-        Optional<ISprite> sprite = SPRITE_FINDER.findSprite(location);
+        Optional<ISprite> sprite = TIMINGS.time("findSprite", () -> SPRITE_FINDER.findSprite(location));
         if (sprite.isPresent()) {
             builder.add(new SpriteUploadComponent(sprite.get()));
         } else {
             builder.add(new SingleUploadComponent());
         }
 
-        return builder.build();
+        if (BUDGET != null) {
+            builder.add(new MemoryBudgetComponent(location, BUDGET));
+        }
+
+        if (UPLOAD_SCHEDULER != null) {
+            builder.setUploadScheduler(UPLOAD_SCHEDULER);
+        }
+
+        return TIMINGS.time("buildTexture", builder::build);
+    }
+
+    /**
+     * Builds a {@link TextureFinisher} with optional memory tracking, upload scheduling,
+     * and timings.
+     * @author soir20
+     */
+    public static class Builder {
+        private final SpriteFinder SPRITE_FINDER;
+        private StageTimings timings;
+
+        @Nullable
+        private NativeMemoryBudget budget;
+
+        @Nullable
+        private UploadScheduler uploadScheduler;
+
+        /**
+         * Creates a new builder for a finisher.
+         * @param spriteFinder      finder for atlas sprites
+         */
+        public Builder(SpriteFinder spriteFinder) {
+            SPRITE_FINDER = requireNonNull(spriteFinder, "Sprite finder cannot be null");
+            timings = StageTimings.NONE;
+        }
+
+        /**
+         * Sets the budget that finished textures track their native memory in. Optional;
+         * by default, the textures' memory is not tracked.
+         * @param budget        budget to track the native memory of finished textures in
+         * @return this builder for chaining
+         */
+        public Builder setBudget(NativeMemoryBudget budget) {
+            this.budget = requireNonNull(budget, "Budget cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the timings that the time spent in each finishing stage is added to.
+         * Optional; by default, the time is not recorded.
+         * @param timings       timings to add the time spent in each finishing stage to
+         * @return this builder for chaining
+         */
+        public Builder setTimings(StageTimings timings) {
+            this.timings = requireNonNull(timings, "Timings cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the scheduler that limits how much time finished textures spend uploading in
+         * each frame. Optional; by default, the textures always upload immediately.
+         * @param uploadScheduler   scheduler shared by all finished textures' uploads
+         * @return this builder for chaining
+         */
+        public Builder setUploadScheduler(UploadScheduler uploadScheduler) {
+            this.uploadScheduler = requireNonNull(uploadScheduler, "Upload scheduler cannot be null");
+            return this;
+        }
+
+        /**
+         * Builds the finisher.
+         * @return the finisher
+         */
+        public TextureFinisher build() {
+            return new TextureFinisher(SPRITE_FINDER, timings, budget, uploadScheduler);
+        }
+
     }
 
 }
@@ -0,0 +1,90 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides how many ticks of animation to run on each client tick. Animations are suspended
+ * while the game is paused or minimized and only updated every few ticks while the game is
+ * unfocused. Ticks skipped while unfocused are passed on at the next update so that throttled
+ * animations stay where they would have been. The first tick after a suspension is always
+ * passed on immediately so that frames are resynchronized as soon as the game resumes.
+ * @author soir20
+ */
+public class TickPolicy implements CustomTickable {
+    private final BooleanSupplier IS_SUSPENDED;
+    private final BooleanSupplier IS_FOCUSED;
+    private final int UNFOCUSED_INTERVAL;
+    private final IntConsumer TICK_ACTION;
+    private int pendingTicks;
+    private boolean wasSuspended;
+
+    /**
+     * Creates a new tick policy.
+     * @param isSuspended           checks whether animations should be suspended, such as
+     *                              when the game is paused or minimized
+     * @param isFocused             checks whether the game is focused
+     * @param unfocusedInterval     number of ticks between updates while the game is unfocused.
+     *                              Must be at least 1.
+     * @param tickAction            runs on every tick with the number of ticks of animation to
+     *                              run, which is 0 if animations should not be updated
+     */
+    public TickPolicy(BooleanSupplier isSuspended, BooleanSupplier isFocused, int unfocusedInterval,
+                      IntConsumer tickAction) {
+        IS_SUSPENDED = requireNonNull(isSuspended, "Suspension check cannot be null");
+        IS_FOCUSED = requireNonNull(isFocused, "Focus check cannot be null");
+
+        if (unfocusedInterval < 1) {
+            throw new IllegalArgumentException("Unfocused interval must be at least 1");
+        }
+
+        UNFOCUSED_INTERVAL = unfocusedInterval;
+        TICK_ACTION = requireNonNull(tickAction, "Tick action cannot be null");
+    }
+
+    /**
+     * Runs the tick action with the number of ticks of animation that should run now.
+     */
+    @Override
+    public void tick() {
+        if (IS_SUSPENDED.getAsBoolean()) {
+            wasSuspended = true;
+            TICK_ACTION.accept(0);
+            return;
+        }
+
+        pendingTicks++;
+
+        boolean isResuming = wasSuspended;
+        wasSuspended = false;
+
+        if (!isResuming && pendingTicks < UNFOCUSED_INTERVAL && !IS_FOCUSED.getAsBoolean()) {
+            TICK_ACTION.accept(0);
+            return;
+        }
+
+        int ticks = pendingTicks;
+        pendingTicks = 0;
+        TICK_ACTION.accept(ticks);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits how much time is spent uploading textures in each frame. Uploads past the limit
+ * are deferred to the next frame. Deferred uploads run first in the next frame, in the order
+ * they were deferred, and at least one runs every frame so that no texture is starved. This
+ * class is not thread-safe; it should only be used on the render thread.
+ * @author soir20
+ */
+public class UploadScheduler {
+    private final long MAX_NANOS_PER_FRAME;
+    private final Logger LOGGER;
+    private final LongSupplier CLOCK;
+    private final Map<Object, Runnable> DEFERRED_UPLOADS;
+    private long usedNanos;
+    private int deferredThisFrame;
+    private int deferredLastFrame;
+    private long totalDeferred;
+
+    /**
+     * Creates a new upload scheduler.
+     * @param maxNanosPerFrame      maximum time in nanoseconds to spend uploading in each frame
+     * @param logger                logger for upload-related messages
+     */
+    public UploadScheduler(long maxNanosPerFrame, Logger logger) {
+        this(maxNanosPerFrame, logger, System::nanoTime);
+    }
+
+    /**
+     * Creates a new upload scheduler.
+     * @param maxNanosPerFrame      maximum time in nanoseconds to spend uploading in each frame
+     * @param logger                logger for upload-related messages
+     * @param clock                 gets the current time in nanoseconds
+     */
+    public UploadScheduler(long maxNanosPerFrame, Logger logger, LongSupplier clock) {
+        if (maxNanosPerFrame < 0) {
+            throw new IllegalArgumentException("Maximum upload time per frame cannot be negative");
+        }
+
+        MAX_NANOS_PER_FRAME = maxNanosPerFrame;
+        LOGGER = requireNonNull(logger, "Logger cannot be null");
+        CLOCK = requireNonNull(clock, "Clock cannot be null");
+        DEFERRED_UPLOADS = new LinkedHashMap<>();
+    }
+
+    /**
+     * Uploads now if there is time left in this frame and no earlier uploads are waiting.
+     * Otherwise, defers the upload to a later frame. Only one upload is kept for each owner,
+     * so an owner that is already waiting keeps its place.
+     * @param owner         the texture that is uploading
+     * @param bindAction    binds the upload target again before a deferred upload; the target
+     *                      must already be bound when the upload is scheduled
+     * @param upload        uploads the texture
+     */
+    public void schedule(Object owner, Runnable bindAction, Runnable upload) {
+        requireNonNull(owner, "Owner cannot be null");
+        requireNonNull(bindAction, "Bind action cannot be null");
+        requireNonNull(upload, "Upload cannot be null");
+
+        if (DEFERRED_UPLOADS.containsKey(owner)) {
+            return;
+        }
+
+        if (!DEFERRED_UPLOADS.isEmpty() || usedNanos >= MAX_NANOS_PER_FRAME) {
+            DEFERRED_UPLOADS.put(owner, () -> {
+                bindAction.run();
+                upload.run();
+            });
+            deferredThisFrame++;
+            totalDeferred++;
+            return;
+        }
+
+        runTimed(upload);
+    }
+
+    /**
+     * Discards an owner's deferred upload, such as when the texture is closed.
+     * @param owner     the texture whose upload should be discarded
+     */
+    public void cancel(Object owner) {
+        requireNonNull(owner, "Owner cannot be null");
+        DEFERRED_UPLOADS.remove(owner);
+    }
+
+    /**
+     * Starts a new frame, resetting the time spent uploading and running deferred
+     * uploads in the order they were deferred until the time limit is reached.
+     */
+    public void startFrame() {
+        if (deferredThisFrame > 0) {
+            LOGGER.debug("Deferred {} texture uploads to the next frame", deferredThisFrame);
+        }
+
+        deferredLastFrame = deferredThisFrame;
+        deferredThisFrame = 0;
+        usedNanos = 0;
+
+        while (!DEFERRED_UPLOADS.isEmpty()) {
+
+            // Remove the upload before running it in case the upload schedules another one
+            Iterator<Runnable> uploads = DEFERRED_UPLOADS.values().iterator();
+            Runnable upload = uploads.next();
+            uploads.remove();
+            runTimed(upload);
+
+            // Check the time after uploading so that at least one deferred upload runs every frame
+            if (usedNanos >= MAX_NANOS_PER_FRAME) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of uploads that are currently waiting for a later frame.
+     * @return the number of deferred uploads
+     */
+    public int getDeferredCount() {
+        return DEFERRED_UPLOADS.size();
+    }
+
+    /**
+     * Gets the number of uploads that were deferred during the previous frame.
+     * @return the number of uploads deferred in the previous frame
+     */
+    public int getDeferredLastFrame() {
+        return deferredLastFrame;
+    }
+
+    /**
+     * Gets the number of uploads that have been deferred since this scheduler was created.
+     * @return the total number of deferred uploads
+     */
+    public long getTotalDeferred() {
+        return totalDeferred;
+    }
+
+    /**
+     * Runs an upload and adds its time to the time used in this frame.
+     * @param upload        the upload to run
+     */
+    private void runTimed(Runnable upload) {
+        long start = CLOCK.getAsLong();
+        upload.run();
+        usedNanos += CLOCK.getAsLong() - start;
+    }
+
+}
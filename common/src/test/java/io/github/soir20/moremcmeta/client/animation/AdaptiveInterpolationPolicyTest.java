@@ -0,0 +1,271 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AdaptiveInterpolationPolicy}.
+ * @author soir20
+ */
+public class AdaptiveInterpolationPolicyTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_ZeroBudget_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AdaptiveInterpolationPolicy(0);
+    }
+
+    @Test
+    public void construct_NegativeBudget_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AdaptiveInterpolationPolicy(-1);
+    }
+
+    @Test
+    public void construct_ZeroRestoreFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AdaptiveInterpolationPolicy(100, 0, () -> 0);
+    }
+
+    @Test
+    public void construct_NullClock_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AdaptiveInterpolationPolicy(100, 1, null);
+    }
+
+    @Test
+    public void wrap_NullInterpolator_NullPointerException() {
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100);
+        expectedException.expect(NullPointerException.class);
+        policy.wrap(null);
+    }
+
+    @Test
+    public void startFrame_NoInterpolation_NothingDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 150);
+
+        policy.startFrame();
+
+        assertEquals(0, interpolator.getLevel());
+    }
+
+    @Test
+    public void startFrame_UnderBudget_NothingDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 50);
+        policy.startFrame();
+
+        interpolator.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        assertEquals(0, interpolator.getLevel());
+    }
+
+    @Test
+    public void startFrame_OverBudget_MostExpensiveDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> cheap = wrapCostly(policy, time, 30);
+        DegradableInterpolator<String> expensive = wrapCostly(policy, time, 80);
+        policy.startFrame();
+
+        cheap.interpolate(10, 1, "a", "b");
+        expensive.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        assertEquals(0, cheap.getLevel());
+        assertEquals(1, expensive.getLevel());
+        assertEquals(1, policy.getDegradedLevels());
+    }
+
+    @Test
+    public void startFrame_SlowFrameWithoutInterpolation_NothingDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 80);
+        policy.startFrame();
+
+        time.addAndGet(200);
+        policy.startFrame();
+
+        assertEquals(0, interpolator.getLevel());
+    }
+
+    @Test
+    public void startFrame_SlowFrameCheapInterpolation_NothingDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 10);
+        policy.startFrame();
+
+        interpolator.interpolate(10, 1, "a", "b");
+        time.addAndGet(500);
+        policy.startFrame();
+
+        assertEquals(0, interpolator.getLevel());
+    }
+
+    @Test
+    public void startFrame_ManyCheapOverBudget_OneDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        List<DegradableInterpolator<String>> interpolators = new ArrayList<>();
+        for (int animation = 0; animation < 3; animation++) {
+            interpolators.add(wrapCostly(policy, time, 40));
+        }
+        policy.startFrame();
+
+        interpolators.forEach((interpolator) -> interpolator.interpolate(10, 1, "a", "b"));
+        policy.startFrame();
+
+        assertEquals(1, policy.getDegradedLevels());
+        assertEquals(1, interpolators.stream().mapToInt(DegradableInterpolator::getLevel).sum());
+    }
+
+    @Test
+    public void startFrame_CostOnlyCountsLastFrame_LatestExpensiveDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> first = wrapCostly(policy, time, 90);
+        DegradableInterpolator<String> second = wrapCostly(policy, time, 120);
+        policy.startFrame();
+
+        first.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        second.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        assertEquals(0, first.getLevel());
+        assertEquals(1, second.getLevel());
+    }
+
+    @Test
+    public void startFrame_MaxLevelExpensive_NextMostExpensiveDegraded() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 1, time::get);
+        DegradableInterpolator<String> cheap = wrapCostly(policy, time, 10);
+        DegradableInterpolator<String> expensive = wrapCostly(policy, time, 200);
+        policy.startFrame();
+
+        expensive.interpolate(10, 1, "a", "b");
+        while (expensive.degrade());
+        cheap.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        assertEquals(1, cheap.getLevel());
+    }
+
+    @Test
+    public void startFrame_HeadroomForRestoreFrames_LatestRestored() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 3, time::get);
+        DegradableInterpolator<String> first = wrapCostly(policy, time, 150);
+        DegradableInterpolator<String> second = wrapCostly(policy, time, 150);
+        DegradableInterpolator<String> cheap = wrapCostly(policy, time, 50);
+        policy.startFrame();
+
+        first.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+        second.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        for (int frame = 0; frame < 3; frame++) {
+            cheap.interpolate(10, 1, "a", "b");
+            policy.startFrame();
+        }
+
+        assertEquals(1, first.getLevel());
+        assertEquals(0, second.getLevel());
+        assertEquals(0, cheap.getLevel());
+        assertEquals(1, policy.getDegradedLevels());
+    }
+
+    @Test
+    public void startFrame_HeadroomTooShort_NothingRestored() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 3, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 150);
+        policy.startFrame();
+
+        interpolator.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        for (int frame = 0; frame < 2; frame++) {
+            policy.startFrame();
+        }
+
+        assertEquals(1, interpolator.getLevel());
+    }
+
+    @Test
+    public void startFrame_NearBudgetInterruptsHeadroom_NothingRestored() {
+        AtomicLong time = new AtomicLong();
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100, 2, time::get);
+        DegradableInterpolator<String> interpolator = wrapCostly(policy, time, 150);
+        DegradableInterpolator<String> nearBudget = wrapCostly(policy, time, 90);
+        policy.startFrame();
+
+        interpolator.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+
+        policy.startFrame();
+        nearBudget.interpolate(10, 1, "a", "b");
+        policy.startFrame();
+        policy.startFrame();
+
+        assertEquals(1, interpolator.getLevel());
+        assertEquals(0, nearBudget.getLevel());
+    }
+
+    @Test
+    public void getDegradedLevels_NoneDegraded_Zero() {
+        AdaptiveInterpolationPolicy policy = new AdaptiveInterpolationPolicy(100);
+        assertEquals(0, policy.getDegradedLevels());
+    }
+
+    /**
+     * Wraps an interpolator that advances the clock by a fixed amount whenever it interpolates.
+     * @param policy        policy to wrap the interpolator with
+     * @param time          the policy's clock
+     * @param cost          time each interpolation takes
+     * @return the wrapped interpolator
+     */
+    private static DegradableInterpolator<String> wrapCostly(AdaptiveInterpolationPolicy policy, AtomicLong time,
+                                                             long cost) {
+        return (DegradableInterpolator<String>) policy.<String>wrap((steps, step, start, end) -> {
+            time.addAndGet(cost);
+            return start + end;
+        });
+    }
+
+}
@@ -22,6 +22,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
 import static org.junit.Assert.*;
 
 /**
@@ -85,13 +88,13 @@ public class AnimationFrameManagerTest {
     @Test
     public void constructWithoutInterpolator_NullTimeCalculator_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), null);
+        new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), (ToIntFunction<Integer>) null);
     }
 
     @Test
     public void constructWithInterpolator_NullTimeCalculator_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), null,
+        new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), (ToIntFunction<Integer>) null,
                 (steps, step, start, end) -> 10);
     }
 
@@ -413,4 +416,383 @@ public class AnimationFrameManagerTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void jumpTo_NegativeTicks_IllegalArgumentException() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> frame * 10);
+
+        expectedException.expect(IllegalArgumentException.class);
+        manager.jumpTo(-1);
+    }
+
+    @Test
+    public void jumpTo_FrameTimeZero_UnsupportedOpException() {
+        AtomicInteger calls = new AtomicInteger();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> calls.getAndIncrement() == 0 ? 10 : 0);
+
+        expectedException.expect(UnsupportedOperationException.class);
+        manager.jumpTo(5);
+    }
+
+    @Test
+    public void jumpTo_Zero_FirstFrame() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> frame * 10);
+        manager.tick(25);
+
+        manager.jumpTo(0);
+
+        assertEquals(new Integer(1), manager.getCurrentFrame());
+    }
+
+    @Test
+    public void jumpTo_FrameBoundary_StartOfNextFrame() {
+        IInterpolator<String> interpolator = ((steps, step, start, end) -> start + end + step);
+        AnimationFrameManager<String> manager = new AnimationFrameManager<>(ImmutableList.of("a", "b", "c"),
+                (frame) -> 10, interpolator);
+
+        manager.jumpTo(20);
+
+        assertEquals("c", manager.getCurrentFrame());
+    }
+
+    @Test
+    public void jumpTo_InsideFrame_InterpolatedAtCorrectStep() {
+        IInterpolator<String> interpolator = ((steps, step, start, end) -> start + end + step + "/" + steps);
+        AnimationFrameManager<String> manager = new AnimationFrameManager<>(ImmutableList.of("1", "2", "3"),
+                (frame) -> Integer.parseInt(frame) * 10, interpolator);
+
+        manager.jumpTo(17);
+
+        assertEquals("237/20", manager.getCurrentFrame());
+    }
+
+    @Test
+    public void jumpTo_SeveralLoops_SameAsTicking() {
+        ImmutableList<Integer> mockFrames = ImmutableList.of(1, 2, 3, 4, 5);
+        AnimationFrameManager<Integer> jumpingManager = new AnimationFrameManager<>(mockFrames,
+                (frame) -> frame * 7);
+        AnimationFrameManager<Integer> tickingManager = new AnimationFrameManager<>(mockFrames,
+                (frame) -> frame * 7);
+
+        for (int tick = 1; tick < 500; tick++) {
+            tickingManager.tick();
+            jumpingManager.jumpTo(tick);
+            assertEquals(tickingManager.getCurrentFrame(), jumpingManager.getCurrentFrame());
+        }
+    }
+
+    @Test
+    public void jumpTo_Backward_FrameAtTime() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> frame * 10);
+        manager.jumpTo(45);
+
+        manager.jumpTo(15);
+
+        assertEquals(new Integer(2), manager.getCurrentFrame());
+    }
+
+    @Test
+    public void jumpTo_VeryLargeTime_FrameAtTime() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> frame * 10);
+
+        manager.jumpTo(Long.MAX_VALUE);
+
+        // Long.MAX_VALUE % 60 is 7
+        assertEquals(new Integer(1), manager.getCurrentFrame());
+    }
+
+    @Test
+    public void tickAfterJump_ContinuesFromJump() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3),
+                (frame) -> frame * 10);
+        manager.jumpTo(29);
+
+        manager.tick();
+
+        assertEquals(new Integer(3), manager.getCurrentFrame());
+    }
+
+    @Test
+    public void constructShared_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationFrameManager<Integer>(null, new AnimationStateBank().add(ImmutableList.of(10, 10)));
+    }
+
+    @Test
+    public void constructShared_NullTimeline_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationFrameManager<>(ImmutableList.of(1, 2), (AnimationTimeline) null);
+    }
+
+    @Test
+    public void constructShared_NullInterpolator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationFrameManager<>(ImmutableList.of(1, 2), new AnimationStateBank().add(ImmutableList.of(10, 10)),
+                null);
+    }
+
+    @Test
+    public void constructShared_DifferentFrameCount_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), new AnimationStateBank().add(ImmutableList.of(10, 10)));
+    }
+
+    @Test
+    public void tickShared_ManagerTicked_NoChange() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                new AnimationStateBank().add(ImmutableList.of(1, 1)));
+
+        manager.tick();
+
+        assertEquals(new Integer(1), manager.getCurrentFrame());
+    }
+
+    @Test
+    public void tickShared_SeveralTicks_UnsupportedOpException() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                new AnimationStateBank().add(ImmutableList.of(1, 1)));
+
+        expectedException.expect(UnsupportedOperationException.class);
+        manager.tick(1);
+    }
+
+    @Test
+    public void jumpToShared_ManagerMoved_UnsupportedOpException() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                new AnimationStateBank().add(ImmutableList.of(1, 1)));
+
+        expectedException.expect(UnsupportedOperationException.class);
+        manager.jumpTo(1);
+    }
+
+    @Test
+    public void getCurrentFrameShared_TimelineTicked_OwnFrameAtTimelinePosition() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20, 30));
+        AnimationFrameManager<Integer> first = new AnimationFrameManager<>(ImmutableList.of(1, 2, 3), timeline);
+        AnimationFrameManager<Integer> second = new AnimationFrameManager<>(ImmutableList.of(4, 5, 6), timeline);
+
+        for (int tick = 0; tick < 35; tick++) {
+            bank.tick();
+        }
+
+        assertEquals(new Integer(3), first.getCurrentFrame());
+        assertEquals(new Integer(6), second.getCurrentFrame());
+    }
+
+    @Test
+    public void getCurrentFrameShared_WithInterpolator_InterpolatedFrames() {
+        IInterpolator<String> interpolator = ((steps, step, start, end) -> start + end + step + "/" + steps);
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20, 30));
+        AnimationFrameManager<String> first = new AnimationFrameManager<>(ImmutableList.of("1", "2", "3"),
+                timeline, interpolator);
+        AnimationFrameManager<String> second = new AnimationFrameManager<>(ImmutableList.of("4", "5", "6"),
+                timeline, interpolator);
+
+        for (int tick = 0; tick < 17; tick++) {
+            bank.tick();
+        }
+
+        assertEquals("237/20", first.getCurrentFrame());
+        assertEquals("567/20", second.getCurrentFrame());
+    }
+
+    @Test
+    public void hasFrameChanged_NoInterpolatorInsideFrame_False() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10);
+
+        manager.tick();
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_NoInterpolatorNextFrame_True() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10);
+
+        for (int tick = 0; tick < 10; tick++) {
+            manager.tick();
+        }
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_InterpolatorInsideFrame_True() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, (steps, step, start, end) -> start);
+
+        manager.tick();
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_SeveralTicksToSameFrame_False() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10);
+
+        manager.tick(5);
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_SeveralTicksToNextFrame_True() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10);
+
+        manager.tick(15);
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_JumpToSamePosition_False() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, (steps, step, start, end) -> start);
+        manager.jumpTo(5);
+        manager.getCurrentFrame();
+
+        manager.jumpTo(5);
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_JumpInsideInterpolatedFrame_True() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, (steps, step, start, end) -> start);
+        manager.jumpTo(5);
+        manager.getCurrentFrame();
+
+        manager.jumpTo(6);
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_SharedTimelineNextFrame_True() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                bank.add(ImmutableList.of(2, 2)));
+
+        bank.tick();
+        assertFalse(manager.hasFrameChanged());
+
+        bank.tick();
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_SharedTimelineInterpolatedInsideFrame_True() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                bank.add(ImmutableList.of(2, 2)), (steps, step, start, end) -> start);
+
+        bank.tick();
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_InterpolatedFrameAlreadyRetrieved_False() {
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, (steps, step, start, end) -> start);
+        manager.tick();
+
+        manager.getCurrentFrame();
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_DegradedSameBlend_False() {
+        DegradableInterpolator<Integer> interpolator = new DegradableInterpolator<>(
+                (steps, step, start, end) -> start, () -> 0);
+        interpolator.degrade();
+        interpolator.degrade();
+        interpolator.degrade();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 30, interpolator);
+        manager.tick(10);
+        manager.getCurrentFrame();
+
+        manager.tick();
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_DegradedBlendChanged_True() {
+        DegradableInterpolator<Integer> interpolator = new DegradableInterpolator<>(
+                (steps, step, start, end) -> start, () -> 0);
+        interpolator.degrade();
+        interpolator.degrade();
+        interpolator.degrade();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 30, interpolator);
+        manager.tick(19);
+        manager.getCurrentFrame();
+
+        manager.tick();
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_FullyDegradedInsideFrame_False() {
+        DegradableInterpolator<Integer> interpolator = new DegradableInterpolator<>(
+                (steps, step, start, end) -> start, () -> 0);
+        while (interpolator.degrade());
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, interpolator);
+        manager.getCurrentFrame();
+
+        for (int tick = 0; tick < 9; tick++) {
+            manager.tick();
+            assertFalse(manager.hasFrameChanged());
+        }
+
+        manager.tick();
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_InterpolatorRestored_True() {
+        DegradableInterpolator<Integer> interpolator = new DegradableInterpolator<>(
+                (steps, step, start, end) -> start, () -> 0);
+        while (interpolator.degrade());
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                (frame) -> 10, interpolator);
+        manager.tick(5);
+        manager.getCurrentFrame();
+
+        interpolator.restore();
+
+        assertTrue(manager.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_SharedTimelineDegradedSameBlend_False() {
+        DegradableInterpolator<Integer> interpolator = new DegradableInterpolator<>(
+                (steps, step, start, end) -> start, () -> 0);
+        while (interpolator.degrade());
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationFrameManager<Integer> manager = new AnimationFrameManager<>(ImmutableList.of(1, 2),
+                bank.add(ImmutableList.of(4, 4)), interpolator);
+        manager.getCurrentFrame();
+
+        bank.tick();
+
+        assertFalse(manager.hasFrameChanged());
+    }
+
+}
@@ -0,0 +1,327 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AnimationStateBank}.
+ * @author soir20
+ */
+public class AnimationStateBankTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void add_NullFrameTimes_NullPointerException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(NullPointerException.class);
+        bank.add(null);
+    }
+
+    @Test
+    public void add_NoFrames_IllegalArgException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(IllegalArgumentException.class);
+        bank.add(ImmutableList.of());
+    }
+
+    @Test
+    public void add_FrameTimeZero_IllegalArgException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(IllegalArgumentException.class);
+        bank.add(ImmutableList.of(10, 0, 10));
+    }
+
+    @Test
+    public void add_FrameTimeNegative_IllegalArgException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(IllegalArgumentException.class);
+        bank.add(ImmutableList.of(10, -1, 10));
+    }
+
+    @Test
+    public void add_NewAnimation_ActiveCountIncreases() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline first = bank.add(ImmutableList.of(10));
+        AnimationTimeline second = bank.add(ImmutableList.of(10));
+
+        assertEquals(2, bank.getActiveCount());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void add_AddedAfterTicks_StartsAtFirstFrame() {
+        AnimationStateBank bank = new AnimationStateBank();
+        bank.add(ImmutableList.of(1, 1));
+        bank.tick();
+
+        AnimationTimeline timeline = bank.add(ImmutableList.of(1, 1));
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(0, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void add_MoreThanInitialCapacity_AllAnimationsTicked() {
+        AnimationStateBank bank = new AnimationStateBank();
+        List<AnimationTimeline> timelines = new ArrayList<>();
+        for (int animation = 0; animation < 500; animation++) {
+            timelines.add(bank.add(ImmutableList.of(animation % 3 + 1, 5)));
+        }
+
+        bank.tick();
+
+        for (int animation = 0; animation < timelines.size(); animation++) {
+            AnimationTimeline timeline = timelines.get(animation);
+            boolean isNextFrame = animation % 3 == 0;
+
+            assertEquals(isNextFrame ? 1 : 0, timeline.getFrameIndex());
+            assertEquals(isNextFrame ? 0 : 1, timeline.getTicksInFrame());
+            assertEquals(isNextFrame, timeline.hasFrameChanged());
+        }
+    }
+
+    @Test
+    public void tick_SeveralAnimations_EachAdvancedIndependently() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline first = bank.add(ImmutableList.of(2, 3));
+        AnimationTimeline second = bank.add(ImmutableList.of(3, 2, 1));
+
+        for (int tick = 0; tick < 5; tick++) {
+            bank.tick();
+        }
+
+        assertEquals(0, first.getFrameIndex());
+        assertEquals(0, first.getTicksInFrame());
+        assertEquals(2, second.getFrameIndex());
+        assertEquals(0, second.getTicksInFrame());
+    }
+
+    @Test
+    public void tick_ZeroTicks_IllegalArgException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(IllegalArgumentException.class);
+        bank.tick(0);
+    }
+
+    @Test
+    public void tick_SeveralTicksInsideFrame_FrameNotChanged() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20));
+
+        bank.tick(9);
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(9, timeline.getTicksInFrame());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void tick_SeveralTicksAcrossFrames_SameAsSingleTicks() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(3, 2, 4));
+
+        bank.tick(7);
+
+        assertEquals(2, timeline.getFrameIndex());
+        assertEquals(2, timeline.getTicksInFrame());
+        assertEquals(4, timeline.getFrameTime());
+        assertTrue(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void tick_SeveralWholeLoops_SamePositionFrameNotChanged() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(3, 2, 4));
+        bank.tick(4);
+
+        bank.tick(27);
+
+        assertEquals(1, timeline.getFrameIndex());
+        assertEquals(1, timeline.getTicksInFrame());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void tick_SingleFrameLoops_FrameNotChanged() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(2));
+
+        bank.tick(3);
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(1, timeline.getTicksInFrame());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void tick_MoreTicksThanLoop_WrapsAround() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(3, 2, 4));
+
+        bank.tick(1000003);
+
+        // 1000003 % 9 = 4
+        assertEquals(1, timeline.getFrameIndex());
+        assertEquals(1, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void forEachChanged_NullAction_NullPointerException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(NullPointerException.class);
+        bank.forEachChanged(null);
+    }
+
+    @Test
+    public void forEachChanged_NotTicked_NoneVisited() {
+        AnimationStateBank bank = new AnimationStateBank();
+        bank.add(ImmutableList.of(1));
+
+        List<AnimationTimeline> visited = new ArrayList<>();
+        bank.forEachChanged(visited::add);
+
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    public void forEachChanged_SomeChanged_OnlyChangedVisited() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline first = bank.add(ImmutableList.of(2, 3));
+        bank.add(ImmutableList.of(5));
+        AnimationTimeline third = bank.add(ImmutableList.of(1, 4));
+
+        bank.tick(2);
+
+        List<AnimationTimeline> visited = new ArrayList<>();
+        bank.forEachChanged(visited::add);
+
+        assertEquals(ImmutableList.of(first, third), visited);
+    }
+
+    @Test
+    public void forEachChanged_ChangedInEarlierTick_NotVisited() {
+        AnimationStateBank bank = new AnimationStateBank();
+        bank.add(ImmutableList.of(2, 3));
+        bank.tick(2);
+
+        bank.tick();
+
+        List<AnimationTimeline> visited = new ArrayList<>();
+        bank.forEachChanged(visited::add);
+
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    public void contains_NullTimeline_NullPointerException() {
+        AnimationStateBank bank = new AnimationStateBank();
+        expectedException.expect(NullPointerException.class);
+        bank.contains(null);
+    }
+
+    @Test
+    public void contains_TimelineFromBank_True() {
+        AnimationStateBank bank = new AnimationStateBank();
+        assertTrue(bank.contains(bank.add(ImmutableList.of(1))));
+    }
+
+    @Test
+    public void contains_TimelineFromOtherBank_False() {
+        AnimationStateBank bank = new AnimationStateBank();
+        assertFalse(bank.contains(new AnimationStateBank().add(ImmutableList.of(1))));
+    }
+
+    @Test
+    public void forEachChanged_WholeLoops_NoneVisited() {
+        AnimationStateBank bank = new AnimationStateBank();
+        bank.add(ImmutableList.of(2, 3));
+
+        bank.tick(10);
+
+        List<AnimationTimeline> visited = new ArrayList<>();
+        bank.forEachChanged(visited::add);
+
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    public void forEachChanged_ReleasedAfterTick_NotVisited() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(2, 3));
+        bank.tick(2);
+
+        timeline.release();
+
+        List<AnimationTimeline> visited = new ArrayList<>();
+        bank.forEachChanged(visited::add);
+
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test
+    public void getActiveCount_TimelinesReleased_SlotsFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        bank.add(ImmutableList.of(10));
+        AnimationTimeline released = bank.add(ImmutableList.of(10));
+
+        released.release();
+
+        assertEquals(1, bank.getActiveCount());
+    }
+
+    @Test
+    public void add_TimelinesReleased_SlotsReused() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline kept = bank.add(ImmutableList.of(10));
+        for (int animation = 0; animation < 100; animation++) {
+            bank.add(ImmutableList.of(10)).release();
+        }
+
+        AnimationTimeline added = bank.add(ImmutableList.of(5, 5));
+        bank.tick(6);
+
+        assertEquals(2, bank.getActiveCount());
+        assertEquals(6, kept.getTicksInFrame());
+        assertEquals(1, added.getFrameIndex());
+        assertEquals(1, added.getTicksInFrame());
+    }
+
+    @Test
+    public void release_TimelineInReusedSlot_SlotFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline released = bank.add(ImmutableList.of(10));
+        released.release();
+        AnimationTimeline added = bank.add(ImmutableList.of(10));
+
+        bank.tick();
+        added.release();
+
+        assertEquals(0, bank.getActiveCount());
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AnimationTimeline}.
+ * @author soir20
+ */
+public class AnimationTimelineTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void getFrameIndex_NotTicked_FirstFrame() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10, 20, 30));
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(0, timeline.getTicksInFrame());
+        assertEquals(10, timeline.getFrameTime());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void getFrameCount_ThreeFrames_Three() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10, 20, 30));
+        assertEquals(3, timeline.getFrameCount());
+    }
+
+    @Test
+    public void getTicksInFrame_BankTickedInsideFrame_TicksInFrameIncreases() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20, 30));
+
+        for (int tick = 0; tick < 9; tick++) {
+            bank.tick();
+        }
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(9, timeline.getTicksInFrame());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void getFrameIndex_BankTickedToEndOfFrame_NextFrame() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20, 30));
+
+        for (int tick = 0; tick < 10; tick++) {
+            bank.tick();
+        }
+
+        assertEquals(1, timeline.getFrameIndex());
+        assertEquals(0, timeline.getTicksInFrame());
+        assertEquals(20, timeline.getFrameTime());
+        assertTrue(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void getFrameIndex_BankTickedToEndOfAnimation_FirstFrame() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10, 20, 30));
+
+        for (int tick = 0; tick < 60; tick++) {
+            bank.tick();
+        }
+
+        assertEquals(0, timeline.getFrameIndex());
+        assertEquals(0, timeline.getTicksInFrame());
+        assertTrue(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameChanged_TickAfterChange_False() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(1, 20, 30));
+
+        bank.tick();
+        bank.tick();
+
+        assertEquals(1, timeline.getFrameIndex());
+        assertFalse(timeline.hasFrameChanged());
+    }
+
+    @Test
+    public void hasFrameTimes_SameTimes_True() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10, 20, 30));
+        assertTrue(timeline.hasFrameTimes(ImmutableList.copyOf(Arrays.asList(10, 20, 30))));
+    }
+
+    @Test
+    public void hasFrameTimes_DifferentOrder_False() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10, 20, 30));
+        assertFalse(timeline.hasFrameTimes(ImmutableList.of(30, 20, 10)));
+    }
+
+    @Test
+    public void hasFrameTimes_DifferentFrameCount_False() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10, 20, 30));
+        assertFalse(timeline.hasFrameTimes(ImmutableList.of(10, 20)));
+    }
+
+    @Test
+    public void release_OnlyHolder_SlotFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10));
+
+        timeline.release();
+
+        assertEquals(0, bank.getActiveCount());
+    }
+
+    @Test
+    public void release_OtherHolderRemains_SlotKept() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10));
+        timeline.retain();
+
+        timeline.release();
+        bank.tick();
+
+        assertEquals(1, bank.getActiveCount());
+        assertEquals(1, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void release_AllHoldersReleased_SlotFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        AnimationTimeline timeline = bank.add(ImmutableList.of(10));
+        timeline.retain();
+
+        timeline.release();
+        timeline.release();
+
+        assertEquals(0, bank.getActiveCount());
+    }
+
+    @Test
+    public void release_AlreadyReleased_IllegalStateException() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10));
+        timeline.release();
+
+        expectedException.expect(IllegalStateException.class);
+        timeline.release();
+    }
+
+    @Test
+    public void retain_AlreadyReleased_IllegalStateException() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10));
+        timeline.release();
+
+        expectedException.expect(IllegalStateException.class);
+        timeline.retain();
+    }
+
+}
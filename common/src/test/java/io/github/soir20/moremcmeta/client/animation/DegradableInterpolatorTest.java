@@ -0,0 +1,268 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DegradableInterpolator}.
+ * @author soir20
+ */
+public class DegradableInterpolatorTest {
+    private static final IInterpolator<String> MOCK_INTERPOLATOR =
+            (steps, step, start, end) -> start + end + step + "/" + steps;
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullDelegate_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DegradableInterpolator<String>(null, () -> 0);
+    }
+
+    @Test
+    public void construct_NullClock_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DegradableInterpolator<>(MOCK_INTERPOLATOR, null);
+    }
+
+    @Test
+    public void interpolate_NullStart_NullPointerException() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        expectedException.expect(NullPointerException.class);
+        interpolator.interpolate(10, 5, null, "b");
+    }
+
+    @Test
+    public void interpolate_NullEnd_NullPointerException() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        expectedException.expect(NullPointerException.class);
+        interpolator.interpolate(10, 5, "a", null);
+    }
+
+    @Test
+    public void interpolate_FullQuality_SameAsDelegate() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+
+        for (int step = 1; step < 20; step++) {
+            assertEquals("ab" + step + "/20", interpolator.interpolate(20, step, "a", "b"));
+        }
+    }
+
+    @Test
+    public void interpolate_OneLevel_EightBlendSteps() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        interpolator.degrade();
+
+        assertEquals("a", interpolator.interpolate(18, 1, "a", "b"));
+        assertEquals("ab1/9", interpolator.interpolate(18, 2, "a", "b"));
+        assertEquals("ab1/9", interpolator.interpolate(18, 3, "a", "b"));
+        assertEquals("ab8/9", interpolator.interpolate(18, 17, "a", "b"));
+    }
+
+    @Test
+    public void interpolate_DegradedButFewSteps_SameAsDelegate() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        interpolator.degrade();
+
+        for (int step = 1; step < 9; step++) {
+            assertEquals("ab" + step + "/9", interpolator.interpolate(9, step, "a", "b"));
+        }
+    }
+
+    @Test
+    public void interpolate_MaxLevel_OnlyStartFrame() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        while (interpolator.degrade());
+
+        for (int step = 1; step < 20; step++) {
+            assertEquals("a", interpolator.interpolate(20, step, "a", "b"));
+        }
+    }
+
+    @Test
+    public void getBlendStep_FullQuality_SameStep() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+
+        assertEquals(20, interpolator.getBlendSteps(20));
+        assertEquals(7, interpolator.getBlendStep(20, 7));
+    }
+
+    @Test
+    public void getBlendStep_OneLevel_EightBlendSteps() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        interpolator.degrade();
+
+        assertEquals(9, interpolator.getBlendSteps(18));
+        assertEquals(0, interpolator.getBlendStep(18, 1));
+        assertEquals(1, interpolator.getBlendStep(18, 3));
+        assertEquals(8, interpolator.getBlendStep(18, 17));
+    }
+
+    @Test
+    public void getBlendStep_MaxLevel_StartFrame() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        while (interpolator.degrade());
+
+        for (int step = 1; step < 20; step++) {
+            assertEquals(0, interpolator.getBlendStep(20, step));
+        }
+    }
+
+    @Test
+    public void interpolate_SameReducedStep_DelegateCalledOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>((steps, step, start, end) -> {
+            calls.incrementAndGet();
+            return MOCK_INTERPOLATOR.interpolate(steps, step, start, end);
+        }, () -> 0);
+        interpolator.degrade();
+
+        interpolator.interpolate(18, 2, "a", "b");
+        interpolator.interpolate(18, 3, "a", "b");
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void interpolate_SameStepAtFullQuality_DelegateCalledEachTime() {
+        AtomicInteger calls = new AtomicInteger();
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>((steps, step, start, end) -> {
+            calls.incrementAndGet();
+            return MOCK_INTERPOLATOR.interpolate(steps, step, start, end);
+        }, () -> 0);
+
+        interpolator.interpolate(18, 2, "a", "b");
+        interpolator.interpolate(18, 2, "a", "b");
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void interpolate_DifferentFrames_DelegateCalledAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>((steps, step, start, end) -> {
+            calls.incrementAndGet();
+            return MOCK_INTERPOLATOR.interpolate(steps, step, start, end);
+        }, () -> 0);
+        interpolator.degrade();
+
+        assertEquals("ab1/9", interpolator.interpolate(18, 2, "a", "b"));
+        assertEquals("bc1/9", interpolator.interpolate(18, 2, "b", "c"));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void interpolate_SameReducedStepButResultOverwritten_DelegateCalledAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(new IInterpolator<String>() {
+            @Override
+            public String interpolate(int steps, int step, String start, String end) {
+                calls.incrementAndGet();
+                return MOCK_INTERPOLATOR.interpolate(steps, step, start, end);
+            }
+
+            @Override
+            public boolean isLastResultIntact() {
+                return false;
+            }
+        }, () -> 0);
+        interpolator.degrade();
+
+        interpolator.interpolate(18, 2, "a", "b");
+        interpolator.interpolate(18, 3, "a", "b");
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void isLastResultIntact_DelegateIntact_True() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        assertTrue(interpolator.isLastResultIntact());
+    }
+
+    @Test
+    public void isLastResultIntact_DelegateOverwritten_False() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(new IInterpolator<String>() {
+            @Override
+            public String interpolate(int steps, int step, String start, String end) {
+                return MOCK_INTERPOLATOR.interpolate(steps, step, start, end);
+            }
+
+            @Override
+            public boolean isLastResultIntact() {
+                return false;
+            }
+        }, () -> 0);
+
+        assertFalse(interpolator.isLastResultIntact());
+    }
+
+    @Test
+    public void degrade_AtMaxLevel_False() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+
+        for (int level = 0; level < DegradableInterpolator.MAX_LEVEL; level++) {
+            assertTrue(interpolator.degrade());
+        }
+
+        assertFalse(interpolator.degrade());
+        assertEquals(DegradableInterpolator.MAX_LEVEL, interpolator.getLevel());
+    }
+
+    @Test
+    public void restore_AtFullQuality_False() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        assertFalse(interpolator.restore());
+        assertEquals(0, interpolator.getLevel());
+    }
+
+    @Test
+    public void restore_Degraded_InterpolatesAtFullQualityAgain() {
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>(MOCK_INTERPOLATOR, () -> 0);
+        interpolator.degrade();
+        interpolator.interpolate(18, 2, "a", "b");
+
+        assertTrue(interpolator.restore());
+        assertEquals("ab3/18", interpolator.interpolate(18, 3, "a", "b"));
+    }
+
+    @Test
+    public void takeCost_Interpolated_TimeSpentInDelegate() {
+        AtomicInteger time = new AtomicInteger();
+        DegradableInterpolator<String> interpolator = new DegradableInterpolator<>((steps, step, start, end) -> {
+            time.addAndGet(7);
+            return start;
+        }, time::get);
+
+        interpolator.interpolate(10, 1, "a", "b");
+        interpolator.interpolate(10, 2, "a", "b");
+
+        assertEquals(14, interpolator.takeCost());
+        assertEquals(0, interpolator.takeCost());
+    }
+
+}
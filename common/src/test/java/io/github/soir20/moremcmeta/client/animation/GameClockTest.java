@@ -0,0 +1,124 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link GameClock}.
+ * @author soir20
+ */
+public class GameClockTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullHasTimeChecker_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new GameClock(null, () -> 10);
+    }
+
+    @Test
+    public void construct_NullTimeGetter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new GameClock(() -> true, null);
+    }
+
+    @Test
+    public void hasTime_NotTicked_False() {
+        GameClock clock = new GameClock(() -> true, () -> 10);
+        assertFalse(clock.hasTime());
+    }
+
+    @Test
+    public void getTime_NotTicked_IllegalStateException() {
+        GameClock clock = new GameClock(() -> true, () -> 10);
+        expectedException.expect(IllegalStateException.class);
+        clock.getTime();
+    }
+
+    @Test
+    public void getTime_Ticked_SampledTime() {
+        GameClock clock = new GameClock(() -> true, () -> 10);
+        clock.tick();
+
+        assertTrue(clock.hasTime());
+        assertEquals(10, clock.getTime());
+    }
+
+    @Test
+    public void getTime_TimeChangesBetweenTicks_SameTimeUntilTicked() {
+        AtomicLong time = new AtomicLong(10);
+        GameClock clock = new GameClock(() -> true, time::get);
+        clock.tick();
+
+        time.set(20);
+        assertEquals(10, clock.getTime());
+
+        clock.tick();
+        assertEquals(20, clock.getTime());
+    }
+
+    @Test
+    public void getTime_ReadManyTimes_TimeSampledOnce() {
+        AtomicInteger samples = new AtomicInteger();
+        GameClock clock = new GameClock(() -> true, () -> {
+            samples.incrementAndGet();
+            return 10;
+        });
+        clock.tick();
+
+        for (int read = 0; read < 10; read++) {
+            clock.getTime();
+        }
+
+        assertEquals(1, samples.get());
+    }
+
+    @Test
+    public void tick_NoTime_TimeGetterNotCalled() {
+        GameClock clock = new GameClock(() -> false, () -> {
+            throw new AssertionError("Time getter should not be called");
+        });
+        clock.tick();
+
+        assertFalse(clock.hasTime());
+    }
+
+    @Test
+    public void getTime_TimeLost_IllegalStateException() {
+        AtomicBoolean hasTime = new AtomicBoolean(true);
+        GameClock clock = new GameClock(hasTime::get, () -> 10);
+        clock.tick();
+
+        hasTime.set(false);
+        clock.tick();
+
+        expectedException.expect(IllegalStateException.class);
+        clock.getTime();
+    }
+
+}
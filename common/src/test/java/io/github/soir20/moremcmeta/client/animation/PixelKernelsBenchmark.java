@@ -0,0 +1,122 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times the scalar {@link PixelKernels} against the kernels from {@link PixelKernels#create()}
+ * on the same fixed rows, so results can be compared between runs and machines. Run it with
+ * {@code gradlew :common:kernelBenchmark}, which adds the Vector API module when it is available.
+ * Each kernel is warmed up before it is timed, and the median of several rounds is reported.
+ * @author soir20
+ */
+public class PixelKernelsBenchmark {
+    private static final int ROW_LENGTH = 4096;
+    private static final int ROWS = 64;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int TIMED_ROUNDS = 15;
+    private static final int PASSES_PER_ROUND = 50;
+    private static final long SEED = 20;
+
+    /**
+     * Runs the benchmark and prints the time per pixel of each kernel.
+     * @param args      unused
+     */
+    public static void main(String[] args) {
+        Random random = new Random(SEED);
+        int[][] startRows = new int[ROWS][];
+        int[][] endRows = new int[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            startRows[row] = makeRow(random);
+            endRows[row] = makeRow(random);
+        }
+
+        // Changed rows differ from their base rows only near the end, so most of each row is compared
+        int[][] changedRows = new int[ROWS][];
+        for (int row = 0; row < ROWS; row++) {
+            changedRows[row] = startRows[row].clone();
+            changedRows[row][ROW_LENGTH - 1 - random.nextInt(16)] ^= 0xFF;
+        }
+
+        PixelKernels scalarKernels = new PixelKernels();
+        PixelKernels kernels = PixelKernels.create();
+        System.out.println("Fastest kernels: " + kernels.getClass().getSimpleName());
+
+        int[] output = new int[ROW_LENGTH];
+        for (PixelKernels benchmarked : new PixelKernels[] {scalarKernels, kernels}) {
+            String name = benchmarked.getClass().getSimpleName();
+
+            double mixNanos = time(() -> {
+                for (int row = 0; row < ROWS; row++) {
+                    benchmarked.mixRow(0.375, startRows[row], endRows[row], output, ROW_LENGTH);
+                }
+            });
+            System.out.printf("%s mixRow: %.3f ns/pixel%n", name, mixNanos / ((long) ROWS * ROW_LENGTH));
+
+            double changeNanos = time(() -> {
+                for (int row = 0; row < ROWS; row++) {
+                    output[row] = benchmarked.findNextChange(changedRows[row], startRows[row], 0, ROW_LENGTH);
+                }
+            });
+            System.out.printf("%s findNextChange: %.3f ns/pixel%n", name, changeNanos / ((long) ROWS * ROW_LENGTH));
+        }
+    }
+
+    /**
+     * Times a pass over all rows.
+     * @param pass      the pass to time
+     * @return the median time of one pass in nanoseconds
+     */
+    private static double time(Runnable pass) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int repetition = 0; repetition < PASSES_PER_ROUND; repetition++) {
+                pass.run();
+            }
+        }
+
+        long[] roundNanos = new long[TIMED_ROUNDS];
+        for (int round = 0; round < TIMED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int repetition = 0; repetition < PASSES_PER_ROUND; repetition++) {
+                pass.run();
+            }
+            roundNanos[round] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(roundNanos);
+        return roundNanos[TIMED_ROUNDS / 2] / (double) PASSES_PER_ROUND;
+    }
+
+    /**
+     * Creates a row of random colors, some of which are transparent.
+     * @param random    random number generator for the colors
+     * @return the new row
+     */
+    private static int[] makeRow(Random random) {
+        int[] row = new int[ROW_LENGTH];
+        for (int index = 0; index < ROW_LENGTH; index++) {
+            row[index] = random.nextInt(4) == 0 ? random.nextInt() & 0xFFFFFF : random.nextInt();
+        }
+
+        return row;
+    }
+
+}
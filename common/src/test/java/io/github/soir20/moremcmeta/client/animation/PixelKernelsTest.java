@@ -0,0 +1,225 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link PixelKernels}. Use an online random number generator for
+ * RGBA component values in new tests.
+ * @author soir20
+ */
+public class PixelKernelsTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void mixRow_StartRowNull_NullPointerException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(NullPointerException.class);
+        kernels.mixRow(0.5, null, new int[2], new int[2], 2);
+    }
+
+    @Test
+    public void mixRow_EndRowNull_NullPointerException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(NullPointerException.class);
+        kernels.mixRow(0.5, new int[2], null, new int[2], 2);
+    }
+
+    @Test
+    public void mixRow_OutputRowNull_NullPointerException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(NullPointerException.class);
+        kernels.mixRow(0.5, new int[2], new int[2], null, 2);
+    }
+
+    @Test
+    public void mixRow_NegativeLength_IllegalArgException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(IllegalArgumentException.class);
+        kernels.mixRow(0.5, new int[2], new int[2], new int[2], -1);
+    }
+
+    @Test
+    public void mixRow_LengthLongerThanRow_IllegalArgException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(IllegalArgumentException.class);
+        kernels.mixRow(0.5, new int[2], new int[3], new int[3], 3);
+    }
+
+    @Test
+    public void mixRow_MixedColorsEven_CorrectlyAveraged() {
+        PixelKernels kernels = new PixelKernels();
+        int[] start = {toBinary(184, 143, 65, 197), toBinary(41, 248, 80, 100)};
+        int[] end = {toBinary(25, 181, 119, 37), toBinary(106, 126, 174, 11)};
+        int[] output = new int[2];
+
+        kernels.mixRow(0.5, start, end, output, 2);
+
+        assertEquals(toBinary(104, 162, 92, 197), output[0]);
+        assertEquals(toBinary(73, 187, 127, 100), output[1]);
+    }
+
+    @Test
+    public void mixRow_ShorterLength_RestOfRowUnchanged() {
+        PixelKernels kernels = new PixelKernels();
+        int[] start = {toBinary(184, 143, 65, 197), toBinary(41, 248, 80, 100)};
+        int[] end = {toBinary(25, 181, 119, 37), toBinary(106, 126, 174, 11)};
+        int[] output = {0, toBinary(19, 159, 70, 226)};
+
+        kernels.mixRow(0.5, start, end, output, 1);
+
+        assertEquals(toBinary(104, 162, 92, 197), output[0]);
+        assertEquals(toBinary(19, 159, 70, 226), output[1]);
+    }
+
+    @Test
+    public void findNextChange_RowNull_NullPointerException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(NullPointerException.class);
+        kernels.findNextChange(null, new int[2], 0, 2);
+    }
+
+    @Test
+    public void findNextChange_BaseRowNull_NullPointerException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(NullPointerException.class);
+        kernels.findNextChange(new int[2], null, 0, 2);
+    }
+
+    @Test
+    public void findNextChange_NegativeStart_IllegalArgException() {
+        PixelKernels kernels = new PixelKernels();
+        expectedException.expect(IllegalArgumentException.class);
+        kernels.findNextChange(new int[2], new int[2], -1, 2);
+    }
+
+    @Test
+    public void findNextChange_IdenticalRows_LengthReturned() {
+        PixelKernels kernels = new PixelKernels();
+        int[] row = {toBinary(216, 101, 41, 195), toBinary(93, 209, 60, 223), toBinary(0, 238, 24, 122)};
+        assertEquals(3, kernels.findNextChange(row, row.clone(), 0, 3));
+    }
+
+    @Test
+    public void findNextChange_StartPastLength_LengthReturned() {
+        PixelKernels kernels = new PixelKernels();
+        int[] row = {toBinary(216, 101, 41, 195), toBinary(93, 209, 60, 223)};
+        assertEquals(2, kernels.findNextChange(row, new int[2], 5, 2));
+    }
+
+    @Test
+    public void findNextChange_DifferentPixels_EachFoundInOrder() {
+        PixelKernels kernels = new PixelKernels();
+        int[] row = {toBinary(216, 101, 41, 195), toBinary(93, 209, 60, 223),
+                toBinary(0, 238, 24, 122), toBinary(19, 159, 70, 226)};
+        int[] baseRow = {toBinary(216, 101, 41, 195), toBinary(93, 209, 61, 223),
+                toBinary(0, 238, 24, 122), toBinary(19, 159, 70, 225)};
+
+        int firstChange = kernels.findNextChange(row, baseRow, 0, 4);
+        int secondChange = kernels.findNextChange(row, baseRow, firstChange + 1, 4);
+        int end = kernels.findNextChange(row, baseRow, secondChange + 1, 4);
+
+        assertEquals(1, firstChange);
+        assertEquals(3, secondChange);
+        assertEquals(4, end);
+    }
+
+    @Test
+    public void findNextChange_TransparentPixelsDifferentRGBComponents_NoChange() {
+        PixelKernels kernels = new PixelKernels();
+        int[] row = {toBinary(206, 0, 27, 0)};
+        int[] baseRow = {toBinary(240, 200, 185, 0)};
+        assertEquals(1, kernels.findNextChange(row, baseRow, 0, 1));
+    }
+
+    @Test
+    public void areColorsEqual_SameRGBComponentsDifferentAlpha_NotEqual() {
+        PixelKernels kernels = new PixelKernels();
+        assertFalse(kernels.areColorsEqual(toBinary(206, 0, 27, 131), toBinary(206, 0, 27, 0)));
+    }
+
+    @Test
+    public void areColorsEqual_BothTransparent_Equal() {
+        PixelKernels kernels = new PixelKernels();
+        assertTrue(kernels.areColorsEqual(toBinary(206, 0, 27, 0), toBinary(240, 200, 185, 0)));
+    }
+
+    @Test
+    public void create_RandomRows_SameMixAsScalarKernels() {
+        PixelKernels kernels = PixelKernels.create();
+        PixelKernels scalarKernels = new PixelKernels();
+        Random random = new Random(20);
+
+        for (int length = 0; length < 70; length++) {
+            int[] startRow = makeRow(random, length);
+            int[] endRow = makeRow(random, length);
+            int[] mixedRow = new int[length];
+            int[] scalarMixedRow = new int[length];
+            double startProportion = random.nextDouble();
+
+            kernels.mixRow(startProportion, startRow, endRow, mixedRow, length);
+            scalarKernels.mixRow(startProportion, startRow, endRow, scalarMixedRow, length);
+
+            assertArrayEquals(scalarMixedRow, mixedRow);
+        }
+    }
+
+    @Test
+    public void create_RandomRows_SameChangesAsScalarKernels() {
+        PixelKernels kernels = PixelKernels.create();
+        PixelKernels scalarKernels = new PixelKernels();
+        Random random = new Random(20);
+
+        for (int length = 0; length < 70; length++) {
+            int[] baseRow = makeRow(random, length);
+            int[] row = baseRow.clone();
+            for (int index = 0; index < length; index += 1 + random.nextInt(20)) {
+                row[index] = random.nextInt();
+            }
+
+            for (int fromIndex = 0; fromIndex <= length + 1; fromIndex++) {
+                assertEquals(scalarKernels.findNextChange(row, baseRow, fromIndex, length),
+                        kernels.findNextChange(row, baseRow, fromIndex, length));
+            }
+        }
+    }
+
+    private int[] makeRow(Random random, int length) {
+        int[] row = new int[length];
+        for (int index = 0; index < length; index++) {
+
+            // Some pixels are transparent so that transparent colors are compared too
+            row[index] = random.nextInt(4) == 0 ? random.nextInt() & 0xFFFFFF : random.nextInt();
+        }
+
+        return row;
+    }
+
+    private int toBinary(int r, int g, int b, int a) {
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+}
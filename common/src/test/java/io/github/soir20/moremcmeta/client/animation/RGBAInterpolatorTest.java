@@ -17,12 +17,17 @@
 
 package io.github.soir20.moremcmeta.client.animation;
 
+import io.github.soir20.moremcmeta.client.texture.BufferRGBAImage;
 import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
+import io.github.soir20.moremcmeta.client.texture.MockBufferUploader;
 import io.github.soir20.moremcmeta.client.texture.MockRGBAImage;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -469,6 +474,34 @@ public class RGBAInterpolatorTest {
         assertEquals(height, output.getHeight());
     }
 
+    @Test
+    public void interpolate_BufferImages_RowsMixedAndWritten() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addRow(1, 1, 3);
+        IRGBAImage.VisibleArea area = builder.build();
+
+        BufferRGBAImage start = new BufferRGBAImage(IntBuffer.allocate(8), 4, 2, 0, area,
+                new MockBufferUploader());
+        start.setRow(0, 1, new int[] {0, toBinary(100, 0, 200, 255), toBinary(100, 0, 200, 255),
+                toBinary(100, 0, 200, 255)}, 4);
+
+        BufferRGBAImage end = new BufferRGBAImage(IntBuffer.allocate(6), 3, 2, 0, area,
+                new MockBufferUploader());
+        end.setRow(0, 1, new int[] {0, toBinary(0, 100, 0, 50), toBinary(0, 100, 0, 50)}, 3);
+
+        IntBuffer outputPixels = IntBuffer.allocate(8);
+        RGBAInterpolator interpolator = new RGBAInterpolator((w, h) ->
+                new BufferRGBAImage(outputPixels, w, h, 0, area, new MockBufferUploader()));
+
+        IRGBAImage output = interpolator.interpolate(10, 5, start, end);
+
+        int mixed = toBinary(50, 50, 100, 255);
+        int startOnly = toBinary(50, 0, 100, 255);
+        assertArrayEquals(new int[] {0, 0, 0, 0, 0, mixed, mixed, startOnly}, outputPixels.array());
+        assertEquals(4, output.getWidth());
+        assertEquals(2, output.getHeight());
+    }
+
     private int toBinary(int r, int g, int b, int a) {
         return a << 24 | r << 16 | g << 8 | b;
     }
@@ -0,0 +1,199 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.animation;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SyncGroups}.
+ * @author soir20
+ */
+public class SyncGroupsTest {
+    private static final ImmutableList<Integer> FRAME_TIMES = ImmutableList.of(10, 20, 30);
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void join_NullGeneration_NullPointerException() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        expectedException.expect(NullPointerException.class);
+        groups.join(null, "water", FRAME_TIMES);
+    }
+
+    @Test
+    public void join_NullGroup_NullPointerException() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        expectedException.expect(NullPointerException.class);
+        groups.join(new Object(), null, FRAME_TIMES);
+    }
+
+    @Test
+    public void join_NullFrameTimes_NullPointerException() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        expectedException.expect(NullPointerException.class);
+        groups.join(new Object(), "water", null);
+    }
+
+    @Test
+    public void join_InvalidFrameTimes_IllegalArgException() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        expectedException.expect(IllegalArgumentException.class);
+        groups.join(new Object(), "water", ImmutableList.of(10, 0));
+    }
+
+    @Test
+    public void join_SameGroupSameTimes_SameTimeline() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        Object generation = new Object();
+
+        Optional<AnimationTimeline> first = groups.join(generation, "water", FRAME_TIMES);
+        Optional<AnimationTimeline> second = groups.join(generation, "water", ImmutableList.of(10, 20, 30));
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.orElse(null));
+    }
+
+    @Test
+    public void join_DifferentGroups_DifferentTimelines() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        Object generation = new Object();
+
+        Optional<AnimationTimeline> first = groups.join(generation, "water", FRAME_TIMES);
+        Optional<AnimationTimeline> second = groups.join(generation, "lava", FRAME_TIMES);
+
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertNotSame(first.get(), second.get());
+    }
+
+    @Test
+    public void join_SameGroupDifferentTimes_Empty() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+        Object generation = new Object();
+
+        groups.join(generation, "water", FRAME_TIMES);
+
+        assertFalse(groups.join(generation, "water", ImmutableList.of(10, 20)).isPresent());
+    }
+
+    @Test
+    public void join_NewGeneration_NewTimeline() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+
+        Optional<AnimationTimeline> first = groups.join(new Object(), "water", FRAME_TIMES);
+        Optional<AnimationTimeline> second = groups.join(new Object(), "water", FRAME_TIMES);
+
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertNotSame(first.get(), second.get());
+    }
+
+    @Test
+    public void join_NewGenerationDifferentTimes_NewTimeline() {
+        SyncGroups groups = new SyncGroups(new AnimationStateBank());
+
+        groups.join(new Object(), "water", FRAME_TIMES);
+        Optional<AnimationTimeline> timeline = groups.join(new Object(), "water", ImmutableList.of(10, 20));
+
+        assertTrue(timeline.isPresent());
+        assertEquals(2, timeline.get().getFrameCount());
+    }
+
+    @Test
+    public void construct_NullBank_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new SyncGroups(null);
+    }
+
+    @Test
+    public void join_BankTicked_GroupAdvancedOnce() {
+        AnimationStateBank bank = new AnimationStateBank();
+        SyncGroups groups = new SyncGroups(bank);
+        Object generation = new Object();
+        AnimationTimeline timeline = groups.join(generation, "water", FRAME_TIMES).orElse(null);
+        groups.join(generation, "water", FRAME_TIMES);
+
+        bank.tick();
+
+        assertNotNull(timeline);
+        assertEquals(1, timeline.getTicksInFrame());
+        assertEquals(1, bank.getActiveCount());
+    }
+
+    @Test
+    public void join_OldGenerationInUse_OldTimelineStillAdvanced() {
+        AnimationStateBank bank = new AnimationStateBank();
+        SyncGroups groups = new SyncGroups(bank);
+        AnimationTimeline oldTimeline = groups.join(new Object(), "water", FRAME_TIMES).orElse(null);
+        AnimationTimeline newTimeline = groups.join(new Object(), "water", FRAME_TIMES).orElse(null);
+
+        bank.tick();
+
+        assertNotNull(oldTimeline);
+        assertNotNull(newTimeline);
+        assertEquals(1, oldTimeline.getTicksInFrame());
+        assertEquals(1, newTimeline.getTicksInFrame());
+    }
+
+    @Test
+    public void join_AllMembersReleased_GroupKeptInGeneration() {
+        AnimationStateBank bank = new AnimationStateBank();
+        SyncGroups groups = new SyncGroups(bank);
+        Object generation = new Object();
+        groups.join(generation, "water", FRAME_TIMES).ifPresent(AnimationTimeline::release);
+
+        Optional<AnimationTimeline> timeline = groups.join(generation, "water", FRAME_TIMES);
+        bank.tick();
+
+        assertTrue(timeline.isPresent());
+        assertEquals(1, timeline.get().getTicksInFrame());
+        assertEquals(1, bank.getActiveCount());
+    }
+
+    @Test
+    public void join_OldGenerationReleased_OldTimelineFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        SyncGroups groups = new SyncGroups(bank);
+        groups.join(new Object(), "water", FRAME_TIMES).ifPresent(AnimationTimeline::release);
+
+        groups.join(new Object(), "water", FRAME_TIMES);
+
+        assertEquals(1, bank.getActiveCount());
+    }
+
+    @Test
+    public void join_OldGenerationMemberReleasedLater_OldTimelineFreed() {
+        AnimationStateBank bank = new AnimationStateBank();
+        SyncGroups groups = new SyncGroups(bank);
+        Optional<AnimationTimeline> oldTimeline = groups.join(new Object(), "water", FRAME_TIMES);
+        groups.join(new Object(), "water", FRAME_TIMES);
+
+        oldTimeline.ifPresent(AnimationTimeline::release);
+
+        assertEquals(1, bank.getActiveCount());
+    }
+
+}
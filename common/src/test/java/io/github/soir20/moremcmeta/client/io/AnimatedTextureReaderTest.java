@@ -17,6 +17,7 @@
 
 package io.github.soir20.moremcmeta.client.io;
 
+import io.github.soir20.moremcmeta.client.resource.CancellationToken;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -25,6 +26,8 @@ import org.apache.logging.log4j.LogManager;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
 
 /**
  * Tests the {@link AnimatedTextureReader}.
@@ -40,6 +43,70 @@ public class AnimatedTextureReaderTest {
         new AnimatedTextureReader(null);
     }
 
+    @Test
+    public void buildReader_NullLogger_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimatedTextureReader.Builder(null);
+    }
+
+    @Test
+    public void buildReader_NullTimings_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setTimings(null);
+    }
+
+    @Test
+    public void buildReader_NullLazyTimings_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setLazyTimings(null);
+    }
+
+    @Test
+    public void buildReader_NullExecutor_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setLazyLoadExecutor(null);
+    }
+
+    @Test
+    public void buildReader_NullReloadExecutor_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setReloadExecutor(null);
+    }
+
+    @Test
+    public void buildReader_NullSnapshot_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setSnapshot(null);
+    }
+
+    @Test
+    public void buildReader_NullPolicy_NullPointerException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        builder.setInterpolationPolicy(null);
+    }
+
+    @Test
+    public void buildReader_SnapshotWithoutExecutor_IllegalStateException() {
+        AnimatedTextureReader.Builder builder = new AnimatedTextureReader.Builder(LogManager.getLogger())
+                .setSnapshot(new AnimationSnapshot(Paths.get("snapshot.bin"), LogManager.getLogger()));
+        expectedException.expect(IllegalStateException.class);
+        builder.build();
+    }
+
+    @Test
+    public void readLazy_NullTextureStream_NullPointerException() throws IOException {
+        AnimatedTextureReader reader = new AnimatedTextureReader.Builder(LogManager.getLogger())
+                .setLazyLoadExecutor(Runnable::run).build();
+        expectedException.expect(NullPointerException.class);
+        reader.read(null, new ByteArrayInputStream("".getBytes()));
+    }
+
     @Test
     public void read_NullTextureStream_NullPointerException() throws IOException {
         AnimatedTextureReader reader = new AnimatedTextureReader(LogManager.getLogger());
@@ -47,6 +114,30 @@ public class AnimatedTextureReaderTest {
         reader.read(null, new ByteArrayInputStream("".getBytes()));
     }
 
+    @Test
+    public void read_NullToken_NullPointerException() throws IOException {
+        AnimatedTextureReader reader = new AnimatedTextureReader(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        reader.read(new ByteArrayInputStream("".getBytes()), new ByteArrayInputStream("".getBytes()), null);
+    }
+
+    @Test
+    public void read_TokenAlreadyCancelled_CancellationException() throws IOException {
+        AnimatedTextureReader reader = new AnimatedTextureReader(LogManager.getLogger());
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        expectedException.expect(CancellationException.class);
+        reader.read(new ByteArrayInputStream("".getBytes()), new ByteArrayInputStream("".getBytes()), token);
+    }
+
+    @Test
+    public void discard_NullTexture_NullPointerException() {
+        AnimatedTextureReader reader = new AnimatedTextureReader(LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        reader.discard(null);
+    }
+
     @Test
     public void read_NullMetadataStream_NullPointerException() throws IOException {
         AnimatedTextureReader reader = new AnimatedTextureReader(LogManager.getLogger());
@@ -0,0 +1,394 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.io;
+
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.texture.IRGBAImage;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AnimationSnapshot}.
+ * @author soir20
+ */
+public class AnimationSnapshotTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void construct_NullFile_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationSnapshot(null, LogManager.getLogger());
+    }
+
+    @Test
+    public void construct_NullLogger_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AnimationSnapshot(tempFolder.getRoot().toPath().resolve("snapshot.bin"), null);
+    }
+
+    @Test
+    public void find_MissingFile_NoEntry() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+        snapshot.load();
+
+        assertFalse(snapshot.find(makeHash(1)).isPresent());
+    }
+
+    @Test
+    public void find_HashWrongLength_IllegalArgumentException() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+
+        expectedException.expect(IllegalArgumentException.class);
+        snapshot.find(new byte[4]);
+    }
+
+    @Test
+    public void find_NullHash_NullPointerException() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+
+        expectedException.expect(NullPointerException.class);
+        snapshot.find(null);
+    }
+
+    @Test
+    public void put_NullEntry_NullPointerException() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+
+        expectedException.expect(NullPointerException.class);
+        snapshot.put(makeHash(1), null);
+    }
+
+    @Test
+    public void find_EntryPutThisSession_EntryFound() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+        AnimationSnapshot.Entry entry = makeEntry();
+        snapshot.put(makeHash(1), entry);
+
+        assertSame(entry, snapshot.find(makeHash(1)).orElse(null));
+        assertFalse(snapshot.find(makeHash(2)).isPresent());
+    }
+
+    @Test
+    public void load_SavedEntry_SameDataRead() {
+        Path file = getFile();
+        AnimationSnapshot original = new AnimationSnapshot(file, LogManager.getLogger());
+        original.put(makeHash(1), makeEntry());
+        original.save();
+
+        AnimationSnapshot loaded = new AnimationSnapshot(file, LogManager.getLogger());
+        loaded.load();
+        Optional<AnimationSnapshot.Entry> entry = loaded.find(makeHash(1));
+
+        assertTrue(entry.isPresent());
+        assertEntryMatches(entry.get());
+    }
+
+    @Test
+    public void save_NoNewEntries_FileNotWritten() {
+        Path file = getFile();
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.save();
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void save_EntriesFromLastSession_OnlyFoundEntriesKept() {
+        Path file = getFile();
+        AnimationSnapshot first = new AnimationSnapshot(file, LogManager.getLogger());
+        first.put(makeHash(1), makeEntry());
+        first.put(makeHash(2), makeEntry());
+        first.save();
+
+        AnimationSnapshot second = new AnimationSnapshot(file, LogManager.getLogger());
+        second.load();
+        assertTrue(second.find(makeHash(1)).isPresent());
+        second.put(makeHash(3), makeEntry());
+        second.save();
+
+        AnimationSnapshot third = new AnimationSnapshot(file, LogManager.getLogger());
+        third.load();
+
+        assertEntryMatches(third.find(makeHash(1)).orElseThrow(AssertionError::new));
+        assertFalse(third.find(makeHash(2)).isPresent());
+        assertTrue(third.find(makeHash(3)).isPresent());
+    }
+
+    @Test
+    public void save_EntryPutThisSession_EntryReadBackFromFile() {
+        AnimationSnapshot snapshot = new AnimationSnapshot(getFile(), LogManager.getLogger());
+        AnimationSnapshot.Entry entry = makeEntry();
+        snapshot.put(makeHash(1), entry);
+
+        snapshot.save();
+
+        AnimationSnapshot.Entry savedEntry = snapshot.find(makeHash(1)).orElseThrow(AssertionError::new);
+        assertNotSame(entry, savedEntry);
+        assertEntryMatches(savedEntry);
+    }
+
+    @Test
+    public void save_SavedTwiceInSession_EntriesFromFirstSaveKept() {
+        Path file = getFile();
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.put(makeHash(1), makeEntry());
+        snapshot.save();
+        snapshot.put(makeHash(2), makeEntry());
+        snapshot.save();
+
+        AnimationSnapshot loaded = new AnimationSnapshot(file, LogManager.getLogger());
+        loaded.load();
+
+        assertEntryMatches(loaded.find(makeHash(1)).orElseThrow(AssertionError::new));
+        assertEntryMatches(loaded.find(makeHash(2)).orElseThrow(AssertionError::new));
+    }
+
+    @Test
+    public void save_LoadedEntriesInUse_FileReplacedAndEntriesStillReadable() {
+        Path file = getFile();
+        AnimationSnapshot first = new AnimationSnapshot(file, LogManager.getLogger());
+        first.put(makeHash(1), makeEntry());
+        first.save();
+
+        AnimationSnapshot second = new AnimationSnapshot(file, LogManager.getLogger());
+        second.load();
+        AnimationSnapshot.Entry loadedEntry = second.find(makeHash(1)).orElseThrow(AssertionError::new);
+        second.put(makeHash(2), makeEntry());
+        second.save();
+
+        assertEntryMatches(loadedEntry);
+        AnimationSnapshot third = new AnimationSnapshot(file, LogManager.getLogger());
+        third.load();
+        assertTrue(third.find(makeHash(2)).isPresent());
+    }
+
+    @Test
+    public void save_StoredEntryFoundAndSavedAgain_EntryStillReadable() {
+        Path file = getFile();
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.put(makeHash(1), makeEntry());
+        snapshot.put(makeHash(2), makeEntry());
+        snapshot.save();
+
+        AnimationSnapshot.Entry storedEntry = snapshot.find(makeHash(2)).orElseThrow(AssertionError::new);
+        snapshot.put(makeHash(3), makeEntry());
+        snapshot.save();
+
+        assertEntryMatches(storedEntry);
+        assertSame(storedEntry, snapshot.find(makeHash(2)).orElse(null));
+    }
+
+    @Test
+    public void load_PixelsChangedInFile_ChangedPixelsRead() throws IOException {
+        Path file = getFile();
+        AnimationSnapshot original = new AnimationSnapshot(file, LogManager.getLogger());
+        original.put(makeHash(1), makeEntry());
+        original.save();
+
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.load();
+        AnimationSnapshot.Mipmap lastMipmap = snapshot.find(makeHash(1)).orElseThrow(AssertionError::new)
+                .getMipmaps().get(1);
+
+        byte[] contents = Files.readAllBytes(file);
+        ByteBuffer.wrap(contents).order(ByteOrder.LITTLE_ENDIAN).putInt(contents.length - Integer.BYTES, 100);
+        Files.write(file, contents);
+
+        assertEquals(100, readPixels(lastMipmap).get(3));
+    }
+
+    @Test
+    public void load_CorruptFile_NoEntries() throws IOException {
+        Path file = getFile();
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7});
+
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.load();
+
+        assertFalse(snapshot.find(makeHash(1)).isPresent());
+    }
+
+    @Test
+    public void load_TruncatedFile_NoEntries() throws IOException {
+        Path file = getFile();
+        AnimationSnapshot original = new AnimationSnapshot(file, LogManager.getLogger());
+        original.put(makeHash(1), makeEntry());
+        original.save();
+
+        byte[] contents = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(contents, contents.length - 8));
+
+        AnimationSnapshot snapshot = new AnimationSnapshot(file, LogManager.getLogger());
+        snapshot.load();
+
+        assertFalse(snapshot.find(makeHash(1)).isPresent());
+    }
+
+    @Test
+    public void constructEntry_NoFrames_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationSnapshot.Entry(ImmutableList.of(), ImmutableList.of(), ImmutableList.of());
+    }
+
+    @Test
+    public void constructEntry_VisibleAreaCountDifferent_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationSnapshot.Entry(
+                ImmutableList.of(new FrameReader.FrameData(2, 2, 0, 0, 1)),
+                ImmutableList.of(),
+                ImmutableList.of(new AnimationSnapshot.Mipmap(1, 1, IntBuffer.wrap(new int[1])))
+        );
+    }
+
+    @Test
+    public void constructMipmap_WrongPixelCount_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationSnapshot.Mipmap(2, 2, IntBuffer.wrap(new int[3]));
+    }
+
+    @Test
+    public void constructMipmap_NegativeWidth_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new AnimationSnapshot.Mipmap(-1, 2, IntBuffer.wrap(new int[0]));
+    }
+
+    @Test
+    public void readPixels_NullDestination_NullPointerException() throws IOException {
+        AnimationSnapshot.Mipmap mipmap = new AnimationSnapshot.Mipmap(2, 2, IntBuffer.wrap(makePixels(4)));
+
+        expectedException.expect(NullPointerException.class);
+        mipmap.readPixels(null);
+    }
+
+    @Test
+    public void readPixels_DestinationTooSmall_IllegalArgumentException() throws IOException {
+        AnimationSnapshot.Mipmap mipmap = new AnimationSnapshot.Mipmap(2, 2, IntBuffer.wrap(makePixels(4)));
+
+        expectedException.expect(IllegalArgumentException.class);
+        mipmap.readPixels(ByteBuffer.allocate(15));
+    }
+
+    @Test
+    public void readPixels_DestinationHasPosition_PixelsCopiedAtPosition() throws IOException {
+        AnimationSnapshot.Mipmap mipmap = new AnimationSnapshot.Mipmap(2, 2, IntBuffer.wrap(makePixels(4)));
+        ByteBuffer destination = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        destination.position(4);
+
+        mipmap.readPixels(destination);
+
+        assertEquals(4, destination.position());
+        assertEquals(0, destination.getInt(0));
+        for (int index = 0; index < 4; index++) {
+            assertEquals(makePixels(4)[index], destination.getInt(4 + index * Integer.BYTES));
+        }
+    }
+
+    private Path getFile() {
+        return tempFolder.getRoot().toPath().resolve("snapshot.bin");
+    }
+
+    private byte[] makeHash(int seed) {
+        byte[] hash = new byte[32];
+        Arrays.fill(hash, (byte) seed);
+        return hash;
+    }
+
+    private AnimationSnapshot.Entry makeEntry() {
+        IRGBAImage.VisibleArea.Builder firstArea = new IRGBAImage.VisibleArea.Builder();
+        firstArea.addRow(0, 1, 3);
+        firstArea.addPixel(2, 0);
+
+        IRGBAImage.VisibleArea.Builder secondArea = new IRGBAImage.VisibleArea.Builder();
+        secondArea.addRow(0, 0, 2);
+
+        return new AnimationSnapshot.Entry(
+                ImmutableList.of(new FrameReader.FrameData(4, 2, 0, 0, 5), new FrameReader.FrameData(4, 2, 0, 2, 7)),
+                ImmutableList.of(firstArea.build(), secondArea.build()),
+                ImmutableList.of(
+                        new AnimationSnapshot.Mipmap(4, 4, IntBuffer.wrap(makePixels(16))),
+                        new AnimationSnapshot.Mipmap(2, 2, IntBuffer.wrap(makePixels(4)))
+                )
+        );
+    }
+
+    private int[] makePixels(int count) {
+        int[] pixels = new int[count];
+        for (int index = 0; index < count; index++) {
+            pixels[index] = index * 0x01020304 - 7;
+        }
+
+        return pixels;
+    }
+
+    private void assertEntryMatches(AnimationSnapshot.Entry entry) {
+        AnimationSnapshot.Entry expected = makeEntry();
+
+        assertEquals(expected.getFrames().size(), entry.getFrames().size());
+        for (int frame = 0; frame < expected.getFrames().size(); frame++) {
+            FrameReader.FrameData expectedFrame = expected.getFrames().get(frame);
+            FrameReader.FrameData actualFrame = entry.getFrames().get(frame);
+            assertEquals(expectedFrame.getWidth(), actualFrame.getWidth());
+            assertEquals(expectedFrame.getHeight(), actualFrame.getHeight());
+            assertEquals(expectedFrame.getXOffset(), actualFrame.getXOffset());
+            assertEquals(expectedFrame.getYOffset(), actualFrame.getYOffset());
+            assertEquals(expectedFrame.getTime(), actualFrame.getTime());
+        }
+
+        assertEquals(expected.getMipmaps().size(), entry.getMipmaps().size());
+        for (int level = 0; level < expected.getMipmaps().size(); level++) {
+            assertEquals(expected.getVisibleAreas().get(level).getRows(), entry.getVisibleAreas().get(level).getRows());
+
+            AnimationSnapshot.Mipmap expectedMipmap = expected.getMipmaps().get(level);
+            AnimationSnapshot.Mipmap actualMipmap = entry.getMipmaps().get(level);
+            assertEquals(expectedMipmap.getWidth(), actualMipmap.getWidth());
+            assertEquals(expectedMipmap.getHeight(), actualMipmap.getHeight());
+            assertEquals(readPixels(expectedMipmap), readPixels(actualMipmap));
+        }
+    }
+
+    private IntBuffer readPixels(AnimationSnapshot.Mipmap mipmap) {
+        ByteBuffer pixels = ByteBuffer.allocate(mipmap.getWidth() * mipmap.getHeight() * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            mipmap.readPixels(pixels);
+        } catch (IOException err) {
+            throw new AssertionError(err);
+        }
+
+        return pixels.asIntBuffer();
+    }
+
+}
@@ -306,6 +306,53 @@ public class ChangingPointsReaderTest {
         assertTrue(containsOnlyPoints(areas.get(3), ImmutableSet.of()));
     }
 
+    @Test
+    public void read_LargeStrip_PointsDetected() {
+        int[][] image = new int[32][4096];
+        image[1][2000] = toBinary(206, 0, 27, 131);
+        image[17][4095] = toBinary(240, 200, 185, 147);
+        image[30][16] = toBinary(201, 40, 58, 223);
+
+        ChangingPointsReader reader = new ChangingPointsReader();
+        List<IRGBAImage.VisibleArea> areas = reader.read(new MockRGBAImage(image), 32, 32, 2);
+        Set<Point> expectedPoints = ImmutableSet.of(new Point(1, 16), new Point(17, 31), new Point(30, 16));
+        assertTrue(containsOnlyPoints(areas, expectedPoints));
+    }
+
+    @Test
+    public void read_WholeRowChangesInFirstFrames_AllPointsInRowDetected() {
+        int[][] image = new int[5][20];
+        for (int column = 0; column < 5; column++) {
+            image[column][7] = toBinary(206, 0, 27, 131);
+        }
+        image[3][17] = toBinary(240, 200, 185, 147);
+
+        ChangingPointsReader reader = new ChangingPointsReader();
+        List<IRGBAImage.VisibleArea> areas = reader.read(new MockRGBAImage(image), 5, 5, 0);
+        Set<Point> expectedPoints = ImmutableSet.of(new Point(0, 2), new Point(1, 2), new Point(2, 2),
+                new Point(3, 2), new Point(4, 2));
+        assertTrue(containsOnlyPoints(areas, expectedPoints));
+    }
+
+    @Test
+    public void read_LongChangingRows_MipmapRowsMerged() {
+        int[][] image = new int[40][10];
+        Set<Point> expectedPoints = new HashSet<>();
+        for (int column = 3; column < 17; column++) {
+            image[column + 20][5] = toBinary(206, 0, 27, 131);
+            image[column + 20][6] = toBinary(240, 200, 185, 147);
+            expectedPoints.add(new Point(column, 5));
+            expectedPoints.add(new Point(column, 6));
+        }
+
+        ChangingPointsReader reader = new ChangingPointsReader();
+        List<IRGBAImage.VisibleArea> areas = reader.read(new MockRGBAImage(image), 20, 10, 3);
+        assertTrue(containsOnlyPoints(areas, expectedPoints));
+        assertEquals(2, areas.get(1).getRows().size());
+        assertEquals(1, areas.get(2).getRows().size());
+        assertEquals(1, areas.get(3).getRows().size());
+    }
+
     private boolean containsOnlyPoints(List<IRGBAImage.VisibleArea> areas, Set<Point> points) {
         return IntStream.range(0, areas.size()).allMatch(
                 (level) -> containsOnlyPoints(areas.get(level), mipmapPoints(points, level))
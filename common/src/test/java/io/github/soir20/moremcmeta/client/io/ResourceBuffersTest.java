@@ -0,0 +1,185 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ResourceBuffers}.
+ * @author soir20
+ */
+public class ResourceBuffersTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void read_NullStream_NullPointerException() throws IOException {
+        expectedException.expect(NullPointerException.class);
+        ResourceBuffers.read(null);
+    }
+
+    @Test
+    public void read_File_DirectBufferWithContents() throws IOException {
+        byte[] contents = makeContents(100);
+        File file = writeFile(contents);
+
+        try (FileInputStream stream = new FileInputStream(file)) {
+            ByteBuffer buffer = ResourceBuffers.read(stream);
+
+            assertTrue(buffer.isDirect());
+            assertArrayEquals(contents, toArray(buffer));
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void read_LargeFileChangedAfterRead_BufferUnchanged() throws IOException {
+        byte[] contents = makeContents(200000);
+        File file = writeFile(contents);
+
+        ByteBuffer buffer;
+        try (FileInputStream stream = new FileInputStream(file)) {
+            buffer = ResourceBuffers.read(stream);
+        }
+
+        // A mapped buffer would show the new contents
+        Files.write(file.toPath(), new byte[contents.length]);
+
+        assertArrayEquals(contents, toArray(buffer));
+    }
+
+    @Test
+    public void read_FilePartlyRead_ReadsRemainingContents() throws IOException {
+        byte[] contents = makeContents(100);
+        File file = writeFile(contents);
+
+        try (FileInputStream stream = new FileInputStream(file)) {
+            assertEquals(10, stream.skip(10));
+            ByteBuffer buffer = ResourceBuffers.read(stream);
+
+            byte[] expected = new byte[90];
+            System.arraycopy(contents, 10, expected, 0, 90);
+            assertArrayEquals(expected, toArray(buffer));
+        }
+    }
+
+    @Test
+    public void read_OtherStream_CopiedToDirectBuffer() throws IOException {
+        byte[] contents = makeContents(20000);
+
+        ByteBuffer buffer = ResourceBuffers.read(new ByteArrayInputStream(contents));
+
+        assertTrue(buffer.isDirect());
+        assertArrayEquals(contents, toArray(buffer));
+    }
+
+    @Test
+    public void read_StreamLongerThanReported_AllContentsRead() throws IOException {
+        byte[] contents = makeContents(50000);
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream(contents)) {
+            @Override
+            public int available() {
+                return 0;
+            }
+        };
+
+        ByteBuffer buffer = ResourceBuffers.read(stream);
+
+        assertArrayEquals(contents, toArray(buffer));
+    }
+
+    @Test
+    public void read_StreamShorterThanMinimumRead_BufferTrimmedToContents() throws IOException {
+        byte[] contents = makeContents(100);
+
+        ByteBuffer buffer = ResourceBuffers.read(new ByteArrayInputStream(contents));
+
+        assertEquals(100, buffer.capacity());
+        assertArrayEquals(contents, toArray(buffer));
+    }
+
+    @Test
+    public void read_EmptyStream_EmptyBuffer() throws IOException {
+
+        ByteBuffer buffer = ResourceBuffers.read(new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void asStream_NullBuffer_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        ResourceBuffers.asStream(null);
+    }
+
+    @Test
+    public void asStream_Read_ContentsReadBufferUnchanged() throws IOException {
+        byte[] contents = makeContents(300);
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+
+        InputStream stream = ResourceBuffers.asStream(buffer);
+        byte[] read = new byte[300];
+        int readCount = 0;
+        while (readCount < read.length) {
+            readCount += stream.read(read, readCount, read.length - readCount);
+        }
+
+        assertArrayEquals(contents, read);
+        assertEquals(-1, stream.read());
+        assertEquals(0, buffer.position());
+    }
+
+    private byte[] makeContents(int length) {
+        byte[] contents = new byte[length];
+        for (int index = 0; index < length; index++) {
+            contents[index] = (byte) (index * 31);
+        }
+
+        return contents;
+    }
+
+    private File writeFile(byte[] contents) throws IOException {
+        File file = tempFolder.newFile("texture.png");
+        Files.write(file.toPath(), contents);
+        return file;
+    }
+
+    private byte[] toArray(ByteBuffer buffer) {
+        byte[] array = new byte[buffer.remaining()];
+        buffer.duplicate().get(array);
+        return array;
+    }
+
+}
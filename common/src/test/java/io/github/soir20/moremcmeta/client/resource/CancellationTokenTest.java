@@ -0,0 +1,120 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link CancellationToken}.
+ * @author soir20
+ */
+public class CancellationTokenTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void isCancelled_NewToken_NotCancelled() {
+        assertFalse(new CancellationToken().isCancelled());
+    }
+
+    @Test
+    public void isCancelled_TokenCancelled_Cancelled() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void isCancelled_TokenCompletedThenCancelled_NotCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.complete();
+        token.cancel();
+        assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void isCancelled_NeverTokenCancelled_NotCancelled() {
+        CancellationToken.NEVER.cancel();
+        assertFalse(CancellationToken.NEVER.isCancelled());
+    }
+
+    @Test
+    public void throwIfCancelled_NotCancelled_NoException() {
+        new CancellationToken().throwIfCancelled();
+    }
+
+    @Test
+    public void throwIfCancelled_Cancelled_CancellationException() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        expectedException.expect(CancellationException.class);
+        token.throwIfCancelled();
+    }
+
+    @Test
+    public void onCancel_NullAction_NullPointerException() {
+        CancellationToken token = new CancellationToken();
+        expectedException.expect(NullPointerException.class);
+        token.onCancel(null);
+    }
+
+    @Test
+    public void onCancel_TokenCancelledLater_ActionRunOnce() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger runs = new AtomicInteger();
+        token.onCancel(runs::incrementAndGet);
+
+        assertEquals(0, runs.get());
+        token.cancel();
+        token.cancel();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void onCancel_TokenAlreadyCancelled_ActionRunImmediately() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        AtomicInteger runs = new AtomicInteger();
+        token.onCancel(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void onCancel_TokenCompleted_ActionNeverRun() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger runs = new AtomicInteger();
+        token.onCancel(runs::incrementAndGet);
+        token.complete();
+        token.onCancel(runs::incrementAndGet);
+        token.cancel();
+
+        assertEquals(0, runs.get());
+    }
+
+}
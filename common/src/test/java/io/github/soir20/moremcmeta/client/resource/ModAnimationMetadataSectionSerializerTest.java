@@ -19,6 +19,7 @@ package io.github.soir20.moremcmeta.client.resource;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -106,4 +107,49 @@ public class ModAnimationMetadataSectionSerializerTest {
         assertFalse(section.isDaytimeSynced());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void fromJson_MissingSyncGroup_NoGroup() {
+        ModAnimationMetadataSectionSerializer serializer = new ModAnimationMetadataSectionSerializer();
+        ModAnimationMetadataSection section = serializer.fromJson(new JsonObject());
+        assertFalse(section.getSyncGroup().isPresent());
+    }
+
+    @Test
+    public void fromJson_HasSyncGroup_SameGroup() {
+        ModAnimationMetadataSectionSerializer serializer = new ModAnimationMetadataSectionSerializer();
+        JsonObject container = new JsonObject();
+        container.addProperty("syncGroup", "water");
+        ModAnimationMetadataSection section = serializer.fromJson(container);
+        assertEquals("water", section.getSyncGroup().orElse(null));
+    }
+
+    @Test
+    public void fromJson_SyncGroupAndDaytimeSync_BothRead() {
+        ModAnimationMetadataSectionSerializer serializer = new ModAnimationMetadataSectionSerializer();
+        JsonObject container = new JsonObject();
+        container.addProperty("daytimeSync", true);
+        container.addProperty("syncGroup", "water");
+        ModAnimationMetadataSection section = serializer.fromJson(container);
+        assertTrue(section.isDaytimeSynced());
+        assertEquals("water", section.getSyncGroup().orElse(null));
+    }
+
+    @Test
+    public void fromJson_EmptySyncGroup_IllegalArgException() {
+        ModAnimationMetadataSectionSerializer serializer = new ModAnimationMetadataSectionSerializer();
+        JsonObject container = new JsonObject();
+        container.addProperty("syncGroup", "");
+        expectedException.expect(IllegalArgumentException.class);
+        serializer.fromJson(container);
+    }
+
+    @Test
+    public void fromJson_SyncGroupIsArray_JsonParseException() {
+        ModAnimationMetadataSectionSerializer serializer = new ModAnimationMetadataSectionSerializer();
+        JsonObject container = new JsonObject();
+        container.add("syncGroup", new JsonArray());
+        expectedException.expect(JsonParseException.class);
+        serializer.fromJson(container);
+    }
+
+}
@@ -17,7 +17,9 @@
 
 package io.github.soir20.moremcmeta.client.resource;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import static org.junit.Assert.*;
 
@@ -26,6 +28,8 @@ import static org.junit.Assert.*;
  * @author soir20
  */
 public class ModAnimationMetadataSectionTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
 
     @Test
     public void getSynced_IsSynced_True() {
@@ -38,4 +42,29 @@ public class ModAnimationMetadataSectionTest {
         assertFalse(metadata.isDaytimeSynced());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void construct_NullSyncGroup_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ModAnimationMetadataSection(false, null);
+    }
+
+    @Test
+    public void construct_EmptySyncGroup_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new ModAnimationMetadataSection(false, "");
+    }
+
+    @Test
+    public void getSyncGroup_NoGroup_Empty() {
+        ModAnimationMetadataSection metadata = new ModAnimationMetadataSection(true);
+        assertFalse(metadata.getSyncGroup().isPresent());
+    }
+
+    @Test
+    public void getSyncGroup_HasGroup_SameGroup() {
+        ModAnimationMetadataSection metadata = new ModAnimationMetadataSection(false, "water");
+        assertEquals("water", metadata.getSyncGroup().orElse(null));
+        assertFalse(metadata.isDaytimeSynced());
+    }
+
+}
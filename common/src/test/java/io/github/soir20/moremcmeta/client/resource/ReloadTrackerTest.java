@@ -0,0 +1,77 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ReloadTracker}.
+ * @author soir20
+ */
+public class ReloadTrackerTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void getCurrent_NoReloadStarted_NeverCancelled() {
+        assertSame(CancellationToken.NEVER, new ReloadTracker().getCurrent());
+    }
+
+    @Test
+    public void startReload_FirstReload_CurrentIsNewToken() {
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken token = tracker.startReload();
+
+        assertSame(token, tracker.getCurrent());
+        assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void startReload_PreviousUnfinished_PreviousCancelled() {
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken first = tracker.startReload();
+        CancellationToken second = tracker.startReload();
+
+        assertTrue(first.isCancelled());
+        assertFalse(second.isCancelled());
+        assertSame(second, tracker.getCurrent());
+    }
+
+    @Test
+    public void startReload_PreviousFinished_PreviousNotCancelled() {
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken first = tracker.startReload();
+        tracker.finishReload(first);
+        tracker.startReload();
+
+        assertFalse(first.isCancelled());
+    }
+
+    @Test
+    public void finishReload_NullToken_NullPointerException() {
+        ReloadTracker tracker = new ReloadTracker();
+        expectedException.expect(NullPointerException.class);
+        tracker.finishReload(null);
+    }
+
+}
@@ -20,6 +20,7 @@ package io.github.soir20.moremcmeta.client.resource;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterators;
+import net.minecraft.client.resources.metadata.animation.AnimationMetadataSection;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.PackResources;
 import net.minecraft.server.packs.PackType;
@@ -62,6 +63,12 @@ public class SizeSwappingResourceManagerTest {
         new SizeSwappingResourceManager(new MockReloadableResourceManager(), null);
     }
 
+    @Test
+    public void construct_NullReloadTracker_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new SizeSwappingResourceManager(new MockReloadableResourceManager(), () -> {}, null);
+    }
+
     @Test
     public void addPackResources_NullPack_OriginalHasResources() {
         MockReloadableResourceManager original = new MockReloadableResourceManager();
@@ -213,6 +220,32 @@ public class SizeSwappingResourceManagerTest {
         assertFalse(resource instanceof SizeSwappingResource);
     }
 
+    @Test
+    public void getResource_NoPackHasModMetadata_PacksNotSearched() throws IOException {
+        ResourceLocation existingLocation = new ResourceLocation("existing-location.png");
+        MockReloadableResourceManager original = new MockReloadableResourceManager() {
+            @Override
+            public Resource getResource(ResourceLocation location) throws IOException {
+                if (location.equals(existingLocation)) {
+                    return new MockResourceManager.MockSimpleResource(existingLocation, "dummy");
+                }
+
+                throw new IOException("Not found");
+            }
+
+            @Override
+            public Stream<PackResources> listPacks() {
+                throw new AssertionError("Packs should not be searched");
+            }
+        };
+        original.add(new MockPackResources("dummy", ImmutableSet.of(existingLocation)));
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
+
+        Resource resource = wrapper.getResource(existingLocation);
+        assertEquals(existingLocation, resource.getLocation());
+        assertFalse(resource instanceof SizeSwappingResource);
+    }
+
     @Test
     public void getResource_FoundResourceModMetadataInDifferentPack_RegularResource() throws IOException {
         ResourceLocation existingLocation = new ResourceLocation("existing-location.png");
@@ -234,6 +267,7 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("other", ImmutableSet.of(existingMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         Resource resource = wrapper.getResource(existingLocation);
@@ -262,6 +296,7 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("dummy", ImmutableSet.of(existingMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         Resource resource = wrapper.getResource(existingLocation);
@@ -293,6 +328,7 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata, existingModMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("dummy", ImmutableSet.of(existingMetadata, existingModMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         Resource resource = wrapper.getResource(existingLocation);
@@ -300,6 +336,79 @@ public class SizeSwappingResourceManagerTest {
         assertTrue(resource instanceof SizeSwappingResource);
     }
 
+    @Test
+    public void getResource_ModMetadataNotRead_MetadataNotOpened() throws IOException {
+        ResourceLocation existingLocation = new ResourceLocation("existing-location.png");
+        ResourceLocation existingMetadata = new ResourceLocation("existing-location.png.moremcmeta");
+        MockReloadableResourceManager original = new MockReloadableResourceManager() {
+            @Override
+            public Resource getResource(ResourceLocation location) throws IOException {
+                if (location.equals(existingLocation)) {
+                    return new MockResourceManager.MockSimpleResource(existingLocation, "dummy");
+                }
+
+                throw new IOException("Not found");
+            }
+        };
+        MockPackResources pack = new MockPackResources("dummy", ImmutableSet.of(existingMetadata));
+        original.add(pack);
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
+
+        Resource resource = wrapper.getResource(existingLocation);
+
+        assertTrue(resource instanceof SizeSwappingResource);
+        assertEquals(0, pack.getOpenedCount());
+    }
+
+    @Test
+    public void getResource_ModMetadataReadFromTwoResources_MetadataOpenedOnce() throws IOException {
+        ResourceLocation existingLocation = new ResourceLocation("existing-location.png");
+        ResourceLocation existingMetadata = new ResourceLocation("existing-location.png.moremcmeta");
+        MockReloadableResourceManager original = new MockReloadableResourceManager() {
+            @Override
+            public Resource getResource(ResourceLocation location) throws IOException {
+                if (location.equals(existingLocation)) {
+                    return new MockResourceManager.MockSimpleResource(existingLocation, "dummy");
+                }
+
+                throw new IOException("Not found");
+            }
+        };
+        MockPackResources pack = new MockPackResources("dummy", ImmutableSet.of(existingMetadata));
+        original.add(pack);
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
+
+        wrapper.getResource(existingLocation).getMetadata(AnimationMetadataSection.SERIALIZER);
+        wrapper.getResource(existingLocation).getMetadata(AnimationMetadataSection.SERIALIZER);
+
+        assertEquals(1, pack.getOpenedCount());
+    }
+
+    @Test
+    public void getResource_PackAddedAfterRead_MetadataOpenedAgain() throws IOException {
+        ResourceLocation existingLocation = new ResourceLocation("existing-location.png");
+        ResourceLocation existingMetadata = new ResourceLocation("existing-location.png.moremcmeta");
+        MockReloadableResourceManager original = new MockReloadableResourceManager() {
+            @Override
+            public Resource getResource(ResourceLocation location) throws IOException {
+                if (location.equals(existingLocation)) {
+                    return new MockResourceManager.MockSimpleResource(existingLocation, "dummy");
+                }
+
+                throw new IOException("Not found");
+            }
+        };
+        MockPackResources pack = new MockPackResources("dummy", ImmutableSet.of(existingMetadata));
+        original.add(pack);
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
+
+        wrapper.getResource(existingLocation).getMetadata(AnimationMetadataSection.SERIALIZER);
+        wrapper.add(new MockPackResources("other"));
+        wrapper.getResource(existingLocation).getMetadata(AnimationMetadataSection.SERIALIZER);
+
+        assertEquals(2, pack.getOpenedCount());
+    }
+
     @Test
     public void hasResource_NullLocation_NullPointerException() {
         MockReloadableResourceManager original = new MockReloadableResourceManager();
@@ -519,6 +628,9 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("other", ImmutableSet.of(existingMetadata)));
+        original.add(new MockPackResources("other2", ImmutableSet.of(existingMetadata)));
+        original.add(new MockPackResources("other3", ImmutableSet.of(existingMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         List<Resource> resources = wrapper.getResources(existingLocation);
@@ -549,6 +661,9 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("dummy", ImmutableSet.of(existingMetadata)));
+        original.add(new MockPackResources("dummy2", ImmutableSet.of(existingMetadata)));
+        original.add(new MockPackResources("dummy3", ImmutableSet.of(existingMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         List<Resource> resources = wrapper.getResources(existingLocation);
@@ -580,6 +695,9 @@ public class SizeSwappingResourceManagerTest {
                 return ImmutableSet.of(existingLocation, existingMetadata, existingModMetadata).contains(location);
             }
         };
+        original.add(new MockPackResources("dummy", ImmutableSet.of(existingMetadata, existingModMetadata)));
+        original.add(new MockPackResources("dummy2", ImmutableSet.of(existingMetadata, existingModMetadata)));
+        original.add(new MockPackResources("dummy3", ImmutableSet.of(existingMetadata, existingModMetadata)));
         SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {});
 
         List<Resource> resources = wrapper.getResources(existingLocation);
@@ -842,6 +960,28 @@ public class SizeSwappingResourceManagerTest {
         wrapper.createFullReload((cmd) -> {}, (cmd) -> {}, CompletableFuture.completedFuture(Unit.INSTANCE), ImmutableList.of());
     }
 
+    @Test
+    public void reload_WithTracker_NewReloadStarted() {
+        MockReloadableResourceManager original = new MockReloadableResourceManager();
+        ReloadTracker tracker = new ReloadTracker();
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {}, tracker);
+        wrapper.createFullReload((cmd) -> {}, (cmd) -> {}, CompletableFuture.completedFuture(Unit.INSTANCE), ImmutableList.of());
+
+        assertNotSame(CancellationToken.NEVER, tracker.getCurrent());
+    }
+
+    @Test
+    public void reload_PreviousReloadUnfinished_PreviousReloadCancelled() {
+        MockReloadableResourceManager original = new MockReloadableResourceManager();
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken unfinished = tracker.startReload();
+
+        SizeSwappingResourceManager wrapper = new SizeSwappingResourceManager(original, () -> {}, tracker);
+        wrapper.createFullReload((cmd) -> {}, (cmd) -> {}, CompletableFuture.completedFuture(Unit.INSTANCE), ImmutableList.of());
+
+        assertTrue(unfinished.isCancelled());
+    }
+
     /**
      * Provides access to the results of void methods in {@link SimpleReloadableResourceManager} to
      * verify that the manager wrapper works correctly.
@@ -876,9 +1016,20 @@ public class SizeSwappingResourceManagerTest {
     private static class MockPackResources implements PackResources {
         private static final InputStream EMPTY_STREAM = new ByteArrayInputStream("{ }".getBytes());
         private final String NAME;
+        private final Set<ResourceLocation> RESOURCES;
+        private int opened;
 
         public MockPackResources(String name) {
+            this(name, ImmutableSet.of());
+        }
+
+        public MockPackResources(String name, Set<ResourceLocation> resources) {
             NAME = name;
+            RESOURCES = resources;
+        }
+
+        public int getOpenedCount() {
+            return opened;
         }
 
         @Override
@@ -888,7 +1039,8 @@ public class SizeSwappingResourceManagerTest {
 
         @Override
         public InputStream getResource(PackType packType, ResourceLocation resourceLocation) {
-            return EMPTY_STREAM;
+            opened++;
+            return new ByteArrayInputStream("{ \"animation\": { \"width\": 10, \"height\": 10 } }".getBytes());
         }
 
         @Override
@@ -898,12 +1050,13 @@ public class SizeSwappingResourceManagerTest {
 
         @Override
         public boolean hasResource(PackType packType, ResourceLocation resourceLocation) {
-            return false;
+            return RESOURCES.contains(resourceLocation);
         }
 
         @Override
         public Set<String> getNamespaces(PackType packType) {
-            return ImmutableSet.of(NAME);
+            return Stream.concat(Stream.of(NAME), RESOURCES.stream().map(ResourceLocation::getNamespace))
+                    .collect(Collectors.toSet());
         }
 
         @Override
@@ -19,6 +19,7 @@ package io.github.soir20.moremcmeta.client.resource;
 
 import com.google.gson.JsonObject;
 import net.minecraft.client.resources.metadata.animation.AnimationMetadataSection;
+import net.minecraft.client.resources.metadata.texture.TextureMetadataSection;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.metadata.MetadataSectionSerializer;
 import net.minecraft.server.packs.resources.Resource;
@@ -55,6 +56,12 @@ public class SizeSwappingResourceTest {
         new SizeSwappingResource(null, EMPTY_STREAM);
     }
 
+    @Test
+    public void withMetadataSource_NullOriginal_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        SizeSwappingResource.withMetadataSource(null, new CountingMetadataSource());
+    }
+
     @Test
     public void getLocation_OriginalHasName_SameAsOriginal() {
         Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
@@ -507,4 +514,102 @@ public class SizeSwappingResourceTest {
         assertNull(wrapper.getMetadata(AnimationMetadataSection.SERIALIZER));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getMetadata_IncorrectMetadataValuesReadTwice_NullMetadata() {
+        Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
+                EMPTY_STREAM,  new ByteArrayInputStream("{ \"texture\": { \"blur\": true } }".getBytes()));
+        SizeSwappingResource wrapper = new SizeSwappingResource(original,
+                new ByteArrayInputStream("{ \"animation\": { \"frametime\": -1 } }".getBytes()));
+
+        wrapper.getMetadata(AnimationMetadataSection.SERIALIZER);
+        assertNull(wrapper.getMetadata(AnimationMetadataSection.SERIALIZER));
+    }
+
+    @Test
+    public void getMetadata_DifferentSerializer_SourceNotRead() {
+        Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
+                EMPTY_STREAM,  new ByteArrayInputStream("{ \"texture\": { \"blur\": true } }".getBytes()));
+        CountingMetadataSource source = new CountingMetadataSource();
+        SizeSwappingResource wrapper = SizeSwappingResource.withMetadataSource(original, source);
+
+        wrapper.getMetadata(TextureMetadataSection.SERIALIZER);
+
+        assertEquals(0, source.getReads());
+    }
+
+    @Test
+    public void getMetadata_OriginalHasAnimMetadata_SourceNotRead() {
+        Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
+                EMPTY_STREAM,  new ByteArrayInputStream("{ \"animation\": { \"frametime\": 5 } }".getBytes()));
+        CountingMetadataSource source = new CountingMetadataSource();
+        SizeSwappingResource wrapper = SizeSwappingResource.withMetadataSource(original, source);
+
+        wrapper.getMetadata(AnimationMetadataSection.SERIALIZER);
+
+        assertEquals(0, source.getReads());
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    public void getMetadata_ReadTwiceFromSource_SourceReadOnce() {
+        Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
+                EMPTY_STREAM,  new ByteArrayInputStream("{ \"texture\": { \"blur\": true } }".getBytes()));
+        CountingMetadataSource source = new CountingMetadataSource();
+        SizeSwappingResource wrapper = SizeSwappingResource.withMetadataSource(original, source);
+
+        wrapper.getMetadata(AnimationMetadataSection.SERIALIZER);
+        AnimationMetadataSection metadata = wrapper.getMetadata(AnimationMetadataSection.SERIALIZER);
+
+        assertEquals(1, source.getReads());
+        assertEquals(100, metadata.getFrameWidth(-1));
+        assertEquals(200, metadata.getFrameHeight(-1));
+    }
+
+    @Test
+    public void close_HasSource_SourceClosed() throws IOException {
+        Resource original = new SimpleResource("dummy", new ResourceLocation("dummy-location"),
+                EMPTY_STREAM,  null);
+        CountingMetadataSource source = new CountingMetadataSource();
+        SizeSwappingResource wrapper = SizeSwappingResource.withMetadataSource(original, source);
+
+        wrapper.close();
+
+        assertTrue(source.isClosed());
+    }
+
+    /**
+     * Counts how many times animation metadata is read.
+     * @author soir20
+     */
+    private static class CountingMetadataSource implements IMetadataSource {
+        private int reads;
+        private boolean isClosed;
+
+        @Override
+        public JsonObject read() {
+            reads++;
+
+            JsonObject animation = new JsonObject();
+            animation.addProperty("width", 100);
+            animation.addProperty("height", 200);
+
+            JsonObject metadata = new JsonObject();
+            metadata.add("animation", animation);
+            return metadata;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+
+        public int getReads() {
+            return reads;
+        }
+
+        public boolean isClosed() {
+            return isClosed;
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.resource;
+
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link StageTimings}.
+ * @author soir20
+ */
+public class StageTimingsTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void record_NullStage_NullPointerException() {
+        StageTimings timings = new StageTimings();
+        expectedException.expect(NullPointerException.class);
+        timings.record(null, 10);
+    }
+
+    @Test
+    public void record_NegativeTime_IllegalArgException() {
+        StageTimings timings = new StageTimings();
+        expectedException.expect(IllegalArgumentException.class);
+        timings.record("decode", -1);
+    }
+
+    @Test
+    public void record_SameStageMultipleTimes_TimesAdded() {
+        StageTimings timings = new StageTimings();
+        timings.record("decode", 10);
+        timings.record("decode", 15);
+
+        assertEquals(25, timings.getTotalNanos("decode"));
+        assertEquals(2, timings.getCount("decode"));
+    }
+
+    @Test
+    public void record_DifferentStages_TimesSeparate() {
+        StageTimings timings = new StageTimings();
+        timings.record("decode", 10);
+        timings.record("mipmap", 15);
+
+        assertEquals(10, timings.getTotalNanos("decode"));
+        assertEquals(15, timings.getTotalNanos("mipmap"));
+        assertEquals(2, timings.getTotals().size());
+    }
+
+    @Test
+    public void record_ManyThreads_AllTimesAdded() {
+        StageTimings timings = new StageTimings();
+        IntStream.range(0, 1000).parallel().forEach((index) -> timings.record("decode", 2));
+
+        assertEquals(2000, timings.getTotalNanos("decode"));
+        assertEquals(1000, timings.getCount("decode"));
+    }
+
+    @Test
+    public void getTotalNanos_StageNotRecorded_Zero() {
+        StageTimings timings = new StageTimings();
+        assertEquals(0, timings.getTotalNanos("decode"));
+        assertEquals(0, timings.getCount("decode"));
+    }
+
+    @Test
+    public void time_NullAction_NullPointerException() {
+        StageTimings timings = new StageTimings();
+        expectedException.expect(NullPointerException.class);
+        timings.time("decode", null);
+    }
+
+    @Test
+    public void time_ActionReturns_ResultReturnedAndRecorded() {
+        StageTimings timings = new StageTimings();
+        int result = timings.time("decode", () -> 5);
+
+        assertEquals(5, result);
+        assertEquals(1, timings.getCount("decode"));
+    }
+
+    @Test
+    public void time_ActionThrows_StillRecorded() {
+        StageTimings timings = new StageTimings();
+
+        try {
+            timings.time("decode", () -> {
+                throw new IllegalStateException("dummy");
+            });
+        } catch (IllegalStateException err) {
+            assertEquals(1, timings.getCount("decode"));
+            return;
+        }
+
+        fail("Exception was not thrown");
+    }
+
+    @Test
+    public void logSummary_NullLogger_NullPointerException() {
+        StageTimings timings = new StageTimings();
+        expectedException.expect(NullPointerException.class);
+        timings.logSummary(null);
+    }
+
+    @Test
+    public void getSummary_NoStages_Empty() {
+        StageTimings timings = new StageTimings();
+        assertEquals("", timings.getSummary());
+    }
+
+    @Test
+    public void getSummary_StagesRecorded_SlowestFirst() {
+        StageTimings timings = new StageTimings();
+        timings.record("decode", 1000000);
+        timings.record("mipmap", 3000000);
+        timings.record("decode", 1000000);
+
+        String summary = timings.getSummary();
+        assertTrue(summary.indexOf("mipmap") < summary.indexOf("decode"));
+        assertTrue(summary.contains("(2)"));
+        assertTrue(summary.contains("(1)"));
+    }
+
+    @Test
+    public void logSummary_StagesRecorded_TimingsReset() {
+        StageTimings timings = new StageTimings();
+        timings.record("decode", 10);
+        timings.logSummary(LogManager.getLogger());
+
+        assertEquals(0, timings.getTotalNanos("decode"));
+        assertEquals("", timings.getSummary());
+    }
+
+    @Test
+    public void construct_NullDescription_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new StageTimings(null);
+    }
+
+    @Test
+    public void record_NoneTimings_NothingKept() {
+        StageTimings.NONE.record("decode", 10);
+
+        assertEquals(0, StageTimings.NONE.getTotalNanos("decode"));
+        assertEquals(0, StageTimings.NONE.getCount("decode"));
+    }
+
+    @Test
+    public void time_NoneTimings_ResultReturned() {
+        int result = StageTimings.NONE.time("decode", () -> 5);
+
+        assertEquals(5, result);
+        assertEquals("", StageTimings.NONE.getSummary());
+    }
+
+    @Test
+    public void start_NullStage_NullPointerException() {
+        StageTimings timings = new StageTimings();
+        expectedException.expect(NullPointerException.class);
+        timings.start(null);
+    }
+
+    @Test
+    public void start_TimerClosed_StageRecorded() {
+        StageTimings timings = new StageTimings();
+        timings.start("decode").close();
+
+        assertEquals(1, timings.getCount("decode"));
+    }
+
+    @Test
+    public void start_TimerClosedTwice_StageRecordedOnce() {
+        StageTimings timings = new StageTimings();
+        StageTimings.Timer timer = timings.start("decode");
+        timer.close();
+        timer.close();
+
+        assertEquals(1, timings.getCount("decode"));
+    }
+
+    @Test
+    public void record_InsideTimedStage_ExcludedFromOuterStage() {
+        StageTimings timings = new StageTimings();
+        timings.time("finish", () -> {
+            timings.record("buildTexture", 1000000000L);
+            return null;
+        });
+
+        assertEquals(1000000000L, timings.getTotalNanos("buildTexture"));
+        assertTrue(timings.getTotalNanos("finish") < 1000000000L);
+    }
+
+    @Test
+    public void time_InsideTimedStage_ExcludedFromOuterStage() {
+        StageTimings timings = new StageTimings();
+        timings.time("finish", () -> timings.time("buildTexture", () -> {
+            sleep(50);
+            return null;
+        }));
+
+        long nestedNanos = timings.getTotalNanos("buildTexture");
+        assertTrue(nestedNanos >= 50000000L);
+        assertTrue(timings.getTotalNanos("finish") < nestedNanos);
+    }
+
+    @Test
+    public void time_AfterNestedStage_LaterStagesNotNested() {
+        StageTimings timings = new StageTimings();
+        timings.time("finish", () -> timings.time("buildTexture", () -> null));
+        timings.time("findSprite", () -> {
+            sleep(20);
+            return null;
+        });
+
+        assertTrue(timings.getTotalNanos("findSprite") >= 20000000L);
+        assertTrue(timings.getTotalNanos("finish") < 20000000L);
+    }
+
+    @Test
+    public void time_OtherThreadRecords_NotExcludedFromStage() {
+        StageTimings timings = new StageTimings();
+        timings.time("finish", () -> {
+            Thread other = new Thread(() -> timings.record("decode", 1000000000L));
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException err) {
+                throw new IllegalStateException(err);
+            }
+
+            sleep(20);
+            return null;
+        });
+
+        assertTrue(timings.getTotalNanos("finish") >= 20000000L);
+    }
+
+    /**
+     * Waits for a length of time.
+     * @param millis        milliseconds to wait for
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+}
@@ -19,22 +19,33 @@ package io.github.soir20.moremcmeta.client.resource;
 
 import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonParseException;
-import io.github.soir20.moremcmeta.client.texture.MockManager;
+import io.github.soir20.moremcmeta.client.io.ITextureReader;
+import net.minecraft.ResourceLocationException;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.metadata.MetadataSectionSerializer;
 import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.profiling.InactiveProfiler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -68,63 +79,249 @@ public class TextureLoaderTest {
         new TextureLoader<>((texStream, metadataStream) -> 1, null);
     }
 
+    @Test
+    public void buildLoader_TextureFactoryNull_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TextureLoader.Builder<>(null, LOGGER);
+    }
+
+    @Test
+    public void buildLoader_LoggerNull_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TextureLoader.Builder<>((texStream, metadataStream) -> 1, null);
+    }
+
+    @Test
+    public void buildLoader_TimingsNull_NullPointerException() {
+        TextureLoader.Builder<Integer> builder = new TextureLoader.Builder<>((texStream, metadataStream) -> 1,
+                LOGGER);
+        expectedException.expect(NullPointerException.class);
+        builder.setTimings(null);
+    }
+
+    @Test
+    public void buildLoader_ReloadTrackerNull_NullPointerException() {
+        TextureLoader.Builder<Integer> builder = new TextureLoader.Builder<>((texStream, metadataStream) -> 1,
+                LOGGER);
+        expectedException.expect(NullPointerException.class);
+        builder.setReloadTracker(null);
+    }
+
     @Test
     public void load_ResourceManagerNull_NullPointerException() {
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
         expectedException.expect(NullPointerException.class);
-        listener.load(null, "textures");
+        listener.load(null, ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
     }
 
     @Test
-    public void load_EmptyPath_IllegalArgException() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
+    public void load_NullPaths_NullPointerException() {
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
+
+        expectedException.expect(NullPointerException.class);
+        listener.load(makePackManager(), null, InactiveProfiler.INSTANCE);
+    }
 
+    @Test
+    public void load_NullPath_NullPointerException() {
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
+
+        expectedException.expect(NullPointerException.class);
+        listener.load(makePackManager(), Arrays.asList("textures", null), InactiveProfiler.INSTANCE);
+    }
+
+    @Test
+    public void load_ProfilerNull_NullPointerException() {
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
+
+        expectedException.expect(NullPointerException.class);
+        listener.load(makePackManager(), ImmutableList.of("textures"), null);
+    }
+
+    @Test
+    public void load_EmptyPath_IllegalArgException() {
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
         expectedException.expect(IllegalArgumentException.class);
-        listener.load(mockResourceManager, "");
+        listener.load(makePackManager(), ImmutableList.of(""), InactiveProfiler.INSTANCE);
     }
 
     @Test
     public void load_SlashOnlyPath_IllegalArgException() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
         expectedException.expect(IllegalArgumentException.class);
-        listener.load(mockResourceManager, "/");
+        listener.load(makePackManager(), ImmutableList.of("/"), InactiveProfiler.INSTANCE);
     }
 
     @Test
     public void load_PathStartsWithSlash_IllegalArgException() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
+        expectedException.expect(IllegalArgumentException.class);
+        listener.load(makePackManager(), ImmutableList.of("/textures"), InactiveProfiler.INSTANCE);
+    }
+
+    @Test
+    public void load_LaterPathStartsWithSlash_IllegalArgException() {
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
         expectedException.expect(IllegalArgumentException.class);
-        listener.load(mockResourceManager, "/textures");
+        listener.load(makePackManager(), ImmutableList.of("textures", "/optifine"), InactiveProfiler.INSTANCE);
     }
 
     @Test
-    public void load_ValidLocations_LoadsAllTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
+    public void load_ValidLocationsWithProfiler_StagesTimed() {
+        StageTimings timings = new StageTimings();
+        TextureLoader<Integer> listener = new TextureLoader.Builder<Integer>((texStream, metadataStream) -> 1, LOGGER)
+                .setTimings(timings).build();
+
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertEquals(3, locations.size());
+        assertEquals(1, timings.getCount("indexPacks"));
+        assertEquals(3, timings.getCount("readTexture"));
+    }
+
+    @Test
+    public void load_ReaderTimesStages_StagesNotCountedInReadTexture() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta");
+        StageTimings timings = new StageTimings();
+        TextureLoader<Integer> listener = new TextureLoader.Builder<Integer>((texStream, metadataStream) -> {
+            timings.record("decode", 1000000000L);
+            return 1;
+        }, LOGGER).setTimings(timings).build();
+
+        listener.load(makePackManager(pack), ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertEquals(1, timings.getCount("readTexture"));
+        assertTrue(timings.getTotalNanos("readTexture") < 1000000000L);
+    }
+
+    @Test
+    public void load_ValidLocations_ReaderGivenTextureLocations() {
+        TextureLoader<ResourceLocation> listener = new TextureLoader<>(new ITextureReader<ResourceLocation>() {
+            @Override
+            public ResourceLocation read(InputStream textureStream, InputStream metadataStream) {
+                throw new UnsupportedOperationException("Location should be given to reader");
+            }
+
+            @Override
+            public ResourceLocation read(ResourceLocation location, InputStream textureStream,
+                                         InputStream metadataStream, CancellationToken token) {
+                return location;
+            }
+        }, LOGGER);
+
+        Map<ResourceLocation, ResourceLocation> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertEquals(3, locations.size());
+        locations.forEach((location, readLocation) -> assertEquals(location, readLocation));
+    }
+
+    @Test
+    public void load_ReloadAlreadyCancelled_NoTexturesRead() {
+        ReloadTracker tracker = new ReloadTracker();
+        tracker.startReload().cancel();
+
+        AtomicInteger reads = new AtomicInteger();
+        TextureLoader<Integer> listener = new TextureLoader.Builder<Integer>(
+                (texStream, metadataStream) -> reads.incrementAndGet(), LOGGER
+        ).setReloadTracker(tracker).build();
+
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertTrue(locations.isEmpty());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    public void load_ReloadCancelledWhileReading_NoTexturesReturned() {
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken token = tracker.startReload();
+
+        TextureLoader<Integer> listener = new TextureLoader.Builder<Integer>((texStream, metadataStream) -> {
+            token.cancel();
+            return 1;
+        }, LOGGER).setReloadTracker(tracker).build();
+
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertTrue(locations.isEmpty());
+    }
+
+    @Test
+    public void load_ReloadCancelledWhileReading_ReadTexturesDiscarded() {
+        ReloadTracker tracker = new ReloadTracker();
+        CancellationToken token = tracker.startReload();
+        AtomicInteger reads = new AtomicInteger();
+        Set<Integer> discarded = ConcurrentHashMap.newKeySet();
+
+        TextureLoader<Integer> listener = new TextureLoader.Builder<>(new ITextureReader<Integer>() {
+            @Override
+            public Integer read(InputStream textureStream, InputStream metadataStream) {
+                int texture = reads.incrementAndGet();
+                token.cancel();
+                return texture;
+            }
+
+            @Override
+            public void discard(Integer texture) {
+                assertTrue(discarded.add(texture));
+            }
+        }, LOGGER).setReloadTracker(tracker).build();
+
+        listener.load(makePackManager(makeThreeTexturePack()), ImmutableList.of("textures"),
+                InactiveProfiler.INSTANCE);
+
+        assertEquals(reads.get(), discarded.size());
+        assertTrue(discarded.size() > 0);
+    }
+
+    @Test
+    public void load_ReloadNotCancelled_NoTexturesDiscarded() {
+        AtomicInteger discards = new AtomicInteger();
+        TextureLoader<Integer> listener = new TextureLoader<>(new ITextureReader<Integer>() {
+            @Override
+            public Integer read(InputStream textureStream, InputStream metadataStream) {
+                return 1;
+            }
+
+            @Override
+            public void discard(Integer texture) {
+                discards.incrementAndGet();
+            }
+        }, LOGGER);
+
+        listener.load(makePackManager(makeThreeTexturePack()), ImmutableList.of("textures"),
+                InactiveProfiler.INSTANCE);
+
+        assertEquals(0, discards.get());
+    }
+
+    @Test
+    public void load_ReaderCancelled_TextureSkipped() {
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> {
+            throw new CancellationException();
+        }, LOGGER);
+
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertTrue(locations.isEmpty());
+    }
 
+    @Test
+    public void load_ValidLocations_LoadsAllTextures() {
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
         assertEquals(3, locations.size());
         assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
@@ -134,14 +331,13 @@ public class TextureLoaderTest {
 
     @Test
     public void load_DifferentPath_LoadsAllTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
+        MockPackResources pack = new MockPackResources("pack", "other/bat.png", "other/bat.png.moremcmeta",
+                "other/creeper.png", "other/creeper.png.moremcmeta", "other/zombie.png",
+                "other/zombie.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "other");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("other"), InactiveProfiler.INSTANCE);
 
         assertEquals(3, locations.size());
         assertTrue(locations.containsKey(new ResourceLocation("other/bat.png")));
@@ -150,75 +346,72 @@ public class TextureLoaderTest {
     }
 
     @Test
-    public void load_ValidLocationsDuplicates_LoadsNoDuplicates() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "bat.png.moremcmeta",
-                        "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
+    public void load_TexturesInSeveralPaths_AllPathsLoaded() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "optifine/cat.png", "optifine/cat.png.moremcmeta", "other/dog.png", "other/dog.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(pack),
+                ImmutableList.of("textures", "optifine"), InactiveProfiler.INSTANCE);
 
-        assertEquals(3, locations.size());
-        assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
-        assertTrue(locations.containsKey(new ResourceLocation("textures/creeper.png")));
-        assertTrue(locations.containsKey(new ResourceLocation("textures/zombie.png")));
+        assertEquals(2, textures.size());
+        assertTrue(textures.containsKey(new ResourceLocation("textures/bat.png")));
+        assertTrue(textures.containsKey(new ResourceLocation("optifine/cat.png")));
     }
 
     @Test
-    public void load_FilteredLocations_LoadsFilteredTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper", "zombie.jpg", "ocelot.png"),
-                ImmutableList.of(), false
+    public void load_DuplicatePaths_LoadsNoDuplicates() {
+        AtomicInteger reads = new AtomicInteger();
+        TextureLoader<Integer> listener = new TextureLoader<>(
+                (texStream, metadataStream) -> reads.incrementAndGet(), LOGGER
         );
 
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures", "textures"), InactiveProfiler.INSTANCE);
+
+        assertEquals(3, locations.size());
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    public void load_FilteredLocations_LoadsFilteredTextures() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "textures/creeper", "textures/zombie.jpg", "textures/zombie.jpg.moremcmeta", "textures/ocelot.png");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
         assertEquals(1, locations.size());
         assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
     }
 
     @Test
-    public void load_MissingTextureLocations_LoadsNoMissingTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of("creeper.png", "zombie.png"), false
-        );
-
+    public void load_TextureWithoutMetadata_NotLoaded() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/cat.png",
+                "textures/cat.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
-        assertEquals(1, locations.size());
-        assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
+        assertEquals(1, textures.size());
+        assertTrue(textures.containsKey(new ResourceLocation("textures/cat.png")));
     }
 
     @Test
-    public void load_MissingMetadataLocations_LoadsNoMissingTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of("creeper.png.moremcmeta", "zombie.png.moremcmeta"), false
-        );
-
+    public void load_MetadataWithoutTexture_NotLoaded() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
-        assertEquals(1, locations.size());
-        assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
+        assertTrue(textures.isEmpty());
     }
 
     @Test
     public void load_InvalidJson_LoadsValidTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
         AtomicInteger texturesLoaded = new AtomicInteger();
         TextureLoader<Integer> listener = new TextureLoader<>(
                 (texStream, metadataStream) -> {
@@ -230,17 +423,13 @@ public class TextureLoaderTest {
                 LOGGER
         );
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
         assertEquals(2, locations.size());
     }
 
     @Test
     public void load_InvalidMetadata_LoadsValidTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
         AtomicInteger texturesLoaded = new AtomicInteger();
         TextureLoader<Integer> listener = new TextureLoader<>(
                 (texStream, metadataStream) -> {
@@ -252,18 +441,13 @@ public class TextureLoaderTest {
                 LOGGER
         );
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(makeThreeTexturePack()),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
         assertEquals(2, locations.size());
     }
 
     @Test
     public void load_UnknownException_ExceptionNotCaught() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
-
         AtomicInteger texturesLoaded = new AtomicInteger();
         TextureLoader<Integer> listener = new TextureLoader<>(
                 (texStream, metadataStream) -> {
@@ -276,85 +460,59 @@ public class TextureLoaderTest {
         );
 
         expectedException.expect(RuntimeException.class);
-        listener.load(mockResourceManager, "textures");
+        listener.load(makePackManager(makeThreeTexturePack()), ImmutableList.of("textures"),
+                InactiveProfiler.INSTANCE);
     }
 
     @Test
-    public void load_ResourceManagerThrowsUnknownException_ExceptionNotCaught() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        ) {
+    public void load_PackListingThrowsUnknownException_ExceptionNotCaught() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta") {
             @Override
-            public Collection<ResourceLocation> listResources(String pathIn, Predicate<String> filter) {
+            public Collection<ResourceLocation> getResources(PackType packType, String namespace, String path,
+                                                             int maxDepth, Predicate<String> filter) {
                 throw new RuntimeException();
             }
         };
-
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-
         expectedException.expect(RuntimeException.class);
-        listener.load(mockResourceManager, "textures");
+        listener.load(makePackManager(pack), ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
     }
 
     @Test
-    public void load_ResourceManagerReturnsNullTexture_NullPointerException() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        ) {
+    public void load_PackThrowsIOException_LoadsValidTextures() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "textures/creeper.png", "textures/creeper.png.moremcmeta") {
             @Override
-            public Resource getResource(ResourceLocation resourceLocationIn) throws IOException {
-                if (resourceLocationIn.getPath().endsWith(".moremcmeta")) {
-                    return super.getResource(resourceLocationIn);
+            public InputStream getResource(PackType packType, ResourceLocation location) throws IOException {
+                if (location.getPath().contains("creeper")) {
+                    throw new IOException("Dummy exception");
                 }
 
-                return null;
+                return super.getResource(packType, location);
             }
         };
-
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        expectedException.expect(NullPointerException.class);
-        listener.load(mockResourceManager, "textures");
-    }
-
-    @Test
-    public void load_ResourceManagerReturnsNullMetadata_NullPointerException() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        ) {
-            @Override
-            public Resource getResource(ResourceLocation resourceLocationIn) throws IOException {
-                if (resourceLocationIn.getPath().endsWith(".moremcmeta")) {
-                    return null;
-                }
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
-                return super.getResource(resourceLocationIn);
-            }
-        };
-
-        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
-
-        expectedException.expect(NullPointerException.class);
-        listener.load(mockResourceManager, "textures");
+        assertEquals(1, locations.size());
+        assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
     }
 
     @Test
     public void load_ClosureIOException_LoadsValidTextures() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        ) {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "textures/creeper.png", "textures/creeper.png.moremcmeta", "textures/zombie.png",
+                "textures/zombie.png.moremcmeta") {
             @Override
-            public Resource getResource(ResourceLocation resourceLocationIn) throws IOException {
-                if (resourceLocationIn.getPath().contains("bat")) {
-                    return super.getResource(resourceLocationIn);
+            public InputStream getResource(PackType packType, ResourceLocation location) throws IOException {
+                if (location.getPath().contains("bat")) {
+                    return super.getResource(packType, location);
                 }
 
-                return new MockSimpleResource(resourceLocationIn, MockResourceManager.DEFAULT_PACK_NAME) {
+                return new ByteArrayInputStream(new byte[0]) {
                     @Override
                     public void close() throws IOException {
                         throw new IOException("Dummy exception");
@@ -362,10 +520,10 @@ public class TextureLoaderTest {
                 };
             }
         };
-
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
         assertEquals(1, locations.size());
         assertTrue(locations.containsKey(new ResourceLocation("textures/bat.png")));
@@ -373,17 +531,15 @@ public class TextureLoaderTest {
 
     @Test
     public void load_ClosureUnknownException_ExceptionNotCaught() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        ) {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "textures/creeper.png", "textures/creeper.png.moremcmeta") {
             @Override
-            public Resource getResource(ResourceLocation resourceLocationIn) throws IOException {
-                if (resourceLocationIn.getPath().contains("bat")) {
-                    return super.getResource(resourceLocationIn);
+            public InputStream getResource(PackType packType, ResourceLocation location) throws IOException {
+                if (location.getPath().contains("bat")) {
+                    return super.getResource(packType, location);
                 }
 
-                return new MockSimpleResource(resourceLocationIn, MockResourceManager.DEFAULT_PACK_NAME) {
+                return new ByteArrayInputStream(new byte[0]) {
                     @Override
                     public void close() {
                         throw new RuntimeException("Dummy exception");
@@ -391,56 +547,81 @@ public class TextureLoaderTest {
                 };
             }
         };
-
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
         expectedException.expect(RuntimeException.class);
-        listener.load(mockResourceManager, "textures");
+        listener.load(makePackManager(pack), ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
     }
 
     @Test
-    public void load_TextureAndMetadataInDifferentPacks_SkipsSeparatedTextures() {
-        MockManager<Integer> mockManager = new MockManager<>();
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "creeper.png.moremcmeta", "zombie.png.moremcmeta"),
-                ImmutableList.of(), true
-        );
+    public void load_MetadataInLowerPackThanTexture_NotLoaded() {
+        MockPackResources lowerPack = new MockPackResources("lower", "textures/bat.png",
+                "textures/bat.png.moremcmeta");
+        MockPackResources upperPack = new MockPackResources("upper", "textures/bat.png");
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(lowerPack, upperPack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
+
+        assertTrue(textures.isEmpty());
+        assertEquals(0, lowerPack.getOpenedCount());
+        assertEquals(0, upperPack.getOpenedCount());
+    }
+
+    @Test
+    public void load_MetadataInHigherPackThanTexture_NotLoaded() {
+        MockPackResources lowerPack = new MockPackResources("lower", "textures/bat.png");
+        MockPackResources upperPack = new MockPackResources("upper", "textures/bat.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(lowerPack, upperPack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
-        Set<ResourceLocation> locations = mockManager.getLocations();
-        assertTrue(locations.isEmpty());
+        assertTrue(textures.isEmpty());
     }
 
     @Test
-    public void load_ResourceLocationException_NothingLoaded() {
-        MockManager<Integer> mockManager = new MockManager<>();
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("bat.png.moremcmeta", "bad location.png.moremcmeta", "fol der/ocelot.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
+    public void load_TextureInSeveralPacks_ReadFromTopPackOnly() {
+        MockPackResources lowerPack = new MockPackResources("lower", "textures/bat.png",
+                "textures/bat.png.moremcmeta");
+        MockPackResources upperPack = new MockPackResources("upper", "textures/bat.png",
+                "textures/bat.png.moremcmeta");
+        TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
+
+        Map<ResourceLocation, Integer> textures = listener.load(makePackManager(lowerPack, upperPack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
+        assertEquals(1, textures.size());
+        assertEquals(0, lowerPack.getOpenedCount());
+        assertEquals(2, upperPack.getOpenedCount());
+    }
+
+    @Test
+    public void load_ResourceLocationException_NothingLoaded() {
+        MockPackResources pack = new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta") {
+            @Override
+            public Collection<ResourceLocation> getResources(PackType packType, String namespace, String path,
+                                                             int maxDepth, Predicate<String> filter) {
+                throw new ResourceLocationException("Dummy exception");
+            }
+        };
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
-        Set<ResourceLocation> locations = mockManager.getLocations();
         assertTrue(locations.isEmpty());
     }
 
     @Test
     public void load_DiffNamespaces_AllLoaded() {
-        ResourceManager mockResourceManager = new MockResourceManager(
-                ImmutableList.of("test:bat.png.moremcmeta", "moremcmeta:creeper.png.moremcmeta",
-                        "zombie.png.moremcmeta"),
-                ImmutableList.of(), false
-        );
-
+        MockPackResources pack = new MockPackResources("pack", "test:textures/bat.png",
+                "test:textures/bat.png.moremcmeta", "moremcmeta:textures/creeper.png",
+                "moremcmeta:textures/creeper.png.moremcmeta", "textures/zombie.png", "textures/zombie.png.moremcmeta");
         TextureLoader<Integer> listener = new TextureLoader<>((texStream, metadataStream) -> 1, LOGGER);
 
-        Map<ResourceLocation, Integer> locations = listener.load(mockResourceManager, "textures");
+        Map<ResourceLocation, Integer> locations = listener.load(makePackManager(pack),
+                ImmutableList.of("textures"), InactiveProfiler.INSTANCE);
 
         assertEquals(3, locations.size());
         assertTrue(locations.containsKey(new ResourceLocation("test", "textures/bat.png")));
@@ -448,4 +629,88 @@ public class TextureLoaderTest {
         assertTrue(locations.containsKey(new ResourceLocation("textures/zombie.png")));
     }
 
-}
\ No newline at end of file
+    private MockPackResources makeThreeTexturePack() {
+        return new MockPackResources("pack", "textures/bat.png", "textures/bat.png.moremcmeta",
+                "textures/creeper.png", "textures/creeper.png.moremcmeta", "textures/zombie.png",
+                "textures/zombie.png.moremcmeta");
+    }
+
+    private ResourceManager makePackManager(MockPackResources... packs) {
+        return new MockResourceManager(ImmutableList.of(), ImmutableList.of(), false) {
+            @Override
+            public Stream<PackResources> listPacks() {
+                return Stream.of(packs);
+            }
+        };
+    }
+
+    /**
+     * A pack that contains empty files at the given locations.
+     * @author soir20
+     */
+    private static class MockPackResources implements PackResources {
+        private final String NAME;
+        private final Set<ResourceLocation> RESOURCES;
+        private final AtomicInteger OPENED;
+
+        public MockPackResources(String name, String... paths) {
+            NAME = name;
+            RESOURCES = Arrays.stream(paths).map(ResourceLocation::new).collect(Collectors.toSet());
+            OPENED = new AtomicInteger();
+        }
+
+        public int getOpenedCount() {
+            return OPENED.get();
+        }
+
+        @Override
+        public InputStream getRootResource(String fileName) throws IOException {
+            throw new IOException("Not found");
+        }
+
+        @Override
+        public InputStream getResource(PackType packType, ResourceLocation location) throws IOException {
+            if (!RESOURCES.contains(location)) {
+                throw new IOException("Not found");
+            }
+
+            OPENED.incrementAndGet();
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public Collection<ResourceLocation> getResources(PackType packType, String namespace, String path,
+                                                         int maxDepth, Predicate<String> filter) {
+            return RESOURCES.stream().filter((location) -> location.getNamespace().equals(namespace)
+                    && location.getPath().startsWith(path + "/")
+                    && filter.test(location.getPath().substring(location.getPath().lastIndexOf('/') + 1))
+            ).collect(Collectors.toSet());
+        }
+
+        @Override
+        public boolean hasResource(PackType packType, ResourceLocation location) {
+            return RESOURCES.contains(location);
+        }
+
+        @Override
+        public Set<String> getNamespaces(PackType packType) {
+            return RESOURCES.stream().map(ResourceLocation::getNamespace).collect(Collectors.toSet());
+        }
+
+        @Override
+        public <T> T getMetadataSection(MetadataSectionSerializer<T> serializer) {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public void close() {
+
+        }
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link AllocationTracker}.
+ * @author soir20
+ */
+public class AllocationTrackerTest {
+    private static final ResourceLocation BAT = new ResourceLocation("bat.png");
+    private static final ResourceLocation CREEPER = new ResourceLocation("creeper.png");
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullSizeCalculator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new AllocationTracker<MockImage>(null);
+    }
+
+    @Test
+    public void newOwner_NullLocation_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.newOwner(null);
+    }
+
+    @Test
+    public void newOwner_ValidLocation_OwnerHasLocation() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        assertEquals(BAT, tracker.newOwner(BAT).getLocation());
+    }
+
+    @Test
+    public void track_NullOwner_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.track(null, new MockImage(10));
+    }
+
+    @Test
+    public void track_NullImage_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.track(tracker.newOwner(BAT), null);
+    }
+
+    @Test
+    public void track_SeveralImages_LiveBytesAdded() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+
+        tracker.track(owner, new MockImage(10));
+        tracker.track(owner, new MockImage(20));
+
+        assertEquals(2, tracker.getLiveCount());
+        assertEquals(30, tracker.getLiveBytes());
+    }
+
+    @Test
+    public void track_SameImageTwice_CountedOnce() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+
+        tracker.track(owner, image);
+        tracker.track(owner, image);
+
+        assertEquals(1, tracker.getLiveCount());
+        assertEquals(10, tracker.getLiveBytes());
+    }
+
+    @Test
+    public void track_EqualButDifferentImages_BothCounted() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+
+        tracker.track(owner, new MockImage(10));
+        tracker.track(owner, new MockImage(10));
+
+        assertEquals(2, tracker.getLiveCount());
+    }
+
+    @Test
+    public void release_NullImage_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.release(null);
+    }
+
+    @Test
+    public void release_TrackedImage_LiveBytesRemoved() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+        tracker.track(owner, image);
+        tracker.track(owner, new MockImage(20));
+
+        tracker.release(image);
+
+        assertEquals(1, tracker.getLiveCount());
+        assertEquals(20, tracker.getLiveBytes());
+    }
+
+    @Test
+    public void release_UntrackedImage_Ignored() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        tracker.track(tracker.newOwner(BAT), new MockImage(10));
+
+        tracker.release(new MockImage(10));
+
+        assertEquals(1, tracker.getLiveCount());
+        assertEquals(10, tracker.getLiveBytes());
+    }
+
+    @Test
+    public void close_NullOwner_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.close(null);
+    }
+
+    @Test
+    public void findLeaks_OpenOwner_NoLeaks() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        tracker.track(tracker.newOwner(BAT), new MockImage(10));
+
+        assertTrue(tracker.findLeaks().isEmpty());
+    }
+
+    @Test
+    public void findLeaks_ClosedOwnerAllReleased_NoLeaks() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+        tracker.track(owner, image);
+
+        tracker.release(image);
+        tracker.close(owner);
+
+        assertTrue(tracker.findLeaks().isEmpty());
+    }
+
+    @Test
+    public void findLeaks_ClosedOwnerImagesNotReleased_LeakedBytesFound() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+        tracker.track(owner, image);
+        tracker.track(owner, new MockImage(20));
+        tracker.track(owner, new MockImage(30));
+
+        tracker.release(image);
+        tracker.close(owner);
+
+        Map<ResourceLocation, Long> leaks = tracker.findLeaks();
+        assertEquals(1, leaks.size());
+        assertEquals(50L, (long) leaks.get(BAT));
+    }
+
+    @Test
+    public void findLeaks_OwnerReplacedWithoutClose_OldImagesLeaked() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        tracker.track(tracker.newOwner(BAT), new MockImage(10));
+        tracker.track(tracker.newOwner(BAT), new MockImage(20));
+
+        Map<ResourceLocation, Long> leaks = tracker.findLeaks();
+        assertEquals(1, leaks.size());
+        assertEquals(10L, (long) leaks.get(BAT));
+    }
+
+    @Test
+    public void findLeaks_OwnerClosedThenLocationReadAgain_NewImagesNotLeaked() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner firstOwner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+        tracker.track(firstOwner, image);
+        AllocationTracker.Owner secondOwner = tracker.newOwner(BAT);
+        tracker.track(secondOwner, new MockImage(20));
+
+        tracker.release(image);
+        tracker.close(firstOwner);
+
+        assertTrue(tracker.findLeaks().isEmpty());
+    }
+
+    @Test
+    public void findLeaks_OtherLocationReadAgain_OwnerNotReplaced() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        tracker.track(tracker.newOwner(BAT), new MockImage(10));
+        tracker.track(tracker.newOwner(CREEPER), new MockImage(20));
+
+        assertTrue(tracker.findLeaks().isEmpty());
+    }
+
+    @Test
+    public void findLeaks_ImageTrackedForNewOwner_NotLeaked() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner firstOwner = tracker.newOwner(BAT);
+        AllocationTracker.Owner secondOwner = tracker.newOwner(CREEPER);
+        MockImage image = new MockImage(10);
+        tracker.track(firstOwner, image);
+        tracker.track(secondOwner, image);
+
+        tracker.close(firstOwner);
+
+        assertTrue(tracker.findLeaks().isEmpty());
+    }
+
+    @Test
+    public void logSummary_NullLogger_NullPointerException() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+
+        expectedException.expect(NullPointerException.class);
+        tracker.logSummary(null);
+    }
+
+    @Test
+    public void logSummary_LeaksFound_LeaksNoLongerTracked() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        tracker.track(owner, new MockImage(10));
+        tracker.track(tracker.newOwner(CREEPER), new MockImage(20));
+        tracker.close(owner);
+
+        tracker.logSummary(LogManager.getLogger());
+
+        assertTrue(tracker.findLeaks().isEmpty());
+        assertEquals(1, tracker.getLiveCount());
+        assertEquals(20, tracker.getLiveBytes());
+    }
+
+    @Test
+    public void logSummary_LeakedImageReleasedLater_LiveBytesUnchanged() {
+        AllocationTracker<MockImage> tracker = makeTracker();
+        AllocationTracker.Owner owner = tracker.newOwner(BAT);
+        MockImage image = new MockImage(10);
+        tracker.track(owner, image);
+        tracker.track(tracker.newOwner(CREEPER), new MockImage(20));
+        tracker.close(owner);
+        tracker.logSummary(LogManager.getLogger());
+
+        tracker.release(image);
+
+        assertEquals(1, tracker.getLiveCount());
+        assertEquals(20, tracker.getLiveBytes());
+    }
+
+    private static AllocationTracker<MockImage> makeTracker() {
+        return new AllocationTracker<>(MockImage::getBytes);
+    }
+
+    /**
+     * A fake image that holds a fixed number of bytes.
+     * @author soir20
+     */
+    private static class MockImage {
+        private final long BYTES;
+
+        public MockImage(long bytes) {
+            BYTES = bytes;
+        }
+
+        public long getBytes() {
+            return BYTES;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MockImage && ((MockImage) other).BYTES == BYTES;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(BYTES);
+        }
+
+    }
+
+}
@@ -19,11 +19,12 @@ package io.github.soir20.moremcmeta.client.texture;
 
 import com.google.common.collect.ImmutableList;
 import io.github.soir20.moremcmeta.client.animation.AnimationFrameManager;
+import io.github.soir20.moremcmeta.client.animation.GameClock;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
@@ -53,9 +54,10 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(800);
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
 
         expectedException.expect(IllegalArgumentException.class);
-        builder.add(new AnimationComponent(-1, () -> Optional.of(currentTime.incrementAndGet()),
+        builder.add(new AnimationComponent(-1, clock,
                 frameManager));
     }
 
@@ -66,14 +68,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(800);
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
 
         expectedException.expect(IllegalArgumentException.class);
-        builder.add(new AnimationComponent(0, () -> Optional.of(currentTime.incrementAndGet()),
+        builder.add(new AnimationComponent(0, clock,
                 frameManager));
     }
 
     @Test
-    public void construct_SyncedNullTimeGetter_NullPointerException() {
+    public void construct_SyncedNullClock_NullPointerException() {
         EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
         builder.setImage(new MockRGBAImageFrame());
 
@@ -90,24 +93,70 @@ public class AnimationComponentTest {
         builder.setImage(new MockRGBAImageFrame());
 
         AtomicLong currentTime = new AtomicLong(800);
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
 
         expectedException.expect(NullPointerException.class);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        builder.add(new AnimationComponent(800, clock,
                 null));
     }
 
     @Test
-    @SuppressWarnings("OptionalAssignedToNull")
-    public void tick_SyncedTimeGetterReturnsNull_NullPointerException() {
+    public void tick_SyncedClockHasNoTime_NextAnimFrame() {
         EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
         builder.setImage(new MockRGBAImageFrame());
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
+        GameClock clock = new GameClock(() -> false, () -> 375);
+        builder.add(new AnimationComponent(800, clock, frameManager));
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> assertEquals(2, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
+        )));
+        EventDrivenTexture texture = builder.build();
 
-        expectedException.expect(NullPointerException.class);
-        builder.add(new AnimationComponent(375, () -> null,
-                frameManager));
-        builder.build().tick();
+        for (int tick = 0; tick < 10; tick++) {
+            clock.tick();
+            texture.tick();
+        }
+        texture.bind();
+    }
+
+    @Test
+    public void tick_SyncedClockNotTicked_NextAnimFrame() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+
+        AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
+        GameClock clock = new GameClock(() -> true, () -> 375);
+        builder.add(new AnimationComponent(800, clock, frameManager));
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> assertEquals(2, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
+        )));
+        EventDrivenTexture texture = builder.build();
+
+        for (int tick = 0; tick < 10; tick++) {
+            texture.tick();
+        }
+        texture.bind();
+    }
+
+    @Test
+    public void tick_SyncedTimeStaysSame_SameAnimFrame() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+
+        AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
+        GameClock clock = new GameClock(() -> true, () -> 376);
+        builder.add(new AnimationComponent(800, clock, frameManager));
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> assertEquals(9, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
+        )));
+        EventDrivenTexture texture = builder.build();
+
+        for (int tick = 0; tick < 100; tick++) {
+            clock.tick();
+            texture.tick();
+        }
+        texture.bind();
     }
 
     @Test
@@ -151,13 +200,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(800);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(800, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(1, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -169,13 +220,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(-1);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(800, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(1, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -187,13 +240,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(375);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(800, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(9, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -205,13 +260,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(-375);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(800, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(9, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -223,13 +280,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(375);
-        builder.add(new AnimationComponent(Integer.MAX_VALUE, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(Integer.MAX_VALUE, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(9, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -241,13 +300,15 @@ public class AnimationComponentTest {
 
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         AtomicLong currentTime = new AtomicLong(Long.MAX_VALUE);
-        builder.add(new AnimationComponent(800, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(800, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(6, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
         )));
         EventDrivenTexture texture = builder.build();
 
+        clock.tick();
         texture.tick();
         texture.bind();
     }
@@ -287,7 +348,8 @@ public class AnimationComponentTest {
         builder.setImage(new MockRGBAImageFrame());
 
         AtomicLong currentTime = new AtomicLong(0);
-        builder.add(new AnimationComponent(500, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(500, clock,
                 makeFrameManager()));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(1, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
@@ -305,7 +367,8 @@ public class AnimationComponentTest {
         AnimationFrameManager<MockRGBAImageFrame> frameManager = makeFrameManager();
         frameManager.tick(43);
         AtomicLong currentTime = new AtomicLong(0);
-        builder.add(new AnimationComponent(500, () -> Optional.of(currentTime.incrementAndGet()),
+        GameClock clock = new GameClock(() -> true, currentTime::incrementAndGet);
+        builder.add(new AnimationComponent(500, clock,
                 frameManager));
         builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
                 (state) -> assertEquals(3, ((MockRGBAImageFrame) state.getImage()).getFrameNumber())
@@ -315,6 +378,46 @@ public class AnimationComponentTest {
         texture.bind();
     }
 
+    @Test
+    public void tick_FrameUnchanged_NotUploadedAgain() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+        builder.add(new AnimationComponent(makeFrameManager()));
+
+        AtomicInteger uploads = new AtomicInteger();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> uploads.incrementAndGet()
+        )));
+        EventDrivenTexture texture = builder.build();
+
+        texture.bind();
+        texture.tick();
+        texture.bind();
+
+        assertEquals(1, uploads.get());
+    }
+
+    @Test
+    public void tick_FrameChanged_UploadedAgain() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+        builder.add(new AnimationComponent(makeFrameManager()));
+
+        AtomicInteger uploads = new AtomicInteger();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> uploads.incrementAndGet()
+        )));
+        EventDrivenTexture texture = builder.build();
+
+        texture.bind();
+        for (int tick = 0; tick < 10; tick++) {
+            texture.tick();
+        }
+        texture.bind();
+
+        assertEquals(2, uploads.get());
+    }
+
     private AnimationFrameManager<MockRGBAImageFrame> makeFrameManager() {
         ImmutableList.Builder<MockRGBAImageFrame> mockFramesBuilder = ImmutableList.builder();
         for (int frame = 1; frame < 11; frame++) {
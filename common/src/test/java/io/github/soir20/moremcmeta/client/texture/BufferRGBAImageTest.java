@@ -0,0 +1,268 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link BufferRGBAImage}.
+ * @author soir20
+ */
+public class BufferRGBAImageTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullBuffer_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new BufferRGBAImage(null, 5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullVisibleArea_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new BufferRGBAImage(makeBuffer(25), 5, 5, 0, null, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA, null);
+    }
+
+    @Test
+    public void construct_NegativeWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BufferRGBAImage(makeBuffer(25), -5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NegativeHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BufferRGBAImage(makeBuffer(25), 5, -5, 0, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NegativeMipmapLevel_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BufferRGBAImage(makeBuffer(25), 5, 5, -1, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_BufferTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new BufferRGBAImage(makeBuffer(24), 5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_BufferPositionMoved_ImageStartsAtPosition() {
+        IntBuffer buffer = makeBuffer(30);
+        buffer.put(5, 100);
+        buffer.position(5);
+
+        BufferRGBAImage image = new BufferRGBAImage(buffer, 5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+        buffer.position(0);
+
+        assertEquals(100, image.getPixel(0, 0));
+    }
+
+    @Test
+    public void setPixel_PixelInImage_PixelStoredRowByRow() {
+        IntBuffer buffer = makeBuffer(25);
+        BufferRGBAImage image = new BufferRGBAImage(buffer, 5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+
+        image.setPixel(3, 2, 100);
+
+        assertEquals(100, image.getPixel(3, 2));
+        assertEquals(100, buffer.get(13));
+    }
+
+    @Test
+    public void setPixel_XOutsideImage_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.setPixel(5, 0, 100);
+    }
+
+    @Test
+    public void getPixel_NegativeY_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.getPixel(0, -1);
+    }
+
+    @Test
+    public void setRow_RowInImage_PixelsStoredInRow() {
+        IntBuffer buffer = makeBuffer(25);
+        BufferRGBAImage image = new BufferRGBAImage(buffer, 5, 5, 0, EMPTY_AREA, new MockBufferUploader());
+
+        image.setRow(1, 2, new int[] {10, 20, 30, 40}, 3);
+
+        assertEquals(0, buffer.get(10));
+        assertEquals(10, buffer.get(11));
+        assertEquals(20, buffer.get(12));
+        assertEquals(30, buffer.get(13));
+        assertEquals(0, buffer.get(14));
+    }
+
+    @Test
+    public void setRow_NullRow_NullPointerException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(NullPointerException.class);
+        image.setRow(0, 0, null, 0);
+    }
+
+    @Test
+    public void setRow_RowPastRightEdge_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.setRow(3, 0, new int[3], 3);
+    }
+
+    @Test
+    public void setRow_LengthLongerThanArray_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.setRow(0, 0, new int[2], 3);
+    }
+
+    @Test
+    public void getRow_RowInImage_PixelsCopiedFromRow() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        image.setPixel(2, 4, 10);
+        image.setPixel(3, 4, 20);
+        image.setPixel(4, 4, 30);
+
+        int[] row = new int[4];
+        image.getRow(2, 4, row, 3);
+
+        assertArrayEquals(new int[] {10, 20, 30, 0}, row);
+    }
+
+    @Test
+    public void getRow_YOutsideImage_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.getRow(0, 5, new int[5], 5);
+    }
+
+    @Test
+    public void upload_AnyPoint_AllPixelsUploaded() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(6), 3, 2, 1, EMPTY_AREA, uploader);
+        image.setPixel(0, 0, 10);
+        image.setPixel(2, 1, 20);
+
+        image.upload(4, 7);
+
+        assertArrayEquals(new int[] {10, 0, 0, 0, 0, 20}, uploader.getLastPixels());
+        assertEquals(3, uploader.getLastWidth());
+        assertEquals(2, uploader.getLastHeight());
+        assertEquals(1, uploader.getLastMipmapLevel());
+        assertEquals(new Point(4, 7), uploader.getLastUploadPoint());
+    }
+
+    @Test
+    public void copyTo_NullDestination_NullPointerException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(NullPointerException.class);
+        image.copyTo(null);
+    }
+
+    @Test
+    public void copyTo_LargeDestination_PixelsCopiedAndPositionAdvanced() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(4), 2, 2, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        image.setPixel(1, 0, 10);
+        image.setPixel(0, 1, 20);
+
+        IntBuffer destination = IntBuffer.allocate(6);
+        destination.position(1);
+        image.copyTo(destination);
+
+        assertEquals(5, destination.position());
+        assertArrayEquals(new int[] {0, 0, 10, 20, 0, 0}, destination.array());
+    }
+
+    @Test
+    public void copyFrom_NullSource_NullPointerException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(NullPointerException.class);
+        image.copyFrom(null);
+    }
+
+    @Test
+    public void copyFrom_SourceTooSmall_IllegalArgException() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        image.copyFrom(new MockRGBAImage(4, 5));
+    }
+
+    @Test
+    public void copyFrom_LargerSource_TopLeftCopied() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(4), 2, 2, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        MockRGBAImage source = new MockRGBAImage(3, 3);
+        source.setPixel(1, 1, 10);
+        source.setPixel(2, 2, 20);
+
+        image.copyFrom(source);
+
+        assertEquals(10, image.getPixel(1, 1));
+        assertArrayEquals(new int[] {0, 0, 0, 10}, toArray(image.getPixels()));
+    }
+
+    @Test
+    public void getPixels_ViewReturned_ReadOnly() {
+        BufferRGBAImage image = new BufferRGBAImage(makeBuffer(25), 5, 5, 0, EMPTY_AREA,
+                new MockBufferUploader());
+        assertTrue(image.getPixels().isReadOnly());
+    }
+
+    private static IntBuffer makeBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static int[] toArray(IntBuffer buffer) {
+        int[] pixels = new int[buffer.remaining()];
+        buffer.get(pixels);
+        return pixels;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DeferredRGBAImage}.
+ * @author soir20
+ */
+public class DeferredRGBAImageTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullGetter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeferredRGBAImage(null, 10, 10);
+    }
+
+    @Test
+    public void construct_NegativeWidth_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeferredRGBAImage(MockRGBAImage::new, -1, 10);
+    }
+
+    @Test
+    public void construct_NegativeHeight_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeferredRGBAImage(MockRGBAImage::new, 10, -1);
+    }
+
+    @Test
+    public void getSize_NotRetrieved_ImageNotRetrieved() {
+        AtomicInteger timesRetrieved = new AtomicInteger();
+        DeferredRGBAImage image = new DeferredRGBAImage(() -> {
+            timesRetrieved.incrementAndGet();
+            return new MockRGBAImage();
+        }, 10, 20);
+
+        assertEquals(10, image.getWidth());
+        assertEquals(20, image.getHeight());
+        assertEquals(0, timesRetrieved.get());
+    }
+
+    @Test
+    public void setPixel_ImageRetrieved_PixelSetInImage() {
+        MockRGBAImage mockImage = new MockRGBAImage();
+        DeferredRGBAImage image = new DeferredRGBAImage(() -> mockImage, 10, 10);
+
+        image.setPixel(1, 2, 100);
+
+        assertEquals(100, mockImage.getPixel(1, 2));
+        assertEquals(100, image.getPixel(1, 2));
+    }
+
+    @Test
+    public void getPixel_ImageReplaced_NewImageUsed() {
+        MockRGBAImage firstImage = new MockRGBAImage();
+        MockRGBAImage secondImage = new MockRGBAImage();
+        firstImage.setPixel(0, 0, 1);
+        secondImage.setPixel(0, 0, 2);
+        AtomicInteger timesRetrieved = new AtomicInteger();
+        DeferredRGBAImage image = new DeferredRGBAImage(
+                () -> timesRetrieved.getAndIncrement() == 0 ? firstImage : secondImage, 10, 10
+        );
+
+        assertEquals(1, image.getPixel(0, 0));
+        assertEquals(2, image.getPixel(0, 0));
+    }
+
+    @Test
+    public void getVisibleArea_ImageRetrieved_ImageVisibleAreaReturned() {
+        MockRGBAImage mockImage = new MockRGBAImage();
+        DeferredRGBAImage image = new DeferredRGBAImage(() -> mockImage, 10, 10);
+
+        assertSame(mockImage.getVisibleArea(), image.getVisibleArea());
+    }
+
+    @Test
+    public void upload_ImageRetrieved_ImageUploaded() {
+        MockRGBAImage mockImage = new MockRGBAImage();
+        DeferredRGBAImage image = new DeferredRGBAImage(() -> mockImage, 10, 10);
+
+        image.upload(3, 4);
+
+        assertEquals(new Point(3, 4), mockImage.getLastUploadPoint());
+    }
+
+}
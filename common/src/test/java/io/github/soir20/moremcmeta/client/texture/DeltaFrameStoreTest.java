@@ -0,0 +1,251 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DeltaFrameStore}.
+ * @author soir20
+ */
+public class DeltaFrameStoreTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaFrameStore(null, 8, 8, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullFrame_NullPointerException() {
+        List<List<IRGBAImage>> frames = new ArrayList<>();
+        frames.add(null);
+
+        expectedException.expect(NullPointerException.class);
+        new DeltaFrameStore(frames, 8, 8, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 8, 8, null, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 8, 8, makeAreas(), null);
+    }
+
+    @Test
+    public void construct_EmptyWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 0, 8, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_EmptyHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 8, 0, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(ImmutableList.of(), 8, 8, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NoVisibleAreas_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 8, 8, ImmutableList.of(), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_MissingMipmap_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(makeFrames(2, 8), 8, 8, ImmutableList.of(EMPTY_AREA, EMPTY_AREA, EMPTY_AREA),
+                new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_MipmapTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaFrameStore(makeFrames(2, 4), 8, 8, makeAreas(), new MockBufferUploader());
+    }
+
+    @Test
+    public void getMipmaps_FirstFrame_AllPixelsStored() {
+        List<List<IRGBAImage>> frames = makeFrames(3, 8);
+        DeltaFrameStore store = new DeltaFrameStore(frames, 8, 8, makeAreas(), new MockBufferUploader());
+
+        List<IRGBAImage> mipmaps = store.getMipmaps(0);
+        for (int level = 0; level < 2; level++) {
+            IRGBAImage image = mipmaps.get(level);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals(frames.get(0).get(level).getPixel(x, y), image.getPixel(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getMipmaps_LaterFrames_VisiblePointsFromFrameOthersFromFirst() {
+        List<List<IRGBAImage>> frames = makeFrames(3, 8);
+        DeltaFrameStore store = new DeltaFrameStore(frames, 8, 8, makeAreas(), new MockBufferUploader());
+
+        for (int frame = 1; frame < 3; frame++) {
+            for (int level = 0; level < 2; level++) {
+                IRGBAImage image = store.getMipmaps(frame).get(level);
+                DeltaRGBAImage.Layout layout = new DeltaRGBAImage.Layout(image.getVisibleArea(),
+                        image.getWidth(), image.getHeight());
+
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        int sourceFrame = layout.offsetOf(x, y) >= 0 ? frame : 0;
+                        assertEquals(frames.get(sourceFrame).get(level).getPixel(x, y), image.getPixel(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getMipmaps_NegativeFrame_IllegalArgException() {
+        DeltaFrameStore store = new DeltaFrameStore(makeFrames(2, 8), 8, 8, makeAreas(), new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(-1);
+    }
+
+    @Test
+    public void getMipmaps_FrameTooLarge_IllegalArgException() {
+        DeltaFrameStore store = new DeltaFrameStore(makeFrames(2, 8), 8, 8, makeAreas(), new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(2);
+    }
+
+    @Test
+    public void getFrameCount_ThreeFrames_ThreeReturned() {
+        DeltaFrameStore store = new DeltaFrameStore(makeFrames(3, 8), 8, 8, makeAreas(), new MockBufferUploader());
+        assertEquals(3, store.getFrameCount());
+    }
+
+    @Test
+    public void getSizeInBytes_SmallVisibleArea_OnlyVisiblePixelsStoredForLaterFrames() {
+        DeltaFrameStore store = new DeltaFrameStore(makeFrames(5, 8), 8, 8, makeAreas(), new MockBufferUploader());
+
+        // Base frame at both levels, 4 + 1 visible pixels in each later frame, and the expansion buffer
+        assertEquals((64 + 16) * 4 + 4 * 5 * 4 + 64 * 4, store.getSizeInBytes());
+    }
+
+    @Test
+    public void estimateSizeInBytes_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        DeltaFrameStore.estimateSizeInBytes(8, 8, 5, null);
+    }
+
+    @Test
+    public void estimateSizeInBytes_EmptyWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        DeltaFrameStore.estimateSizeInBytes(0, 8, 5, makeAreas());
+    }
+
+    @Test
+    public void estimateSizeInBytes_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        DeltaFrameStore.estimateSizeInBytes(8, 8, 0, makeAreas());
+    }
+
+    @Test
+    public void estimateSizeInBytes_SmallVisibleArea_SameAsCreatedStore() {
+        DeltaFrameStore store = new DeltaFrameStore(makeFrames(5, 8), 8, 8, makeAreas(), new MockBufferUploader());
+        assertEquals(store.getSizeInBytes(), DeltaFrameStore.estimateSizeInBytes(8, 8, 5, makeAreas()));
+    }
+
+    @Test
+    public void upload_LaterFrame_FullFrameUploaded() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        List<List<IRGBAImage>> frames = makeFrames(2, 8);
+        DeltaFrameStore store = new DeltaFrameStore(frames, 8, 8, makeAreas(), uploader);
+
+        store.getMipmaps(1).get(1).upload(0, 0);
+
+        IRGBAImage expected = store.getMipmaps(1).get(1);
+        int[] pixels = uploader.getLastPixels();
+        assertEquals(16, pixels.length);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(expected.getPixel(x, y), pixels[y * 4 + x]);
+            }
+        }
+        assertEquals(frames.get(1).get(1).getPixel(1, 1), pixels[5]);
+        assertEquals(1, uploader.getLastMipmapLevel());
+    }
+
+    private static List<IRGBAImage.VisibleArea> makeAreas() {
+        IRGBAImage.VisibleArea.Builder level0 = new IRGBAImage.VisibleArea.Builder();
+        level0.addRow(2, 2, 2);
+        level0.addRow(2, 3, 2);
+
+        IRGBAImage.VisibleArea.Builder level1 = new IRGBAImage.VisibleArea.Builder();
+        level1.addPixel(1, 1);
+
+        return ImmutableList.of(level0.build(), level1.build());
+    }
+
+    private static List<List<IRGBAImage>> makeFrames(int frameCount, int size) {
+        List<IRGBAImage.VisibleArea> areas = makeAreas();
+        ImmutableList.Builder<List<IRGBAImage>> frames = new ImmutableList.Builder<>();
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            ImmutableList.Builder<IRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < 2; level++) {
+                int levelSize = size >> level;
+                int[][] pixels = new int[levelSize][levelSize];
+                for (int x = 0; x < levelSize; x++) {
+                    for (int y = 0; y < levelSize; y++) {
+                        pixels[x][y] = frame * 1000 + level * 100 + y * levelSize + x;
+                    }
+                }
+
+                mipmaps.add(new MockRGBAImage(pixels, areas.get(level)));
+            }
+
+            frames.add(mipmaps.build());
+        }
+
+        return frames.build();
+    }
+
+}
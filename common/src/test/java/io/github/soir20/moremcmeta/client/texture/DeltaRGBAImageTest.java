@@ -0,0 +1,271 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DeltaRGBAImage}.
+ * @author soir20
+ */
+public class DeltaRGBAImageTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullBase_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaRGBAImage(null, makeBuffer(4), makeLayout(), makeBuffer(16), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullChanges_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaRGBAImage(makeBase(), null, makeLayout(), makeBuffer(16), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullLayout_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(4), null, makeBuffer(16), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullExpansionBuffer_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), null, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(16), null);
+    }
+
+    @Test
+    public void construct_LayoutDifferentSize_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(4), new DeltaRGBAImage.Layout(EMPTY_AREA, 4, 3),
+                makeBuffer(16), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_ChangeBufferTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(3), makeLayout(), makeBuffer(16), new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_ExpansionBufferTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(15), new MockBufferUploader());
+    }
+
+    @Test
+    public void getPixel_StaticPoint_BaseColor() {
+        BufferRGBAImage base = makeBase();
+        base.setPixel(0, 0, 50);
+        DeltaRGBAImage image = new DeltaRGBAImage(base, makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        assertEquals(50, image.getPixel(0, 0));
+    }
+
+    @Test
+    public void getPixel_BaseChanged_StaticPointChanged() {
+        BufferRGBAImage base = makeBase();
+        DeltaRGBAImage image = new DeltaRGBAImage(base, makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        base.setPixel(3, 3, 70);
+
+        assertEquals(70, image.getPixel(3, 3));
+    }
+
+    @Test
+    public void getPixel_OutsideImage_IllegalArgException() {
+        DeltaRGBAImage image = new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        image.getPixel(4, 0);
+    }
+
+    @Test
+    public void setPixel_VisiblePoint_OnlyDeltaChanged() {
+        BufferRGBAImage base = makeBase();
+        DeltaRGBAImage image = new DeltaRGBAImage(base, makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        image.setPixel(2, 1, 100);
+
+        assertEquals(100, image.getPixel(2, 1));
+        assertEquals(0, base.getPixel(2, 1));
+    }
+
+    @Test
+    public void setPixel_StaticPoint_IllegalArgException() {
+        DeltaRGBAImage image = new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        image.setPixel(0, 0, 100);
+    }
+
+    @Test
+    public void setPixel_ChangeBufferShared_WrittenAtLayoutOffset() {
+        IntBuffer changes = makeBuffer(4);
+        DeltaRGBAImage image = new DeltaRGBAImage(makeBase(), changes, makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        image.setPixel(3, 2, 100);
+
+        assertEquals(100, changes.get(3));
+    }
+
+    @Test
+    public void copyFrom_LargerSource_VisiblePointsCopied() {
+        DeltaRGBAImage image = new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+        MockRGBAImage source = new MockRGBAImage(8, 8);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                source.setPixel(x, y, y * 8 + x);
+            }
+        }
+
+        image.copyFrom(source);
+
+        assertEquals(10, image.getPixel(2, 1));
+        assertEquals(11, image.getPixel(3, 1));
+        assertEquals(17, image.getPixel(1, 2));
+        assertEquals(19, image.getPixel(3, 2));
+        assertEquals(0, image.getPixel(2, 2));
+    }
+
+    @Test
+    public void copyFrom_SmallerSource_IllegalArgException() {
+        DeltaRGBAImage image = new DeltaRGBAImage(makeBase(), makeBuffer(4), makeLayout(), makeBuffer(16),
+                new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        image.copyFrom(new MockRGBAImage(3, 4));
+    }
+
+    @Test
+    public void upload_ChangedPoints_BaseWithChangesUploaded() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        BufferRGBAImage base = makeBase();
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                base.setPixel(x, y, 1);
+            }
+        }
+
+        DeltaRGBAImage image = new DeltaRGBAImage(base, makeBuffer(4), makeLayout(), makeBuffer(16), uploader);
+        image.setPixel(2, 1, 5);
+        image.setPixel(3, 1, 6);
+        image.setPixel(1, 2, 7);
+        image.setPixel(3, 2, 8);
+
+        image.upload(2, 3);
+
+        assertArrayEquals(new int[] {
+                1, 1, 1, 1,
+                1, 1, 5, 6,
+                1, 7, 1, 8,
+                1, 1, 1, 1
+        }, uploader.getLastPixels());
+        assertEquals(4, uploader.getLastWidth());
+        assertEquals(4, uploader.getLastHeight());
+        assertEquals(0, uploader.getLastMipmapLevel());
+        assertEquals(new Point(2, 3), uploader.getLastUploadPoint());
+    }
+
+    @Test
+    public void upload_Twice_ChangesNotWrittenToBase() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        BufferRGBAImage base = makeBase();
+        DeltaRGBAImage image = new DeltaRGBAImage(base, makeBuffer(4), makeLayout(), makeBuffer(16), uploader);
+        image.setPixel(2, 1, 5);
+
+        image.upload(0, 0);
+        image.upload(0, 0);
+
+        assertEquals(0, base.getPixel(2, 1));
+        assertEquals(5, uploader.getLastPixels()[6]);
+    }
+
+    @Test
+    public void construct_LayoutRowsOutsideImage_RowsClipped() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addRow(-2, 0, 4);
+        builder.addRow(3, 1, 5);
+        builder.addRow(0, 4, 4);
+        builder.addRow(0, -1, 4);
+
+        DeltaRGBAImage.Layout layout = new DeltaRGBAImage.Layout(builder.build(), 4, 4);
+
+        assertEquals(3, layout.getPixelCount());
+        assertEquals(0, layout.offsetOf(0, 0));
+        assertEquals(1, layout.offsetOf(1, 0));
+        assertEquals(-1, layout.offsetOf(2, 0));
+        assertEquals(2, layout.offsetOf(3, 1));
+    }
+
+    @Test
+    public void construct_LayoutSeveralRowsPerLine_OffsetsInRowOrder() {
+        DeltaRGBAImage.Layout layout = makeLayout();
+
+        assertEquals(-1, layout.offsetOf(1, 1));
+        assertEquals(0, layout.offsetOf(2, 1));
+        assertEquals(1, layout.offsetOf(3, 1));
+        assertEquals(-1, layout.offsetOf(0, 2));
+        assertEquals(2, layout.offsetOf(1, 2));
+        assertEquals(-1, layout.offsetOf(2, 2));
+        assertEquals(3, layout.offsetOf(3, 2));
+    }
+
+    private static DeltaRGBAImage.Layout makeLayout() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addRow(3, 2, 1);
+        builder.addRow(2, 1, 2);
+        builder.addPixel(1, 2);
+        return new DeltaRGBAImage.Layout(builder.build(), 4, 4);
+    }
+
+    private static BufferRGBAImage makeBase() {
+        return new BufferRGBAImage(makeBuffer(16), 4, 4, 0, EMPTY_AREA, new MockBufferUploader());
+    }
+
+    private static IntBuffer makeBuffer(int size) {
+        return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+}
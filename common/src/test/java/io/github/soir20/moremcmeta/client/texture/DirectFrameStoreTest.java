@@ -0,0 +1,186 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DirectFrameStore}.
+ * @author soir20
+ */
+public class DirectFrameStoreTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+    private static final List<IRGBAImage.VisibleArea> THREE_LEVELS = ImmutableList.of(EMPTY_AREA, EMPTY_AREA,
+            EMPTY_AREA);
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DirectFrameStore(8, 8, 2, null, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new DirectFrameStore(8, 8, 2, THREE_LEVELS, null);
+    }
+
+    @Test
+    public void construct_EmptyWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DirectFrameStore(0, 8, 2, THREE_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_EmptyHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DirectFrameStore(8, 0, 2, THREE_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DirectFrameStore(8, 8, 0, THREE_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NoVisibleAreas_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DirectFrameStore(8, 8, 2, ImmutableList.of(), new MockBufferUploader());
+    }
+
+    @Test
+    public void estimateSizeInBytes_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        DirectFrameStore.estimateSizeInBytes(8, 4, 3, null);
+    }
+
+    @Test
+    public void estimateSizeInBytes_EmptyHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        DirectFrameStore.estimateSizeInBytes(8, 0, 3, THREE_LEVELS);
+    }
+
+    @Test
+    public void estimateSizeInBytes_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        DirectFrameStore.estimateSizeInBytes(8, 4, 0, THREE_LEVELS);
+    }
+
+    @Test
+    public void estimateSizeInBytes_ThreeLevels_SameAsCreatedStore() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        assertEquals(store.getSizeInBytes(), DirectFrameStore.estimateSizeInBytes(8, 4, 3, THREE_LEVELS));
+    }
+
+    @Test
+    public void getSizeInBytes_ThreeLevels_AllLevelsCounted() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        assertEquals((32 + 8 + 2) * 3 * 4, store.getSizeInBytes());
+    }
+
+    @Test
+    public void getMipmaps_FrameInStore_DimensionsHalvedEachLevel() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        ImmutableList<BufferRGBAImage> mipmaps = store.getMipmaps(1);
+
+        assertEquals(3, mipmaps.size());
+        for (int level = 0; level < mipmaps.size(); level++) {
+            assertEquals(8 >> level, mipmaps.get(level).getWidth());
+            assertEquals(4 >> level, mipmaps.get(level).getHeight());
+            assertEquals(level, mipmaps.get(level).getMipmapLevel());
+            assertEquals(EMPTY_AREA, mipmaps.get(level).getVisibleArea());
+        }
+    }
+
+    @Test
+    public void getMipmaps_NegativeIndex_IllegalArgException() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(-1);
+    }
+
+    @Test
+    public void getMipmaps_IndexTooLarge_IllegalArgException() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(3);
+    }
+
+    @Test
+    public void getMipmaps_PixelsSetInAllImages_ImagesDoNotOverlap() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+
+        int color = 1;
+        for (int frame = 0; frame < store.getFrameCount(); frame++) {
+            for (BufferRGBAImage image : store.getMipmaps(frame)) {
+                fill(image, color++);
+            }
+        }
+
+        color = 1;
+        for (int frame = 0; frame < store.getFrameCount(); frame++) {
+            for (BufferRGBAImage image : store.getMipmaps(frame)) {
+                IntBuffer pixels = image.getPixels();
+                while (pixels.hasRemaining()) {
+                    assertEquals(color, pixels.get());
+                }
+
+                color++;
+            }
+        }
+    }
+
+    @Test
+    public void getMipmaps_UploadFrame_OnlyFramePixelsUploaded() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        DirectFrameStore store = new DirectFrameStore(2, 2, 2, ImmutableList.of(EMPTY_AREA), uploader);
+        fill(store.getMipmaps(0).get(0), 10);
+        fill(store.getMipmaps(1).get(0), 20);
+
+        store.getMipmaps(1).get(0).upload(0, 0);
+
+        assertArrayEquals(new int[] {20, 20, 20, 20}, uploader.getLastPixels());
+    }
+
+    @Test
+    public void getFrameCount_ThreeFrames_ThreeReturned() {
+        DirectFrameStore store = new DirectFrameStore(8, 4, 3, THREE_LEVELS, new MockBufferUploader());
+        assertEquals(3, store.getFrameCount());
+    }
+
+    private static void fill(IRGBAImage image, int color) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setPixel(x, y, color);
+            }
+        }
+    }
+
+}
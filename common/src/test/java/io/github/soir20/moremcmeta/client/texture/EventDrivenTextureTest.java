@@ -17,6 +17,10 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.animation.AnimationStateBank;
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
+import org.apache.logging.log4j.LogManager;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -324,4 +328,168 @@ public class EventDrivenTextureTest {
         assertArrayEquals(expected, execOrder.toArray(new Integer[expected.length]));
     }
 
+    @Test
+    public void setUploadScheduler_NullScheduler_NullPointerException() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+
+        expectedException.expect(NullPointerException.class);
+        builder.setUploadScheduler(null);
+    }
+
+    @Test
+    public void setTickTimeline_NullTimeline_NullPointerException() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+
+        expectedException.expect(NullPointerException.class);
+        builder.setTickTimeline(null);
+    }
+
+    @Test
+    public void getTickTimeline_NotSet_Empty() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+
+        assertFalse(builder.build().getTickTimeline().isPresent());
+    }
+
+    @Test
+    public void getTickTimeline_Set_SameTimeline() {
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10));
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).setTickTimeline(timeline);
+
+        assertSame(timeline, builder.build().getTickTimeline().orElse(null));
+    }
+
+    @Test
+    public void scheduleUpload_NullBindAction_NullPointerException() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+        EventDrivenTexture texture = builder.build();
+
+        expectedException.expect(NullPointerException.class);
+        texture.scheduleUpload(null);
+    }
+
+    @Test
+    public void bind_SchedulerOutOfTime_UploadDeferredToNextFrame() {
+        AtomicInteger timesUploaded = new AtomicInteger(0);
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger());
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> timesUploaded.incrementAndGet()
+        )));
+        builder.setImage(new MockRGBAImageFrame());
+        builder.setUploadScheduler(scheduler);
+
+        EventDrivenTexture first = builder.build();
+        EventDrivenTexture second = builder.build();
+
+        // No time is allowed, so each frame only runs one deferred upload
+        first.bind();
+        second.bind();
+        assertEquals(0, timesUploaded.get());
+        assertEquals(2, scheduler.getDeferredCount());
+
+        scheduler.startFrame();
+        assertEquals(1, timesUploaded.get());
+        scheduler.startFrame();
+        assertEquals(2, timesUploaded.get());
+    }
+
+    @Test
+    public void close_UploadDeferred_UploadCancelled() {
+        AtomicInteger timesUploaded = new AtomicInteger(0);
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger());
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> timesUploaded.incrementAndGet()
+        )));
+        builder.setImage(new MockRGBAImageFrame());
+        builder.setUploadScheduler(scheduler);
+
+        EventDrivenTexture first = builder.build();
+        EventDrivenTexture second = builder.build();
+
+        first.bind();
+        second.bind();
+        second.close();
+        scheduler.startFrame();
+        scheduler.startFrame();
+
+        assertEquals(1, timesUploaded.get());
+        assertEquals(0, scheduler.getDeferredCount());
+    }
+
+    @Test
+    public void bind_EvictableNotAvailable_UploadSkippedAndStillNeeded() {
+        AtomicInteger timesUploaded = new AtomicInteger(0);
+        MockEvictable evictable = new MockEvictable(10);
+        evictable.setAvailable(false);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> timesUploaded.incrementAndGet()
+        )));
+        builder.add(evictable);
+        builder.setImage(new MockRGBAImageFrame());
+        EventDrivenTexture texture = builder.build();
+
+        texture.bind();
+        assertEquals(0, timesUploaded.get());
+
+        evictable.setAvailable(true);
+        texture.bind();
+        assertEquals(1, timesUploaded.get());
+    }
+
+    @Test
+    public void bind_DeferredUploadEvictableNotAvailable_UploadSkipped() {
+        AtomicInteger timesUploaded = new AtomicInteger(0);
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger());
+        MockEvictable evictable = new MockEvictable(10);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.UPLOAD,
+                (state) -> timesUploaded.incrementAndGet()
+        )));
+        builder.add(evictable);
+        builder.setImage(new MockRGBAImageFrame());
+        builder.setUploadScheduler(scheduler);
+
+        EventDrivenTexture first = builder.build();
+        EventDrivenTexture second = builder.build();
+
+        first.bind();
+        second.bind();
+        evictable.setAvailable(false);
+        scheduler.startFrame();
+        scheduler.startFrame();
+
+        assertEquals(0, timesUploaded.get());
+    }
+
+    @Test
+    public void isAvailable_AllEvictablesAvailable_True() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(new MockEvictable(10)).add(new MockEvictable(20));
+        builder.setImage(new MockRGBAImageFrame());
+
+        assertTrue(builder.build().isAvailable());
+    }
+
+    @Test
+    public void isAvailable_OneEvictableNotAvailable_False() {
+        MockEvictable evictable = new MockEvictable(20);
+        evictable.setAvailable(false);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.add(new MockEvictable(10)).add(evictable);
+        builder.setImage(new MockRGBAImageFrame());
+
+        assertFalse(builder.build().isAvailable());
+    }
+
 }
\ No newline at end of file
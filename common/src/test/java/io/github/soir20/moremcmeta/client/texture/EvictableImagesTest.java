@@ -0,0 +1,458 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link EvictableImages}.
+ * @author soir20
+ */
+public class EvictableImagesTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullImages_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(null, () -> ImmutableList.of("a"), String::length, (image) -> {}, Runnable::run);
+    }
+
+    @Test
+    public void construct_NullLoader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(ImmutableList.of("a"), null, String::length, (image) -> {}, Runnable::run);
+    }
+
+    @Test
+    public void construct_NullSizeCalculator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(ImmutableList.of("a"), () -> ImmutableList.of("a"), null, (image) -> {}, Runnable::run);
+    }
+
+    @Test
+    public void construct_NullCloseAction_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(ImmutableList.of("a"), () -> ImmutableList.of("a"), String::length, null, Runnable::run);
+    }
+
+    @Test
+    public void construct_NullReloadExecutor_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(ImmutableList.of("a"), () -> ImmutableList.of("a"), String::length,
+                (image) -> {}, null);
+    }
+
+    @Test
+    public void constructLazy_NullLoader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(null, String::length, (image) -> {}, Runnable::run);
+    }
+
+    @Test
+    public void constructLazy_NullSizeCalculator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(() -> ImmutableList.of("a"), null, (image) -> {}, Runnable::run);
+    }
+
+    @Test
+    public void constructLazy_NullCloseAction_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(() -> ImmutableList.of("a"), String::length, null, Runnable::run);
+    }
+
+    @Test
+    public void constructLazy_NullExecutor_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new EvictableImages<String>(() -> ImmutableList.of("a"), String::length, (image) -> {}, null);
+    }
+
+    @Test
+    public void constructLazy_NotUsed_NotLoaded() {
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(() -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        assertFalse(images.isLoaded());
+        assertEquals(0, images.getNativeBytes());
+        assertEquals(0, timesLoaded.get());
+    }
+
+    @Test
+    public void getLazy_NotLoadedAsync_LoadStartedOnExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        try {
+            images.get(0);
+            fail("Images should not be loaded on the current thread");
+        } catch (IllegalStateException err) {
+            assertFalse(images.isLoaded());
+            assertEquals(1, tasks.size());
+        }
+    }
+
+    @Test
+    public void loadAsync_Lazy_LoadedOnExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(() -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab");
+        }, String::length, (image) -> {}, tasks::add);
+
+        images.loadAsync();
+        assertEquals(1, tasks.size());
+        assertEquals(0, timesLoaded.get());
+
+        tasks.get(0).run();
+
+        assertEquals("ab", images.get(0));
+        assertEquals(1, timesLoaded.get());
+        assertEquals(2, images.getNativeBytes());
+    }
+
+    @Test
+    public void loadAsync_CalledTwice_LoadedOnce() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        images.loadAsync();
+        images.loadAsync();
+
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void loadAsync_EagerNotEvicted_NothingLoaded() {
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"), () -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        images.loadAsync();
+
+        assertEquals(0, timesLoaded.get());
+    }
+
+    @Test
+    public void loadAsync_EagerEvicted_ReloadedOnExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("cd"), String::length, (image) -> {}, tasks::add);
+
+        images.evict();
+        images.loadAsync();
+
+        assertEquals(1, tasks.size());
+        assertFalse(images.isLoaded());
+
+        tasks.get(0).run();
+
+        assertEquals("cd", images.get(0));
+    }
+
+    @Test
+    public void loadAsync_LoaderThrows_ExceptionOnGet() {
+        EvictableImages<String> images = new EvictableImages<>(() -> {
+            throw new IllegalStateException("dummy");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        images.loadAsync();
+
+        expectedException.expect(IllegalStateException.class);
+        images.get(0);
+    }
+
+    @Test
+    public void get_StillLoadingAsync_IllegalStateExceptionWithoutWaiting() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(() -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab");
+        }, String::length, (image) -> {}, tasks::add);
+
+        images.loadAsync();
+
+        try {
+            images.get(0);
+        } catch (IllegalStateException err) {
+            assertEquals(0, timesLoaded.get());
+            return;
+        }
+
+        fail("Images were retrieved while they were loading");
+    }
+
+    @Test
+    public void isAvailable_NotLoaded_LoadStartedAndNotAvailable() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        assertFalse(images.isAvailable());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void isAvailable_StillLoadingAsync_NotAvailable() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        images.loadAsync();
+
+        assertFalse(images.isAvailable());
+        assertFalse(images.isLoaded());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void isAvailable_LoadedAsync_AvailableAndLoaded() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        images.loadAsync();
+        tasks.get(0).run();
+
+        assertTrue(images.isAvailable());
+        assertTrue(images.isLoaded());
+        assertEquals(2, images.getNativeBytes());
+    }
+
+    @Test
+    public void isAvailable_LoaderThrows_NotAvailableAndNotLoadedAgain() {
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(() -> {
+            timesLoaded.incrementAndGet();
+            throw new IllegalStateException("dummy");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        images.loadAsync();
+
+        assertFalse(images.isAvailable());
+        assertFalse(images.isAvailable());
+        assertEquals(1, timesLoaded.get());
+    }
+
+    @Test
+    public void isAvailable_Eager_Available() {
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, (image) -> {}, Runnable::run);
+
+        assertTrue(images.isAvailable());
+    }
+
+    @Test
+    public void isAvailable_EagerEvicted_ReloadStartedAndNotAvailable() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, (image) -> {}, tasks::add);
+
+        images.evict();
+
+        assertFalse(images.isAvailable());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void get_EagerEvictedStillReloading_IllegalStateExceptionWithoutLoading() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"), () -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab");
+        }, String::length, (image) -> {}, tasks::add);
+
+        images.evict();
+
+        try {
+            images.get(0);
+            fail("Images should not be reloaded on the current thread");
+        } catch (IllegalStateException err) {
+            assertEquals(0, timesLoaded.get());
+            assertEquals(1, tasks.size());
+        }
+    }
+
+    @Test
+    public void evict_WhileLoadingAsync_LoadedImagesClosed() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> closed = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, closed::add, tasks::add);
+
+        images.loadAsync();
+        images.evict();
+        tasks.get(0).run();
+
+        assertEquals(ImmutableList.of("ab"), closed);
+        assertFalse(images.isLoaded());
+    }
+
+    @Test
+    public void runListeners_TextureRegistered_LoadStarted() {
+        List<Runnable> tasks = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(() -> ImmutableList.of("ab"),
+                String::length, (image) -> {}, tasks::add);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(images);
+        builder.build().load(null);
+
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void getNativeBytes_Loaded_SumOfImageSizes() {
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab", "cde"),
+                () -> ImmutableList.of("ab", "cde"), String::length, (image) -> {}, Runnable::run);
+
+        assertEquals(5, images.getNativeBytes());
+    }
+
+    @Test
+    public void get_Loaded_LoaderNotCalled() {
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab", "cde"), () -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("ab", "cde");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        assertEquals("cde", images.get(1));
+        assertEquals(0, timesLoaded.get());
+    }
+
+    @Test
+    public void get_IndexNegative_IllegalArgumentException() {
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, (image) -> {}, Runnable::run);
+
+        expectedException.expect(IllegalArgumentException.class);
+        images.get(-1);
+    }
+
+    @Test
+    public void get_IndexTooLarge_IllegalArgumentException() {
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, (image) -> {}, Runnable::run);
+
+        expectedException.expect(IllegalArgumentException.class);
+        images.get(1);
+    }
+
+    @Test
+    public void evict_Loaded_AllImagesClosed() {
+        List<String> closed = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab", "cde"),
+                () -> ImmutableList.of("ab", "cde"), String::length, closed::add, Runnable::run);
+
+        images.evict();
+
+        assertEquals(ImmutableList.of("ab", "cde"), closed);
+        assertEquals(0, images.getNativeBytes());
+    }
+
+    @Test
+    public void evict_Twice_ImagesClosedOnce() {
+        List<String> closed = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab", "cde"),
+                () -> ImmutableList.of("ab", "cde"), String::length, closed::add, Runnable::run);
+
+        images.evict();
+        images.evict();
+
+        assertEquals(2, closed.size());
+    }
+
+    @Test
+    public void get_AfterEviction_ImagesReloaded() {
+        AtomicInteger timesLoaded = new AtomicInteger();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab", "cde"), () -> {
+            timesLoaded.incrementAndGet();
+            return ImmutableList.of("fg", "hij");
+        }, String::length, (image) -> {}, Runnable::run);
+
+        images.evict();
+
+        assertEquals("fg", images.get(0));
+        assertEquals("hij", images.get(1));
+        assertEquals(1, timesLoaded.get());
+        assertEquals(5, images.getNativeBytes());
+    }
+
+    @Test
+    public void get_LoaderSuppliesNull_IllegalStateException() {
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> null, String::length, (image) -> {}, Runnable::run);
+        images.evict();
+
+        expectedException.expect(IllegalStateException.class);
+        images.get(0);
+    }
+
+    @Test
+    public void get_AfterTextureClosed_IllegalStateException() {
+        List<String> closed = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, closed::add, Runnable::run);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(images);
+        builder.build().close();
+
+        assertEquals(ImmutableList.of("ab"), closed);
+
+        expectedException.expect(IllegalStateException.class);
+        images.get(0);
+    }
+
+    @Test
+    public void evict_ThroughTexture_ImagesClosed() {
+        List<String> closed = new ArrayList<>();
+        EvictableImages<String> images = new EvictableImages<>(ImmutableList.of("ab"),
+                () -> ImmutableList.of("ab"), String::length, closed::add, Runnable::run);
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(images);
+        EventDrivenTexture texture = builder.build();
+
+        assertEquals(2, texture.getNativeBytes());
+        texture.evict();
+
+        assertEquals(ImmutableList.of("ab"), closed);
+        assertEquals(0, texture.getNativeBytes());
+    }
+
+}
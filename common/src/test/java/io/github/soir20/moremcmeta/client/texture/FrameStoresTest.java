@@ -0,0 +1,202 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link FrameStores}.
+ * @author soir20
+ */
+public class FrameStoresTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+    private static final List<IRGBAImage.VisibleArea> TWO_LEVELS = ImmutableList.of(EMPTY_AREA, EMPTY_AREA);
+    private static final IRGBAImage.VisibleArea FIRST_PIXEL = makeFirstPixelArea();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void storeSmallest_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        FrameStores.storeSmallest(null, 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void storeSmallest_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        FrameStores.storeSmallest(makeFrames(2, 4, 4, 2, 4), 4, 4, null, new MockBufferUploader());
+    }
+
+    @Test
+    public void storeSmallest_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        FrameStores.storeSmallest(ImmutableList.of(), 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void storeSmallest_EmptyFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        FrameStores.storeSmallest(makeFrames(2, 4, 4, 2, 4), 0, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void storeSmallest_FewColors_PaletteStore() {
+        List<List<IRGBAImage>> frames = makeFrames(2, 4, 4, 2, 4);
+
+        IFrameStore store = FrameStores.storeSmallest(frames, 4, 4, TWO_LEVELS,
+                new MockBufferUploader());
+
+        assertTrue(store instanceof PaletteFrameStore);
+        assertSameFrames(frames, store);
+    }
+
+    @Test
+    public void storeSmallest_TooManyColors_DirectStore() {
+        List<List<IRGBAImage>> frames = makeFrames(2, 16, 16, 2, PaletteRGBAImage.Palette.MAX_COLORS + 1);
+
+        IFrameStore store = FrameStores.storeSmallest(frames, 16, 16, makeFullAreas(16, 16, 2),
+                new MockBufferUploader());
+
+        assertTrue(store instanceof DirectFrameStore);
+        assertSameFrames(frames, store);
+    }
+
+    @Test
+    public void storeSmallest_FewColorsSmallChangedArea_DeltaStore() {
+        List<List<IRGBAImage>> frames = makeChangingFrames(10, 32, 32, 4);
+
+        IFrameStore store = FrameStores.storeSmallest(frames, 32, 32, ImmutableList.of(FIRST_PIXEL),
+                new MockBufferUploader());
+
+        assertTrue(store instanceof DeltaFrameStore);
+        assertSameFrames(frames, store);
+    }
+
+    @Test
+    public void storeSmallest_TooManyColorsSmallChangedArea_DeltaStore() {
+        List<List<IRGBAImage>> frames = makeChangingFrames(3, 32, 32, PaletteRGBAImage.Palette.MAX_COLORS + 1);
+
+        IFrameStore store = FrameStores.storeSmallest(frames, 32, 32, ImmutableList.of(FIRST_PIXEL),
+                new MockBufferUploader());
+
+        assertTrue(store instanceof DeltaFrameStore);
+        assertSameFrames(frames, store);
+    }
+
+    @Test
+    public void storeSmallest_FewColorsSmallChangedAreaFewFrames_PaletteStore() {
+        List<List<IRGBAImage>> frames = makeChangingFrames(3, 32, 32, 4);
+
+        IFrameStore store = FrameStores.storeSmallest(frames, 32, 32, ImmutableList.of(FIRST_PIXEL),
+                new MockBufferUploader());
+
+        assertTrue(store instanceof PaletteFrameStore);
+        assertSameFrames(frames, store);
+    }
+
+    private static List<List<IRGBAImage>> makeFrames(int frameCount, int width, int height, int levels,
+                                                    int colorCount) {
+        ImmutableList.Builder<List<IRGBAImage>> frames = new ImmutableList.Builder<>();
+        int color = 0;
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            ImmutableList.Builder<IRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < levels; level++) {
+                MockRGBAImage image = new MockRGBAImage(width >> level, height >> level);
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        image.setPixel(x, y, (color++ % colorCount) * 7 - 50);
+                    }
+                }
+
+                mipmaps.add(image);
+            }
+
+            frames.add(mipmaps.build());
+        }
+
+        return frames.build();
+    }
+
+    private static IRGBAImage.VisibleArea makeFirstPixelArea() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addPixel(0, 0);
+        return builder.build();
+    }
+
+    private static List<List<IRGBAImage>> makeChangingFrames(int frameCount, int width, int height,
+                                                            int colorCount) {
+        ImmutableList.Builder<List<IRGBAImage>> frames = new ImmutableList.Builder<>();
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            MockRGBAImage image = new MockRGBAImage(width, height);
+            int color = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setPixel(x, y, (color++ % colorCount) * 7 - 50);
+                }
+            }
+
+            // Only the first pixel changes between frames
+            image.setPixel(0, 0, frame);
+            frames.add(ImmutableList.of(image));
+        }
+
+        return frames.build();
+    }
+
+    private static List<IRGBAImage.VisibleArea> makeFullAreas(int width, int height, int levels) {
+        ImmutableList.Builder<IRGBAImage.VisibleArea> areas = new ImmutableList.Builder<>();
+
+        for (int level = 0; level < levels; level++) {
+            IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+            for (int y = 0; y < height >> level; y++) {
+                builder.addRow(0, y, width >> level);
+            }
+
+            areas.add(builder.build());
+        }
+
+        return areas.build();
+    }
+
+    private static void assertSameFrames(List<List<IRGBAImage>> expected, IFrameStore store) {
+        for (int frame = 0; frame < store.getFrameCount(); frame++) {
+            List<? extends IRGBAImage> mipmaps = store.getMipmaps(frame);
+
+            for (int level = 0; level < mipmaps.size(); level++) {
+                IRGBAImage image = mipmaps.get(level);
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        assertEquals(expected.get(frame).get(level).getPixel(x, y), image.getPixel(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,322 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ImagePool}.
+ * @author soir20
+ */
+public class ImagePoolTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeMaxBytes_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new ImagePool<MockImage>(-1, MockImage::getDimensions, MockImage::getBytes, MockImage::close);
+    }
+
+    @Test
+    public void construct_NullDimensionsGetter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ImagePool<MockImage>(100, null, MockImage::getBytes, MockImage::close);
+    }
+
+    @Test
+    public void construct_NullSizeCalculator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ImagePool<MockImage>(100, MockImage::getDimensions, null, MockImage::close);
+    }
+
+    @Test
+    public void construct_NullCloseAction_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ImagePool<MockImage>(100, MockImage::getDimensions, MockImage::getBytes, null);
+    }
+
+    @Test
+    public void take_ZeroWidth_IllegalArgException() {
+        ImagePool<MockImage> pool = makePool(100);
+
+        expectedException.expect(IllegalArgumentException.class);
+        pool.take(0, 1);
+    }
+
+    @Test
+    public void take_ZeroHeight_IllegalArgException() {
+        ImagePool<MockImage> pool = makePool(100);
+
+        expectedException.expect(IllegalArgumentException.class);
+        pool.take(1, 0);
+    }
+
+    @Test
+    public void take_NoneReleased_EmptyAndMissCounted() {
+        ImagePool<MockImage> pool = makePool(100);
+
+        assertFalse(pool.take(2, 2).isPresent());
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void take_SameSizeReleased_ReleasedImageReturned() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage image = new MockImage(2, 3);
+        pool.release(image);
+
+        Optional<MockImage> taken = pool.take(2, 3);
+
+        assertTrue(taken.isPresent());
+        assertSame(image, taken.get());
+        assertFalse(image.isClosed());
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getPooledCount());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void take_DifferentSizeReleased_Empty() {
+        ImagePool<MockImage> pool = makePool(100);
+        pool.release(new MockImage(3, 2));
+
+        assertFalse(pool.take(2, 3).isPresent());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    public void take_SeveralSameSizeReleased_MostRecentReturned() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage first = new MockImage(2, 2);
+        MockImage second = new MockImage(2, 2);
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(second, pool.take(2, 2).orElse(null));
+        assertSame(first, pool.take(2, 2).orElse(null));
+        assertFalse(pool.take(2, 2).isPresent());
+    }
+
+    @Test
+    public void release_Null_NullPointerException() {
+        ImagePool<MockImage> pool = makePool(100);
+
+        expectedException.expect(NullPointerException.class);
+        pool.release(null);
+    }
+
+    @Test
+    public void release_UnderMaxBytes_ImagePooled() {
+        ImagePool<MockImage> pool = makePool(100);
+        pool.release(new MockImage(2, 3));
+        pool.release(new MockImage(4, 4));
+
+        assertEquals(2, pool.getPooledCount());
+        assertEquals(22, pool.getPooledBytes());
+    }
+
+    @Test
+    public void release_LargerThanMaxBytes_ImageClosed() {
+        ImagePool<MockImage> pool = makePool(10);
+        MockImage image = new MockImage(4, 4);
+
+        pool.release(image);
+
+        assertTrue(image.isClosed());
+        assertEquals(0, pool.getPooledCount());
+        assertEquals(1, pool.getTrimmed());
+    }
+
+    @Test
+    public void release_OverMaxBytes_OldestImagesClosed() {
+        ImagePool<MockImage> pool = makePool(20);
+        MockImage first = new MockImage(3, 3);
+        MockImage second = new MockImage(2, 4);
+        MockImage third = new MockImage(3, 3);
+        pool.release(first);
+        pool.release(second);
+
+        pool.release(third);
+
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        assertFalse(third.isClosed());
+        assertEquals(17, pool.getPooledBytes());
+        assertSame(third, pool.take(3, 3).orElse(null));
+        assertFalse(pool.take(3, 3).isPresent());
+    }
+
+    @Test
+    public void release_OverMaxBytesAfterOldestTaken_NextOldestClosed() {
+        ImagePool<MockImage> pool = makePool(25);
+        MockImage first = new MockImage(2, 2);
+        MockImage second = new MockImage(2, 4);
+        MockImage third = new MockImage(3, 3);
+        MockImage fourth = new MockImage(3, 4);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        pool.take(2, 2);
+
+        pool.release(fourth);
+
+        assertFalse(first.isClosed());
+        assertTrue(second.isClosed());
+        assertFalse(third.isClosed());
+        assertFalse(fourth.isClosed());
+        assertEquals(21, pool.getPooledBytes());
+    }
+
+    @Test
+    public void trimUnused_FirstCall_NothingClosed() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage image = new MockImage(2, 2);
+        pool.release(image);
+
+        pool.trimUnused();
+
+        assertFalse(image.isClosed());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    public void trimUnused_ReleasedBeforePreviousTrim_ImageClosed() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage oldImage = new MockImage(2, 2);
+        MockImage newImage = new MockImage(3, 3);
+        pool.release(oldImage);
+        pool.trimUnused();
+        pool.release(newImage);
+
+        pool.trimUnused();
+
+        assertTrue(oldImage.isClosed());
+        assertFalse(newImage.isClosed());
+        assertEquals(1, pool.getPooledCount());
+        assertEquals(9, pool.getPooledBytes());
+        assertEquals(1, pool.getTrimmed());
+        assertFalse(pool.take(2, 2).isPresent());
+    }
+
+    @Test
+    public void trimUnused_OldImageTaken_TakenImageNotClosed() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage takenImage = new MockImage(2, 2);
+        MockImage unusedImage = new MockImage(3, 3);
+        pool.release(takenImage);
+        pool.release(unusedImage);
+        pool.trimUnused();
+        pool.take(2, 2);
+
+        pool.trimUnused();
+
+        assertFalse(takenImage.isClosed());
+        assertTrue(unusedImage.isClosed());
+        assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    public void trimUnused_TakenImageBetweenOldImages_NewImageKept() {
+        ImagePool<MockImage> pool = makePool(100);
+        MockImage first = new MockImage(2, 2);
+        MockImage second = new MockImage(3, 3);
+        pool.release(first);
+        pool.release(second);
+        pool.trimUnused();
+        MockImage third = new MockImage(4, 4);
+        pool.release(third);
+        pool.take(3, 3);
+
+        pool.trimUnused();
+
+        assertTrue(first.isClosed());
+        assertFalse(third.isClosed());
+        assertEquals(1, pool.getPooledCount());
+    }
+
+    @Test
+    public void logSummary_NullLogger_NullPointerException() {
+        ImagePool<MockImage> pool = makePool(100);
+
+        expectedException.expect(NullPointerException.class);
+        pool.logSummary(null);
+    }
+
+    @Test
+    public void logSummary_CountsRecorded_CountsResetButPoolKept() {
+        ImagePool<MockImage> pool = makePool(100);
+        pool.release(new MockImage(2, 2));
+        pool.release(new MockImage(2, 2));
+        pool.take(2, 2);
+        pool.take(3, 3);
+
+        pool.logSummary(LogManager.getLogger());
+
+        assertEquals(0, pool.getHits());
+        assertEquals(0, pool.getMisses());
+        assertEquals(0, pool.getTrimmed());
+        assertEquals(1, pool.getPooledCount());
+        assertEquals(4, pool.getPooledBytes());
+    }
+
+    private ImagePool<MockImage> makePool(long maxBytes) {
+        return new ImagePool<>(maxBytes, MockImage::getDimensions, MockImage::getBytes, MockImage::close);
+    }
+
+    /**
+     * A fake image that holds one byte per pixel.
+     * @author soir20
+     */
+    private static class MockImage {
+        private final int WIDTH;
+        private final int HEIGHT;
+        private boolean closed;
+
+        public MockImage(int width, int height) {
+            WIDTH = width;
+            HEIGHT = height;
+        }
+
+        public Point getDimensions() {
+            return new Point(WIDTH, HEIGHT);
+        }
+
+        public long getBytes() {
+            return (long) WIDTH * HEIGHT;
+        }
+
+        public void close() {
+            closed = true;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+
+}
@@ -17,12 +17,20 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.animation.AnimationStateBank;
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
 import net.minecraft.client.renderer.texture.AbstractTexture;
 import net.minecraft.resources.ResourceLocation;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.Assert.*;
 
 /**
@@ -47,6 +55,237 @@ public class LazyTextureManagerTest {
         new LazyTextureManager<>(texManager, null);
     }
 
+    @Test
+    public void construct_NegativeFinishTime_IllegalArgException() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        expectedException.expect(IllegalArgumentException.class);
+        new LazyTextureManager<>(texManager, new MockFinisher<>(), -1);
+    }
+
+    @Test
+    public void construct_NullAnimationStates_NullPointerException() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        expectedException.expect(NullPointerException.class);
+        new LazyTextureManager<>(texManager, new MockFinisher<>(), 0, null);
+    }
+
+    @Test
+    public void tick_HasAnimationStates_AnimationsAdvanced() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(10));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>(), 0, animationStates);
+
+        wrapper.tick();
+        wrapper.tick();
+
+        assertEquals(2, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void tick_NegativeTicks_IllegalArgException() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>());
+
+        expectedException.expect(IllegalArgumentException.class);
+        wrapper.tick(-1);
+    }
+
+    @Test
+    public void tick_SeveralTicks_AnimationsAdvancedByAll() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(10));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>(), 0, animationStates);
+
+        wrapper.tick(3);
+
+        assertEquals(3, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void tick_ZeroTicks_AnimationsNotAdvanced() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(10));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>(), 0, animationStates);
+
+        wrapper.tick(0);
+
+        assertEquals(0, timeline.getTicksInFrame());
+    }
+
+    @Test
+    public void tick_ZeroTicks_QueuedFinishedButNotTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+
+        ResourceLocation location2 = new ResourceLocation("cat.png");
+        wrapper.register(location2, 2);
+
+        wrapper.finishQueued();
+        wrapper.tick(0);
+
+        assertEquals(0, ((MockAnimatedTexture) texManager.getTexture(location2)).getTicks());
+    }
+
+    @Test
+    public void tick_SeveralTicks_TexturesTickedOnce() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>()
+        );
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        wrapper.tick(5);
+
+        assertEquals(1, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_TimelineFrameNotChanged_TextureNotTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(3));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(timeline)), 0, animationStates);
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        wrapper.tick();
+        wrapper.tick();
+
+        assertEquals(0, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_TimelineFrameChanged_TextureTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(3, 3));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(timeline)), 0, animationStates);
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        for (int tick = 0; tick < 7; tick++) {
+            wrapper.tick();
+        }
+
+        assertEquals(2, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_SharedTimelineFrameChanged_AllFollowingTexturesTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(2, 2));
+        AnimationTimeline otherTimeline = animationStates.add(ImmutableList.of(5, 5));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(input == 3 ? otherTimeline : timeline)),
+                Long.MAX_VALUE, animationStates);
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+        ResourceLocation location2 = new ResourceLocation("cat.png");
+        wrapper.register(location2, 2);
+        ResourceLocation location3 = new ResourceLocation("ocelot.png");
+        wrapper.register(location3, 3);
+        wrapper.finishQueued();
+
+        wrapper.tick(2);
+
+        assertEquals(1, ((MockAnimatedTexture) texManager.getTexture(location1)).getTicks());
+        assertEquals(1, ((MockAnimatedTexture) texManager.getTexture(location2)).getTicks());
+        assertEquals(0, ((MockAnimatedTexture) texManager.getTexture(location3)).getTicks());
+    }
+
+    @Test
+    public void tick_NoTimelineWithAnimationStates_TextureTickedEveryTick() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>(), 0, animationStates);
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        wrapper.tick();
+        wrapper.tick();
+
+        assertEquals(2, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_TimelineFromOtherBank_TextureTickedEveryTick() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(timeline)), 0, new AnimationStateBank());
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        wrapper.tick();
+        wrapper.tick();
+
+        assertEquals(2, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_TimelineWithoutAnimationStates_TextureTickedEveryTick() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationTimeline timeline = new AnimationStateBank().add(ImmutableList.of(10));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(timeline)));
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+
+        wrapper.tick();
+        wrapper.tick();
+
+        assertEquals(2, ((MockAnimatedTexture) texManager.getTexture(location)).getTicks());
+    }
+
+    @Test
+    public void tick_TimelineTextureUnregistered_TextureNotTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        AnimationStateBank animationStates = new AnimationStateBank();
+        AnimationTimeline timeline = animationStates.add(ImmutableList.of(1));
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(texManager,
+                new MockFinisher<>((input) -> new MockAnimatedTexture(timeline)), 0, animationStates);
+
+        ResourceLocation location = new ResourceLocation("bat.png");
+        wrapper.register(location, 1);
+        wrapper.finishQueued();
+        MockAnimatedTexture texture = (MockAnimatedTexture) texManager.getTexture(location);
+
+        wrapper.unregister(location);
+        wrapper.tick();
+
+        assertEquals(0, texture.getTicks());
+    }
+
     @Test
     public void register_NullLocation_NullPointerException() {
         MockManager<AbstractTexture> texManager = new MockManager<>();
@@ -118,6 +357,82 @@ public class LazyTextureManagerTest {
         assertTrue(texManager.getTexture(location3) instanceof MockAnimatedTexture);
     }
 
+    @Test
+    public void finishQueued_NoTimePerTick_OneTextureFinishedImmediately() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+
+        ResourceLocation location2 = new ResourceLocation("cat.png");
+        wrapper.register(location2, 2);
+
+        wrapper.finishQueued();
+        assertTrue(texManager.getTexture(location1) instanceof MockAnimatedTexture);
+        assertNull(texManager.getTexture(location2));
+    }
+
+    @Test
+    public void finishQueuedAndTick_NoTimePerTick_RestFinishedInLaterTicks() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+
+        ResourceLocation location2 = new ResourceLocation("cat.png");
+        wrapper.register(location2, 2);
+
+        ResourceLocation location3 = new ResourceLocation("ocelot.png");
+        wrapper.register(location3, 2);
+
+        wrapper.finishQueued();
+        wrapper.tick();
+        assertTrue(texManager.getTexture(location2) instanceof MockAnimatedTexture);
+        assertNull(texManager.getTexture(location3));
+
+        wrapper.tick();
+        assertTrue(texManager.getTexture(location3) instanceof MockAnimatedTexture);
+    }
+
+    @Test
+    public void finishQueuedAndTick_FinishedInLaterTick_FinishedTextureTicked() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+
+        ResourceLocation location2 = new ResourceLocation("cat.png");
+        wrapper.register(location2, 2);
+
+        wrapper.finishQueued();
+        wrapper.tick();
+
+        assertEquals(1, ((MockAnimatedTexture) texManager.getTexture(location2)).getTicks());
+    }
+
+    @Test
+    public void tick_NotFinishing_QueuedTexturesNotFinished() {
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        ResourceLocation location1 = new ResourceLocation("bat.png");
+        wrapper.register(location1, 1);
+        wrapper.tick();
+
+        assertNull(texManager.getTexture(location1));
+    }
+
     @Test
     public void finish_NoneQueued_NoException() {
         MockManager<AbstractTexture> texManager = new MockManager<>();
@@ -192,4 +507,62 @@ public class LazyTextureManagerTest {
         wrapper.tick();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void registerAndTick_ManyThreads_AllTexturesFinishedAndTicked() throws InterruptedException {
+        int threads = 4;
+        int texturesPerThread = 500;
+
+        MockManager<AbstractTexture> texManager = new MockManager<>();
+        LazyTextureManager<Integer, MockAnimatedTexture> wrapper = new LazyTextureManager<>(
+                texManager, new MockFinisher<>(), 0
+        );
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int threadIndex = thread;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int texture = 0; texture < texturesPerThread; texture++) {
+                        wrapper.register(new ResourceLocation("textures/" + threadIndex + "_" + texture + ".png"),
+                                texture);
+                        if (texture % 50 == 0) {
+                            wrapper.unregister(new ResourceLocation("missing.png"));
+                        }
+                    }
+                } catch (Throwable err) {
+                    error.set(err);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        // Tick and finish on this thread while the producers register textures
+        start.countDown();
+        wrapper.finishQueued();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            wrapper.tick();
+            wrapper.finishQueued();
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        wrapper.finishQueued();
+        while (texManager.getLocations().size() < threads * texturesPerThread) {
+            wrapper.tick();
+        }
+        wrapper.tick();
+
+        assertNull(error.get());
+        assertEquals(threads * texturesPerThread, texManager.getLocations().size());
+        for (ResourceLocation location : texManager.getLocations()) {
+            assertTrue(((MockAnimatedTexture) texManager.getTexture(location)).getTicks() > 0);
+        }
+    }
+
+}
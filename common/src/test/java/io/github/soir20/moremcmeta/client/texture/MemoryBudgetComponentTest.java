@@ -0,0 +1,120 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link MemoryBudgetComponent}.
+ * @author soir20
+ */
+public class MemoryBudgetComponentTest {
+    private static final ResourceLocation FIRST = new ResourceLocation("textures/first.png");
+    private static final ResourceLocation SECOND = new ResourceLocation("textures/second.png");
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullLocation_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryBudgetComponent(null, new NativeMemoryBudget(100, 0, LogManager.getLogger()));
+    }
+
+    @Test
+    public void construct_NullBudget_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new MemoryBudgetComponent(FIRST, null);
+    }
+
+    @Test
+    public void runListeners_Registered_MemoryTracked() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        EventDrivenTexture texture = makeTexture(FIRST, budget, new MockEvictable(30));
+
+        texture.load(null);
+
+        assertEquals(30, budget.getBytes(FIRST));
+    }
+
+    @Test
+    public void runListeners_Closed_MemoryUntracked() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        EventDrivenTexture texture = makeTexture(FIRST, budget, new MockEvictable(30));
+
+        texture.load(null);
+        texture.close();
+
+        assertEquals(0, budget.getTotalBytes());
+    }
+
+    @Test
+    public void runListeners_BoundBeforeOverBudget_OtherTextureEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(30);
+        MockEvictable second = new MockEvictable(30);
+        EventDrivenTexture firstTexture = makeTexture(FIRST, budget, first);
+        EventDrivenTexture secondTexture = makeTexture(SECOND, budget, second);
+
+        firstTexture.load(null);
+        secondTexture.load(null);
+
+        assertTrue(first.isEvicted());
+        assertFalse(second.isEvicted());
+
+        first.restore();
+        firstTexture.bind();
+
+        assertFalse(first.isEvicted());
+        assertTrue(second.isEvicted());
+    }
+
+    @Test
+    public void runListeners_UploadedBeforeOverBudget_OtherTextureEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(30);
+        MockEvictable second = new MockEvictable(30);
+        EventDrivenTexture firstTexture = makeTexture(FIRST, budget, first);
+        EventDrivenTexture secondTexture = makeTexture(SECOND, budget, second);
+
+        firstTexture.load(null);
+        secondTexture.load(null);
+
+        first.restore();
+        firstTexture.upload();
+
+        assertFalse(first.isEvicted());
+        assertTrue(second.isEvicted());
+    }
+
+    private EventDrivenTexture makeTexture(ResourceLocation location, NativeMemoryBudget budget,
+                                           MockEvictable evictable) {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame())
+                .add(evictable)
+                .add(new MemoryBudgetComponent(location, budget));
+        return builder.build();
+    }
+
+}
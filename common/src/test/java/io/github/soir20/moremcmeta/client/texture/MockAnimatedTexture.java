@@ -17,21 +17,40 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import io.github.soir20.moremcmeta.client.animation.AnimationTimeline;
 import net.minecraft.client.renderer.texture.AbstractTexture;
 import net.minecraft.server.packs.resources.ResourceManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
 
 /**
  * A fake tickable texture.
  * @author soir20
  */
-public class MockAnimatedTexture extends AbstractTexture implements CustomTickable {
+public class MockAnimatedTexture extends AbstractTexture implements ITimelineTickable {
+    @Nullable
+    private final AnimationTimeline TIMELINE;
     private int ticks;
 
+    public MockAnimatedTexture() {
+        this(null);
+    }
+
+    public MockAnimatedTexture(@Nullable AnimationTimeline timeline) {
+        TIMELINE = timeline;
+    }
+
     @Override
     public void tick() {
         ticks++;
     }
 
+    @Override
+    public Optional<AnimationTimeline> getTickTimeline() {
+        return Optional.ofNullable(TIMELINE);
+    }
+
     public int getTicks() {
         return ticks;
     }
@@ -0,0 +1,71 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+
+import java.nio.IntBuffer;
+
+/**
+ * Mocks an {@link IBufferUploader}. Keeps track of the last upload.
+ * @author soir20
+ */
+public class MockBufferUploader implements IBufferUploader {
+    private int[] lastPixels;
+    private int lastWidth;
+    private int lastHeight;
+    private int lastMipmapLevel;
+    private Point lastUploadPoint;
+    private int uploadCount;
+
+    @Override
+    public void upload(IntBuffer pixels, int width, int height, int mipmapLevel, int uploadX, int uploadY) {
+        lastPixels = new int[width * height];
+        pixels.get(lastPixels);
+        lastWidth = width;
+        lastHeight = height;
+        lastMipmapLevel = mipmapLevel;
+        lastUploadPoint = new Point(uploadX, uploadY);
+        uploadCount++;
+    }
+
+    public int[] getLastPixels() {
+        return lastPixels;
+    }
+
+    public int getLastWidth() {
+        return lastWidth;
+    }
+
+    public int getLastHeight() {
+        return lastHeight;
+    }
+
+    public int getLastMipmapLevel() {
+        return lastMipmapLevel;
+    }
+
+    public Point getLastUploadPoint() {
+        return lastUploadPoint;
+    }
+
+    public int getUploadCount() {
+        return uploadCount;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import java.util.stream.Stream;
+
+/**
+ * A fake {@link IEvictable} that holds a fixed number of bytes until it is evicted.
+ * @author soir20
+ */
+public class MockEvictable implements IEvictable, ITextureComponent {
+    private final long BYTES;
+    private boolean evicted;
+    private boolean available;
+    private int timesEvicted;
+
+    public MockEvictable(long bytes) {
+        BYTES = bytes;
+        available = true;
+    }
+
+    @Override
+    public long getNativeBytes() {
+        return evicted ? 0 : BYTES;
+    }
+
+    @Override
+    public void evict() {
+        evicted = true;
+        timesEvicted++;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public Stream<TextureListener> getListeners() {
+        return Stream.of();
+    }
+
+    public void restore() {
+        evicted = false;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public int getTimesEvicted() {
+        return timesEvicted;
+    }
+
+}
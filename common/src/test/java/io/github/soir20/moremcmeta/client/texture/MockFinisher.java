@@ -20,31 +20,66 @@ package io.github.soir20.moremcmeta.client.texture;
 import net.minecraft.resources.ResourceLocation;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * A fake {@link IFinisher} that turns items to textures.
+ * A fake {@link IFinisher} that turns items to textures. Items can be queued from any thread.
  * @param <I> input type
  * @author soir20
  */
 public class MockFinisher<I> implements IFinisher<I, MockAnimatedTexture> {
     private final Map<ResourceLocation, I> ITEMS;
+    private final Function<I, MockAnimatedTexture> TEXTURE_FACTORY;
 
     public MockFinisher() {
-        ITEMS = new HashMap<>();
+        this((input) -> new MockAnimatedTexture());
+    }
+
+    public MockFinisher(Function<I, MockAnimatedTexture> textureFactory) {
+        ITEMS = new LinkedHashMap<>();
+        TEXTURE_FACTORY = textureFactory;
     }
 
     @Override
-    public void queue(ResourceLocation location, I input) {
+    public synchronized void queue(ResourceLocation location, I input) {
         ITEMS.put(location, input);
     }
 
     @Override
-    public Map<ResourceLocation, MockAnimatedTexture> finish() {
-        return ITEMS.entrySet().stream().collect(
-                Collectors.toMap(Map.Entry::getKey, entry -> new MockAnimatedTexture())
+    public synchronized Map<ResourceLocation, MockAnimatedTexture> finish() {
+        Map<ResourceLocation, MockAnimatedTexture> textures = ITEMS.entrySet().stream().collect(
+                Collectors.toMap(Map.Entry::getKey, entry -> TEXTURE_FACTORY.apply(entry.getValue()))
         );
+        ITEMS.clear();
+        return textures;
+    }
+
+    @Override
+    public synchronized Map<ResourceLocation, MockAnimatedTexture> finish(long maxNanos) {
+        Map<ResourceLocation, MockAnimatedTexture> textures = new HashMap<>();
+        long start = System.nanoTime();
+
+        Iterator<ResourceLocation> iterator = ITEMS.keySet().iterator();
+        while (iterator.hasNext()) {
+            ResourceLocation location = iterator.next();
+            textures.put(location, TEXTURE_FACTORY.apply(ITEMS.get(location)));
+            iterator.remove();
+
+            if (System.nanoTime() - start >= maxNanos) {
+                break;
+            }
+        }
+
+        return textures;
+    }
+
+    @Override
+    public synchronized boolean hasQueued() {
+        return !ITEMS.isEmpty();
     }
 
 }
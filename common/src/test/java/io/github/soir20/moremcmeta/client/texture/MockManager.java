@@ -20,9 +20,9 @@ package io.github.soir20.moremcmeta.client.texture;
 import net.minecraft.client.renderer.texture.Tickable;
 import net.minecraft.resources.ResourceLocation;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Keeps track of the {@link ResourceLocation}s of textures that would have been added to a real texture manager.
@@ -34,8 +34,8 @@ public class MockManager<R> implements IManager<R> {
     private final Map<ResourceLocation, Tickable> ANIMATED_TEXTURES;
 
     public MockManager() {
-        TEXTURES = new HashMap<>();
-        ANIMATED_TEXTURES = new HashMap<>();
+        TEXTURES = new ConcurrentHashMap<>();
+        ANIMATED_TEXTURES = new ConcurrentHashMap<>();
     }
 
     @Override
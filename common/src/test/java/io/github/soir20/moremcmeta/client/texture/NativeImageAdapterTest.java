@@ -17,11 +17,14 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import com.mojang.blaze3d.platform.NativeImage;
 import io.github.soir20.moremcmeta.client.adapter.NativeImageAdapter;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.function.Supplier;
+
 /**
  * Tests the {@link NativeImageAdapter >} as much as possible without
  * instantiating a {@link com.mojang.blaze3d.platform.NativeImage}, which
@@ -35,10 +38,24 @@ public class NativeImageAdapterTest {
     @Test
     public void constructFull_NullImage_NullPointerException() {
         expectedException.expect(NullPointerException.class);
-        new NativeImageAdapter(null, 0, 0, 100, 100, 2,
+        new NativeImageAdapter((NativeImage) null, 0, 0, 100, 100, 2,
                 false, false, false, (new IRGBAImage.VisibleArea.Builder()).build());
     }
 
+    @Test
+    public void constructFull_NullImageGetter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new NativeImageAdapter((Supplier<NativeImage>) null, 0, 0, 100, 100, 2,
+                false, false, false, () -> (new IRGBAImage.VisibleArea.Builder()).build());
+    }
+
+    @Test
+    public void constructFull_NullVisibleAreaGetter_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new NativeImageAdapter(() -> null, 0, 0, 100, 100, 2,
+                false, false, false, (Supplier<IRGBAImage.VisibleArea>) null);
+    }
+
     @Test
     public void constructReduced_NullImage_NullPointerException() {
         expectedException.expect(NullPointerException.class);
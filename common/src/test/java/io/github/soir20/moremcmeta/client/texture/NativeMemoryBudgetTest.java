@@ -0,0 +1,312 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link NativeMemoryBudget}.
+ * @author soir20
+ */
+public class NativeMemoryBudgetTest {
+    private static final ResourceLocation FIRST = new ResourceLocation("textures/first.png");
+    private static final ResourceLocation SECOND = new ResourceLocation("textures/second.png");
+    private static final ResourceLocation THIRD = new ResourceLocation("textures/third.png");
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeMaxBytes_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new NativeMemoryBudget(-1, 0, LogManager.getLogger());
+    }
+
+    @Test
+    public void construct_NegativeProtectedFrames_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new NativeMemoryBudget(100, -1, LogManager.getLogger());
+    }
+
+    @Test
+    public void construct_NullLogger_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new NativeMemoryBudget(100, 0, null);
+    }
+
+    @Test
+    public void track_NullLocation_NullPointerException() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+
+        expectedException.expect(NullPointerException.class);
+        budget.track(null, new MockEvictable(10));
+    }
+
+    @Test
+    public void track_NullEvictable_NullPointerException() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+
+        expectedException.expect(NullPointerException.class);
+        budget.track(FIRST, null);
+    }
+
+    @Test
+    public void track_UnderBudget_BytesCounted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        budget.track(FIRST, new MockEvictable(10));
+        budget.track(SECOND, new MockEvictable(20));
+
+        assertEquals(10, budget.getBytes(FIRST));
+        assertEquals(20, budget.getBytes(SECOND));
+        assertEquals(30, budget.getTotalBytes());
+    }
+
+    @Test
+    public void track_SameLocationTwice_OnlyLastCounted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        budget.track(FIRST, new MockEvictable(10));
+        budget.track(FIRST, new MockEvictable(20));
+
+        assertEquals(20, budget.getBytes(FIRST));
+        assertEquals(20, budget.getTotalBytes());
+    }
+
+    @Test
+    public void track_OverBudget_LeastRecentlyUsedEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.track(THIRD, third);
+
+        assertTrue(first.isEvicted());
+        assertFalse(second.isEvicted());
+        assertFalse(third.isEvicted());
+        assertEquals(40, budget.getTotalBytes());
+    }
+
+    @Test
+    public void track_SingleTextureOverBudget_NotEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(10, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+
+        assertFalse(first.isEvicted());
+        assertEquals(20, budget.getTotalBytes());
+    }
+
+    @Test
+    public void markUsed_UsedBeforeOverBudget_OtherTextureEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.markUsed(FIRST);
+        budget.track(THIRD, third);
+
+        assertFalse(first.isEvicted());
+        assertTrue(second.isEvicted());
+        assertFalse(third.isEvicted());
+    }
+
+    @Test
+    public void markUsed_RestoredAfterEviction_BytesCountedAgain() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.track(THIRD, third);
+
+        first.restore();
+        budget.markUsed(FIRST);
+
+        assertFalse(first.isEvicted());
+        assertTrue(second.isEvicted());
+        assertFalse(third.isEvicted());
+        assertEquals(20, budget.getBytes(FIRST));
+        assertEquals(0, budget.getBytes(SECOND));
+        assertEquals(40, budget.getTotalBytes());
+    }
+
+    @Test
+    public void markUsed_EvictedTextureNotUsed_NotEvictedAgain() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(40);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.track(THIRD, third);
+
+        assertEquals(1, first.getTimesEvicted());
+        assertEquals(1, second.getTimesEvicted());
+        assertEquals(40, budget.getTotalBytes());
+    }
+
+    @Test
+    public void markUsed_NotTracked_NoException() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        budget.markUsed(FIRST);
+
+        assertEquals(0, budget.getTotalBytes());
+    }
+
+    @Test
+    public void untrack_SameEvictable_BytesRemoved() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(10);
+        budget.track(FIRST, first);
+        budget.track(SECOND, new MockEvictable(20));
+
+        budget.untrack(FIRST, first);
+
+        assertEquals(0, budget.getBytes(FIRST));
+        assertEquals(20, budget.getTotalBytes());
+    }
+
+    @Test
+    public void untrack_ReplacedEvictable_BytesNotRemoved() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        MockEvictable original = new MockEvictable(10);
+        budget.track(FIRST, original);
+        budget.track(FIRST, new MockEvictable(20));
+
+        budget.untrack(FIRST, original);
+
+        assertEquals(20, budget.getBytes(FIRST));
+        assertEquals(20, budget.getTotalBytes());
+    }
+
+    @Test
+    public void getUsage_SeveralTextures_LeastRecentlyUsedFirst() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(100, 0, LogManager.getLogger());
+        budget.track(FIRST, new MockEvictable(10));
+        budget.track(SECOND, new MockEvictable(20));
+        budget.track(THIRD, new MockEvictable(30));
+        budget.markUsed(FIRST);
+
+        assertEquals(ImmutableList.of(SECOND, THIRD, FIRST), budget.getUsage().keySet().asList());
+        assertEquals(Long.valueOf(10), budget.getUsage().get(FIRST));
+    }
+
+    @Test
+    public void getBytes_ReadUsage_EvictionOrderUnchanged() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 0, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.getBytes(FIRST);
+        budget.track(THIRD, new MockEvictable(20));
+
+        assertTrue(first.isEvicted());
+        assertFalse(second.isEvicted());
+    }
+
+    @Test
+    public void track_OverBudgetUsedThisFrame_NotEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 2, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.track(THIRD, third);
+
+        assertFalse(first.isEvicted());
+        assertFalse(second.isEvicted());
+        assertFalse(third.isEvicted());
+        assertEquals(60, budget.getTotalBytes());
+    }
+
+    @Test
+    public void track_OverBudgetUsedWithinProtectedFrames_NotEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 2, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.startFrame();
+        budget.track(THIRD, third);
+
+        assertFalse(first.isEvicted());
+        assertFalse(second.isEvicted());
+        assertFalse(third.isEvicted());
+    }
+
+    @Test
+    public void track_OverBudgetAfterProtectedFrames_LeastRecentlyUsedEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 2, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.startFrame();
+        budget.startFrame();
+        budget.track(THIRD, third);
+
+        assertTrue(first.isEvicted());
+        assertFalse(second.isEvicted());
+        assertFalse(third.isEvicted());
+        assertEquals(40, budget.getTotalBytes());
+    }
+
+    @Test
+    public void markUsed_UsedWithinProtectedFrames_OtherTextureEvicted() {
+        NativeMemoryBudget budget = new NativeMemoryBudget(50, 2, LogManager.getLogger());
+        MockEvictable first = new MockEvictable(20);
+        MockEvictable second = new MockEvictable(20);
+        MockEvictable third = new MockEvictable(20);
+
+        budget.track(FIRST, first);
+        budget.track(SECOND, second);
+        budget.startFrame();
+        budget.markUsed(FIRST);
+        budget.startFrame();
+        budget.track(THIRD, third);
+
+        assertFalse(first.isEvicted());
+        assertTrue(second.isEvicted());
+        assertFalse(third.isEvicted());
+    }
+
+}
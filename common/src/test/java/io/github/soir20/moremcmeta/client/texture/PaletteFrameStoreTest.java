@@ -0,0 +1,255 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link PaletteFrameStore}.
+ * @author soir20
+ */
+public class PaletteFrameStoreTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+    private static final List<IRGBAImage.VisibleArea> TWO_LEVELS = ImmutableList.of(EMPTY_AREA, EMPTY_AREA);
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void palettize_NullFrames_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        PaletteFrameStore.palettize(null, 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_NullFrame_NullPointerException() {
+        List<List<IRGBAImage>> frames = new ArrayList<>();
+        frames.add(null);
+
+        expectedException.expect(NullPointerException.class);
+        PaletteFrameStore.palettize(frames, 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 4, null, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 4, TWO_LEVELS, null);
+    }
+
+    @Test
+    public void palettize_EmptyWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 0, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_EmptyHeight_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 0, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(ImmutableList.of(), 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_NoVisibleAreas_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 4, ImmutableList.of(),
+                new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_MissingMipmap_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 4, 4, 1, 4), 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_MipmapTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.palettize(makeFrames(2, 3, 4, 2, 4), 4, 4, TWO_LEVELS, new MockBufferUploader());
+    }
+
+    @Test
+    public void palettize_FewColors_AllPixelsStored() {
+        List<List<IRGBAImage>> frames = makeFrames(3, 4, 4, 2, 10);
+
+        Optional<PaletteFrameStore> store = PaletteFrameStore.palettize(frames, 4, 4, TWO_LEVELS,
+                new MockBufferUploader());
+
+        assertTrue(store.isPresent());
+        assertEquals(3, store.get().getFrameCount());
+        assertEquals(10, store.get().getPalette().getSize());
+        assertSameFrames(frames, store.get());
+    }
+
+    @Test
+    public void palettize_MaxColors_StorePresent() {
+        Optional<PaletteFrameStore> store = PaletteFrameStore.palettize(
+                makeFrames(1, 16, 16, 1, PaletteRGBAImage.Palette.MAX_COLORS), 16, 16,
+                ImmutableList.of(EMPTY_AREA), new MockBufferUploader());
+
+        assertTrue(store.isPresent());
+        assertEquals(PaletteRGBAImage.Palette.MAX_COLORS, store.get().getPalette().getSize());
+    }
+
+    @Test
+    public void palettize_TooManyColors_Empty() {
+        Optional<PaletteFrameStore> store = PaletteFrameStore.palettize(
+                makeFrames(2, 16, 16, 1, PaletteRGBAImage.Palette.MAX_COLORS + 1), 16, 16,
+                ImmutableList.of(EMPTY_AREA), new MockBufferUploader());
+
+        assertFalse(store.isPresent());
+    }
+
+    @Test
+    public void palettize_LargerMipmaps_TopLeftStored() {
+        List<List<IRGBAImage>> frames = makeFrames(1, 8, 8, 2, 50);
+
+        PaletteFrameStore store = PaletteFrameStore.palettize(frames, 4, 4, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        assertEquals(4, store.getMipmaps(0).get(0).getWidth());
+        assertEquals(2, store.getMipmaps(0).get(1).getHeight());
+        assertSameFrames(frames, store);
+    }
+
+    @Test
+    public void estimateSizeInBytes_NullVisibleAreas_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        PaletteFrameStore.estimateSizeInBytes(8, 8, 4, null);
+    }
+
+    @Test
+    public void estimateSizeInBytes_EmptyWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.estimateSizeInBytes(0, 8, 4, TWO_LEVELS);
+    }
+
+    @Test
+    public void estimateSizeInBytes_NoFrames_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        PaletteFrameStore.estimateSizeInBytes(8, 8, 0, TWO_LEVELS);
+    }
+
+    @Test
+    public void estimateSizeInBytes_TwoLevels_SameAsCreatedStore() {
+        PaletteFrameStore store = PaletteFrameStore.palettize(makeFrames(4, 8, 8, 2, 4), 8, 8, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        assertEquals(store.getSizeInBytes(), PaletteFrameStore.estimateSizeInBytes(8, 8, 4, TWO_LEVELS));
+    }
+
+    @Test
+    public void getSizeInBytes_TwoLevels_QuarterOfDirectStorePlusExpansion() {
+        PaletteFrameStore store = PaletteFrameStore.palettize(makeFrames(4, 8, 8, 2, 4), 8, 8, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        assertEquals(4 * (64 + 16) + 64 * 4, store.getSizeInBytes());
+    }
+
+    @Test
+    public void getMipmaps_NegativeFrame_IllegalArgException() {
+        PaletteFrameStore store = PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 4, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(-1);
+    }
+
+    @Test
+    public void getMipmaps_FrameTooLarge_IllegalArgException() {
+        PaletteFrameStore store = PaletteFrameStore.palettize(makeFrames(2, 4, 4, 2, 4), 4, 4, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        expectedException.expect(IllegalArgumentException.class);
+        store.getMipmaps(2);
+    }
+
+    @Test
+    public void getMipmaps_SetPixelInOneFrame_OtherFramesUnchanged() {
+        List<List<IRGBAImage>> frames = makeFrames(2, 4, 4, 2, 4);
+        PaletteFrameStore store = PaletteFrameStore.palettize(frames, 4, 4, TWO_LEVELS,
+                new MockBufferUploader()).get();
+
+        store.getMipmaps(0).get(1).setPixel(1, 1, -100);
+
+        assertEquals(-100, store.getMipmaps(0).get(1).getPixel(1, 1));
+        assertEquals(frames.get(1).get(1).getPixel(1, 1), store.getMipmaps(1).get(1).getPixel(1, 1));
+        assertEquals(frames.get(0).get(0).getPixel(3, 3), store.getMipmaps(0).get(0).getPixel(3, 3));
+    }
+
+    private static List<List<IRGBAImage>> makeFrames(int frameCount, int width, int height, int levels,
+                                                    int colorCount) {
+        ImmutableList.Builder<List<IRGBAImage>> frames = new ImmutableList.Builder<>();
+        int color = 0;
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            ImmutableList.Builder<IRGBAImage> mipmaps = new ImmutableList.Builder<>();
+
+            for (int level = 0; level < levels; level++) {
+                MockRGBAImage image = new MockRGBAImage(width >> level, height >> level);
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        image.setPixel(x, y, (color++ % colorCount) * 7 - 50);
+                    }
+                }
+
+                mipmaps.add(image);
+            }
+
+            frames.add(mipmaps.build());
+        }
+
+        return frames.build();
+    }
+
+    private static void assertSameFrames(List<List<IRGBAImage>> expected, IFrameStore store) {
+        for (int frame = 0; frame < store.getFrameCount(); frame++) {
+            List<? extends IRGBAImage> mipmaps = store.getMipmaps(frame);
+
+            for (int level = 0; level < mipmaps.size(); level++) {
+                IRGBAImage image = mipmaps.get(level);
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        assertEquals(expected.get(frame).get(level).getPixel(x, y), image.getPixel(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+}
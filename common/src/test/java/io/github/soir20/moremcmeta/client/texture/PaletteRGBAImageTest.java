@@ -0,0 +1,265 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import io.github.soir20.moremcmeta.math.Point;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link PaletteRGBAImage}.
+ * @author soir20
+ */
+public class PaletteRGBAImageTest {
+    private static final IRGBAImage.VisibleArea EMPTY_AREA = (new IRGBAImage.VisibleArea.Builder()).build();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullIndices_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PaletteRGBAImage(null, new PaletteRGBAImage.Palette(), makeExpanded(25), 5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullPalette_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), null, makeExpanded(25), 5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullExpansionBuffer_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), null, 5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullVisibleArea_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), makeExpanded(25), 5, 5, 0,
+                null, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NullUploader_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), makeExpanded(25), 5, 5, 0,
+                EMPTY_AREA, null);
+    }
+
+    @Test
+    public void construct_NegativeWidth_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), makeExpanded(25), -5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_NegativeMipmapLevel_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), makeExpanded(25), 5, 5, -1,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_IndexBufferTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(24), new PaletteRGBAImage.Palette(), makeExpanded(25), 5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void construct_ExpansionBufferTooSmall_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new PaletteRGBAImage(ByteBuffer.allocate(25), new PaletteRGBAImage.Palette(), makeExpanded(24), 5, 5, 0,
+                EMPTY_AREA, new MockBufferUploader());
+    }
+
+    @Test
+    public void setPixel_NewColors_SameColorsRetrieved() {
+        PaletteRGBAImage image = makeImage(new PaletteRGBAImage.Palette(), new MockBufferUploader());
+
+        image.setPixel(1, 2, 100);
+        image.setPixel(3, 4, 200);
+
+        assertEquals(100, image.getPixel(1, 2));
+        assertEquals(200, image.getPixel(3, 4));
+    }
+
+    @Test
+    public void setPixel_RepeatedColor_PaletteHasOneColor() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        PaletteRGBAImage image = makeImage(palette, new MockBufferUploader());
+
+        image.setPixel(1, 2, 100);
+        image.setPixel(3, 4, 100);
+
+        assertEquals(1, palette.getSize());
+    }
+
+    @Test
+    public void setPixel_OutsideImage_IllegalArgException() {
+        PaletteRGBAImage image = makeImage(new PaletteRGBAImage.Palette(), new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        image.setPixel(5, 0, 100);
+    }
+
+    @Test
+    public void setPixel_NewColorPaletteFull_IllegalStateException() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        for (int color = 0; color < PaletteRGBAImage.Palette.MAX_COLORS; color++) {
+            palette.indexOf(color);
+        }
+
+        PaletteRGBAImage image = makeImage(palette, new MockBufferUploader());
+
+        expectedException.expect(IllegalStateException.class);
+        image.setPixel(0, 0, -1);
+    }
+
+    @Test
+    public void setPixel_ExistingColorPaletteFull_ColorSet() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        for (int color = 0; color < PaletteRGBAImage.Palette.MAX_COLORS; color++) {
+            palette.indexOf(color);
+        }
+
+        PaletteRGBAImage image = makeImage(palette, new MockBufferUploader());
+        image.setPixel(0, 0, 255);
+
+        assertEquals(255, image.getPixel(0, 0));
+    }
+
+    @Test
+    public void getPixel_OutsideImage_IllegalArgException() {
+        PaletteRGBAImage image = makeImage(new PaletteRGBAImage.Palette(), new MockBufferUploader());
+
+        expectedException.expect(IllegalArgumentException.class);
+        image.getPixel(0, 5);
+    }
+
+    @Test
+    public void upload_ColorsSet_RowsExpandedAndUploaded() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        PaletteRGBAImage image = new PaletteRGBAImage(ByteBuffer.allocate(4), new PaletteRGBAImage.Palette(),
+                makeExpanded(4), 2, 2, 1, EMPTY_AREA, uploader);
+        image.setPixel(0, 0, 10);
+        image.setPixel(1, 0, 20);
+        image.setPixel(0, 1, 20);
+        image.setPixel(1, 1, 30);
+
+        image.upload(3, 4);
+
+        assertArrayEquals(new int[] {10, 20, 20, 30}, uploader.getLastPixels());
+        assertEquals(2, uploader.getLastWidth());
+        assertEquals(2, uploader.getLastHeight());
+        assertEquals(1, uploader.getLastMipmapLevel());
+        assertEquals(new Point(3, 4), uploader.getLastUploadPoint());
+    }
+
+    @Test
+    public void upload_ExpansionBufferShared_EachImageUploadsOwnColors() {
+        MockBufferUploader uploader = new MockBufferUploader();
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        IntBuffer expanded = makeExpanded(4);
+        ByteBuffer indices = ByteBuffer.allocate(8);
+        PaletteRGBAImage first = new PaletteRGBAImage(indices, palette, expanded, 2, 2, 0, EMPTY_AREA, uploader);
+        indices.position(4);
+        PaletteRGBAImage second = new PaletteRGBAImage(indices, palette, expanded, 2, 2, 0, EMPTY_AREA, uploader);
+
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 2; x++) {
+                first.setPixel(x, y, 1);
+                second.setPixel(x, y, 2);
+            }
+        }
+
+        first.upload(0, 0);
+        assertArrayEquals(new int[] {1, 1, 1, 1}, uploader.getLastPixels());
+
+        second.upload(0, 0);
+        assertArrayEquals(new int[] {2, 2, 2, 2}, uploader.getLastPixels());
+    }
+
+    @Test
+    public void getColor_NoColorAtIndex_IllegalArgException() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        palette.indexOf(100);
+
+        expectedException.expect(IllegalArgumentException.class);
+        palette.getColor(1);
+    }
+
+    @Test
+    public void indexOf_PaletteFull_NegativeIndex() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        for (int color = 0; color < PaletteRGBAImage.Palette.MAX_COLORS; color++) {
+            assertEquals(color, palette.indexOf(color * 3));
+        }
+
+        assertEquals(-1, palette.indexOf(-1));
+        assertEquals(PaletteRGBAImage.Palette.MAX_COLORS, palette.getSize());
+    }
+
+    @Test
+    public void indexOf_PaletteFull_ExistingColorsFound() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+        for (int color = 0; color < PaletteRGBAImage.Palette.MAX_COLORS; color++) {
+            palette.indexOf(color << 24);
+        }
+
+        for (int color = 0; color < PaletteRGBAImage.Palette.MAX_COLORS; color++) {
+            assertEquals(color, palette.indexOf(color << 24));
+            assertEquals(color << 24, palette.getColor(color));
+        }
+    }
+
+    @Test
+    public void indexOf_ZeroAndNegativeColors_DifferentIndices() {
+        PaletteRGBAImage.Palette palette = new PaletteRGBAImage.Palette();
+
+        assertEquals(0, palette.indexOf(0));
+        assertEquals(1, palette.indexOf(-1));
+        assertEquals(2, palette.indexOf(Integer.MIN_VALUE));
+        assertEquals(0, palette.indexOf(0));
+        assertEquals(1, palette.indexOf(-1));
+        assertEquals(3, palette.getSize());
+    }
+
+    private static PaletteRGBAImage makeImage(PaletteRGBAImage.Palette palette, IBufferUploader uploader) {
+        return new PaletteRGBAImage(ByteBuffer.allocate(25), palette, makeExpanded(25), 5, 5, 0,
+                EMPTY_AREA, uploader);
+    }
+
+    private static IntBuffer makeExpanded(int size) {
+        return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+}
@@ -785,8 +785,160 @@ public class RGBAImageFrameTest {
         }
     }
 
+    @Test
+    public void constructInterpolator_NullClaim_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new RGBAImageFrame.Interpolator(ImmutableList.of(new MockRGBAImage(10, 10)), null);
+    }
+
+    @Test
+    public void constructInterpolator_ClaimHasDifferentLevels_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 1);
+
+        expectedException.expect(IllegalArgumentException.class);
+        new RGBAImageFrame.Interpolator(ImmutableList.of(new MockRGBAImage(10, 10)), claim);
+    }
+
+    @Test
+    public void interpolate_SharedMipmapsFirstUse_StartFrameCopiedOutsideVisibleArea() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        RGBAImageFrame.Interpolator interpolator = makeSharedInterpolator(claim);
+
+        MockRGBAImageFrame startFrame = new MockRGBAImageFrame(10, 10, 0);
+        MockRGBAImageFrame endFrame = new MockRGBAImageFrame(10, 10, 0);
+        startFrame.getImage(0).setPixel(1, 1, toBinary(20, 30, 40, 255));
+        startFrame.getImage(0).setPixel(6, 7, toBinary(251, 113, 66, 76));
+        endFrame.getImage(0).setPixel(6, 7, toBinary(138, 186, 178, 85));
+
+        RGBAImageFrame frame = interpolator.interpolate(10, 3, startFrame, endFrame);
+
+        assertEquals(toBinary(20, 30, 40, 255), frame.getImage(0).getPixel(1, 1));
+        assertEquals(toBinary(217, 134, 99, 76), frame.getImage(0).getPixel(6, 7));
+    }
+
+    @Test
+    public void interpolate_OtherInterpolatorWroteSharedMipmaps_StartFrameCopiedAgain() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        RGBAImageFrame.Interpolator first = makeSharedInterpolator(scratch.newClaim(10, 10, 0));
+        RGBAImageFrame.Interpolator second = makeSharedInterpolator(scratch.newClaim(10, 10, 0));
+
+        MockRGBAImageFrame firstStart = new MockRGBAImageFrame(10, 10, 0);
+        firstStart.getImage(0).setPixel(1, 1, toBinary(20, 30, 40, 255));
+        MockRGBAImageFrame secondStart = new MockRGBAImageFrame(10, 10, 0);
+        secondStart.getImage(0).setPixel(1, 1, toBinary(90, 80, 70, 255));
+        MockRGBAImageFrame end = new MockRGBAImageFrame(10, 10, 0);
+
+        first.interpolate(10, 3, firstStart, end);
+        RGBAImageFrame secondFrame = second.interpolate(10, 3, secondStart, end);
+        assertEquals(toBinary(90, 80, 70, 255), secondFrame.getImage(0).getPixel(1, 1));
+
+        RGBAImageFrame firstFrame = first.interpolate(10, 4, firstStart, end);
+        assertEquals(toBinary(20, 30, 40, 255), firstFrame.getImage(0).getPixel(1, 1));
+    }
+
+    @Test
+    public void interpolate_DifferentFrameSizes_ImagesNotShared() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> firstClaim = scratch.newClaim(10, 10, 0);
+        ScratchBuffers.Claim<MockRGBAImage> secondClaim = scratch.newClaim(8, 8, 0);
+
+        assertNotSame(firstClaim.getImage(0), secondClaim.getImage(0));
+        assertEquals(2, scratch.getBufferCount());
+    }
+
+    @Test
+    public void isLastResultIntact_NotShared_True() {
+        RGBAImageFrame.Interpolator interpolator = new RGBAImageFrame.Interpolator(
+                ImmutableList.of(new MockRGBAImage(10, 10))
+        );
+
+        interpolator.interpolate(10, 3, new MockRGBAImageFrame(10, 10, 0), new MockRGBAImageFrame(10, 10, 0));
+
+        assertTrue(interpolator.isLastResultIntact());
+    }
+
+    @Test
+    public void isLastResultIntact_NoOtherInterpolatorWroteShared_True() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        RGBAImageFrame.Interpolator interpolator = makeSharedInterpolator(scratch.newClaim(10, 10, 0));
+
+        interpolator.interpolate(10, 3, new MockRGBAImageFrame(10, 10, 0), new MockRGBAImageFrame(10, 10, 0));
+
+        assertTrue(interpolator.isLastResultIntact());
+    }
+
+    @Test
+    public void isLastResultIntact_OtherInterpolatorWroteShared_False() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        RGBAImageFrame.Interpolator first = makeSharedInterpolator(scratch.newClaim(10, 10, 0));
+        RGBAImageFrame.Interpolator second = makeSharedInterpolator(scratch.newClaim(10, 10, 0));
+
+        first.interpolate(10, 3, new MockRGBAImageFrame(10, 10, 0), new MockRGBAImageFrame(10, 10, 0));
+        second.interpolate(10, 3, new MockRGBAImageFrame(10, 10, 0), new MockRGBAImageFrame(10, 10, 0));
+
+        assertFalse(first.isLastResultIntact());
+        assertTrue(second.isLastResultIntact());
+    }
+
+    private RGBAImageFrame.Interpolator makeSharedInterpolator(ScratchBuffers.Claim<MockRGBAImage> claim) {
+        IRGBAImage.VisibleArea.Builder areaBuilder = new IRGBAImage.VisibleArea.Builder();
+        areaBuilder.addPixel(6, 7);
+        return new RGBAImageFrame.Interpolator(
+                ImmutableList.of(new ClaimedImage(claim, 10, 10, areaBuilder.build())), claim
+        );
+    }
+
     private int toBinary(int r, int g, int b, int a) {
         return a << 24 | r << 16 | g << 8 | b;
     }
 
-}
\ No newline at end of file
+    /**
+     * An image that reads and writes a shared image, like the adapters for interpolation images.
+     * @author soir20
+     */
+    private static class ClaimedImage implements IRGBAImage {
+        private final ScratchBuffers.Claim<MockRGBAImage> CLAIM;
+        private final int WIDTH;
+        private final int HEIGHT;
+        private final VisibleArea VISIBLE_AREA;
+
+        public ClaimedImage(ScratchBuffers.Claim<MockRGBAImage> claim, int width, int height,
+                            VisibleArea visibleArea) {
+            CLAIM = claim;
+            WIDTH = width;
+            HEIGHT = height;
+            VISIBLE_AREA = visibleArea;
+        }
+
+        @Override
+        public int getPixel(int x, int y) {
+            return CLAIM.getImage(0).getPixel(x, y);
+        }
+
+        @Override
+        public void setPixel(int x, int y, int color) {
+            CLAIM.getImage(0).setPixel(x, y, color);
+        }
+
+        @Override
+        public int getWidth() {
+            return WIDTH;
+        }
+
+        @Override
+        public int getHeight() {
+            return HEIGHT;
+        }
+
+        @Override
+        public VisibleArea getVisibleArea() {
+            return VISIBLE_AREA;
+        }
+
+        @Override
+        public void upload(int uploadX, int uploadY) {}
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link RetainedMemoryComponent}.
+ * @author soir20
+ */
+public class RetainedMemoryComponentTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeBytes_IllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new RetainedMemoryComponent(-1);
+    }
+
+    @Test
+    public void getNativeBytes_InTexture_BytesCounted() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(new MockEvictable(10)).add(new RetainedMemoryComponent(20));
+        EventDrivenTexture texture = builder.build();
+
+        assertEquals(30, texture.getNativeBytes());
+    }
+
+    @Test
+    public void evict_InTexture_BytesStillCounted() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(new MockEvictable(10)).add(new RetainedMemoryComponent(20));
+        EventDrivenTexture texture = builder.build();
+
+        texture.evict();
+
+        assertEquals(20, texture.getNativeBytes());
+    }
+
+    @Test
+    public void isAvailable_InTexture_Available() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame()).add(new RetainedMemoryComponent(20));
+
+        assertTrue(builder.build().isAvailable());
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ScratchBuffers}.
+ * @author soir20
+ */
+public class ScratchBuffersTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullAllocator_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ScratchBuffers<MockRGBAImage>(null, (image) -> {});
+    }
+
+    @Test
+    public void construct_NullCloseAction_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new ScratchBuffers<>(MockRGBAImage::new, null);
+    }
+
+    @Test
+    public void newClaim_ZeroWidth_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        expectedException.expect(IllegalArgumentException.class);
+        scratch.newClaim(0, 10, 0);
+    }
+
+    @Test
+    public void newClaim_ZeroHeight_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        expectedException.expect(IllegalArgumentException.class);
+        scratch.newClaim(10, 0, 0);
+    }
+
+    @Test
+    public void newClaim_NegativeMipmap_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        expectedException.expect(IllegalArgumentException.class);
+        scratch.newClaim(10, 10, -1);
+    }
+
+    @Test
+    public void newClaim_NotUsed_NoImagesCreated() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 2);
+
+        assertEquals(3, claim.getLevelCount());
+        assertEquals(0, scratch.getBufferCount());
+    }
+
+    @Test
+    public void getImage_LevelTooHigh_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 2);
+
+        expectedException.expect(IllegalArgumentException.class);
+        claim.getImage(3);
+    }
+
+    @Test
+    public void getImage_NegativeLevel_IllegalArgException() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 2);
+
+        expectedException.expect(IllegalArgumentException.class);
+        claim.getImage(-1);
+    }
+
+    @Test
+    public void getImage_MipmapLevels_ImagesHaveMipmappedSizes() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(16, 8, 2);
+
+        for (int level = 0; level <= 2; level++) {
+            assertEquals(16 >> level, claim.getImage(level).getWidth());
+            assertEquals(8 >> level, claim.getImage(level).getHeight());
+        }
+    }
+
+    @Test
+    public void getImage_ManyClaimsSameSize_OneImageShared() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        Set<MockRGBAImage> images = new HashSet<>();
+        for (int claimIndex = 0; claimIndex < 50; claimIndex++) {
+            images.add(scratch.newClaim(10, 10, 0).getImage(0));
+        }
+
+        assertEquals(1, images.size());
+        assertEquals(1, scratch.getBufferCount());
+    }
+
+    @Test
+    public void getImage_ClaimsDifferentSizes_ImagesNotShared() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        MockRGBAImage first = scratch.newClaim(10, 10, 0).getImage(0);
+        MockRGBAImage second = scratch.newClaim(10, 12, 0).getImage(0);
+
+        assertNotSame(first, second);
+        assertEquals(2, scratch.getBufferCount());
+    }
+
+    @Test
+    public void getImage_MipmapSameSizeAsOtherFrame_ImageShared() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+
+        MockRGBAImage mipmapped = scratch.newClaim(20, 20, 1).getImage(1);
+        MockRGBAImage original = scratch.newClaim(10, 10, 0).getImage(0);
+
+        assertSame(mipmapped, original);
+    }
+
+    @Test
+    public void acquire_FirstUse_True() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+
+        assertTrue(claim.acquire(0));
+    }
+
+    @Test
+    public void acquire_AlreadyAcquired_False() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.acquire(0);
+
+        assertFalse(claim.acquire(0));
+    }
+
+    @Test
+    public void acquire_OtherClaimAcquiredSince_True() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> first = scratch.newClaim(10, 10, 0);
+        ScratchBuffers.Claim<MockRGBAImage> second = scratch.newClaim(10, 10, 0);
+        first.acquire(0);
+        second.acquire(0);
+
+        assertTrue(first.acquire(0));
+    }
+
+    @Test
+    public void acquire_OtherSizeAcquiredSince_False() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> first = scratch.newClaim(10, 10, 0);
+        ScratchBuffers.Claim<MockRGBAImage> second = scratch.newClaim(12, 10, 0);
+        first.acquire(0);
+        second.acquire(0);
+
+        assertFalse(first.acquire(0));
+    }
+
+    @Test
+    public void isHeld_NeverAcquired_False() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.getImage(0);
+
+        assertFalse(claim.isHeld(0));
+    }
+
+    @Test
+    public void isHeld_Acquired_True() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.acquire(0);
+
+        assertTrue(claim.isHeld(0));
+    }
+
+    @Test
+    public void isHeld_OtherClaimAcquiredSince_False() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> first = scratch.newClaim(10, 10, 0);
+        ScratchBuffers.Claim<MockRGBAImage> second = scratch.newClaim(10, 10, 0);
+        first.acquire(0);
+        second.acquire(0);
+
+        assertFalse(first.isHeld(0));
+        assertTrue(second.isHeld(0));
+    }
+
+    @Test
+    public void trimUnused_UsedSinceLastTrim_ImageKept() {
+        Set<MockRGBAImage> closed = new HashSet<>();
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, closed::add);
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.acquire(0);
+
+        scratch.trimUnused();
+
+        assertTrue(closed.isEmpty());
+        assertEquals(1, scratch.getBufferCount());
+        assertTrue(claim.isHeld(0));
+    }
+
+    @Test
+    public void trimUnused_NotUsedSinceLastTrim_ImageClosed() {
+        Set<MockRGBAImage> closed = new HashSet<>();
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, closed::add);
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.acquire(0);
+        MockRGBAImage image = claim.getImage(0);
+        scratch.trimUnused();
+
+        scratch.trimUnused();
+
+        assertTrue(closed.contains(image));
+        assertEquals(0, scratch.getBufferCount());
+        assertFalse(claim.isHeld(0));
+    }
+
+    @Test
+    public void trimUnused_ClaimUsedAfterTrim_NewImageAcquired() {
+        ScratchBuffers<MockRGBAImage> scratch = new ScratchBuffers<>(MockRGBAImage::new, (image) -> {});
+        ScratchBuffers.Claim<MockRGBAImage> claim = scratch.newClaim(10, 10, 0);
+        claim.acquire(0);
+        MockRGBAImage oldImage = claim.getImage(0);
+        scratch.trimUnused();
+        scratch.trimUnused();
+
+        assertTrue(claim.acquire(0));
+        assertNotSame(oldImage, claim.getImage(0));
+        assertEquals(1, scratch.getBufferCount());
+    }
+
+}
@@ -22,6 +22,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.stream.Stream;
+
 import static org.junit.Assert.*;
 
 public class SpriteUploadComponentTest {
@@ -89,10 +91,29 @@ public class SpriteUploadComponentTest {
     }
 
     @Test
-    public void tick_SecondTick_BoundAndUploaded() {
+    public void tick_SecondTickWithoutChange_NotUploadedAgain() {
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        MockSprite sprite = new MockSprite(new Point(2, 3));
+        builder.add(() -> (new SpriteUploadComponent(sprite)).getListeners());
+
+        MockRGBAImageFrame frame = new MockRGBAImageFrame();
+        builder.setImage(frame);
+        EventDrivenTexture texture = builder.build();
+
+        texture.tick();
+        texture.tick();
+
+        assertEquals(1, sprite.getBindCount());
+        assertEquals(1, frame.getUploadCount());
+    }
+
+    @Test
+    public void tick_SecondTickAfterChange_BoundAndUploaded() {
         EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
         MockSprite sprite = new MockSprite(new Point(2, 3));
         builder.add(() -> (new SpriteUploadComponent(sprite)).getListeners());
+        builder.add(() -> Stream.of(new TextureListener(TextureListener.Type.TICK,
+                EventDrivenTexture.TextureState::markNeedsUpload)));
 
         MockRGBAImageFrame frame = new MockRGBAImageFrame();
         builder.setImage(frame);
@@ -108,4 +129,4 @@ public class SpriteUploadComponentTest {
         assertEquals(new Point(0, 0), ((MockRGBAImage) frame.getImage(2)).getLastUploadPoint());
     }
 
-}
\ No newline at end of file
+}
@@ -17,16 +17,22 @@
 
 package io.github.soir20.moremcmeta.client.texture;
 
+import io.github.soir20.moremcmeta.client.resource.StageTimings;
 import io.github.soir20.moremcmeta.math.Point;
 import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -44,6 +50,102 @@ public class TextureFinisherTest {
         new TextureFinisher(null);
     }
 
+    @Test
+    public void buildFinisher_NullSpriteFinder_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TextureFinisher.Builder(null);
+    }
+
+    @Test
+    public void buildFinisher_NullBudget_NullPointerException() {
+        TextureFinisher.Builder builder = new TextureFinisher.Builder(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        expectedException.expect(NullPointerException.class);
+        builder.setBudget(null);
+    }
+
+    @Test
+    public void buildFinisher_NullTimings_NullPointerException() {
+        TextureFinisher.Builder builder = new TextureFinisher.Builder(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        expectedException.expect(NullPointerException.class);
+        builder.setTimings(null);
+    }
+
+    @Test
+    public void buildFinisher_NullUploadScheduler_NullPointerException() {
+        TextureFinisher.Builder builder = new TextureFinisher.Builder(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        expectedException.expect(NullPointerException.class);
+        builder.setUploadScheduler(null);
+    }
+
+    @Test
+    public void finish_NothingQueued_FinishTimeRecorded() {
+        StageTimings timings = new StageTimings();
+        TextureFinisher finisher = new TextureFinisher.Builder(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        ).setBudget(new NativeMemoryBudget(100, 0, LogManager.getLogger())).setTimings(timings).build();
+
+        finisher.finish();
+
+        assertEquals(1, timings.getCount("finish"));
+        assertEquals(0, timings.getCount("findSprite"));
+    }
+
+    @Test
+    public void finish_SubStagesTimed_SubStagesNotCountedInFinish() {
+        StageTimings timings = new StageTimings();
+        TextureFinisher finisher = new TextureFinisher.Builder(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException err) {
+                        throw new IllegalStateException(err);
+                    }
+
+                    return Optional.empty();
+                })
+        ).setTimings(timings).build();
+
+        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+        builder.setImage(new MockRGBAImageFrame());
+        finisher.queue(new ResourceLocation("dummy"), builder);
+        finisher.finish();
+
+        assertTrue(timings.getTotalNanos("findSprite") >= 50000000L);
+        assertTrue(timings.getTotalNanos("finish") < timings.getTotalNanos("findSprite"));
+    }
+
+    @Test
+    public void finish_NegativeTime_IllegalArgException() {
+        TextureFinisher finisher = new TextureFinisher(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        expectedException.expect(IllegalArgumentException.class);
+        finisher.finish(-1);
+    }
+
+    @Test
+    public void hasQueued_NothingQueued_False() {
+        TextureFinisher finisher = new TextureFinisher(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        assertFalse(finisher.hasQueued());
+    }
+
+    @Test
+    public void hasQueued_TextureQueued_True() {
+        TextureFinisher finisher = new TextureFinisher(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+        finisher.queue(new ResourceLocation("dummy"), new EventDrivenTexture.Builder());
+        assertTrue(finisher.hasQueued());
+    }
+
     @Test
     public void queue_NullLocation_NullPointerException() {
         TextureFinisher finisher = new TextureFinisher(
@@ -139,4 +241,78 @@ public class TextureFinisherTest {
         assertTrue(finisher.finish().isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void queueAndFinish_ManyProducerThreads_AllFinishedOnce() throws InterruptedException {
+        int threads = 4;
+        int texturesPerThread = 250;
+
+        TextureFinisher finisher = new TextureFinisher(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int threadIndex = thread;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int texture = 0; texture < texturesPerThread; texture++) {
+                        EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+                        builder.setImage(new MockRGBAImageFrame());
+                        finisher.queue(new ResourceLocation("textures/" + threadIndex + "_" + texture + ".png"),
+                                builder);
+                    }
+                } catch (Throwable err) {
+                    error.set(err);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        // Finish on this thread while the producers queue textures
+        start.countDown();
+        List<ResourceLocation> finished = new ArrayList<>();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            finished.addAll(finisher.finish(0).keySet());
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        while (finisher.hasQueued()) {
+            finished.addAll(finisher.finish(0).keySet());
+        }
+
+        assertNull(error.get());
+        assertEquals(threads * texturesPerThread, finished.size());
+        assertEquals(threads * texturesPerThread, new HashSet<>(finished).size());
+    }
+
+    @Test
+    public void finish_MoreThanOneBatchQueued_FinishedInQueueOrder() {
+        TextureFinisher finisher = new TextureFinisher(
+                new SpriteFinder((atlasLocation) -> (spriteLocation) -> Optional.empty())
+        );
+
+        List<ResourceLocation> queued = new ArrayList<>();
+        for (int texture = 0; texture < 100; texture++) {
+            ResourceLocation location = new ResourceLocation("textures/" + texture + ".png");
+            EventDrivenTexture.Builder builder = new EventDrivenTexture.Builder();
+            builder.setImage(new MockRGBAImageFrame());
+            finisher.queue(location, builder);
+            queued.add(location);
+        }
+
+        List<ResourceLocation> finished = new ArrayList<>();
+        while (finisher.hasQueued()) {
+            finished.addAll(finisher.finish(0).keySet());
+        }
+
+        assertEquals(queued, finished);
+    }
+
+}
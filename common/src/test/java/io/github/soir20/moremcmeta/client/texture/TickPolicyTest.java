@@ -0,0 +1,160 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link TickPolicy}.
+ * @author soir20
+ */
+public class TickPolicyTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NullSuspensionCheck_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TickPolicy(null, () -> true, 4, (ticks) -> {});
+    }
+
+    @Test
+    public void construct_NullFocusCheck_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TickPolicy(() -> false, null, 4, (ticks) -> {});
+    }
+
+    @Test
+    public void construct_ZeroInterval_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new TickPolicy(() -> false, () -> true, 0, (ticks) -> {});
+    }
+
+    @Test
+    public void construct_NegativeInterval_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new TickPolicy(() -> false, () -> true, -1, (ticks) -> {});
+    }
+
+    @Test
+    public void construct_NullAction_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new TickPolicy(() -> false, () -> true, 4, null);
+    }
+
+    @Test
+    public void tick_Focused_OneTickEachTime() {
+        List<Integer> ticks = new ArrayList<>();
+        TickPolicy policy = new TickPolicy(() -> false, () -> true, 4, ticks::add);
+
+        policy.tick();
+        policy.tick();
+        policy.tick();
+
+        assertEquals(Arrays.asList(1, 1, 1), ticks);
+    }
+
+    @Test
+    public void tick_Suspended_NoAnimationTicks() {
+        List<Integer> ticks = new ArrayList<>();
+        TickPolicy policy = new TickPolicy(() -> true, () -> true, 4, ticks::add);
+
+        policy.tick();
+        policy.tick();
+
+        assertEquals(Arrays.asList(0, 0), ticks);
+    }
+
+    @Test
+    public void tick_Unfocused_SkippedTicksPassedAtInterval() {
+        List<Integer> ticks = new ArrayList<>();
+        TickPolicy policy = new TickPolicy(() -> false, () -> false, 3, ticks::add);
+
+        for (int tick = 0; tick < 6; tick++) {
+            policy.tick();
+        }
+
+        assertEquals(Arrays.asList(0, 0, 3, 0, 0, 3), ticks);
+    }
+
+    @Test
+    public void tick_UnfocusedIntervalOne_OneTickEachTime() {
+        List<Integer> ticks = new ArrayList<>();
+        TickPolicy policy = new TickPolicy(() -> false, () -> false, 1, ticks::add);
+
+        policy.tick();
+        policy.tick();
+
+        assertEquals(Arrays.asList(1, 1), ticks);
+    }
+
+    @Test
+    public void tick_FocusedAfterUnfocused_PendingTicksPassedImmediately() {
+        List<Integer> ticks = new ArrayList<>();
+        AtomicBoolean isFocused = new AtomicBoolean(false);
+        TickPolicy policy = new TickPolicy(() -> false, isFocused::get, 4, ticks::add);
+
+        policy.tick();
+        policy.tick();
+        isFocused.set(true);
+        policy.tick();
+        policy.tick();
+
+        assertEquals(Arrays.asList(0, 0, 3, 1), ticks);
+    }
+
+    @Test
+    public void tick_ResumedWhileUnfocused_TickPassedImmediately() {
+        List<Integer> ticks = new ArrayList<>();
+        AtomicBoolean isSuspended = new AtomicBoolean(true);
+        TickPolicy policy = new TickPolicy(isSuspended::get, () -> false, 4, ticks::add);
+
+        policy.tick();
+        isSuspended.set(false);
+        policy.tick();
+        policy.tick();
+
+        assertEquals(Arrays.asList(0, 1, 0), ticks);
+    }
+
+    @Test
+    public void tick_SuspendedWhileUnfocused_SuspendedTicksNotCounted() {
+        List<Integer> ticks = new ArrayList<>();
+        AtomicBoolean isSuspended = new AtomicBoolean(false);
+        TickPolicy policy = new TickPolicy(isSuspended::get, () -> false, 4, ticks::add);
+
+        policy.tick();
+        isSuspended.set(true);
+        policy.tick();
+        policy.tick();
+        isSuspended.set(false);
+        policy.tick();
+
+        assertEquals(Arrays.asList(0, 0, 0, 2), ticks);
+    }
+
+}
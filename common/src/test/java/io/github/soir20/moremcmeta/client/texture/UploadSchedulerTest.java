@@ -0,0 +1,238 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.texture;
+
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link UploadScheduler}.
+ * @author soir20
+ */
+public class UploadSchedulerTest {
+    private static final long UPLOAD_NANOS = 10;
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void construct_NegativeTime_IllegalArgException() {
+        expectedException.expect(IllegalArgumentException.class);
+        new UploadScheduler(-1, LogManager.getLogger());
+    }
+
+    @Test
+    public void construct_NullLogger_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new UploadScheduler(10, null);
+    }
+
+    @Test
+    public void construct_NullClock_NullPointerException() {
+        expectedException.expect(NullPointerException.class);
+        new UploadScheduler(10, LogManager.getLogger(), null);
+    }
+
+    @Test
+    public void schedule_NullOwner_NullPointerException() {
+        UploadScheduler scheduler = new UploadScheduler(10, LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        scheduler.schedule(null, () -> {}, () -> {});
+    }
+
+    @Test
+    public void schedule_NullBindAction_NullPointerException() {
+        UploadScheduler scheduler = new UploadScheduler(10, LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        scheduler.schedule(1, null, () -> {});
+    }
+
+    @Test
+    public void schedule_NullUpload_NullPointerException() {
+        UploadScheduler scheduler = new UploadScheduler(10, LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        scheduler.schedule(1, () -> {}, null);
+    }
+
+    @Test
+    public void schedule_TimeLeft_UploadedImmediatelyWithoutRebinding() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(3 * UPLOAD_NANOS, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> events.add("bind"), upload(clock, events, "upload"));
+
+        assertEquals(1, events.size());
+        assertEquals("upload", events.get(0));
+        assertEquals(0, scheduler.getDeferredCount());
+    }
+
+    @Test
+    public void schedule_OutOfTime_UploadDeferred() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(2 * UPLOAD_NANOS, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> {}, upload(clock, events, "1"));
+        scheduler.schedule(2, () -> {}, upload(clock, events, "2"));
+        scheduler.schedule(3, () -> {}, upload(clock, events, "3"));
+
+        assertEquals(2, events.size());
+        assertEquals(1, scheduler.getDeferredCount());
+        assertEquals(1, scheduler.getTotalDeferred());
+    }
+
+    @Test
+    public void schedule_OwnerAlreadyDeferred_DeferredOnce() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> {}, upload(clock, events, "1"));
+        scheduler.schedule(2, () -> {}, upload(clock, events, "2"));
+        scheduler.schedule(2, () -> {}, upload(clock, events, "2"));
+
+        assertTrue(events.isEmpty());
+        assertEquals(2, scheduler.getDeferredCount());
+        assertEquals(2, scheduler.getTotalDeferred());
+    }
+
+    @Test
+    public void startFrame_UploadsDeferred_BoundBeforeUploading() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(UPLOAD_NANOS, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> events.add("bind 1"), upload(clock, events, "upload 1"));
+        scheduler.schedule(2, () -> events.add("bind 2"), upload(clock, events, "upload 2"));
+        scheduler.startFrame();
+
+        assertEquals(3, events.size());
+        assertEquals("bind 2", events.get(1));
+        assertEquals("upload 2", events.get(2));
+    }
+
+    @Test
+    public void startFrame_ManyDeferred_DeferredRunInOrderWithinTime() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(2 * UPLOAD_NANOS, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        for (int owner = 1; owner <= 6; owner++) {
+            scheduler.schedule(owner, () -> {}, upload(clock, events, String.valueOf(owner)));
+        }
+
+        scheduler.startFrame();
+        assertEquals(4, events.size());
+        assertEquals("3", events.get(2));
+        assertEquals("4", events.get(3));
+        assertEquals(2, scheduler.getDeferredCount());
+        assertEquals(4, scheduler.getDeferredLastFrame());
+
+        scheduler.startFrame();
+        assertEquals(6, events.size());
+        assertEquals("6", events.get(5));
+        assertEquals(0, scheduler.getDeferredCount());
+        assertEquals(0, scheduler.getDeferredLastFrame());
+    }
+
+    @Test
+    public void startFrame_NoTimeAllowed_OneDeferredRunEachFrame() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        for (int owner = 1; owner <= 3; owner++) {
+            scheduler.schedule(owner, () -> {}, upload(clock, events, String.valueOf(owner)));
+        }
+
+        assertTrue(events.isEmpty());
+        scheduler.startFrame();
+        assertEquals(1, events.size());
+        scheduler.startFrame();
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void schedule_EarlierUploadsStillDeferred_NewUploadWaitsItsTurn() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(UPLOAD_NANOS, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> {}, upload(clock, events, "1"));
+        scheduler.schedule(2, () -> {}, upload(clock, events, "2"));
+        scheduler.schedule(3, () -> {}, upload(clock, events, "3"));
+
+        // Owner 2 runs, but owner 3 is still waiting
+        scheduler.startFrame();
+        scheduler.schedule(1, () -> {}, upload(clock, events, "1 again"));
+
+        assertEquals(2, events.size());
+        assertEquals(2, scheduler.getDeferredCount());
+
+        scheduler.startFrame();
+        assertEquals("3", events.get(2));
+    }
+
+    @Test
+    public void cancel_UploadDeferred_NeverRuns() {
+        AtomicLong clock = new AtomicLong();
+        UploadScheduler scheduler = new UploadScheduler(0, LogManager.getLogger(), clock::get);
+        List<String> events = new ArrayList<>();
+
+        scheduler.schedule(1, () -> {}, upload(clock, events, "1"));
+        scheduler.schedule(2, () -> {}, upload(clock, events, "2"));
+        scheduler.cancel(2);
+        scheduler.startFrame();
+
+        assertEquals(1, events.size());
+        assertEquals("1", events.get(0));
+        assertEquals(0, scheduler.getDeferredCount());
+    }
+
+    @Test
+    public void cancel_NullOwner_NullPointerException() {
+        UploadScheduler scheduler = new UploadScheduler(10, LogManager.getLogger());
+        expectedException.expect(NullPointerException.class);
+        scheduler.cancel(null);
+    }
+
+    /**
+     * Creates an upload that takes a fixed amount of time.
+     * @param clock     fake clock to advance
+     * @param events    list to record the upload in
+     * @param name      name of the upload
+     * @return the upload
+     */
+    private Runnable upload(AtomicLong clock, List<String> events, String name) {
+        return () -> {
+            events.add(name);
+            clock.addAndGet(UPLOAD_NANOS);
+        };
+    }
+
+}
@@ -18,7 +18,9 @@
 package io.github.soir20.moremcmeta.client.texture;
 
 import io.github.soir20.moremcmeta.math.Point;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -31,6 +33,8 @@ import static org.junit.Assert.*;
  * @author soir20
  */
 public class VisibleAreaTest {
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
 
     @Test
     public void buildVisibleArea_NoPoints_Empty() {
@@ -261,4 +265,66 @@ public class VisibleAreaTest {
         assertTrue(areaPoints.containsAll(points));
         assertEquals(points.size(), areaPoints.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getRows_NoPoints_Empty() {
+        IRGBAImage.VisibleArea area = (new IRGBAImage.VisibleArea.Builder()).build();
+        assertTrue(area.getRows().isEmpty());
+    }
+
+    @Test
+    public void getRows_AdjacentPoints_CombinedIntoRows() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addPixel(3, 1);
+        builder.addPixel(1, 1);
+        builder.addPixel(2, 1);
+        builder.addPixel(5, 1);
+        builder.addPixel(0, 4);
+
+        IRGBAImage.VisibleArea area = builder.build();
+
+        List<Point> rowStarts = new ArrayList<>();
+        int totalWidth = 0;
+        for (IRGBAImage.VisibleArea.VisibleRow row : area.getRows()) {
+            rowStarts.add(new Point(row.getX(), row.getY()));
+            totalWidth += row.getWidth();
+        }
+
+        assertEquals(3, rowStarts.size());
+        assertTrue(rowStarts.contains(new Point(1, 1)));
+        assertTrue(rowStarts.contains(new Point(5, 1)));
+        assertTrue(rowStarts.contains(new Point(0, 4)));
+        assertEquals(5, totalWidth);
+    }
+
+    @Test
+    public void addRow_ZeroWidth_IllegalArgException() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        expectedException.expect(IllegalArgumentException.class);
+        builder.addRow(0, 0, 0);
+    }
+
+    @Test
+    public void addRow_OverlappingRowsAndPixels_PointsAddedOnce() {
+        IRGBAImage.VisibleArea.Builder builder = new IRGBAImage.VisibleArea.Builder();
+        builder.addRow(2, 1, 3);
+        builder.addRow(3, 1, 4);
+        builder.addPixel(4, 1);
+        builder.addPixel(7, 1);
+        builder.addRow(10, 1, 2);
+
+        IRGBAImage.VisibleArea area = builder.build();
+
+        List<Point> areaPoints = new ArrayList<>();
+        for (Point point : area) {
+            areaPoints.add(point);
+        }
+
+        assertEquals(8, areaPoints.size());
+        assertEquals(8, new HashSet<>(areaPoints).size());
+        assertEquals(2, area.getRows().size());
+        assertTrue(areaPoints.contains(new Point(2, 1)));
+        assertTrue(areaPoints.contains(new Point(7, 1)));
+        assertTrue(areaPoints.contains(new Point(11, 1)));
+    }
+}
@@ -17,11 +17,14 @@
 
 package io.github.soir20.moremcmeta;
 
+import com.google.common.collect.ImmutableList;
+import io.github.soir20.moremcmeta.client.event.FrameStartCallback;
 import io.github.soir20.moremcmeta.client.event.ResourceManagerInitializedCallback;
 import io.github.soir20.moremcmeta.client.mixin.MinecraftAccessor;
 import io.github.soir20.moremcmeta.client.mixin.TextureManagerAccessor;
 import io.github.soir20.moremcmeta.client.resource.SizeSwappingResourceManager;
 import io.github.soir20.moremcmeta.client.resource.TextureLoader;
+import io.github.soir20.moremcmeta.client.texture.CustomTickable;
 import io.github.soir20.moremcmeta.client.texture.EventDrivenTexture;
 import io.github.soir20.moremcmeta.client.texture.LazyTextureManager;
 import net.fabricmc.api.ClientModInitializer;
@@ -104,9 +107,14 @@ public class MoreMcmetaFabric extends MoreMcmeta implements ClientModInitializer
                                                                                              ProfilerFiller profiler,
                                                                                              Executor executor) {
                 return CompletableFuture.supplyAsync(() -> {
+                    profiler.startTick();
                     Map<ResourceLocation, EventDrivenTexture.Builder> textures = new HashMap<>();
-                    textures.putAll(loader.load(manager, "textures"));
-                    textures.putAll(loader.load(manager, "optifine"));
+
+                    profiler.push("textures");
+                    textures.putAll(loader.load(manager, ImmutableList.of("textures", "optifine"), profiler));
+                    profiler.pop();
+
+                    profiler.endTick();
                     return textures;
                 }, executor);
             }
@@ -115,11 +123,18 @@ public class MoreMcmetaFabric extends MoreMcmeta implements ClientModInitializer
             public CompletableFuture<Void> apply(Map<ResourceLocation, EventDrivenTexture.Builder> data,
                                                  ResourceManager manager, ProfilerFiller profiler, Executor executor) {
                 return CompletableFuture.runAsync(() -> {
+                    profiler.startTick();
+
+                    profiler.push("unregister");
                     LAST_TEXTURES_ADDED.keySet().forEach(texManager::unregister);
                     LAST_TEXTURES_ADDED.clear();
                     LAST_TEXTURES_ADDED.putAll(data);
 
+                    profiler.popPush("register");
                     data.forEach(texManager::register);
+                    profiler.pop();
+
+                    profiler.endTick();
                 }, executor);
             }
         };
@@ -139,12 +154,21 @@ public class MoreMcmetaFabric extends MoreMcmeta implements ClientModInitializer
     }
 
     /**
-     * Begins ticking the {@link LazyTextureManager} on Fabric.
-     * @param texManager        the manager to begin ticking
+     * Begins ticking items, such as the {@link LazyTextureManager}, on Fabric.
+     * @param tickables         the items to tick in order at the start of each client tick
+     */
+    @Override
+    public void startTicking(ImmutableList<CustomTickable> tickables) {
+        ClientTickEvents.START_CLIENT_TICK.register((client) -> tickables.forEach(CustomTickable::tick));
+    }
+
+    /**
+     * Executes an action at the start of every rendered frame on Fabric.
+     * @param action        the action to execute on the render thread
      */
     @Override
-    public void startTicking(LazyTextureManager<EventDrivenTexture.Builder, EventDrivenTexture> texManager) {
-        ClientTickEvents.START_CLIENT_TICK.register((client) -> texManager.tick());
+    public void onFrameStart(Runnable action) {
+        FrameStartCallback.EVENT.register(action::run);
     }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.event;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+
+/**
+ * Holds an event that is sent at the start of every rendered frame.
+ * @author soir20
+ */
+public interface FrameStartCallback {
+    Event<FrameStart> EVENT = EventFactory.createArrayBacked(FrameStart.class,
+            (callbacks) -> () -> {
+        for (FrameStart callback : callbacks) {
+            callback.onFrameStart();
+        }
+    });
+
+    /**
+     * A listener that is executed at the start of every rendered frame.
+     * @author soir20
+     */
+    @FunctionalInterface
+    interface FrameStart {
+
+        /**
+         * Called on the render thread before anything in the frame is rendered.
+         */
+        void onFrameStart();
+
+    }
+
+}
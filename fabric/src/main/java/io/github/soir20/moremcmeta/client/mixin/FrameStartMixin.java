@@ -0,0 +1,46 @@
+/*
+ * MoreMcmeta is a Minecraft mod expanding texture animation capabilities.
+ * Copyright (C) 2021 soir20
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.github.soir20.moremcmeta.client.mixin;
+
+import io.github.soir20.moremcmeta.client.event.FrameStartCallback;
+import net.minecraft.client.Minecraft;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Fires an event at the start of every rendered frame on Fabric.
+ * @author soir20
+ */
+@Mixin(Minecraft.class)
+@SuppressWarnings("unused")
+public class FrameStartMixin {
+
+    /**
+     * Injects a callback at the start of every rendered frame on Fabric.
+     * @param renderLevel   whether the level is rendered in this frame
+     * @param info          information about the callback
+     */
+    @Inject(at = @At("HEAD"), method = "runTick(Z)V")
+    public void onFrameStart(boolean renderLevel, CallbackInfo info) {
+        FrameStartCallback.EVENT.invoker().onFrameStart();
+    }
+
+}
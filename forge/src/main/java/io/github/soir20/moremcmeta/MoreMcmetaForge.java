@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import io.github.soir20.moremcmeta.client.event.ClientTicker;
 import io.github.soir20.moremcmeta.client.resource.SizeSwappingResourceManager;
 import io.github.soir20.moremcmeta.client.resource.TextureLoader;
+import io.github.soir20.moremcmeta.client.texture.CustomTickable;
 import io.github.soir20.moremcmeta.client.texture.EventDrivenTexture;
 import io.github.soir20.moremcmeta.client.texture.LazyTextureManager;
 import net.minecraft.client.Minecraft;
@@ -28,9 +29,13 @@ import net.minecraft.client.renderer.texture.TextureManager;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.PreparableReloadListener;
 import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.Unit;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ExtensionPoint;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -42,6 +47,7 @@ import net.minecraftforge.fml.loading.FMLEnvironment;
 import net.minecraftforge.fml.network.FMLNetworkConstants;
 import net.minecraftforge.resource.IResourceType;
 import net.minecraftforge.resource.ISelectiveResourceReloadListener;
+import net.minecraftforge.resource.SelectiveReloadStateHandler;
 import net.minecraftforge.resource.VanillaResourceType;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.Logger;
@@ -49,6 +55,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -131,20 +139,51 @@ public final class MoreMcmetaForge extends MoreMcmeta {
         return new ISelectiveResourceReloadListener() {
             private final Map<ResourceLocation, EventDrivenTexture.Builder> LAST_TEXTURES_ADDED = new HashMap<>();
 
+            @Override
+            public CompletableFuture<Void> reload(PreparationBarrier stage, ResourceManager manager,
+                                                  ProfilerFiller prepareProfiler, ProfilerFiller applyProfiler,
+                                                  Executor backgroundExecutor, Executor gameExecutor) {
+
+                // Same as the default implementation, except the profiler is passed along
+                return stage.wait(Unit.INSTANCE).thenRunAsync(() -> {
+                    applyProfiler.startTick();
+                    applyProfiler.push("listener");
+                    reloadTextures(manager, SelectiveReloadStateHandler.INSTANCE.get(), applyProfiler);
+                    applyProfiler.pop();
+                    applyProfiler.endTick();
+                }, gameExecutor);
+
+            }
+
             @Override
             public void onResourceManagerReload(@NotNull ResourceManager manager,
                                                 @NotNull Predicate<IResourceType> predicate) {
+                reloadTextures(manager, predicate, InactiveProfiler.INSTANCE);
+            }
+
+            /**
+             * Loads and registers textures if textures are being reloaded.
+             * @param manager       the game's resource manager
+             * @param predicate     tests which resource types are being reloaded
+             * @param profiler      profiler for the current reload
+             */
+            private void reloadTextures(ResourceManager manager, Predicate<IResourceType> predicate,
+                                        ProfilerFiller profiler) {
 
                 if (predicate.test(VanillaResourceType.TEXTURES)) {
                     Map<ResourceLocation, EventDrivenTexture.Builder> textures = new HashMap<>();
-                    textures.putAll(loader.load(manager, "textures"));
-                    textures.putAll(loader.load(manager, "optifine"));
 
+                    profiler.push("textures");
+                    textures.putAll(loader.load(manager, ImmutableList.of("textures", "optifine"), profiler));
+
+                    profiler.popPush("unregister");
                     LAST_TEXTURES_ADDED.keySet().forEach(texManager::unregister);
                     LAST_TEXTURES_ADDED.clear();
                     LAST_TEXTURES_ADDED.putAll(textures);
 
+                    profiler.popPush("register");
                     textures.forEach(texManager::register);
+                    profiler.pop();
                 }
             }
         };
@@ -192,12 +231,26 @@ public final class MoreMcmetaForge extends MoreMcmeta {
     }
 
     /**
-     * Begins ticking the {@link LazyTextureManager} on Forge.
-     * @param texManager        the manager to begin ticking
+     * Begins ticking items, such as the {@link LazyTextureManager}, on Forge.
+     * @param tickables         the items to tick in order at the start of each client tick
+     */
+    @Override
+    public void startTicking(ImmutableList<CustomTickable> tickables) {
+        new ClientTicker(tickables, MinecraftForge.EVENT_BUS, TickEvent.Phase.START, () -> true);
+    }
+
+    /**
+     * Executes an action at the start of every rendered frame on Forge.
+     * @param action        the action to execute on the render thread
      */
     @Override
-    public void startTicking(LazyTextureManager<EventDrivenTexture.Builder, EventDrivenTexture> texManager) {
-        new ClientTicker(ImmutableList.of(texManager), MinecraftForge.EVENT_BUS, TickEvent.Phase.START, () -> true);
+    public void onFrameStart(Runnable action) {
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.NORMAL, false, TickEvent.RenderTickEvent.class,
+                (event) -> {
+                    if (event.phase == TickEvent.Phase.START) {
+                        action.run();
+                    }
+                });
     }
 
 }